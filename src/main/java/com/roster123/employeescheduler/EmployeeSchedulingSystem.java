@@ -1,36 +1,54 @@
 package com.roster123.employeescheduler;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
 import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
 
 import com.google.common.base.CharMatcher;
-import com.opencsv.CSVWriter;
 import com.opencsv.bean.CsvToBeanBuilder;
 
 import org.apache.commons.collections4.ListUtils;
+import org.javatuples.Pair;
 import org.javatuples.Triplet;
 import org.optaplanner.core.api.score.ScoreExplanation;
 import org.optaplanner.core.api.score.ScoreManager;
 import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.score.constraint.ConstraintMatchTotal;
 import org.optaplanner.core.api.solver.Solver;
 import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.exhaustivesearch.ExhaustiveSearchPhaseConfig;
+import org.optaplanner.core.config.exhaustivesearch.ExhaustiveSearchType;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
 import org.optaplanner.core.config.solver.SolverConfig;
 import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.io.jaxb.SolverConfigIO;
+import org.optaplanner.core.impl.solver.DefaultSolver;
 
 import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.events.*;
 import com.roster123.employeescheduler.exceptions.*;
 import com.roster123.employeescheduler.loaders.*;
+import com.roster123.employeescheduler.solver.*;
+import com.roster123.employeescheduler.writers.*;
 
 /**
  * main class for running module.
@@ -38,6 +56,40 @@ import com.roster123.employeescheduler.loaders.*;
  * Only custom checked exceptions should be thrown when using this class (no asserts in classes it uses, etc, even if invalid user input)
  */
 public class EmployeeSchedulingSystem{
+    /**
+     * by default, search exhaustively when there are at most this many possible allocations (e.g. 3 shifts and 20 employees).
+     * 
+     * Exhaustive search checks around 10000 allocations per second, so this takes around a second
+     */
+    public static final long DEFAULT_EXHAUSTIVE_SEARCH_MAXIMUM_SEARCH_SPACE = 10000L;
+
+    /**
+     * the weeks in each window, and the weeks each window shares with the last, for the --rolling-horizon command line option
+     */
+    private static final int ROLLING_HORIZON_WINDOW_WEEKS = 4;
+    private static final int ROLLING_HORIZON_OVERLAP_WEEKS = 1;
+
+    /**
+     * the seconds to keep searching a provably infeasible roster without finding a better allocation, rather than the full solving time
+     */
+    private static final long INFEASIBLE_UNIMPROVED_SECONDS_SPENT_LIMIT = 5L;
+
+    /**
+     * the directory (in the user's home directory) of the caches used by the command line options
+     */
+    private static final String CACHE_DIRECTORY_NAME = ".employee_scheduling_system";
+
+    /**
+     * the most solved rosters to keep, and how long to keep them since last used, for the --result-cache command line option
+     */
+    private static final int RESULT_CACHE_MAXIMUM_ENTRY_COUNT = 100;
+    private static final Duration RESULT_CACHE_MAXIMUM_AGE = Duration.ofDays(7);
+
+    /**
+     * the fewest employees to normalise the availabilities of on each thread, since smaller batches aren't worth handing to another thread
+     */
+    private static final int MINIMUM_NORMALISATION_BATCH_SIZE = 64;
+
     /**
      * collection of employees
      */
@@ -61,6 +113,71 @@ public class EmployeeSchedulingSystem{
      */
     private List<Shift> allocatedShifts;
 
+    /**
+     * if not null, the file every new feasible best solution is written to whilst solving (null to only get the allocations at the end)
+     */
+    private Path bestSolutionStreamingPath;
+
+    /**
+     * whether to calculate scores with AllocationsIncrementalScoreCalculator instead of the score calculation in the solver config file (AllocationsConstraintProvider by default)
+     */
+    private boolean useIncrementalScoreCalculator;
+
+    /**
+     * whether to scale the time spent solving with the size of the roster (see AdaptiveTerminationPolicy), rather than using the termination in the solver config file
+     */
+    private boolean useAdaptiveTermination;
+
+    /**
+     * the number of differently configured solvers to race at the same time (see SolverPortfolio), 1 to solve with a single solver
+     */
+    private int portfolioSize = 1;
+
+    /**
+     * whether to search each week of shifts separately before searching all of them (see WeekPartitioner)
+     */
+    private boolean usePartitionedSearch;
+
+    /**
+     * the number of weeks to solve at a time (see RollingHorizon), 0 to solve all the shifts at once
+     */
+    private int rollingHorizonWindowWeeks;
+
+    /**
+     * the number of weeks each rolling horizon window shares with the last
+     */
+    private int rollingHorizonOverlapWeeks;
+
+    /**
+     * the cache of employees and shifts parsed from CSV strings (null if not caching)
+     */
+    private ParseCache parseCache;
+
+    /**
+     * the cache of allocations solved by allocateShifts (null if not caching)
+     */
+    private AllocationsResultCache resultCache;
+
+    /**
+     * the result of checking whether the hard constraints can be satisfied, from the last time allocateShifts was run (null if it hasn't been run)
+     */
+    private FeasibilityReport feasibilityReport;
+
+    /**
+     * the best score any allocation could get, from the last time allocateShifts was run (null if it hasn't been run)
+     */
+    private HardMediumSoftScore scoreBound;
+
+    /**
+     * the largest number of possible allocations (see getSearchSpaceSize) to search exhaustively for the best allocation, rather than using the phases in the solver config file
+     */
+    private long exhaustiveSearchMaximumSearchSpace = DEFAULT_EXHAUSTIVE_SEARCH_MAXIMUM_SEARCH_SPACE;
+
+    /**
+     * the pool availability files are parsed on, and employees' availabilities are normalised on
+     */
+    private ForkJoinPool availabilityForkJoinPool = ForkJoinPool.commonPool();
+
     /**
      * empty option loads from database
      */
@@ -70,10 +187,134 @@ public class EmployeeSchedulingSystem{
         allocatedShifts = new ArrayList<>();
     }
 
+    /**
+     * set a file to write each new feasible best solution to whilst allocateShifts is running, so a usable allocation is available before the solver terminates.
+     * 
+     * Each write is atomic, and comes with a sidecar file (the file name with ".score" appended) with the score and time of the solution
+     * @param bestSolutionStreamingPath the allocations CSV file to write to, or null to turn off
+     */
+    public void setBestSolutionStreamingPath(Path bestSolutionStreamingPath){
+        this.bestSolutionStreamingPath = bestSolutionStreamingPath;
+    }
+
+    /**
+     * set whether allocateShifts calculates scores with the hand-written AllocationsIncrementalScoreCalculator, rather than the score calculation configured in the solver config file.
+     * 
+     * Both give the same scores - the incremental score calculator is faster for large rosters, whilst the constraint provider is easier to change
+     * @param useIncrementalScoreCalculator whether to use the incremental score calculator
+     */
+    public void setUseIncrementalScoreCalculator(boolean useIncrementalScoreCalculator){
+        this.useIncrementalScoreCalculator = useIncrementalScoreCalculator;
+    }
+
+    /**
+     * set whether allocateShifts scales the time spent solving with the size of the roster, with separate budgets for reaching feasibility and improving the score
+     * (see AdaptiveTerminationPolicy), rather than using the termination in the solver config file.
+     * 
+     * A termination given to allocateShifts or allocateShiftsWithTermination is used instead
+     * @param useAdaptiveTermination whether to use the adaptive termination
+     */
+    public void setUseAdaptiveTermination(boolean useAdaptiveTermination){
+        this.useAdaptiveTermination = useAdaptiveTermination;
+    }
+
+    /**
+     * set the number of solvers allocateShifts races at the same time, each with a different local search type and random seed, returning the best allocation found by any.
+     * 
+     * Each solver runs on its own thread, so this is best set to at most the number of cores. The solvers all stop as soon as one finds the best possible score
+     * @param portfolioSize the number of solvers (1 or less to solve with a single solver)
+     */
+    public void setPortfolioSize(int portfolioSize){
+        this.portfolioSize = Math.max(1, portfolioSize);
+    }
+
+    /**
+     * set whether allocateShifts searches each week of shifts separately (each on its own thread) before searching all the shifts (see WeekPartitioner),
+     * so rosters over many weeks aren't solved with steps as slow as for all the shifts at once.
+     * 
+     * Only used for rosters over more than 1 week, and not with the adaptive termination (which has its own phases)
+     * @param usePartitionedSearch whether to use partitioned search
+     */
+    public void setUsePartitionedSearch(boolean usePartitionedSearch){
+        this.usePartitionedSearch = usePartitionedSearch;
+    }
+
+    /**
+     * set allocateShifts to solve a window of weeks at a time, moving forward by the window less the overlap each time (see RollingHorizon).
+     * 
+     * Shifts from before each window keep the employees they were given, so memory and the time for each step grow with the window rather than the whole roster.
+     * The termination applies to each window, and getFeasibilityReport and getScoreBound are for the last window
+     * @param windowWeeks the number of weeks in each window (0 or less to solve all the shifts at once)
+     * @param overlapWeeks the number of weeks each window shares with the last, solved again (limited to between 0 and windowWeeks-1)
+     */
+    public void setRollingHorizon(int windowWeeks, int overlapWeeks){
+        this.rollingHorizonWindowWeeks = Math.max(0, windowWeeks);
+        this.rollingHorizonOverlapWeeks = Math.max(0, Math.min(rollingHorizonWindowWeeks-1, overlapWeeks));
+    }
+
+    /**
+     * set a directory to cache the employees and shifts parsed from CSV strings in (see ParseCache), used by loadFromParseCache and saveToParseCache.
+     * 
+     * The directory can be shared by any number of rosters, since entries are named by a hash of the CSV strings
+     * @param parseCacheDirectory the directory, or null to turn off
+     */
+    public void setParseCacheDirectory(Path parseCacheDirectory){
+        this.parseCache = (parseCacheDirectory == null)? null: new ParseCache(parseCacheDirectory);
+    }
+
+    /**
+     * set a directory for allocateShifts to cache solved allocations in (see AllocationsResultCache), so a roster which was already solved with the same settings
+     * (including the termination) gets the same allocations straight away, rather than being solved again.
+     * 
+     * Entries are evicted once not used for the maximum age, or (least recently used first) once there are more than the maximum number
+     * @param resultCacheDirectory the directory, or null to turn off
+     * @param maximumEntryCount the most solved rosters to keep (at least 1)
+     * @param maximumAge how long to keep each solved roster since it was last used
+     */
+    public void setResultCache(Path resultCacheDirectory, int maximumEntryCount, Duration maximumAge){
+        this.resultCache = (resultCacheDirectory == null)? null: new AllocationsResultCache(resultCacheDirectory, Math.max(1, maximumEntryCount), maximumAge);
+    }
+
+    /**
+     * get the result of checking whether the hard constraints can be satisfied, from the last time allocateShifts was run
+     * @return the report, or null if allocateShifts hasn't been run
+     */
+    public FeasibilityReport getFeasibilityReport(){
+        return feasibilityReport;
+    }
+
+    /**
+     * get the best score any allocation could get (solving stops as soon as it is reached), from the last time allocateShifts was run
+     * @return the score bound, or null if allocateShifts hasn't been run
+     */
+    public HardMediumSoftScore getScoreBound(){
+        return scoreBound;
+    }
+
+    /**
+     * set the largest number of possible allocations for allocateShifts to search exhaustively, finding the best allocation and returning as soon as done rather than waiting for the termination.
+     * 
+     * The number of possible allocations is (number of employees+1)^(number of shifts which aren't pinned), since each shift can have any employee or none
+     * @param exhaustiveSearchMaximumSearchSpace largest number of possible allocations to search exhaustively, or 0 to never search exhaustively
+     */
+    public void setExhaustiveSearchMaximumSearchSpace(long exhaustiveSearchMaximumSearchSpace){
+        this.exhaustiveSearchMaximumSearchSpace = exhaustiveSearchMaximumSearchSpace;
+    }
+
+    /**
+     * set the fork-join pool availability files are parsed on (see processEmployeeAvailabilityCsvFile), and employees' availabilities are normalised on.
+     * 
+     * Each employee's availabilities are normalised separately, so batches of employees are normalised at the same time on the threads of the pool
+     * @param availabilityForkJoinPool the pool, or null to use the common pool
+     */
+    public void setAvailabilityForkJoinPool(ForkJoinPool availabilityForkJoinPool){
+        this.availabilityForkJoinPool = (availabilityForkJoinPool == null)? ForkJoinPool.commonPool(): availabilityForkJoinPool;
+    }
+
     /**
      * accepts csv strings containing information about employees and a separate csv string containing information about their availability, to produce employees with availabilities.
      * 
-     * We accept csv string for this since don't have to store file, and limiting csv file to 50KB (might tweak limit, but anything above 50KB likely spam).
+     * We accept csv string for this since don't have to store file. For large csv input, use the overloads taking readers, streams, channels or files instead, which parse as they read.
      * @param informationCsvData a csv string with a unique business identifier for each employee, and name, mobile, email, importance, max weekly shifts, and min weekly shifts
      * @param availabilityCsvData a csv string where each row shows an availability period for an employee, identified by their business identifier
      * @throws DuplicatePlanningIdException thrown if have duplicate employees being created
@@ -85,6 +326,64 @@ public class EmployeeSchedulingSystem{
         processEmployeeInformationCsv(informationCsvData);
         processEmployeeAvailabilityCsv(availabilityCsvData);
     }
+
+    /**
+     * accepts readers of csv information about employees and their availability, to produce employees with availabilities, parsing the csv as it is read
+     * @param informationCsvReader reader of csv with a unique business identifier for each employee, and name, mobile, email, importance, max weekly shifts, and min weekly shifts (not closed)
+     * @param availabilityCsvReader reader of csv where each row shows an availability period for an employee, identified by their business identifier (not closed)
+     * @throws DuplicatePlanningIdException thrown if have duplicate employees being created
+     * @throws StartAfterEndException thrown if employee availability start >= end
+     * @throws CsvInputInvalidException thrown if a csv is invalid, including failing to read it
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if employee availability employeeId doesn't match any employee
+     */
+    public void processEmployeesInformationAndAvailabilityCSVs(Reader informationCsvReader, Reader availabilityCsvReader) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        addEmployees(parseCsv(informationCsvReader, EmployeeLoader.class, "employee_information.csv"));
+        addAvailabilities(parseCsv(availabilityCsvReader, AvailabilityLoader.class, "employee_availability.csv"));
+    }
+
+    /**
+     * accepts streams of UTF-8 csv information about employees and their availability (each optionally gzip compressed), to produce employees with availabilities (see CsvInputReaders)
+     * @param informationCsvInputStream stream of csv with employee information (not closed)
+     * @param availabilityCsvInputStream stream of csv with employee availabilities (not closed)
+     * @throws IOException exception can be thrown if the start of a stream can't be read
+     * @throws DuplicatePlanningIdException thrown if have duplicate employees being created
+     * @throws StartAfterEndException thrown if employee availability start >= end
+     * @throws CsvInputInvalidException thrown if a csv is invalid, or compressed in a format which can't be decompressed
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if employee availability employeeId doesn't match any employee
+     */
+    public void processEmployeesInformationAndAvailabilityCSVs(InputStream informationCsvInputStream, InputStream availabilityCsvInputStream) throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        processEmployeesInformationAndAvailabilityCSVs(CsvInputReaders.getReader(informationCsvInputStream), CsvInputReaders.getReader(availabilityCsvInputStream));
+    }
+
+    /**
+     * accepts channels of UTF-8 csv information about employees and their availability (each optionally gzip compressed), to produce employees with availabilities (see CsvInputReaders)
+     * @param informationCsvChannel channel of csv with employee information (not closed)
+     * @param availabilityCsvChannel channel of csv with employee availabilities (not closed)
+     * @throws IOException exception can be thrown if the start of a channel can't be read
+     * @throws DuplicatePlanningIdException thrown if have duplicate employees being created
+     * @throws StartAfterEndException thrown if employee availability start >= end
+     * @throws CsvInputInvalidException thrown if a csv is invalid, or compressed in a format which can't be decompressed
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if employee availability employeeId doesn't match any employee
+     */
+    public void processEmployeesInformationAndAvailabilityCSVs(ReadableByteChannel informationCsvChannel, ReadableByteChannel availabilityCsvChannel) throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        processEmployeesInformationAndAvailabilityCSVs(CsvInputReaders.getReader(informationCsvChannel), CsvInputReaders.getReader(availabilityCsvChannel));
+    }
+
+    /**
+     * accepts UTF-8 csv files of information about employees and their availability (each optionally gzip compressed), to produce employees with availabilities (see CsvInputReaders)
+     * @param informationCsvPath csv file with employee information
+     * @param availabilityCsvPath csv file with employee availabilities
+     * @throws IOException exception can be thrown if a file doesn't exist, or can't be read
+     * @throws DuplicatePlanningIdException thrown if have duplicate employees being created
+     * @throws StartAfterEndException thrown if employee availability start >= end
+     * @throws CsvInputInvalidException thrown if a csv is invalid, or compressed in a format which can't be decompressed
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if employee availability employeeId doesn't match any employee
+     */
+    public void processEmployeesInformationAndAvailabilityCSVs(Path informationCsvPath, Path availabilityCsvPath) throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        try (Reader informationCsvReader = CsvInputReaders.getReader(informationCsvPath); Reader availabilityCsvReader = CsvInputReaders.getReader(availabilityCsvPath)){
+            processEmployeesInformationAndAvailabilityCSVs(informationCsvReader, availabilityCsvReader);
+        }
+    }
     
     /**
      * process string of employee information in csv format into employee objects
@@ -93,16 +392,15 @@ public class EmployeeSchedulingSystem{
      * @throws CsvInputInvalidException
      */
     public void processEmployeeInformationCsv(String informationCsvData) throws DuplicatePlanningIdException, CsvInputInvalidException{
-        List<EmployeeLoader> beans;
-        try{
-            beans = new CsvToBeanBuilder<EmployeeLoader>(new StringReader(informationCsvData))
-                    .withType(EmployeeLoader.class)
-                    .build()
-                    .parse();
-        }
-        catch (RuntimeException e){
-            throw new CsvInputInvalidException("failure trying to process file employee_information.csv");
-        }
+        addEmployees(parseCsv(informationCsvData, EmployeeLoader.class, "employee_information.csv"));
+    }
+
+    /**
+     * add the employees parsed from an employee information csv
+     * @param beans a loader for each row of the csv
+     * @throws DuplicatePlanningIdException exception can be thrown if the employee ids are not unique
+     */
+    private void addEmployees(List<EmployeeLoader> beans) throws DuplicatePlanningIdException{
         for (EmployeeLoader loader: beans){
             Employee employee = loader.getEmployee();
             // could make more efficient, but n^2 complexity isn't likely to be an issue as employees list is employees reporting to the manager
@@ -126,61 +424,195 @@ public class EmployeeSchedulingSystem{
      * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if availability employeeId doesn't match any employee
      */
     private void processEmployeeAvailabilityCsv(String availabilityCsvData) throws StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
-        List<AvailabilityLoader> beans;
+        addAvailabilities(parseCsv(availabilityCsvData, AvailabilityLoader.class, "employee_availability.csv"));
+    }
+
+    /**
+     * add the availabilities parsed from an availability csv to the employees they are for
+     * @param beans a loader for each row of the csv
+     * @throws StartAfterEndException thrown if availability start >= end
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if availability employeeId doesn't match any employee
+     */
+    private void addAvailabilities(List<AvailabilityLoader> beans) throws StartAfterEndException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        // group by employee in one pass, keeping each employee's rows in csv order
+        Map<String, List<AvailabilityLoader>> beansByEmployeeId = new HashMap<>();
+        for (AvailabilityLoader loader: beans){
+            if (!loader.checkValidTimePeriod()){
+                throw new StartAfterEndException("availability csv has start after end");
+            }
+            beansByEmployeeId.computeIfAbsent(loader.getEmployeeId(), k -> new ArrayList<>()).add(loader);
+        }
+        addAvailabilitiesByEmployeeId(beansByEmployeeId);
+    }
+
+    /**
+     * add availabilities grouped by employee to the employees they are for, normalising the availabilities of batches of employees at the same time on the availability fork-join pool.
+     * 
+     * Each employee is only normalised by one thread, so the availabilities are the same as normalising the employees in turn
+     * @param beansByEmployeeId the loaders of valid rows of the csv, by employee id
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if availability employeeId doesn't match any employee
+     */
+    private void addAvailabilitiesByEmployeeId(Map<String, List<AvailabilityLoader>> beansByEmployeeId) throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        // the availabilities which haven't been connected to any employee
+        Map<String, List<AvailabilityLoader>> unusedBeansByEmployeeId = new HashMap<>(beansByEmployeeId);
+        List<List<AvailabilityLoader>> employeesLoadedAvailabilities = new ArrayList<>(employees.size());
+        for (Employee employee: employees){
+            List<AvailabilityLoader> loadedAvailabilities = unusedBeansByEmployeeId.remove(employee.getEmployeeId());
+            employeesLoadedAvailabilities.add((loadedAvailabilities == null)? new ArrayList<>(): loadedAvailabilities);
+        }
+
+        // aim for a few batches per thread, so threads given slower batches (e.g. employees with many overlapping rows) don't hold up the rest
+        int batchSize = Math.max(MINIMUM_NORMALISATION_BATCH_SIZE, employees.size()/(4*availabilityForkJoinPool.getParallelism()));
+        List<CompletableFuture<Void>> batchFutures = new ArrayList<>();
+        for (int batchStart=0; batchStart<employees.size(); batchStart+=batchSize){
+            int batchEnd = Math.min(employees.size(), batchStart+batchSize);
+            List<Employee> batchEmployees = employees.subList(batchStart, batchEnd);
+            List<List<AvailabilityLoader>> batchLoadedAvailabilities = employeesLoadedAvailabilities.subList(batchStart, batchEnd);
+            batchFutures.add(CompletableFuture.runAsync(() -> {
+                for (int i=0; i<batchEmployees.size(); i++){
+                    batchEmployees.get(i).addAvailabilities(batchLoadedAvailabilities.get(i));
+                }
+            }, availabilityForkJoinPool));
+        }
         try{
-            beans = new CsvToBeanBuilder<AvailabilityLoader>(new StringReader(availabilityCsvData))
-                    .withType(AvailabilityLoader.class)
-                    .build()
-                    .parse();
+            CompletableFuture.allOf(batchFutures.toArray(new CompletableFuture<?>[0])).join();
         }
-        catch (RuntimeException e){
-            throw new CsvInputInvalidException("failure trying to process file employee_availability.csv");
+        catch (CompletionException e){
+            // normalising only throws unchecked exceptions (e.g. assertions), so throw them as if normalised on this thread
+            if (e.getCause() instanceof Error){
+                throw (Error) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException){
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
         }
-        // the set of availability loaders which haven't been connected to any employee
-        Set<AvailabilityLoader> unusedAvailabilityLoaders = new HashSet<>(beans);
-        for (Employee employee: employees){
-            List<AvailabilityLoader> loadedAvailabilities = new LinkedList<>();
+
+        // raise exception if don't line up availability to an employee
+        if (unusedBeansByEmployeeId.size() > 0){
+            List<AvailabilityLoader> unusedAvailabilityLoaders = new ArrayList<>();
+            for (List<AvailabilityLoader> unusedBeans: unusedBeansByEmployeeId.values()){
+                unusedAvailabilityLoaders.addAll(unusedBeans);
+            }
+            throw new AvailabilityEmployeeIdNotMatchingAnyEmployeeException("availability CSV has following loaded availabilities with employee id not matching any employee = "+unusedAvailabilityLoaders);
+        }
+    }
+
+    /**
+     * process a (possibly huge) availability csv file, so it is stored in employees, parsing chunks of the file at the same time on the availability fork-join pool (see ChunkedAvailabilityCsvParser and setAvailabilityForkJoinPool).
+     * 
+     * Gives the same availabilities as processing the contents of the file as a csv string, without reading it into a string first.
+     * Must be run after running processEmployeeInformationCsv - otherwise don't know whether the business ids for employees are accurate
+     * @param availabilityCsvPath an availability csv file, where each row shows an availability period for an employee, identified by their business identifier, timing of this availability, and the type of shift they can do
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws StartAfterEndException thrown if availability start >= end
+     * @throws CsvInputInvalidException
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if availability employeeId doesn't match any employee
+     */
+    public void processEmployeeAvailabilityCsvFile(Path availabilityCsvPath) throws IOException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Map<String, List<AvailabilityLoader>> beansByEmployeeId = ChunkedAvailabilityCsvParser.parse(availabilityCsvPath, availabilityForkJoinPool);
+        for (List<AvailabilityLoader> beans: beansByEmployeeId.values()){
             for (AvailabilityLoader loader: beans){
                 if (!loader.checkValidTimePeriod()){
                     throw new StartAfterEndException("availability csv has start after end");
                 }
-                if (employee.availabilityLoaderForThisEmployee(loader)){
-                    loadedAvailabilities.add(loader);
-                    // indicate the availability has matched to an employee
-                    unusedAvailabilityLoaders.remove(loader);
-                }
             }
-            employee.addAvailabilities(loadedAvailabilities);
-        }
-        // raise exception if don't line up availability to an employee
-        if (unusedAvailabilityLoaders.size() > 0){
-            throw new AvailabilityEmployeeIdNotMatchingAnyEmployeeException("availability CSV has following loaded availabilities with employee id not matching any employee = "+unusedAvailabilityLoaders);
         }
+        addAvailabilitiesByEmployeeId(beansByEmployeeId);
     }
 
     /**
      * accepts csv strings containing information about shifts, to produce shift objects
-     * @param shiftCsvData a csv string with a unique business identifier for each shift, the type of shift, and start and end times
+     * 
+     * Shifts can optionally be given an employeeId, to start with that employee allocated, and pinned to lock that allocation so the solver can't change it.
+     * Employees should be loaded first if using employeeId
+     * @param shiftCsvData a csv string with a unique business identifier for each shift, the type of shift, and start and end times (and optionally employeeId and pinned)
      * @throws DuplicatePlanningIdException exception can be thrown if the shift ids are not unique
      * @throws StartAfterEndException thrown if shift start >= end
-     * @throws CsvInputInvalidException
+     * @throws ShiftEmployeeIdNotMatchingAnyEmployeeException thrown if a shift's employeeId doesn't match any employee
+     * @throws CsvInputInvalidException thrown if the csv is invalid, including a shift being pinned without an employeeId
      */
     public void processShiftsCsv(String shiftCsvData) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
-        List<ShiftLoader> beans;
-        try{
-            beans = new CsvToBeanBuilder<ShiftLoader>(new StringReader(shiftCsvData))
-                    .withType(ShiftLoader.class)
-                    .build()
-                    .parse();
-        }
-        catch (RuntimeException e){
-            throw new CsvInputInvalidException("failure trying to process file shift_information.csv");
+        addShifts(parseCsv(shiftCsvData, ShiftLoader.class, "shift_information.csv"));
+    }
+
+    /**
+     * accepts a reader of csv information about shifts, to produce shift objects, parsing the csv as it is read (see processShiftsCsv(String))
+     * @param shiftCsvReader reader of csv with a unique business identifier for each shift, the type of shift, and start and end times (and optionally employeeId and pinned) (not closed)
+     * @throws DuplicatePlanningIdException exception can be thrown if the shift ids are not unique
+     * @throws StartAfterEndException thrown if shift start >= end
+     * @throws ShiftEmployeeIdNotMatchingAnyEmployeeException thrown if a shift's employeeId doesn't match any employee
+     * @throws CsvInputInvalidException thrown if the csv is invalid, including failing to read it
+     */
+    public void processShiftsCsv(Reader shiftCsvReader) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
+        addShifts(parseCsv(shiftCsvReader, ShiftLoader.class, "shift_information.csv"));
+    }
+
+    /**
+     * accepts a stream of UTF-8 csv information about shifts (optionally gzip compressed), to produce shift objects (see CsvInputReaders)
+     * @param shiftCsvInputStream stream of csv with shift information (not closed)
+     * @throws IOException exception can be thrown if the start of the stream can't be read
+     * @throws DuplicatePlanningIdException exception can be thrown if the shift ids are not unique
+     * @throws StartAfterEndException thrown if shift start >= end
+     * @throws CsvInputInvalidException thrown if the csv is invalid (including a shift's employeeId not matching any employee), or compressed in a format which can't be decompressed
+     */
+    public void processShiftsCsv(InputStream shiftCsvInputStream) throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
+        processShiftsCsv(CsvInputReaders.getReader(shiftCsvInputStream));
+    }
+
+    /**
+     * accepts a channel of UTF-8 csv information about shifts (optionally gzip compressed), to produce shift objects (see CsvInputReaders)
+     * @param shiftCsvChannel channel of csv with shift information (not closed)
+     * @throws IOException exception can be thrown if the start of the channel can't be read
+     * @throws DuplicatePlanningIdException exception can be thrown if the shift ids are not unique
+     * @throws StartAfterEndException thrown if shift start >= end
+     * @throws CsvInputInvalidException thrown if the csv is invalid (including a shift's employeeId not matching any employee), or compressed in a format which can't be decompressed
+     */
+    public void processShiftsCsv(ReadableByteChannel shiftCsvChannel) throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
+        processShiftsCsv(CsvInputReaders.getReader(shiftCsvChannel));
+    }
+
+    /**
+     * accepts a UTF-8 csv file of information about shifts (optionally gzip compressed), to produce shift objects (see CsvInputReaders)
+     * @param shiftCsvPath csv file with shift information
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws DuplicatePlanningIdException exception can be thrown if the shift ids are not unique
+     * @throws StartAfterEndException thrown if shift start >= end
+     * @throws CsvInputInvalidException thrown if the csv is invalid (including a shift's employeeId not matching any employee), or compressed in a format which can't be decompressed
+     */
+    public void processShiftsCsv(Path shiftCsvPath) throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
+        try (Reader shiftCsvReader = CsvInputReaders.getReader(shiftCsvPath)){
+            processShiftsCsv(shiftCsvReader);
         }
+    }
+
+    /**
+     * add the shifts parsed from a shift csv
+     * @param beans a loader for each row of the csv
+     * @throws DuplicatePlanningIdException exception can be thrown if the shift ids are not unique
+     * @throws StartAfterEndException thrown if shift start >= end
+     * @throws ShiftEmployeeIdNotMatchingAnyEmployeeException thrown if a shift's employeeId doesn't match any employee
+     * @throws CsvInputInvalidException thrown if a shift is pinned without an employeeId
+     */
+    private void addShifts(List<ShiftLoader> beans) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
         for (ShiftLoader loader: beans){
             if (!loader.checkValidTimePeriod()){
                 throw new StartAfterEndException("shift csv has start after end");
             }
-            Shift shift = loader.getShift();
+            Shift shift;
+            if (loader.getEmployeeId() != null){
+                Employee employee = getEmployeeById(loader.getEmployeeId());
+                if (employee == null){
+                    throw new ShiftEmployeeIdNotMatchingAnyEmployeeException("shift csv has shiftId="+loader.getShiftId()+" with employeeId="+loader.getEmployeeId()+" not matching any employee");
+                }
+                shift = loader.getShift(employee);
+            }
+            else if (loader.isPinned()){
+                throw new CsvInputInvalidException("shift csv has shiftId="+loader.getShiftId()+" pinned without an employeeId");
+            }
+            else{
+                shift = loader.getShift();
+            }
             // could make more efficient, but n^2 complexity isn't likely to be an issue as shifts list is shifts managed by the manager
             for (Shift existingShift: ListUtils.union(unallocatedShifts, allocatedShifts)) {
                 // check here ensures that shift ids are unique
@@ -192,48 +624,497 @@ public class EmployeeSchedulingSystem{
         }
     }
 
+    /**
+     * accepts the csv strings of employee information, employee availability and shift information, to produce employees with availabilities and shifts.
+     * 
+     * Gives the same result as processEmployeesInformationAndAvailabilityCSVs then processShiftsCsv, but parses the three csv strings at the same time (each on its own thread),
+     * only waiting for the employees to be added before adding their availabilities and the shifts (which can be allocated to them).
+     * Exceptions are thrown in the same order as running those methods in turn
+     * @param informationCsvData a csv string with a unique business identifier for each employee, and name, mobile, email, importance, max weekly shifts, and min weekly shifts
+     * @param availabilityCsvData a csv string where each row shows an availability period for an employee, identified by their business identifier
+     * @param shiftCsvData a csv string with a unique business identifier for each shift, the type of shift, and start and end times (and optionally employeeId and pinned)
+     * @throws DuplicatePlanningIdException thrown if have duplicate employees or shifts being created
+     * @throws StartAfterEndException thrown if an availability or shift has start >= end
+     * @throws CsvInputInvalidException thrown if a csv is invalid, including a shift's employeeId not matching any employee
+     * @throws AvailabilityEmployeeIdNotMatchingAnyEmployeeException thrown if availability employeeId doesn't match any employee
+     */
+    public void processCsvs(String informationCsvData, String availabilityCsvData, String shiftCsvData) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        CompletableFuture<List<EmployeeLoader>> informationBeans = parseCsvAsync(informationCsvData, EmployeeLoader.class, "employee_information.csv");
+        CompletableFuture<List<AvailabilityLoader>> availabilityBeans = parseCsvAsync(availabilityCsvData, AvailabilityLoader.class, "employee_availability.csv");
+        CompletableFuture<List<ShiftLoader>> shiftBeans = parseCsvAsync(shiftCsvData, ShiftLoader.class, "shift_information.csv");
+        addEmployees(getParsedBeans(informationBeans));
+        addAvailabilities(getParsedBeans(availabilityBeans));
+        addShifts(getParsedBeans(shiftBeans));
+    }
+
+    /**
+     * parse a csv string into loader beans
+     * @param csvData the csv string
+     * @param type the class of the loader beans
+     * @param fileName the name of the csv file, for the parse event and exception message
+     * @return a loader for each row of the csv
+     * @throws CsvInputInvalidException thrown if the csv can't be parsed into loaders (e.g. missing columns, or values in the wrong format)
+     */
+    private static <T> List<T> parseCsv(String csvData, Class<T> type, String fileName) throws CsvInputInvalidException{
+        return parseCsv(new StringReader(csvData), type, fileName);
+    }
+
+    /**
+     * parse csv from a reader into loader beans, as it is read
+     * @param csvReader reader of the csv (not closed)
+     * @param type the class of the loader beans
+     * @param fileName the name of the csv file, for the parse event and exception message
+     * @return a loader for each row of the csv
+     * @throws CsvInputInvalidException thrown if the csv can't be read, or parsed into loaders
+     */
+    private static <T> List<T> parseCsv(Reader csvReader, Class<T> type, String fileName) throws CsvInputInvalidException{
+        List<T> beans;
+        CsvParseEvent parseEvent = new CsvParseEvent(fileName);
+        parseEvent.begin();
+        try{
+            beans = new CsvToBeanBuilder<T>(csvReader)
+                    .withType(type)
+                    .build()
+                    .parse();
+        }
+        catch (RuntimeException e){
+            throw new CsvInputInvalidException("failure trying to process file "+fileName);
+        }
+        parseEvent.setRowCount(beans.size());
+        parseEvent.commit();
+        return beans;
+    }
+
+    /**
+     * start parsing a csv string into loader beans on another thread (see parseCsv)
+     * @param csvData the csv string
+     * @param type the class of the loader beans
+     * @param fileName the name of the csv file
+     * @return the loaders, once parsed
+     */
+    private static <T> CompletableFuture<List<T>> parseCsvAsync(String csvData, Class<T> type, String fileName){
+        return CompletableFuture.supplyAsync(() -> {
+            try{
+                return parseCsv(csvData, type, fileName);
+            }
+            catch (CsvInputInvalidException e){
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    /**
+     * wait for loader beans being parsed on another thread
+     * @param beans the loaders being parsed
+     * @return the loaders
+     * @throws CsvInputInvalidException thrown if the csv couldn't be parsed
+     */
+    private static <T> List<T> getParsedBeans(CompletableFuture<List<T>> beans) throws CsvInputInvalidException{
+        try{
+            return beans.join();
+        }
+        catch (CompletionException e){
+            if (e.getCause() instanceof CsvInputInvalidException){
+                throw (CsvInputInvalidException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * write the employees (with their normalised availabilities) and shifts to a binary snapshot file (see ProblemSnapshotWriter),
+     * so they can be loaded again with processProblemSnapshot without processing the CSV files
+     * @param path the file to write the snapshot to
+     * @throws IOException exception can be thrown if don't have the permission to write to the file, or some error happens in writing to file otherwise
+     */
+    public void writeProblemSnapshot(Path path) throws IOException{
+        ProblemSnapshotWriter.writeSnapshot(employees, ListUtils.union(unallocatedShifts, allocatedShifts), path);
+    }
+
+    /**
+     * load the employees and shifts from a binary snapshot file written by writeProblemSnapshot, replacing any already loaded.
+     * 
+     * The file is memory-mapped and nothing is parsed, validated or normalised again, so this is far faster than processing the CSV files
+     * @param path the snapshot file
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws SnapshotInvalidException thrown if the file isn't a snapshot, is from another version of the layout, or is cut short
+     */
+    public void processProblemSnapshot(Path path) throws IOException, SnapshotInvalidException{
+        setProblem(ProblemSnapshotReader.readSnapshot(path));
+    }
+
+    /**
+     * load the employees and shifts previously parsed from the same CSV strings from the parse cache (see setParseCacheDirectory), replacing any already loaded.
+     * 
+     * If they aren't in the cache, the CSV strings should be processed with processEmployeesInformationAndAvailabilityCSVs and processShiftsCsv, then saved with saveToParseCache
+     * @param informationCsvData a csv string with employee information
+     * @param availabilityCsvData a csv string with employee availabilities
+     * @param shiftCsvData a csv string with shift information
+     * @return whether the employees and shifts were loaded (false if they aren't in the cache, or there is no parse cache)
+     */
+    public boolean loadFromParseCache(String informationCsvData, String availabilityCsvData, String shiftCsvData){
+        if (parseCache == null){
+            return false;
+        }
+        Pair<List<Employee>, List<Shift>> cachedProblem = parseCache.get(ParseCache.getKey(informationCsvData, availabilityCsvData, shiftCsvData));
+        if (cachedProblem == null){
+            return false;
+        }
+        setProblem(cachedProblem);
+        return true;
+    }
+
+    /**
+     * save the employees and shifts processed from CSV strings to the parse cache (see setParseCacheDirectory), so loadFromParseCache can load them next time.
+     * 
+     * Should only be run once the CSV strings have been processed without exceptions, and before allocating shifts. Does nothing if there is no parse cache
+     * @param informationCsvData the csv string the employees were processed from
+     * @param availabilityCsvData the csv string the employee availabilities were processed from
+     * @param shiftCsvData the csv string the shifts were processed from
+     * @throws IOException exception can be thrown if don't have the permission to write to the cache directory, or some error happens in writing to it otherwise
+     */
+    public void saveToParseCache(String informationCsvData, String availabilityCsvData, String shiftCsvData) throws IOException{
+        if (parseCache != null){
+            parseCache.put(ParseCache.getKey(informationCsvData, availabilityCsvData, shiftCsvData), employees, ListUtils.union(unallocatedShifts, allocatedShifts));
+        }
+    }
+
+    /**
+     * helper to replace the employees and shifts with ones loaded from a snapshot, with all the shifts unallocated
+     * @param problem the employees and shifts
+     */
+    private void setProblem(Pair<List<Employee>, List<Shift>> problem){
+        employees.clear();
+        employees.addAll(problem.getValue0());
+        unallocatedShifts.clear();
+        unallocatedShifts.addAll(problem.getValue1());
+        allocatedShifts = new ArrayList<>();
+    }
+
+    /**
+     * get the employee with the employee id
+     * @param employeeId business id of the employee
+     * @return the employee, or null if no employee has the id
+     */
+    private Employee getEmployeeById(String employeeId){
+        for (Employee employee: employees){
+            if (employee.getEmployeeId().equals(employeeId)){
+                return employee;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * accepts a csv string of a previous allocation (e.g. a prior ALLOCATIONS_OUTPUT.csv), and seeds the employee of each shift with a matching shift id with its previous employee.
+     * 
+     * The solver then starts from the previous allocation, and only has to construct allocations for new shifts, or shifts whose previous employee no longer exists.
+     * Allocations for shift ids or employee ids which no longer exist are ignored, since the roster is expected to have changed since the previous allocation.
+     * Pinned shifts keep the employee from the shift csv.
+     * 
+     * Should be run after loading the employees and shifts
+     * @param previousAllocationsCsvData a csv string with the shift id and employee id of each previous allocation (other columns are ignored)
+     * @return the number of shifts seeded with a previous employee
+     * @throws DuplicatePlanningIdException exception can be thrown if a shift id is allocated more than once
+     * @throws CsvInputInvalidException
+     */
+    public int processPreviousAllocationsCsv(String previousAllocationsCsvData) throws DuplicatePlanningIdException, CsvInputInvalidException{
+        List<AllocationLoader> beans = parseCsv(previousAllocationsCsvData, AllocationLoader.class, "ALLOCATIONS_OUTPUT.csv");
+
+        Map<String, Employee> employeesById = new HashMap<>();
+        for (Employee employee: employees){
+            employeesById.put(employee.getEmployeeId(), employee);
+        }
+        Map<String, String> previousEmployeeIdsByShiftId = new HashMap<>();
+        for (AllocationLoader loader: beans){
+            if (previousEmployeeIdsByShiftId.put(loader.getShiftId(), loader.getEmployeeId()) != null){
+                throw new DuplicatePlanningIdException("shiftId="+loader.getShiftId()+" is allocated more than once in the previous allocations");
+            }
+        }
+
+        int seededShiftCount = 0;
+        for (Shift shift: ListUtils.union(unallocatedShifts, allocatedShifts)){
+            String previousEmployeeId = previousEmployeeIdsByShiftId.get(shift.getShiftId());
+            Employee previousEmployee = previousEmployeeId == null? null: employeesById.get(previousEmployeeId);
+            if (previousEmployee != null && !shift.isPinned()){
+                shift.setEmployee(previousEmployee);
+                seededShiftCount++;
+            }
+        }
+        return seededShiftCount;
+    }
+
     /**
      * run optaplanner to try and satisfy constraints, and produce a good allocation
      * @param secondsToSpend the number of seconds to spend if configured (e.g. by a test), otherwise use the config file setting
      * @return the score of the allocations
      */
     public HardMediumSoftScore allocateShifts(Long secondsToSpend){
+        return allocateShiftsWithTermination((secondsToSpend == null)? null: new TerminationConfig().withSecondsSpentLimit(secondsToSpend));
+    }
+
+    /**
+     * run optaplanner to try and satisfy constraints, and produce a good allocation, stopping when the termination is reached.
+     * 
+     * Solving also stops as soon as the best possible score is reached (see getScoreBound). With a rolling horizon set, solves each window in turn
+     * @param terminationConfig when to stop solving (can combine terminations, e.g. with terminationConfigList), otherwise null to use the adaptive termination if set, or the config file setting
+     * @return the score of the allocations
+     */
+    public HardMediumSoftScore allocateShiftsWithTermination(TerminationConfig terminationConfig){
+        List<Shift> allShifts = ListUtils.union(unallocatedShifts, allocatedShifts);
+        // the key is for the shifts before solving, since solving changes their employees
+        String resultCacheKey = (resultCache == null)? null: AllocationsResultCache.getKey(employees, allShifts, getSolverSettings(terminationConfig));
+        List<Employee> cachedShiftEmployees = (resultCacheKey == null)? null: resultCache.get(resultCacheKey, employees, allShifts.size());
+        Allocations solvedAllocations;
+        RollingHorizon rollingHorizon = (rollingHorizonWindowWeeks > 0)? new RollingHorizon(allShifts, rollingHorizonWindowWeeks, rollingHorizonOverlapWeeks): null;
+        if (cachedShiftEmployees != null){
+            System.out.println("Using the allocations solved for the same roster and settings on an earlier run");
+            int[][] eligibleEmployees = FeasibilityAnalyser.getEligibleEmployees(allShifts, employees);
+            feasibilityReport = new FeasibilityAnalyser(allShifts, employees, eligibleEmployees).analyse();
+            scoreBound = new ScoreBoundCalculator(allShifts, employees, eligibleEmployees).calculateBound(feasibilityReport);
+            for (int i=0; i<allShifts.size(); i++){
+                // pinned shifts were solved with the same employee
+                if (!allShifts.get(i).isPinned()){
+                    allShifts.get(i).setEmployee(cachedShiftEmployees.get(i));
+                }
+            }
+            solvedAllocations = new Allocations(allShifts, employees);
+            getScoreManager().updateScore(solvedAllocations);
+        }
+        else if (rollingHorizon != null && rollingHorizon.getWindowCount() > 1){
+            // a window's best solutions only have the window's shifts, so rather than streaming them, the whole roster is streamed after each window
+            // (once all its shifts are allocated without breaking hard constraints)
+            BestAllocationsCsvStreamer rosterStreamer = (bestSolutionStreamingPath == null)? null: new BestAllocationsCsvStreamer(bestSolutionStreamingPath);
+            long solvingStartMillis = System.currentTimeMillis();
+            for (int window=0; window<rollingHorizon.getWindowCount(); window++){
+                System.out.println("Solving weeks "+rollingHorizon.getWindowWeeks(window)+" (window "+(window+1)+" of "+rollingHorizon.getWindowCount()+")");
+                rollingHorizon.applyWindowAllocations(solve(rollingHorizon.getWindowShifts(window), terminationConfig, false).getShifts());
+                if (rosterStreamer != null && window < rollingHorizon.getWindowCount()-1){
+                    Allocations rosterAllocations = new Allocations(allShifts, employees);
+                    getScoreManager().updateScore(rosterAllocations);
+                    rosterStreamer.writeAllocations(rosterAllocations, System.currentTimeMillis()-solvingStartMillis);
+                }
+            }
+            solvedAllocations = new Allocations(allShifts, employees);
+            getScoreManager().updateScore(solvedAllocations);
+            if (rosterStreamer != null){
+                rosterStreamer.writeAllocations(solvedAllocations, System.currentTimeMillis()-solvingStartMillis);
+            }
+        }
+        else{
+            solvedAllocations = solve(allShifts, terminationConfig, bestSolutionStreamingPath != null);
+        }
+        // an allocation breaking hard constraints is only cached once it is the best possible, otherwise solving again (e.g. for longer) could find a better one.
+        // With several rolling horizon windows the score bound is only of the last window, so then only feasible allocations are cached
+        boolean boundApplies = rollingHorizon == null || rollingHorizon.getWindowCount() <= 1;
+        boolean cacheable = solvedAllocations.getScore().isFeasible() || (boundApplies && solvedAllocations.getScore().compareTo(scoreBound) >= 0);
+        if (resultCacheKey != null && cachedShiftEmployees == null && cacheable){
+            try{
+                resultCache.put(resultCacheKey, employees, solvedAllocations.getShifts());
+            }
+            catch (IOException e){
+                System.out.println("we couldn't write to the result cache, so the roster will be solved again next time");
+            }
+        }
+
+        // transfer all shifts as now allocated
+        allocatedShifts = new ArrayList<>(solvedAllocations.getShifts());
+        unallocatedShifts.clear();
+
+        printSolverDebuggingInfo(solvedAllocations);
+
+        return solvedAllocations.getScore();
+    }
+
+    /**
+     * run optaplanner on the shifts, stopping when the termination is reached
+     * @param allShifts the shifts to solve (allocated, unallocated and pinned)
+     * @param terminationConfig when to stop solving, otherwise null to use the adaptive termination if set, or the config file setting
+     * @param streamBestAllocations whether to write each new feasible best allocation to the streaming file
+     * @return the solved allocations
+     */
+    private Allocations solve(List<Shift> allShifts, TerminationConfig terminationConfig, boolean streamBestAllocations){
         // look at example 3.2 here
         // https://access.redhat.com/documentation/en-us/red_hat_decision_manager/7.2/html/getting_started_with_red_hat_business_optimizer/cloudbal-tutorial-con
         
+        SolverBuildEvent buildEvent = new SolverBuildEvent(allShifts.size(), employees.size());
+        buildEvent.begin();
         SolverConfig solverConfig = SolverConfig.createFromXmlResource("employeesSchedulingSolverConfig.xml");
+        // found once, as the feasibility analysis, score bound, termination and initial matching all need the employees who can do each shift
+        int[][] eligibleEmployees = FeasibilityAnalyser.getEligibleEmployees(allShifts, employees);
         
-        // if was configured by the user, set the number of seconds to spend
-        if (secondsToSpend != null){
-            TerminationConfig terminationConfig = new TerminationConfig();
-            terminationConfig.setSecondsSpentLimit(secondsToSpend);
+        // if was configured by the user, set when to stop
+        AdaptiveTerminationPolicy adaptiveTerminationPolicy = null;
+        if (terminationConfig != null){
             solverConfig.setTerminationConfig(terminationConfig);
         }
+        else if (useAdaptiveTermination){
+            adaptiveTerminationPolicy = new AdaptiveTerminationPolicy(allShifts, employees, eligibleEmployees);
+            System.out.println("Solving for "+adaptiveTerminationPolicy);
+            solverConfig.setTerminationConfig(adaptiveTerminationPolicy.getTerminationConfig());
+        }
+        if (useIncrementalScoreCalculator){
+            solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(AllocationsIncrementalScoreCalculator.class));
+        }
 
-        SolverFactory<Allocations> solverFactory = SolverFactory.create(solverConfig);
-        Solver<Allocations> solver = solverFactory.buildSolver();
+        feasibilityReport = new FeasibilityAnalyser(allShifts, employees, eligibleEmployees).analyse();
+        if (feasibilityReport.isProvablyInfeasible()){
+            System.out.println(feasibilityReport);
+        }
+        // no allocation can beat the bound, so stop as soon as it is reached rather than waiting for the termination (either can end solving)
+        scoreBound = new ScoreBoundCalculator(allShifts, employees, eligibleEmployees).calculateBound(feasibilityReport);
+        solverConfig.setTerminationConfig(new TerminationConfig().withTerminationConfigList(List.of(solverConfig.getTerminationConfig(), new TerminationConfig().withBestScoreLimit(scoreBound.toString()))));
+        boolean exhaustiveSearch = getSearchSpaceSize(allShifts) <= exhaustiveSearchMaximumSearchSpace;
+        if (exhaustiveSearch){
+            // small enough to try every allocation, so find the best allocation then stop, rather than waiting for the termination.
+            // Exhaustive search only searches the allocations of unallocated shifts, so starting allocations are cleared (the best is found regardless)
+            for (Shift shift: allShifts){
+                if (!shift.isPinned()){
+                    shift.setEmployee(null);
+                }
+            }
+            ExhaustiveSearchPhaseConfig exhaustiveSearchPhaseConfig = new ExhaustiveSearchPhaseConfig();
+            exhaustiveSearchPhaseConfig.setExhaustiveSearchType(ExhaustiveSearchType.BRANCH_AND_BOUND);
+            solverConfig.setPhaseConfigList(List.of(exhaustiveSearchPhaseConfig));
+        }
+        else if (feasibilityReport.isProvablyInfeasible()){
+            // searching can't find a feasible allocation, so rather than spending the full solving time, construct an allocation then only search briefly
+            // to improve its medium and soft score (the score bound doesn't stop it, since no search can tell the bound's medium and soft score are reached)
+            LocalSearchPhaseConfig infeasibleLocalSearchPhaseConfig = getLocalSearchPhaseConfig(solverConfig).copyConfig();
+            infeasibleLocalSearchPhaseConfig.setTerminationConfig(new TerminationConfig().withUnimprovedSecondsSpentLimit(INFEASIBLE_UNIMPROVED_SECONDS_SPENT_LIMIT));
+            solverConfig.setPhaseConfigList(List.of(new ConstructionHeuristicPhaseConfig(), infeasibleLocalSearchPhaseConfig));
+        }
+        else if (adaptiveTerminationPolicy != null){
+            // keep the moves of the configured local search, with the policy's budgets
+            solverConfig.setPhaseConfigList(adaptiveTerminationPolicy.getPhaseConfigList(getLocalSearchPhaseConfig(solverConfig)));
+        }
+        else if (usePartitionedSearch && WeekPartitioner.getPartCount(allShifts) > 1){
+            solverConfig.setPhaseConfigList(WeekPartitioner.getPhaseConfigList(getLocalSearchPhaseConfig(solverConfig)));
+        }
 
-        Allocations unsolvedAllocations = new Allocations(ListUtils.union(unallocatedShifts, allocatedShifts), employees);
-        Allocations solvedAllocations = solver.solve(unsolvedAllocations);
+        // racing several solvers only helps when searching for the full solving time (not when searching exhaustively, or only briefly for a provably infeasible roster)
+        Solver<Allocations> solver = null;
+        SolverPortfolio solverPortfolio = null;
+        if (portfolioSize > 1 && !exhaustiveSearch && !feasibilityReport.isProvablyInfeasible()){
+            solverPortfolio = new SolverPortfolio(solverConfig, portfolioSize, scoreBound);
+            solverPortfolio.addPhaseLifecycleListener(SolverPhaseEventListener::new);
+            if (streamBestAllocations){
+                solverPortfolio.addEventListener(new BestAllocationsCsvStreamer(bestSolutionStreamingPath));
+            }
+        }
+        else{
+            SolverFactory<Allocations> solverFactory = SolverFactory.create(solverConfig);
+            solver = solverFactory.buildSolver();
+            // phase listeners are not part of the public solver API, so only attach when have the default implementation
+            if (solver instanceof DefaultSolver){
+                ((DefaultSolver<Allocations>) solver).addPhaseLifecycleListener(new SolverPhaseEventListener());
+            }
+            if (streamBestAllocations){
+                solver.addEventListener(new BestAllocationsCsvStreamer(bestSolutionStreamingPath));
+            }
+        }
+        buildEvent.commit();
 
-        // transfer all shifts as now allocated
-        allocatedShifts = new ArrayList<>(solvedAllocations.getShifts());
-        unallocatedShifts.clear();
+        // start from a matching of shifts to employees who can do them, so the solver spends less time finding a feasible allocation
+        // (not for exhaustive search, which needs the shifts unallocated)
+        if (!exhaustiveSearch){
+            new MatchingInitialiser(allShifts, employees, eligibleEmployees).initialise();
+        }
+        Allocations unsolvedAllocations = new Allocations(allShifts, employees);
+        Allocations solvedAllocations;
+        if (solverPortfolio != null){
+            solvedAllocations = solverPortfolio.solve(unsolvedAllocations);
+            if (solverPortfolio.getBestMemberIndex() >= 0){
+                System.out.println("Best allocation found using "+solverPortfolio.getMemberDescriptions().get(solverPortfolio.getBestMemberIndex()));
+            }
+        }
+        else{
+            solvedAllocations = solver.solve(unsolvedAllocations);
+        }
+        return solvedAllocations;
+    }
 
-        printSolverDebuggingInfo(solverFactory, solvedAllocations);
+    /**
+     * get everything other than the employees and shifts which changes the allocations solving gives, for the result cache key
+     * @param terminationConfig the termination given to allocateShiftsWithTermination
+     * @return the solver config (with the termination and score calculation) as XML, and the solving options
+     */
+    private String getSolverSettings(TerminationConfig terminationConfig){
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("employeesSchedulingSolverConfig.xml");
+        if (terminationConfig != null){
+            solverConfig.setTerminationConfig(terminationConfig);
+        }
+        if (useIncrementalScoreCalculator){
+            solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(AllocationsIncrementalScoreCalculator.class));
+        }
+        StringWriter solverConfigXml = new StringWriter();
+        new SolverConfigIO().write(solverConfig, solverConfigXml);
+        return solverConfigXml+"\nuseAdaptiveTermination="+useAdaptiveTermination+", portfolioSize="+portfolioSize+", usePartitionedSearch="+usePartitionedSearch+
+            ", rollingHorizonWindowWeeks="+rollingHorizonWindowWeeks+", rollingHorizonOverlapWeeks="+rollingHorizonOverlapWeeks+", exhaustiveSearchMaximumSearchSpace="+exhaustiveSearchMaximumSearchSpace;
+    }
 
-        return solvedAllocations.getScore();
+    /**
+     * get a score manager using the score calculation the solver would use
+     * @return score manager
+     */
+    private ScoreManager<Allocations, HardMediumSoftScore> getScoreManager(){
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("employeesSchedulingSolverConfig.xml");
+        if (useIncrementalScoreCalculator){
+            solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(AllocationsIncrementalScoreCalculator.class));
+        }
+        return ScoreManager.create(SolverFactory.create(solverConfig));
+    }
+
+    /**
+     * get the number of possible allocations of the shifts which aren't pinned, (number of employees+1)^(number of shifts which aren't pinned)
+     * @param shifts all shifts
+     * @return number of possible allocations, or Long.MAX_VALUE if too many to count
+     */
+    private long getSearchSpaceSize(List<Shift> shifts){
+        long searchSpaceSize = 1;
+        for (Shift shift: shifts){
+            // pinned shifts keep their employee
+            if (shift.isPinned()){
+                continue;
+            }
+            if (searchSpaceSize > Long.MAX_VALUE/(employees.size()+1)){
+                return Long.MAX_VALUE;
+            }
+            searchSpaceSize *= employees.size()+1;
+        }
+        return searchSpaceSize;
+    }
+
+    /**
+     * get the local search configured in the solver config
+     * @param solverConfig the solver config
+     * @return the first local search phase, or optaplanner's default local search if there is none
+     */
+    private static LocalSearchPhaseConfig getLocalSearchPhaseConfig(SolverConfig solverConfig){
+        if (solverConfig.getPhaseConfigList() == null){
+            return new LocalSearchPhaseConfig();
+        }
+        return solverConfig.getPhaseConfigList().stream().filter(LocalSearchPhaseConfig.class::isInstance).map(LocalSearchPhaseConfig.class::cast)
+            .findFirst().orElseGet(LocalSearchPhaseConfig::new);
     }
 
     /**
-     * helper method to assist in debugging constraints
-     * @param solverFactory
+     * helper method to assist in debugging constraints.
+     * 
+     * Always explains using AllocationsConstraintProvider, since it can break the score down by constraint (whichever score calculation was used to solve)
      * @param solution
      */
-    private static void printSolverDebuggingInfo(SolverFactory<Allocations> solverFactory, Allocations solution) {
+    private static void printSolverDebuggingInfo(Allocations solution) {
         // https://docs.optaplanner.org/latest/optaplanner-docs/html_single/index.html#usingScoreCalculationOutsideTheSolver
-        ScoreManager<Allocations, HardMediumSoftScore> scoreManager = ScoreManager.create(solverFactory);
+        ScoreExplanationEvent explanationEvent = new ScoreExplanationEvent();
+        explanationEvent.begin();
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("employeesSchedulingSolverConfig.xml");
+        solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withConstraintProviderClass(AllocationsConstraintProvider.class));
+        ScoreManager<Allocations, HardMediumSoftScore> scoreManager = ScoreManager.create(SolverFactory.create(solverConfig));
         ScoreExplanation<Allocations, HardMediumSoftScore> scoreExplanation = scoreManager.explainScore(solution);
+        int constraintMatchCount = scoreExplanation.getConstraintMatchTotalMap().values().stream().mapToInt(ConstraintMatchTotal::getConstraintMatchCount).sum();
+        explanationEvent.setExplanationResult(constraintMatchCount, String.valueOf(scoreExplanation.getScore()));
+        explanationEvent.commit();
         System.out.println("\n################### EXPLANATION OF SCORE");
         System.out.println(scoreExplanation.toString());
 
@@ -244,21 +1125,11 @@ public class EmployeeSchedulingSystem{
 
     /**
      * put solved allocations into a CSV file.
-     * 
-     * Note no unchecked exceptions should be raised by opencsv if program is correct
-     * @param allocations solved allocations
      * @param path the file to store the allocations information in
      * @throws IOException exception can be thrown if don't have the permission to write to the file, or some error happens in writing to file otherwise
      */
     private void writeAllocationsToCsv(Path path) throws IOException{
-        // remove the quotes with CSVWriter.NO_QUOTE_CHARACTER
-        CSVWriter writer = new CSVWriter(new FileWriter(path.toString()), CSVWriter.DEFAULT_SEPARATOR, CSVWriter.NO_QUOTE_CHARACTER, CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END);
-        // add headers
-        writer.writeNext(new String[]{"shiftId","employeeId","start","end","type"});
-        for (Shift shift: allocatedShifts){
-            writer.writeNext(shift.getShiftCsvString());
-        }
-        writer.close();
+        AllocationsCsvWriter.writeAllocationsToCsv(allocatedShifts, path);
     }
 
     /**
@@ -273,9 +1144,15 @@ public class EmployeeSchedulingSystem{
     private static String getCsvStringWithoutSpecialCharactersOnFirstLine(Path path) throws IOException{
         // excel files seem to automatically add UTF 65279 as first character - remove non-ascii on the first line only
         // https://www.baeldung.com/guava-string-charmatcher
-        String csvString = Files.readString(path, StandardCharsets.UTF_8);
+        CsvFileReadEvent readEvent = new CsvFileReadEvent(path.toString());
+        readEvent.begin();
+        byte[] csvBytes = Files.readAllBytes(path);
+        String csvString = new String(csvBytes, StandardCharsets.UTF_8);
         String[] firstLineAndEverythingElse = csvString.split("\n", 2);  // get 2 results, i.e. split once
         firstLineAndEverythingElse[0] = CharMatcher.ascii().retainFrom(firstLineAndEverythingElse[0]);
+        // only count lines if recording, since it requires another pass over the string
+        readEvent.setReadResult(csvBytes.length, readEvent.isEnabled()? (int)csvString.lines().count(): 0);
+        readEvent.commit();
         return String.join("\n", firstLineAndEverythingElse);
     }
 
@@ -311,62 +1188,169 @@ public class EmployeeSchedulingSystem{
      * @return triplet of employeeAvailabilityCsvString, employeeInformationCsvString, shiftInformationCsvString. Can have nulls
      */
     public static Triplet<String, String, String> getDataFromFiles(Path commandLineCsvFolder) {
-        String employeeAvailabilityCsvString = getCsvStringWithoutSpecialCharactersUserFriendly(commandLineCsvFolder.resolve("employee_availability.csv"));
-        String employeeInformationCsvString = getCsvStringWithoutSpecialCharactersUserFriendly(commandLineCsvFolder.resolve("employee_information.csv"));
-        String shiftInformationCsvString = getCsvStringWithoutSpecialCharactersUserFriendly(commandLineCsvFolder.resolve("shift_information.csv"));
+        return getDataFromFiles(commandLineCsvFolder, true);
+    }
+
+    /**
+     * get triplet of employeeAvailabilityCsvString, employeeInformationCsvString, shiftInformationCsvString from the user input configuration
+     * @param commandLineCsvFolder the folder of the csv files
+     * @param readAvailability whether to read employee_availability.csv (e.g. not when it will be parsed straight from the file with processEmployeeAvailabilityCsvFile)
+     * @return triplet of employeeAvailabilityCsvString (null if not read), employeeInformationCsvString, shiftInformationCsvString. Can have nulls
+     */
+    private static Triplet<String, String, String> getDataFromFiles(Path commandLineCsvFolder, boolean readAvailability) {
+        // read the files at the same time
+        CompletableFuture<String> employeeAvailabilityCsvString = readAvailability?
+            CompletableFuture.supplyAsync(() -> getCsvStringWithoutSpecialCharactersUserFriendly(commandLineCsvFolder.resolve("employee_availability.csv"))):
+            CompletableFuture.completedFuture(null);
+        CompletableFuture<String> employeeInformationCsvString = CompletableFuture.supplyAsync(() -> getCsvStringWithoutSpecialCharactersUserFriendly(commandLineCsvFolder.resolve("employee_information.csv")));
+        CompletableFuture<String> shiftInformationCsvString = CompletableFuture.supplyAsync(() -> getCsvStringWithoutSpecialCharactersUserFriendly(commandLineCsvFolder.resolve("shift_information.csv")));
 
-        return new Triplet<>(employeeAvailabilityCsvString, employeeInformationCsvString, shiftInformationCsvString);
+        return new Triplet<>(employeeAvailabilityCsvString.join(), employeeInformationCsvString.join(), shiftInformationCsvString.join());
     }
 
     public static void main(String []args){
-        if (args.length != 1){
-            System.out.println("should be specifying precisely 1 command line argument - the path of the folder containing CSV data");
+        List<String> options = args.length > 0? Arrays.asList(args).subList(1, args.length): new ArrayList<>();
+        if (args.length == 0 || !List.of("--stream", "--warm-start", "--incremental-score", "--adaptive-termination", "--portfolio", "--partitioned", "--rolling-horizon", "--parse-cache", "--result-cache").containsAll(options)){
+            System.out.println("should be specifying the path of the folder containing CSV data, optionally followed by --stream to write each new feasible allocation whilst solving, "+
+                "--warm-start to start from the allocations in the folder's existing ALLOCATIONS_OUTPUT.csv, "+
+                "--incremental-score to calculate scores with the hand-written incremental score calculator, "+
+                "--adaptive-termination to scale the time spent solving with the size of the roster, "+
+                "--portfolio to race a solver on each core and keep the best allocation, "+
+                "--partitioned to search each week separately before searching all the shifts, "+
+                "--rolling-horizon to solve "+ROLLING_HORIZON_WINDOW_WEEKS+" weeks at a time (overlapping by "+ROLLING_HORIZON_OVERLAP_WEEKS+"), "+
+                "--parse-cache to reuse the employees and shifts parsed from the same CSV files on an earlier run, "+
+                "and/or --result-cache to reuse the allocations solved for the same roster and options on an earlier run");
             return;
         }
 
         Path commandLineCsvFolder = getPathOfCsvFolder(args[0]);
+        boolean streamBestSolutions = options.contains("--stream");
+        boolean warmStart = options.contains("--warm-start");
+        boolean incrementalScore = options.contains("--incremental-score");
+        boolean adaptiveTermination = options.contains("--adaptive-termination");
+        boolean portfolio = options.contains("--portfolio");
+        boolean partitioned = options.contains("--partitioned");
+        boolean rollingHorizon = options.contains("--rolling-horizon");
+        boolean useParseCache = options.contains("--parse-cache");
+        boolean useResultCache = options.contains("--result-cache");
         
-        Triplet<String, String, String> csvData = getDataFromFiles(commandLineCsvFolder);
+        // the availabilities are parsed straight from the file on several threads, so the file is only read into a string for the parse cache key
+        Triplet<String, String, String> csvData = getDataFromFiles(commandLineCsvFolder, useParseCache);
         String employeeAvailabilityCsvString = csvData.getValue0();
         String employeeInformationCsvString = csvData.getValue1();
         String shiftInformationCsvString = csvData.getValue2();
         
-        if (employeeAvailabilityCsvString == null || employeeInformationCsvString == null || shiftInformationCsvString == null){
+        if ((useParseCache && employeeAvailabilityCsvString == null) || employeeInformationCsvString == null || shiftInformationCsvString == null){
             // message given to user when ran getCsvStringWithoutSpecialCharactersUserFriendly, so don't need extra message
             return;
         }
 
         EmployeeSchedulingSystem employeeSchedulingSystem = new EmployeeSchedulingSystem();
-        // TODO = improve this, not granular
-        try{
-            employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(employeeInformationCsvString, employeeAvailabilityCsvString);
+        employeeSchedulingSystem.setUseIncrementalScoreCalculator(incrementalScore);
+        employeeSchedulingSystem.setUseAdaptiveTermination(adaptiveTermination);
+        employeeSchedulingSystem.setUsePartitionedSearch(partitioned);
+        if (rollingHorizon){
+            employeeSchedulingSystem.setRollingHorizon(ROLLING_HORIZON_WINDOW_WEEKS, ROLLING_HORIZON_OVERLAP_WEEKS);
         }
-        catch (DuplicatePlanningIdException e){
-            System.out.println("Your CSV file employee_availability.csv has a duplicate employee id");
-            return;
+        if (portfolio){
+            employeeSchedulingSystem.setPortfolioSize(Runtime.getRuntime().availableProcessors());
         }
-        catch (StartAfterEndException e){
-            System.out.println("Your CSV file employee_availability.csv has 1 or more start times at the same time or after the corresponding end times");
-            return;
-        } catch (CsvInputInvalidException e) {
-            System.out.println("Your CSV file employee_availability.csv or employee_information.csv disobeys the format requirements");
-            return;
-        } catch (AvailabilityEmployeeIdNotMatchingAnyEmployeeException e) {
-            System.out.println("Your CSV employee_availability.csv has employee ids which don't match any employee in employee_information.csv");
+        if (useResultCache){
+            employeeSchedulingSystem.setResultCache(Path.of(System.getProperty("user.home"), CACHE_DIRECTORY_NAME, "results"), RESULT_CACHE_MAXIMUM_ENTRY_COUNT, RESULT_CACHE_MAXIMUM_AGE);
         }
-        try{
-            employeeSchedulingSystem.processShiftsCsv(shiftInformationCsvString);
+        if (useParseCache){
+            employeeSchedulingSystem.setParseCacheDirectory(Path.of(System.getProperty("user.home"), CACHE_DIRECTORY_NAME, "parsed"));
         }
-        catch (DuplicatePlanningIdException e){
-            System.out.println("Your CSV file shift_information.csv has a duplicate shift id");
-            return;
+        if (employeeSchedulingSystem.loadFromParseCache(employeeInformationCsvString, employeeAvailabilityCsvString, shiftInformationCsvString)){
+            System.out.println("Loaded the employees and shifts parsed from the same CSV files on an earlier run");
         }
-        catch (StartAfterEndException e){
-            System.out.println("Your CSV file shift_information.csv has 1 or more start times at the same time or after the corresponding end times");
-        } catch (CsvInputInvalidException e) {
-            System.out.println("Your CSV file shift_information.csv or employee_information.csv disobeys the format requirements");
+        else{
+            // parse the files at the same time as processCsvs does, but add them in turn so each message can name the file with the problem.
+            // The availability file is often by far the largest, so it is parsed in chunks on several threads once the employees are added
+            CompletableFuture<List<EmployeeLoader>> informationBeans = parseCsvAsync(employeeInformationCsvString, EmployeeLoader.class, "employee_information.csv");
+            CompletableFuture<List<ShiftLoader>> shiftBeans = parseCsvAsync(shiftInformationCsvString, ShiftLoader.class, "shift_information.csv");
+            try{
+                employeeSchedulingSystem.addEmployees(getParsedBeans(informationBeans));
+            }
+            catch (DuplicatePlanningIdException e){
+                System.out.println("Your CSV file employee_information.csv has a duplicate employee id");
+                return;
+            } catch (CsvInputInvalidException e) {
+                System.out.println("Your CSV file employee_information.csv disobeys the format requirements");
+                return;
+            }
+            Path employeeAvailabilityPath = commandLineCsvFolder.resolve("employee_availability.csv");
+            try{
+                employeeSchedulingSystem.processEmployeeAvailabilityCsvFile(employeeAvailabilityPath);
+            }
+            catch (IOException e){
+                System.out.println("File "+employeeAvailabilityPath+" could not be loaded");
+                return;
+            }
+            catch (StartAfterEndException e){
+                System.out.println("Your CSV file employee_availability.csv has 1 or more start times at the same time or after the corresponding end times");
+                return;
+            } catch (AvailabilityEmployeeIdNotMatchingAnyEmployeeException e) {
+                System.out.println("Your CSV employee_availability.csv has employee ids which don't match any employee in employee_information.csv");
+                return;
+            } catch (CsvInputInvalidException e) {
+                System.out.println("Your CSV file employee_availability.csv disobeys the format requirements");
+                return;
+            }
+            try{
+                employeeSchedulingSystem.addShifts(getParsedBeans(shiftBeans));
+            }
+            catch (DuplicatePlanningIdException e){
+                System.out.println("Your CSV file shift_information.csv has a duplicate shift id");
+                return;
+            }
+            catch (StartAfterEndException e){
+                System.out.println("Your CSV file shift_information.csv has 1 or more start times at the same time or after the corresponding end times");
+                return;
+            } catch (ShiftEmployeeIdNotMatchingAnyEmployeeException e) {
+                System.out.println("Your CSV shift_information.csv has employee ids which don't match any employee in employee_information.csv");
+                return;
+            } catch (CsvInputInvalidException e) {
+                System.out.println("Your CSV file shift_information.csv disobeys the format requirements");
+                return;
+            }
+
+            try{
+                employeeSchedulingSystem.saveToParseCache(employeeInformationCsvString, employeeAvailabilityCsvString, shiftInformationCsvString);
+            }
+            catch (IOException e){
+                System.out.println("we couldn't write to the parse cache, so the CSV files will be parsed again next run");
+            }
         }
 
+        if (warmStart){
+            // previous allocations are optional, e.g. the first time the folder is run
+            Path previousAllocationsPath = commandLineCsvFolder.resolve("ALLOCATIONS_OUTPUT.csv");
+            if (Files.exists(previousAllocationsPath)){
+                String previousAllocationsCsvString = getCsvStringWithoutSpecialCharactersUserFriendly(previousAllocationsPath);
+                if (previousAllocationsCsvString == null){
+                    return;
+                }
+                try{
+                    int seededShiftCount = employeeSchedulingSystem.processPreviousAllocationsCsv(previousAllocationsCsvString);
+                    System.out.println("Starting from "+seededShiftCount+" previously allocated shifts in ALLOCATIONS_OUTPUT.csv");
+                }
+                catch (DuplicatePlanningIdException e){
+                    System.out.println("Your CSV file ALLOCATIONS_OUTPUT.csv has a duplicate shift id");
+                    return;
+                }
+                catch (CsvInputInvalidException e){
+                    System.out.println("Your CSV file ALLOCATIONS_OUTPUT.csv disobeys the format requirements");
+                    return;
+                }
+            }
+            else{
+                System.out.println("No ALLOCATIONS_OUTPUT.csv to start from, so starting from scratch");
+            }
+        }
+        if (streamBestSolutions){
+            employeeSchedulingSystem.setBestSolutionStreamingPath(commandLineCsvFolder.resolve("ALLOCATIONS_OUTPUT.csv"));
+        }
         HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(null);
         
         if (score.isFeasible()){
@@ -382,4 +1366,4 @@ public class EmployeeSchedulingSystem{
             System.out.println("ALLOCATION FAILED. Score is = "+score.toString());
         }
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -95,6 +95,15 @@ public class Allocations {
         return Collections.unmodifiableList(shifts);
     }
 
+    /**
+     * get the employees, e.g. to create allocations of copies of the shifts for the same employees
+     * @return the employees
+     */
+    public List<Employee> getEmployees(){
+        validityHelper(shifts, employees);
+        return Collections.unmodifiableList(employees);
+    }
+
     /**
      * helper method to check validity of internal data.
      * 
@@ -0,0 +1,174 @@
+package com.roster123.employeescheduler.domain;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+/**
+ * normalises availabilities with a sweep line, so they don't overlap (types of overlapping availabilities are merged into one set),
+ * have no empty type sets, and abutting availabilities with the same types are merged.
+ *
+ * Each start/end is an event of primitive time (millis) and type id. The events are bucketed by their rank amongst the distinct times,
+ * then swept in time order keeping a count of each active type, so a type stays active whilst any availability with it does.
+ * Segments are emitted already merged, by only starting a new availability when the set of active types changes.
+ *
+ * Times are compared as instants, so a boundary uses the first DateTime found at that instant
+ */
+public class AvailabilityNormaliser {
+    /**
+     * normalise existing availabilities with new availability loaders added
+     * @param availabilities existing availabilities (which may already be normalised)
+     * @param loadedAvailabilities new availability loaders to add (each must not start after it ends)
+     * @return normalised availabilities, in time order
+     */
+    public static List<Availability> normalise(List<Availability> availabilities, List<AvailabilityLoader> loadedAvailabilities){
+        assert (availabilities != null)&&(loadedAvailabilities != null);
+
+        int eventCount = 2*loadedAvailabilities.size();
+        for (Availability availability: availabilities){
+            eventCount += 2*availability.getTypes().size();
+        }
+
+        // type ids by type (a hashmap, since the type can be null), and the type of each id
+        Map<String, Integer> typeIds = new HashMap<>();
+        List<String> types = new ArrayList<>();
+        long[] eventTimes = new long[eventCount];
+        // type id*2, plus 1 for an end
+        int[] eventTypeCodes = new int[eventCount];
+        DateTime[] eventDateTimes = new DateTime[eventCount];
+
+        int event = 0;
+        for (AvailabilityLoader loadedAvailability: loadedAvailabilities){
+            int typeId = getTypeId(loadedAvailability.getType(), typeIds, types);
+            event = addEvents(event, loadedAvailability.getStart(), loadedAvailability.getEnd(), typeId, eventTimes, eventTypeCodes, eventDateTimes);
+        }
+        for (Availability availability: availabilities){
+            for (String type: availability.getTypes()){
+                int typeId = getTypeId(type, typeIds, types);
+                event = addEvents(event, availability.getStart(), availability.getEnd(), typeId, eventTimes, eventTypeCodes, eventDateTimes);
+            }
+        }
+
+        // distinct times, in order
+        long[] times = eventTimes.clone();
+        Arrays.sort(times);
+        int timeCount = 0;
+        for (int i=0; i<times.length; i++){
+            if ((timeCount == 0)||(times[timeCount-1] != times[i])){
+                times[timeCount++] = times[i];
+            }
+        }
+
+        // counting sort of the events by the rank of their time (eventsByTime[timeOffsets[r]..timeOffsets[r+1]) are the events at times[r])
+        int[] eventTimeRanks = new int[eventCount];
+        int[] timeOffsets = new int[timeCount+1];
+        for (int i=0; i<eventCount; i++){
+            eventTimeRanks[i] = Arrays.binarySearch(times, 0, timeCount, eventTimes[i]);
+            timeOffsets[eventTimeRanks[i]+1]++;
+        }
+        for (int r=0; r<timeCount; r++){
+            timeOffsets[r+1] += timeOffsets[r];
+        }
+        int[] eventsByTime = new int[eventCount];
+        int[] nextEventOfTime = Arrays.copyOf(timeOffsets, timeCount);
+        DateTime[] dateTimes = new DateTime[timeCount];
+        for (int i=0; i<eventCount; i++){
+            int rank = eventTimeRanks[i];
+            eventsByTime[nextEventOfTime[rank]++] = i;
+            if (dateTimes[rank] == null){
+                dateTimes[rank] = eventDateTimes[i];
+            }
+        }
+
+        // sweep, counting each type's active availabilities (a multiset, since availabilities with the same type can overlap)
+        int[] typeCounts = new int[types.size()];
+        boolean[] typeActive = new boolean[types.size()];
+        int activeTypeCount = 0;
+        // the start and types of the availability being swept (start -1 if no types are active)
+        int segmentStart = -1;
+        HashSet<String> segmentTypes = null;
+        List<Availability> normalisedAvailabilities = new ArrayList<>();
+        for (int r=0; r<timeCount; r++){
+            // apply all events at this time before comparing, so an availability ending where another with the same types starts is merged with it
+            for (int e=timeOffsets[r]; e<timeOffsets[r+1]; e++){
+                int typeCode = eventTypeCodes[eventsByTime[e]];
+                typeCounts[typeCode >> 1] += ((typeCode & 1) == 0)? 1: -1;
+            }
+            boolean typesChanged = false;
+            for (int e=timeOffsets[r]; e<timeOffsets[r+1]; e++){
+                int typeId = eventTypeCodes[eventsByTime[e]] >> 1;
+                if ((typeCounts[typeId] > 0) != typeActive[typeId]){
+                    typeActive[typeId] = !typeActive[typeId];
+                    activeTypeCount += typeActive[typeId]? 1: -1;
+                    typesChanged = true;
+                }
+            }
+            if (!typesChanged){
+                continue;
+            }
+
+            if (segmentStart != -1){
+                normalisedAvailabilities.add(new Availability(segmentTypes, dateTimes[segmentStart], dateTimes[r]));
+            }
+            segmentStart = -1;
+            if (activeTypeCount > 0){
+                segmentStart = r;
+                segmentTypes = new HashSet<>();
+                for (int typeId=0; typeId<typeActive.length; typeId++){
+                    if (typeActive[typeId]){
+                        segmentTypes.add(types.get(typeId));
+                    }
+                }
+            }
+        }
+        assert segmentStart == -1;
+
+        return normalisedAvailabilities;
+    }
+
+    /**
+     * get the id of a type, giving it the next id if it doesn't have one yet
+     * @param type the type (can be null)
+     * @param typeIds type ids by type
+     * @param types the type of each id
+     * @return type id
+     */
+    private static int getTypeId(String type, Map<String, Integer> typeIds, List<String> types){
+        Integer typeId = typeIds.get(type);
+        if (typeId == null){
+            typeId = types.size();
+            typeIds.put(type, typeId);
+            types.add(type);
+        }
+        return typeId;
+    }
+
+    /**
+     * add the start and end events of an availability with a type
+     * @param event index to add the start event at
+     * @param start start of the availability
+     * @param end end of the availability
+     * @param typeId id of the type
+     * @param eventTimes time of each event
+     * @param eventTypeCodes type id*2 of each event, plus 1 for an end
+     * @param eventDateTimes DateTime of each event
+     * @return index after the end event
+     */
+    private static int addEvents(int event, DateTime start, DateTime end, int typeId, long[] eventTimes, int[] eventTypeCodes, DateTime[] eventDateTimes){
+        assert !start.isAfter(end);
+        eventTimes[event] = start.getMillis();
+        eventTypeCodes[event] = 2*typeId;
+        eventDateTimes[event] = start;
+        eventTimes[event+1] = end.getMillis();
+        eventTypeCodes[event+1] = 2*typeId+1;
+        eventDateTimes[event+1] = end;
+        return event+2;
+    }
+}
@@ -6,16 +6,13 @@ import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Objects;
-import java.util.HashSet;
-import java.util.stream.Collectors;
 
 import org.javatuples.Pair;
-import org.javatuples.Triplet;
 import org.joda.time.DateTime;
 import org.joda.time.Interval;
-import org.joda.time.ReadableInstant;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 
+import com.roster123.employeescheduler.events.AvailabilityNormalisationEvent;
 import com.roster123.employeescheduler.loaders.AvailabilityLoader;
 import com.roster123.employeescheduler.validators.*;
 
@@ -108,147 +105,114 @@ public class Employee {
     }
 
     /**
-     * get sorted, broken-up list of availability and availability loader times for availability adding algorithm
-     * @param loadedAvailabilities new availability loaders we intend to add availabilities based on
-     * @return list of all start/end datetimes in availability/availability loader lists, with availability type, and whether is at start
+     * add availabilities using a list of availability loaders.
+     * 
+     * The availabilities stored in this class should have no overlaps in the availability objects (merging types together under a single list).
+     * 
+     * Normalised with a sweep line over the existing availabilities and the loaders together (see AvailabilityNormaliser)
+     * @return list of availabilities
      */
-    private List<Triplet<DateTime, String, Boolean>> getSortedAvailabilityAndAvailabilityLoaderTimesBrokenUp(List<AvailabilityLoader> loadedAvailabilities){
-        // TODO = unit test this method
-        // this array will contain datetime, type of availability, and whether start/end (note false is sorted before true in Java by default)
-        List<Triplet<DateTime, String, Boolean>> intervalsBrokenUp = new ArrayList<>();
-        for (AvailabilityLoader loadedAvailability: loadedAvailabilities){
-            intervalsBrokenUp.add(new Triplet<>(loadedAvailability.getStart(), loadedAvailability.getType(), false));
-            intervalsBrokenUp.add(new Triplet<>(loadedAvailability.getEnd(), loadedAvailability.getType(), true));
-        }
+    public void addAvailabilities(List<AvailabilityLoader> loadedAvailabilities){
+        assert loadedAvailabilities != null;
 
-        // now take into account there are existing availabilities, we should take them into account and not remove them
-        for (Availability availability: availabilities){
-            for (String type: availability.getTypes()){
-                intervalsBrokenUp.add(new Triplet<>(availability.getStart(), type, false));
-                intervalsBrokenUp.add(new Triplet<>(availability.getEnd(), type, true));
-            }
-        }
+        AvailabilityNormalisationEvent normalisationEvent = new AvailabilityNormalisationEvent(employeeId, loadedAvailabilities.size(), availabilities.size());
+        normalisationEvent.begin();
+
+        // overwrite existing availabilities and replace them (now guaranteed do not overlap, no empty type sets, and abutting availabilities with same types are merged)
+        availabilities = AvailabilityNormaliser.normalise(availabilities, loadedAvailabilities);
 
-        // perform sort that shifts nulls to the beginning
-        Collections.sort(intervalsBrokenUp, new TripletWithNullsComparator<DateTime, String, Boolean, ReadableInstant, String, Boolean>());
+        normalisationEvent.setResultingAvailabilityCount(availabilities.size());
+        normalisationEvent.commit();
+    }
 
-        return intervalsBrokenUp;
+    /**
+     * add a single availability from an availability loader (e.g. a live edit), without normalising all the availabilities again.
+     * 
+     * Only the availabilities overlapping or abutting it are normalised with it and replaced, since the rest are unchanged by it.
+     * The availabilities either side of those keep differing from their neighbours, as the affected range only starts/ends with new types
+     * where it doesn't abut them
+     * @param availability
+     */
+    public void addAvailability(AvailabilityLoader availability){
+        assert availability != null;
+
+        AvailabilityNormalisationEvent normalisationEvent = new AvailabilityNormalisationEvent(employeeId, 1, availabilities.size());
+        normalisationEvent.begin();
+
+        // availabilities are in time order with no overlaps, so their ends are in order too
+        int firstAffected = getFirstAvailabilityEndingAtOrAfter(availability.getStart());
+        int afterLastAffected = getFirstAvailabilityStartingAfter(availability.getEnd());
+        assert firstAffected <= afterLastAffected;
+        List<Availability> affectedAvailabilities = availabilities.subList(firstAffected, afterLastAffected);
+        List<Availability> normalisedAvailabilities = AvailabilityNormaliser.normalise(affectedAvailabilities, Arrays.asList(availability));
+        affectedAvailabilities.clear();
+        availabilities.addAll(firstAffected, normalisedAvailabilities);
+
+        normalisationEvent.setResultingAvailabilityCount(availabilities.size());
+        normalisationEvent.commit();
     }
 
     /**
-     * get all intervals spanning across the range of all times from earliest start to latest end in intervalBrokenUp, with the possibly empty set of types associated with it
-     * @param intervalsBrokenUp list of all start/end datetimes in availability/availability loader lists, with availability type, and whether is at start
-     * @return list of all intervals with possibly empty types
+     * binary search for the first availability which ends at or after a time
+     * @param time the time
+     * @return index of the availability, or the number of availabilities if all end before the time
      */
-    private List<Triplet<DateTime, DateTime, HashSet<String>>> getAllIntervalsWithTypes(List<Triplet<DateTime, String, Boolean>> intervalsBrokenUp){
-        // TODO = unit test this method
-        // use a list of current since can have duplicates of current types (unlike the problem on Github)
-        List<String> currentTypesList = new LinkedList<>();
-        // contains start time, end time, set of types. Used linkedlist as just adding to the end.
-        // using hashset since can contain null
-        // use pair of datetime rather than interval since intervals are ordered based on duration for jodatime
-        List<Triplet<DateTime, DateTime, HashSet<String>>> processedAvailabilities = new LinkedList<>();
-        for (int i=0; i<intervalsBrokenUp.size()-1; i++) {
-            // looping over pairs of adjacent items in intervalsBrokenUp
-            Triplet<DateTime, String, Boolean> firstTime = intervalsBrokenUp.get(i);
-            Triplet<DateTime, String, Boolean> secondTime = intervalsBrokenUp.get(i+1);
-
-            DateTime firstTimestamp = firstTime.getValue0();
-            String firstType = firstTime.getValue1();
-            Boolean firstIsStart = firstTime.getValue2();
-            DateTime secondTimestamp = secondTime.getValue0();
-            if (!firstIsStart){
-                currentTypesList.add(firstType);
+    private int getFirstAvailabilityEndingAtOrAfter(DateTime time){
+        int low = 0;
+        int high = availabilities.size();
+        while (low < high){
+            int middle = (low+high) >>> 1;
+            if (availabilities.get(middle).getEnd().isBefore(time)){
+                low = middle+1;
             }
             else{
-                currentTypesList.remove(firstType);
-            }
-
-            // note that checking here that firstTimestamp <= secondTimestamp would be redundant - it is guaranteed here, since the datetimes will have been sorted first
-            // we use != because we don't want to bother with availabilities of 0 width
-            if (firstTimestamp.compareTo(secondTimestamp) != 0){
-                // use a hashset since can contain null, which we require
-                processedAvailabilities.add(new Triplet<>(firstTimestamp, secondTimestamp, new HashSet<String>(currentTypesList)));
+                high = middle;
             }
         }
-
-        return processedAvailabilities;
+        return low;
     }
 
     /**
-     * get processed availabilities where if abutting availabilities have same types, merge them
-     * @param processedAvailabilitiesNoEmptyTypes list of all intervals with no empty types
-     * @return intervals which are merged if abutting and same types
+     * binary search for the first availability which starts after a time
+     * @param time the time
+     * @return index of the availability, or the number of availabilities if none start after the time
      */
-    private List<Triplet<DateTime, DateTime, HashSet<String>>> minimizeProcessedAvailabilities(List<Triplet<DateTime, DateTime, HashSet<String>>> processedAvailabilitiesNoEmptyTypes){
-        // TODO = unit test this method
-        // set to size of processed availabilities list to avoid wastage due to copying when large
-        List<Triplet<DateTime, DateTime, HashSet<String>>> processedAvailabilitiesMinimal = new ArrayList<>(processedAvailabilitiesNoEmptyTypes.size());
-        for (Triplet<DateTime, DateTime, HashSet<String>> availabilityInfo: processedAvailabilitiesNoEmptyTypes){
-            // potentially modify existing availability if already put one or more into this list
-            if (processedAvailabilitiesMinimal.size()>0){
-                int lastIndex = processedAvailabilitiesMinimal.size()-1;
-                DateTime currentStart = availabilityInfo.getValue0();
-                DateTime currentEnd = availabilityInfo.getValue1();
-                HashSet<String> currentTypes = availabilityInfo.getValue2();
-                DateTime previousStart = processedAvailabilitiesMinimal.get(lastIndex).getValue0();
-                DateTime previousEnd = processedAvailabilitiesMinimal.get(lastIndex).getValue1();
-                HashSet<String> previousTypes = processedAvailabilitiesMinimal.get(lastIndex).getValue2();
-                // if the current start abuts with the previous end (i.e. they're equal) and the types match, merge (note due to above algorithm wont have overlap)
-                if (currentStart.equals(previousEnd)&&currentTypes.equals(previousTypes)){
-                    // set the last last value to have the previous start and current end, and current types
-                    processedAvailabilitiesMinimal.set(lastIndex, new Triplet<>(previousStart, currentEnd, currentTypes));
-                }
-                else{
-                    // no abutting, thus add to the end (keeping in mind no overlapping)
-                    processedAvailabilitiesMinimal.add(availabilityInfo);
-                }
+    private int getFirstAvailabilityStartingAfter(DateTime time){
+        int low = 0;
+        int high = availabilities.size();
+        while (low < high){
+            int middle = (low+high) >>> 1;
+            if (availabilities.get(middle).getStart().isAfter(time)){
+                high = middle;
             }
             else{
-                // no availabilities have been added yet, so just add on
-                processedAvailabilitiesMinimal.add(availabilityInfo);
+                low = middle+1;
             }
         }
-
-        return processedAvailabilitiesMinimal;
+        return low;
     }
 
     /**
-     * add availabilities using a list of availability loaders.
-     * 
-     * The availabilities stored in this class should have no overlaps in the availability objects (merging types together under a single list).
-     * 
-     * NOTE - it is possible here to get adjacent availabilities of the same type. Could perhaps write a method to merge them, but not necessary
-     * @return list of availabilities
+     * get the availabilities, normalised so they don't overlap and abutting availabilities with the same types are merged
+     * @return unmodifiable list of availabilities, in time order
      */
-    public void addAvailabilities(List<AvailabilityLoader> loadedAvailabilities){
-        // algorithm matches the below link (except mine is inclusive for start/end whilst the example is exclusive)
-        // https://softwareengineering.stackexchange.com/questions/363091/split-overlapping-ranges-into-all-unique-ranges?newreg=93383e379afe4dd3a595480528ee1541
-        assert loadedAvailabilities != null;
-
-        List<Triplet<DateTime, String, Boolean>> intervalsBrokenUp = getSortedAvailabilityAndAvailabilityLoaderTimesBrokenUp(loadedAvailabilities);
-        
-        List<Triplet<DateTime, DateTime, HashSet<String>>> processedAvailabilities = getAllIntervalsWithTypes(intervalsBrokenUp);
-
-        List<Triplet<DateTime, DateTime, HashSet<String>>> processedAvailabilitiesNoEmptyTypes = processedAvailabilities.stream().filter(t->t.getValue2().size()>0).collect(Collectors.toList());
-
-        List<Triplet<DateTime, DateTime, HashSet<String>>> processedAvailabilitiesNoEmptyTypesMinimal = minimizeProcessedAvailabilities(processedAvailabilitiesNoEmptyTypes);
-
-        // now have the processed availabilities, produce list of Availability (now guaranteed do not overlap, no empty type sets, and abutting availabilities with same types are merged)
-        // set initial size, so a little faster (perhaps premature optimization unless many employees)
-        availabilities = new ArrayList<Availability>(processedAvailabilitiesNoEmptyTypesMinimal.size()); // overwrite existing availabilities and replace it
-        for (Triplet<DateTime, DateTime, HashSet<String>> availabilityInfo: processedAvailabilitiesNoEmptyTypesMinimal){
-            availabilities.add(new Availability(availabilityInfo.getValue2(), availabilityInfo.getValue0(), availabilityInfo.getValue1()));
-        }
+    public List<Availability> getAvailabilities(){
+        return Collections.unmodifiableList(availabilities);
     }
 
     /**
-     * add a single availability from an availability loader. Just a wrapper of addAvailabilities
-     * @param availability
+     * replace the availabilities with ones which were already normalised (e.g. read from a snapshot of a previous getAvailabilities), skipping normalisation.
+     * 
+     * The availabilities must be in time order, not overlap and have types (CLASS INVARIANT)
+     * @param normalisedAvailabilities normalised availabilities
      */
-    public void addAvailability(AvailabilityLoader availability){
-        assert availability != null;
-        addAvailabilities(new ArrayList<>(Arrays.asList(availability)));
+    public void setNormalisedAvailabilities(List<Availability> normalisedAvailabilities){
+        assert normalisedAvailabilities != null;
+        for (int i=0; i<normalisedAvailabilities.size(); i++){
+            assert !normalisedAvailabilities.get(i).getTypes().isEmpty();
+            assert (i == 0) || !normalisedAvailabilities.get(i-1).getEnd().isAfter(normalisedAvailabilities.get(i).getStart());
+        }
+        availabilities = new ArrayList<>(normalisedAvailabilities);
     }
 
     /**
@@ -453,6 +417,14 @@ public class Employee {
         return mobile;
     }
 
+    /**
+     * get the email of the employee
+     * @return email of the employee
+     */
+    public String getEmail(){
+        return email;
+    }
+
     /**
      * get the maximum number of weekly shifts allowed for this employee.
      * 
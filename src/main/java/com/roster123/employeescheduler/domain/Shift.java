@@ -13,6 +13,7 @@ import java.util.Locale;
 import org.javatuples.Pair;
 import org.joda.time.DateTime;
 import org.optaplanner.core.api.domain.entity.PlanningEntity;
+import org.optaplanner.core.api.domain.entity.PlanningPin;
 import org.optaplanner.core.api.domain.lookup.PlanningId;
 import org.optaplanner.core.api.domain.variable.PlanningVariable;
 
@@ -43,11 +44,21 @@ public class Shift extends TimePeriod{
     /**
      * the employee currently allocated to the shift.
      * 
-     * Accessible and modified by optaplanner, to optimize the allocation
+     * Accessible and modified by optaplanner, to optimize the allocation.
+     * 
+     * Can be left null by optaplanner (with a hard penalty) when there aren't enough employees, rather than forcing shifts onto employees who break more hard constraints
      */
-    @PlanningVariable(valueRangeProviderRefs = "employeeRange")
+    @PlanningVariable(valueRangeProviderRefs = "employeeRange", nullable = true)
     private Employee employee;
 
+    /**
+     * whether the allocation to the employee is locked (e.g. already published, or manually allocated).
+     * 
+     * Optaplanner never changes the employee of a pinned shift, but it still counts towards the constraints
+     */
+    @PlanningPin
+    private boolean pinned;
+
     /**
      * no-arg constructor for optaplanner
      */
@@ -68,6 +79,34 @@ public class Shift extends TimePeriod{
         this.shiftId = shiftId;
     }
 
+    /**
+     * constructor for a shift already allocated to an employee
+     * @param shiftId
+     * @param type
+     * @param start
+     * @param end
+     * @param employee the employee allocated to the shift
+     * @param pinned whether the allocation is locked, so optaplanner can't change it
+     */
+    public Shift(String shiftId, String type, DateTime start, DateTime end, Employee employee, boolean pinned) {
+        this(shiftId, type, start, end);
+        assert employee != null;
+        this.employee = employee;
+        this.pinned = pinned;
+    }
+
+    /**
+     * copy constructor, e.g. so several solvers can each change the employees of their own copy of the shifts.
+     *
+     * The employee isn't copied, since employees aren't changed by optaplanner
+     * @param shift the shift to copy
+     */
+    public Shift(Shift shift) {
+        this(shift.shiftId, shift.type, shift.getStart(), shift.getEnd());
+        this.employee = shift.employee;
+        this.pinned = shift.pinned;
+    }
+
     /**
      * get the employee for this shift.
      * 
@@ -82,6 +121,34 @@ public class Shift extends TimePeriod{
         return employee;
     }
 
+    /**
+     * set the employee for this shift, before solving.
+     * 
+     * Used to seed the shift with a previous allocation, so the solver starts from it rather than from scratch (optaplanner sets the employee itself whilst solving)
+     * @param employee employee to allocate to the shift, or null to leave unallocated
+     */
+    public void setEmployee(Employee employee) {
+        validityHelper(shiftId, type);
+        assert !pinned;
+        this.employee = employee;
+    }
+
+    /**
+     * get whether the shift has an employee
+     * @return whether allocated
+     */
+    public boolean isAllocated() {
+        return getEmployee() != null;
+    }
+
+    /**
+     * get whether the allocation to the employee is locked, so optaplanner can't change it
+     * @return whether pinned
+     */
+    public boolean isPinned() {
+        return pinned;
+    }
+
     @Override
     public boolean equals(Object obj){
         if (!super.equals(obj)){
@@ -89,12 +156,12 @@ public class Shift extends TimePeriod{
         }
         Shift other = (Shift)obj;
         return Objects.equals(shiftId, other.shiftId)&&Objects.equals(type, other.type)&&
-            Objects.equals(employee, other.employee);
+            Objects.equals(employee, other.employee)&&pinned == other.pinned;
     }
 
     @Override
     public String toString(){
-        return super.toString()+", shiftId="+shiftId+", type="+type+", employee="+employee;
+        return super.toString()+", shiftId="+shiftId+", type="+type+", employee="+employee+", pinned="+pinned;
     }
 
     /**
@@ -270,27 +337,27 @@ public class Shift extends TimePeriod{
 
     @Override
     public int hashCode() {
-        return Objects.hash(shiftId, type, employee, super.hashCode());
+        return Objects.hash(shiftId, type, employee, pinned, super.hashCode());
     }
 
     /**
      * check whether the employee currently stored can do the shift by the time, for optaplanner.
      * 
-     * Need employee to not be null
+     * True if there is no employee, since unallocated shifts are penalized separately
      * @return whether the employee can do this shift by the time
      */
     public boolean shiftEmployeeCanDoTime(){
-        return employee.canPerformShiftByTime(this);
+        return (employee == null) || employee.canPerformShiftByTime(this);
     }
 
     /**
      * check whether the employee currently stored can do the shift by the type, for optaplanner.
      * 
-     * Need employee to not be null
+     * True if there is no employee, since unallocated shifts are penalized separately
      * @return whether the employee can do this shift by the type
      */
     public boolean shiftEmployeeCanDoType(){
-        return employee.canPerformShiftByType(this);
+        return (employee == null) || employee.canPerformShiftByType(this);
     }
 
     /**
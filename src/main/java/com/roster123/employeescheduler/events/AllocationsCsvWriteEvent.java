@@ -0,0 +1,46 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering writing the allocations to ALLOCATIONS_OUTPUT.csv.
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.AllocationsCsvWrite")
+@Label("Allocations CSV Write")
+@Category({"Employee Scheduling", "Output"})
+@Description("Writing the allocations to a CSV file")
+public class AllocationsCsvWriteEvent extends Event {
+    /**
+     * the path of the file being written
+     */
+    @Label("Path")
+    private String path;
+
+    /**
+     * the number of shift rows written (excluding the header)
+     */
+    @Label("Row Count")
+    private int rowCount;
+
+    /**
+     * create event for the file at the path
+     * @param path path of the file being written
+     */
+    public AllocationsCsvWriteEvent(String path){
+        this.path = path;
+    }
+
+    /**
+     * set the number of rows written
+     * @param rowCount number of shift rows written
+     */
+    public void setRowCount(int rowCount){
+        this.rowCount = rowCount;
+    }
+}
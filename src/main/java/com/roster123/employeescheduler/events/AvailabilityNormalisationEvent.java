@@ -0,0 +1,62 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering the merging of availability rows into non-overlapping availabilities for a single employee (Employee.addAvailabilities).
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.AvailabilityNormalisation")
+@Label("Availability Normalisation")
+@Category({"Employee Scheduling", "Ingestion"})
+@Description("Merging availability rows into non-overlapping availabilities for an employee")
+public class AvailabilityNormalisationEvent extends Event {
+    /**
+     * the business id of the employee whose availabilities are normalised
+     */
+    @Label("Employee Id")
+    private String employeeId;
+
+    /**
+     * the number of availability rows being added
+     */
+    @Label("Added Row Count")
+    private int addedRowCount;
+
+    /**
+     * the number of availabilities the employee had before adding the rows
+     */
+    @Label("Existing Availability Count")
+    private int existingAvailabilityCount;
+
+    /**
+     * the number of availabilities the employee has after normalisation
+     */
+    @Label("Resulting Availability Count")
+    private int resultingAvailabilityCount;
+
+    /**
+     * create event for the employee
+     * @param employeeId business id of the employee
+     * @param addedRowCount number of availability rows being added
+     * @param existingAvailabilityCount number of availabilities before adding the rows
+     */
+    public AvailabilityNormalisationEvent(String employeeId, int addedRowCount, int existingAvailabilityCount){
+        this.employeeId = employeeId;
+        this.addedRowCount = addedRowCount;
+        this.existingAvailabilityCount = existingAvailabilityCount;
+    }
+
+    /**
+     * set the number of availabilities after normalisation
+     * @param resultingAvailabilityCount number of availabilities after normalisation
+     */
+    public void setResultingAvailabilityCount(int resultingAvailabilityCount){
+        this.resultingAvailabilityCount = resultingAvailabilityCount;
+    }
+}
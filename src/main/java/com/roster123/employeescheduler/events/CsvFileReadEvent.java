@@ -0,0 +1,56 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering reading an input CSV file from disk into a string (in getDataFromFiles).
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.CsvFileRead")
+@Label("CSV File Read")
+@Category({"Employee Scheduling", "Ingestion"})
+@Description("Reading an input CSV file into memory")
+public class CsvFileReadEvent extends Event {
+    /**
+     * the path of the file being read
+     */
+    @Label("Path")
+    private String path;
+
+    /**
+     * the number of bytes read from the file
+     */
+    @Label("Bytes Read")
+    @DataAmount
+    private long bytesRead;
+
+    /**
+     * the number of lines in the file (including the header)
+     */
+    @Label("Line Count")
+    private int lineCount;
+
+    /**
+     * create event for the file at the path
+     * @param path path of the file being read
+     */
+    public CsvFileReadEvent(String path){
+        this.path = path;
+    }
+
+    /**
+     * record what was read from the file
+     * @param bytesRead number of bytes read
+     * @param lineCount number of lines read
+     */
+    public void setReadResult(long bytesRead, int lineCount){
+        this.bytesRead = bytesRead;
+        this.lineCount = lineCount;
+    }
+}
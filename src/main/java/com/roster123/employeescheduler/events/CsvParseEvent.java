@@ -0,0 +1,46 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering opencsv bean parsing of a CSV string (in the process*Csv methods of EmployeeSchedulingSystem).
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.CsvParse")
+@Label("CSV Bean Parse")
+@Category({"Employee Scheduling", "Ingestion"})
+@Description("Parsing CSV data into loader beans")
+public class CsvParseEvent extends Event {
+    /**
+     * the name of the CSV file the data came from, e.g. shift_information.csv
+     */
+    @Label("File Name")
+    private String fileName;
+
+    /**
+     * the number of rows parsed into beans
+     */
+    @Label("Row Count")
+    private int rowCount;
+
+    /**
+     * create event for the CSV file with the name
+     * @param fileName name of the CSV file being parsed
+     */
+    public CsvParseEvent(String fileName){
+        this.fileName = fileName;
+    }
+
+    /**
+     * set the number of rows parsed
+     * @param rowCount number of rows parsed into beans
+     */
+    public void setRowCount(int rowCount){
+        this.rowCount = rowCount;
+    }
+}
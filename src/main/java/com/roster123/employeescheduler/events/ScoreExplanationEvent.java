@@ -0,0 +1,40 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering the explanation of the score of the solved allocations.
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.ScoreExplanation")
+@Label("Score Explanation")
+@Category({"Employee Scheduling", "Solving"})
+@Description("Explaining the score of the solved allocations")
+public class ScoreExplanationEvent extends Event {
+    /**
+     * the number of constraint matches in the explanation
+     */
+    @Label("Constraint Match Count")
+    private int constraintMatchCount;
+
+    /**
+     * the explained score
+     */
+    @Label("Score")
+    private String score;
+
+    /**
+     * record the outcome of the explanation
+     * @param constraintMatchCount number of constraint matches
+     * @param score the explained score
+     */
+    public void setExplanationResult(int constraintMatchCount, String score){
+        this.constraintMatchCount = constraintMatchCount;
+        this.score = score;
+    }
+}
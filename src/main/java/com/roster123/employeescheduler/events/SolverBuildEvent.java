@@ -0,0 +1,40 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering loading the solver configuration and building the optaplanner solver.
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.SolverBuild")
+@Label("Solver Build")
+@Category({"Employee Scheduling", "Solving"})
+@Description("Loading the solver configuration and building the solver")
+public class SolverBuildEvent extends Event {
+    /**
+     * the number of shifts to be allocated
+     */
+    @Label("Shift Count")
+    private int shiftCount;
+
+    /**
+     * the number of employees shifts can be allocated to
+     */
+    @Label("Employee Count")
+    private int employeeCount;
+
+    /**
+     * create event for a problem of the given size
+     * @param shiftCount number of shifts
+     * @param employeeCount number of employees
+     */
+    public SolverBuildEvent(int shiftCount, int employeeCount){
+        this.shiftCount = shiftCount;
+        this.employeeCount = employeeCount;
+    }
+}
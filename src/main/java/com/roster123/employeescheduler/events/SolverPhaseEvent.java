@@ -0,0 +1,70 @@
+package com.roster123.employeescheduler.events;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * flight recorder event covering a single optaplanner solver phase, such as the construction heuristic or local search.
+ * 
+ * Duration is recorded by JFR between begin and commit
+ */
+@Name("com.roster123.employeescheduler.SolverPhase")
+@Label("Solver Phase")
+@Category({"Employee Scheduling", "Solving"})
+@Description("A single phase of the optaplanner solver")
+public class SolverPhaseEvent extends Event {
+    /**
+     * index of the phase in the solver configuration (starting at 0)
+     */
+    @Label("Phase Index")
+    private int phaseIndex;
+
+    /**
+     * the type of the phase, e.g. LocalSearch
+     */
+    @Label("Phase Type")
+    private String phaseType;
+
+    /**
+     * the number of steps taken in the phase
+     */
+    @Label("Step Count")
+    private int stepCount;
+
+    /**
+     * the number of score calculations made in the phase
+     */
+    @Label("Score Calculation Count")
+    private long scoreCalculationCount;
+
+    /**
+     * the best score at the end of the phase
+     */
+    @Label("Best Score")
+    private String bestScore;
+
+    /**
+     * create event for a phase
+     * @param phaseIndex index of the phase in the solver configuration
+     * @param phaseType type of the phase
+     */
+    public SolverPhaseEvent(int phaseIndex, String phaseType){
+        this.phaseIndex = phaseIndex;
+        this.phaseType = phaseType;
+    }
+
+    /**
+     * record the outcome of the phase
+     * @param stepCount number of steps taken in the phase
+     * @param scoreCalculationCount number of score calculations made in the phase
+     * @param bestScore best score at the end of the phase
+     */
+    public void setPhaseResult(int stepCount, long scoreCalculationCount, String bestScore){
+        this.stepCount = stepCount;
+        this.scoreCalculationCount = scoreCalculationCount;
+        this.bestScore = bestScore;
+    }
+}
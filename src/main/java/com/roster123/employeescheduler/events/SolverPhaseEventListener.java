@@ -0,0 +1,49 @@
+package com.roster123.employeescheduler.events;
+
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.phase.scope.AbstractPhaseScope;
+
+import com.roster123.employeescheduler.domain.Allocations;
+
+/**
+ * optaplanner phase listener emitting a SolverPhaseEvent for every phase the solver runs.
+ * 
+ * A new listener should be used for every solve, since it counts phases to give their index
+ */
+public class SolverPhaseEventListener extends PhaseLifecycleListenerAdapter<Allocations> {
+    /**
+     * the event for the phase currently running, null if no phase running
+     */
+    private SolverPhaseEvent currentEvent;
+
+    /**
+     * the index of the next phase to be started
+     */
+    private int nextPhaseIndex;
+
+    /**
+     * the solver's score calculation count when the current phase started
+     */
+    private long startingScoreCalculationCount;
+
+    @Override
+    public void phaseStarted(AbstractPhaseScope<Allocations> phaseScope){
+        // e.g. LocalSearchPhaseScope becomes LocalSearch
+        String phaseType = phaseScope.getClass().getSimpleName().replace("PhaseScope", "");
+        currentEvent = new SolverPhaseEvent(nextPhaseIndex, phaseType);
+        nextPhaseIndex++;
+        startingScoreCalculationCount = phaseScope.getSolverScope().getScoreCalculationCount();
+        currentEvent.begin();
+    }
+
+    @Override
+    public void phaseEnded(AbstractPhaseScope<Allocations> phaseScope){
+        if (currentEvent == null){
+            return;
+        }
+        long scoreCalculationCount = phaseScope.getSolverScope().getScoreCalculationCount()-startingScoreCalculationCount;
+        currentEvent.setPhaseResult(phaseScope.getNextStepIndex(), scoreCalculationCount, String.valueOf(phaseScope.getBestScore()));
+        currentEvent.commit();
+        currentEvent = null;
+    }
+}
@@ -0,0 +1,12 @@
+package com.roster123.employeescheduler.exceptions;
+
+/**
+ * exception to indicate a shift employee id (for a shift allocated in the shift CSV) didn't match up to any employee.
+ * 
+ * A kind of invalid CSV input, so extends CsvInputInvalidException
+ */
+public class ShiftEmployeeIdNotMatchingAnyEmployeeException extends CsvInputInvalidException {
+    public ShiftEmployeeIdNotMatchingAnyEmployeeException(String message){
+        super(message);
+    }
+}
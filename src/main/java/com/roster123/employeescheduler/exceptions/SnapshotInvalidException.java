@@ -0,0 +1,10 @@
+package com.roster123.employeescheduler.exceptions;
+
+/**
+ * checked exception to be thrown when a problem snapshot file isn't a snapshot, is from an unsupported version of the format, or is cut short
+ */
+public class SnapshotInvalidException extends Exception {
+    public SnapshotInvalidException(String message){
+        super(message);
+    }
+}
@@ -0,0 +1,100 @@
+package com.roster123.employeescheduler.loaders;
+
+import java.util.Objects;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.validators.MustMatchRegexExpression;
+import com.opencsv.bean.validators.PreAssignmentValidator;
+
+/**
+ * class to load a previous allocation of an employee to a shift, from a prior ALLOCATIONS_OUTPUT.csv.
+ *
+ * Only the shift id and employee id are loaded - the other columns describe the shift, which is instead taken from shift_information.csv
+ */
+public class AllocationLoader {
+    /**
+     * unique business id of the shift.
+     *
+     * Cannot be null or ""
+     */
+    @PreAssignmentValidator(validator=MustMatchRegexExpression.class, paramString=".+")
+    @CsvBindByName(required=true)
+    private String shiftId;
+
+    /**
+     * unique business id of the employee previously allocated to the shift.
+     *
+     * Cannot be null or ""
+     */
+    @PreAssignmentValidator(validator=MustMatchRegexExpression.class, paramString=".+")
+    @CsvBindByName(required=true)
+    private String employeeId;
+
+    /**
+     * no-arg constructor (for use by opencsv)
+     */
+    public AllocationLoader(){
+    }
+
+    /**
+     * full constructor setting all fields
+     * @param shiftId
+     * @param employeeId
+     */
+    public AllocationLoader(String shiftId, String employeeId){
+        validityHelper(shiftId, employeeId);
+        this.shiftId = shiftId;
+        this.employeeId = employeeId;
+    }
+
+    /**
+     * get the unique business id of the shift
+     * @return shiftId
+     */
+    public String getShiftId(){
+        validityHelper(shiftId, employeeId);
+        return shiftId;
+    }
+
+    /**
+     * get the unique business id of the employee previously allocated to the shift
+     * @return employeeId
+     */
+    public String getEmployeeId(){
+        validityHelper(shiftId, employeeId);
+        return employeeId;
+    }
+
+    @Override
+    public boolean equals(Object obj){
+        if (obj == null){
+            return false;
+        }
+        if (getClass() != obj.getClass()){
+            return false;
+        }
+        AllocationLoader other = (AllocationLoader)obj;
+        return Objects.equals(shiftId, other.shiftId)&&Objects.equals(employeeId, other.employeeId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(shiftId, employeeId);
+    }
+
+    @Override
+    public String toString(){
+        return getClass().getSimpleName()+" shiftId="+shiftId+", employeeId="+employeeId;
+    }
+
+    /**
+     * helper method to check validity of this loader's internal data.
+     *
+     * Used because forced to have empty constructor
+     * @param shiftId
+     * @param employeeId
+     */
+    private static void validityHelper(String shiftId, String employeeId){
+        assert (shiftId != null)&&(!"".equals(shiftId))&&(employeeId != null)&&(!"".equals(employeeId));
+    }
+}
@@ -0,0 +1,226 @@
+package com.roster123.employeescheduler.loaders;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+
+import com.google.common.base.CharMatcher;
+import com.opencsv.bean.CsvToBeanBuilder;
+
+import com.roster123.employeescheduler.events.CsvParseEvent;
+import com.roster123.employeescheduler.exceptions.CsvInputInvalidException;
+
+/**
+ * parses a (possibly huge) availability CSV file on several threads, by memory-mapping the file and splitting it into chunks of whole rows.
+ *
+ * Rows are split at line breaks outside of quoted values, so values with line breaks in them stay in one chunk.
+ * Each chunk is parsed with opencsv under the file's header, so the rows become exactly the same AvailabilityLoaders as parsing the whole file at once
+ */
+public class ChunkedAvailabilityCsvParser {
+    /**
+     * the smallest chunk worth parsing on its own thread
+     */
+    static final int MINIMUM_CHUNK_BYTES = 1 << 20;
+
+    /**
+     * the largest chunk to aim for, since each chunk is mapped and decoded into a string at once (chunks still run on to the end of their last row)
+     */
+    static final int MAXIMUM_CHUNK_BYTES = 1 << 28;
+
+    /**
+     * the most bytes mapped at a time whilst finding where to split (a mapping can be at most 2GB)
+     */
+    private static final int SCAN_WINDOW_BYTES = 1 << 28;
+
+    /**
+     * parse an availability CSV file, grouping the rows by employee
+     * @param path the availability CSV file
+     * @param forkJoinPool the pool to parse the chunks on
+     * @return the loader of each row, by employee id (in the order the employee ids first appear, with each employee's rows in file order)
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws CsvInputInvalidException thrown if any chunk can't be parsed into loaders
+     */
+    public static Map<String, List<AvailabilityLoader>> parse(Path path, ForkJoinPool forkJoinPool) throws IOException, CsvInputInvalidException{
+        return parse(path, forkJoinPool, MINIMUM_CHUNK_BYTES);
+    }
+
+    /**
+     * parse an availability CSV file, grouping the rows by employee
+     * @param path the availability CSV file
+     * @param forkJoinPool the pool to parse the chunks on
+     * @param minimumChunkBytes the smallest chunk to split the file into
+     * @return the loader of each row, by employee id
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws CsvInputInvalidException thrown if any chunk can't be parsed into loaders
+     */
+    static Map<String, List<AvailabilityLoader>> parse(Path path, ForkJoinPool forkJoinPool, int minimumChunkBytes) throws IOException, CsvInputInvalidException{
+        assert (path != null)&&(forkJoinPool != null)&&(minimumChunkBytes > 0);
+        CsvParseEvent parseEvent = new CsvParseEvent(path.getFileName().toString());
+        parseEvent.begin();
+        Map<String, List<AvailabilityLoader>> loadersByEmployeeId = new LinkedHashMap<>();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            long size = channel.size();
+            List<Long> rowStarts = getChunkStarts(channel, size, getChunkBytes(size, forkJoinPool.getParallelism(), minimumChunkBytes));
+            if (rowStarts.isEmpty()){
+                throw new CsvInputInvalidException("failure trying to process file "+path.getFileName()+", as it has no header");
+            }
+            // a mapping can be at most 2GB, which only a single row (or the header) that long can reach
+            for (int i=0; i<rowStarts.size(); i++){
+                if (rowStarts.get(i)-((i == 0)? 0: rowStarts.get(i-1)) > Integer.MAX_VALUE){
+                    throw new CsvInputInvalidException("failure trying to process file "+path.getFileName()+", as it has a row too long to read");
+                }
+            }
+            // excel seems to automatically add UTF 65279 as the first character, so only keep ascii in the header
+            String header = CharMatcher.ascii().retainFrom(readString(channel, 0, rowStarts.get(0)));
+
+            List<CompletableFuture<List<AvailabilityLoader>>> chunkLoaderFutures = new ArrayList<>();
+            for (int i=0; i<rowStarts.size()-1; i++){
+                long chunkStart = rowStarts.get(i);
+                long chunkEnd = rowStarts.get(i+1);
+                chunkLoaderFutures.add(CompletableFuture.supplyAsync(() -> {
+                    try{
+                        return parseChunk(header, readString(channel, chunkStart, chunkEnd), path);
+                    }
+                    catch (IOException|CsvInputInvalidException e){
+                        throw new CompletionException(e);
+                    }
+                }, forkJoinPool));
+            }
+            int rowCount = 0;
+            // merged in file order, so each employee's rows stay in file order
+            for (CompletableFuture<List<AvailabilityLoader>> chunkLoaderFuture: chunkLoaderFutures){
+                List<AvailabilityLoader> chunkLoaders = getChunkLoaders(chunkLoaderFuture, path);
+                rowCount += chunkLoaders.size();
+                for (AvailabilityLoader loader: chunkLoaders){
+                    loadersByEmployeeId.computeIfAbsent(loader.getEmployeeId(), k -> new ArrayList<>()).add(loader);
+                }
+            }
+            parseEvent.setRowCount(rowCount);
+        }
+        parseEvent.commit();
+        return loadersByEmployeeId;
+    }
+
+    /**
+     * get the size of chunk to aim for - a few chunks per thread, so threads given slower chunks don't hold up the rest,
+     * but no more than MAXIMUM_CHUNK_BYTES however few threads there are
+     * @param size the size of the file
+     * @param parallelism the number of threads parsing the chunks
+     * @param minimumChunkBytes the smallest chunk to split the file into
+     * @return the smallest size of each chunk
+     */
+    static long getChunkBytes(long size, int parallelism, int minimumChunkBytes){
+        return Math.max(minimumChunkBytes, Math.min(MAXIMUM_CHUNK_BYTES, size/(4L*parallelism)));
+    }
+
+    /**
+     * find where to split the file into chunks, only splitting after a line break outside of quoted values
+     * @param channel the file
+     * @param size the size of the file
+     * @param chunkBytes the smallest size of each chunk
+     * @return the start of the rows after the header, the start of each later chunk, then the end of the file (empty if there is no header)
+     * @throws IOException exception can be thrown if the file can't be read
+     */
+    private static List<Long> getChunkStarts(FileChannel channel, long size, long chunkBytes) throws IOException{
+        List<Long> chunkStarts = new ArrayList<>();
+        boolean inQuotes = false;
+        // the header is the first chunk to find, ending at the first line break
+        long nextSplit = 0;
+        for (long windowStart=0; windowStart<size; windowStart+=SCAN_WINDOW_BYTES){
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, Math.min(SCAN_WINDOW_BYTES, size-windowStart));
+            for (int i=0; i<window.limit(); i++){
+                byte b = window.get(i);
+                // an escaped quote ("") toggles twice, so leaves whether in quotes unchanged
+                if (b == '"'){
+                    inQuotes = !inQuotes;
+                }
+                else if (b == '\n' && !inQuotes && windowStart+i >= nextSplit){
+                    chunkStarts.add(windowStart+i+1);
+                    nextSplit = windowStart+i+1+chunkBytes;
+                }
+            }
+        }
+        if (chunkStarts.isEmpty()){
+            // a header without a line break, so no rows
+            return (size > 0)? List.of(size, size): chunkStarts;
+        }
+        if (chunkStarts.get(chunkStarts.size()-1) < size){
+            chunkStarts.add(size);
+        }
+        else if (chunkStarts.size() == 1){
+            // only a header
+            chunkStarts.add(size);
+        }
+        return chunkStarts;
+    }
+
+    /**
+     * read part of the file as a string
+     * @param channel the file
+     * @param start the first byte (at the start of a line, so not within a character)
+     * @param end the byte after the last (also at the start of a line)
+     * @return the UTF-8 string
+     * @throws IOException exception can be thrown if the file can't be read
+     */
+    private static String readString(FileChannel channel, long start, long end) throws IOException{
+        return StandardCharsets.UTF_8.decode(channel.map(FileChannel.MapMode.READ_ONLY, start, end-start)).toString();
+    }
+
+    /**
+     * parse a chunk of rows with opencsv
+     * @param header the header of the file
+     * @param rows whole rows of the file
+     * @param path the file, for the exception message
+     * @return the loader of each row
+     * @throws CsvInputInvalidException thrown if the rows can't be parsed into loaders
+     */
+    private static List<AvailabilityLoader> parseChunk(String header, String rows, Path path) throws CsvInputInvalidException{
+        try{
+            return new CsvToBeanBuilder<AvailabilityLoader>(new StringReader(header+rows))
+                    .withType(AvailabilityLoader.class)
+                    .build()
+                    .parse();
+        }
+        catch (RuntimeException e){
+            throw new CsvInputInvalidException("failure trying to process file "+path.getFileName());
+        }
+    }
+
+    /**
+     * wait for a chunk to be parsed
+     * @param chunkLoaderFuture the loaders of the chunk, once parsed
+     * @param path the file, for the exception message
+     * @return the loader of each row of the chunk
+     * @throws IOException thrown if the chunk couldn't be read
+     * @throws CsvInputInvalidException thrown if the chunk couldn't be parsed
+     */
+    private static List<AvailabilityLoader> getChunkLoaders(CompletableFuture<List<AvailabilityLoader>> chunkLoaderFuture, Path path) throws IOException, CsvInputInvalidException{
+        try{
+            return chunkLoaderFuture.join();
+        }
+        catch (CompletionException e){
+            if (e.getCause() instanceof CsvInputInvalidException){
+                throw (CsvInputInvalidException) e.getCause();
+            }
+            if (e.getCause() instanceof IOException){
+                throw (IOException) e.getCause();
+            }
+            // e.g. assertions, which are programming errors rather than problems with the file
+            if (e.getCause() instanceof Error){
+                throw (Error) e.getCause();
+            }
+            throw new CsvInputInvalidException("failure trying to process file "+path.getFileName()+" ("+e.getCause()+")");
+        }
+    }
+}
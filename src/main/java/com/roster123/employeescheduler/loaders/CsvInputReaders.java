@@ -0,0 +1,102 @@
+package com.roster123.employeescheduler.loaders;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
+import com.roster123.employeescheduler.exceptions.CsvInputInvalidException;
+
+/**
+ * opens csv input from streams, files and channels as readers to parse from, without reading it all into memory first.
+ *
+ * Compressed input is decompressed as it is read, recognised by its first bytes rather than a file name (so uploads can be passed straight in).
+ * A byte order mark at the start (which excel adds) is skipped
+ */
+public class CsvInputReaders {
+    private static final byte[] GZIP_MAGIC = {(byte) 0x1f, (byte) 0x8b};
+    private static final byte[] ZSTD_MAGIC = {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd};
+
+    private static final char BYTE_ORDER_MARK = '\uFEFF';
+
+    /**
+     * get a reader of UTF-8 csv input from a stream, decompressing it if gzip compressed
+     * @param inputStream the stream (closed when the reader is closed, but left for the caller to close if an exception is thrown)
+     * @return reader of the csv
+     * @throws IOException exception can be thrown if the start of the stream can't be read
+     * @throws CsvInputInvalidException thrown if the input is compressed in a format which can't be decompressed (zstd)
+     */
+    public static Reader getReader(InputStream inputStream) throws IOException, CsvInputInvalidException{
+        assert inputStream != null;
+        InputStream bufferedInputStream = new BufferedInputStream(inputStream);
+        bufferedInputStream.mark(ZSTD_MAGIC.length);
+        byte[] start = bufferedInputStream.readNBytes(ZSTD_MAGIC.length);
+        bufferedInputStream.reset();
+
+        InputStream csvInputStream = bufferedInputStream;
+        if (startsWith(start, GZIP_MAGIC)){
+            csvInputStream = new GZIPInputStream(bufferedInputStream);
+        }
+        else if (startsWith(start, ZSTD_MAGIC)){
+            throw new CsvInputInvalidException("zstd compressed csv input can't be decompressed, so should be decompressed (or gzip compressed) first");
+        }
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(csvInputStream, StandardCharsets.UTF_8));
+        reader.mark(1);
+        if (reader.read() != BYTE_ORDER_MARK){
+            reader.reset();
+        }
+        return reader;
+    }
+
+    /**
+     * get a reader of UTF-8 csv input from a channel, decompressing it if gzip compressed
+     * @param channel the channel (closed when the reader is closed, but left for the caller to close if an exception is thrown)
+     * @return reader of the csv
+     * @throws IOException exception can be thrown if the start of the channel can't be read
+     * @throws CsvInputInvalidException thrown if the input is compressed in a format which can't be decompressed (zstd)
+     */
+    public static Reader getReader(ReadableByteChannel channel) throws IOException, CsvInputInvalidException{
+        assert channel != null;
+        return getReader(Channels.newInputStream(channel));
+    }
+
+    /**
+     * get a reader of a UTF-8 csv file, decompressing it if gzip compressed
+     * @param path the file
+     * @return reader of the csv, to be closed once read
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws CsvInputInvalidException thrown if the file is compressed in a format which can't be decompressed (zstd)
+     */
+    public static Reader getReader(Path path) throws IOException, CsvInputInvalidException{
+        assert path != null;
+        InputStream inputStream = Files.newInputStream(path);
+        try{
+            return getReader(inputStream);
+        }
+        catch (IOException | CsvInputInvalidException e){
+            // no reader to close the file with
+            inputStream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * helper to check whether bytes start with a magic number
+     * @param bytes the bytes
+     * @param magic the magic number
+     * @return whether the bytes start with it
+     */
+    private static boolean startsWith(byte[] bytes, byte[] magic){
+        return bytes.length >= magic.length && Arrays.equals(Arrays.copyOf(bytes, magic.length), magic);
+    }
+}
@@ -0,0 +1,134 @@
+package com.roster123.employeescheduler.loaders;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.joda.time.DateTimeZone;
+
+import com.roster123.employeescheduler.domain.Employee;
+import com.roster123.employeescheduler.domain.Shift;
+import com.roster123.employeescheduler.exceptions.SnapshotInvalidException;
+import com.roster123.employeescheduler.writers.ProblemSnapshotWriter;
+
+/**
+ * cache of the employees and shifts parsed from CSV files, so files which haven't changed since the last run don't have to be parsed, validated and normalised again.
+ *
+ * Each entry is a problem snapshot (see ProblemSnapshotWriter) in the cache directory, named by a hash of the contents of the CSV files it was parsed from.
+ * Changed files therefore get a different entry, so entries never need invalidating (old entries can be deleted at any time).
+ *
+ * Entries are only an optimisation, so ones which can't be read are treated as missing
+ */
+public class ParseCache {
+    private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+    private final Path cacheDirectory;
+
+    /**
+     * create cache with entries in the directory
+     * @param cacheDirectory the directory (created when the first entry is added, if it doesn't exist)
+     */
+    public ParseCache(Path cacheDirectory){
+        assert cacheDirectory != null;
+        this.cacheDirectory = cacheDirectory;
+    }
+
+    /**
+     * get the key of the entry for the contents of CSV files.
+     *
+     * Includes the default time zone, since times without a zone are parsed in it
+     * @param csvData the contents of each CSV file, in the same order every time
+     * @return SHA-256 hash, in hexadecimal
+     */
+    public static String getKey(String... csvData){
+        MessageDigest keyDigest = getSha256Digest();
+        for (String csv: csvData){
+            assert csv != null;
+            // hash each file separately, so moving text from the end of one file to the start of the next changes the key
+            keyDigest.update(getSha256Digest().digest(csv.getBytes(StandardCharsets.UTF_8)));
+        }
+        keyDigest.update(DateTimeZone.getDefault().getID().getBytes(StandardCharsets.UTF_8));
+        return getHexDigest(keyDigest);
+    }
+
+    /**
+     * helper to get a new SHA-256 digest (which every java platform has), also used for the keys of other caches so all keys are built the same way
+     * @return digest
+     */
+    public static MessageDigest getSha256Digest(){
+        try{
+            return MessageDigest.getInstance("SHA-256");
+        }
+        catch (NoSuchAlgorithmException e){
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * helper to finish a digest as a key
+     * @param digest the digest, with everything in the key added
+     * @return the hash, in lowercase hexadecimal (2 digits per byte)
+     */
+    public static String getHexDigest(MessageDigest digest){
+        StringBuilder key = new StringBuilder();
+        for (byte b: digest.digest()){
+            key.append(Character.forDigit((b >> 4)&0xF, 16)).append(Character.forDigit(b&0xF, 16));
+        }
+        return key.toString();
+    }
+
+    /**
+     * get the employees and shifts of an entry
+     * @param key the key of the entry (see getKey)
+     * @return the employees and shifts, or null if there's no entry for the key (or it can't be read)
+     */
+    public Pair<List<Employee>, List<Shift>> get(String key){
+        Path snapshotPath = getSnapshotPath(key);
+        if (!Files.isRegularFile(snapshotPath)){
+            return null;
+        }
+        try{
+            return ProblemSnapshotReader.readSnapshot(snapshotPath);
+        }
+        catch (IOException|SnapshotInvalidException e){
+            // e.g. written by an older version of the snapshot layout, so will be replaced by the next put
+            return null;
+        }
+    }
+
+    /**
+     * add an entry, replacing any existing entry for the key
+     * @param key the key of the entry (see getKey)
+     * @param employees employees parsed from the CSV files of the key
+     * @param shifts shifts parsed from the CSV files of the key
+     * @throws IOException exception can be thrown if don't have the permission to write to the cache directory, or some error happens in writing to it otherwise
+     */
+    public void put(String key, List<Employee> employees, List<Shift> shifts) throws IOException{
+        Files.createDirectories(cacheDirectory);
+        // write to a temporary file first, so runs at the same time never read a partly written entry
+        Path temporaryPath = Files.createTempFile(cacheDirectory, key, ".tmp");
+        try{
+            ProblemSnapshotWriter.writeSnapshot(employees, shifts, temporaryPath);
+            Files.move(temporaryPath, getSnapshotPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally{
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * get the file of an entry
+     * @param key the key of the entry
+     * @return path of the snapshot file
+     */
+    Path getSnapshotPath(String key){
+        assert key != null;
+        return cacheDirectory.resolve(key+SNAPSHOT_EXTENSION);
+    }
+}
@@ -0,0 +1,179 @@
+package com.roster123.employeescheduler.loaders;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import com.roster123.employeescheduler.domain.Availability;
+import com.roster123.employeescheduler.domain.Employee;
+import com.roster123.employeescheduler.domain.Shift;
+import com.roster123.employeescheduler.exceptions.SnapshotInvalidException;
+import com.roster123.employeescheduler.writers.ProblemSnapshotWriter;
+
+/**
+ * reads employees and shifts from a binary snapshot file written by ProblemSnapshotWriter, by memory-mapping the file.
+ *
+ * Nothing is parsed, validated or normalised again, so this is far faster than loading the CSV files the snapshot was made from
+ */
+public class ProblemSnapshotReader {
+    /**
+     * the fewest bytes each string, employee, availability, availability type and shift takes in a snapshot (as written by ProblemSnapshotWriter),
+     * for checking a count in the snapshot against the bytes left before allocating for it
+     */
+    private static final int STRING_BYTES = 4;
+    private static final int EMPLOYEE_BYTES = 33;
+    private static final int AVAILABILITY_BYTES = 28;
+    private static final int TYPE_BYTES = 4;
+    private static final int SHIFT_BYTES = 37;
+
+    /**
+     * read the employees and shifts from a snapshot file
+     * @param path the snapshot file
+     * @return the employees (with their normalised availabilities), and the shifts (allocated to those employees)
+     * @throws IOException exception can be thrown if the file doesn't exist, or can't be read
+     * @throws SnapshotInvalidException thrown if the file isn't a snapshot, is from another version of the layout, or is cut short or corrupt
+     */
+    public static Pair<List<Employee>, List<Shift>> readSnapshot(Path path) throws IOException, SnapshotInvalidException{
+        assert path != null;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)){
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return readSnapshot(buffer);
+        }
+    }
+
+    /**
+     * read the employees and shifts from the contents of a snapshot file
+     * @param buffer the contents, positioned at the start of the snapshot
+     * @return the employees and the shifts
+     * @throws SnapshotInvalidException thrown if the contents aren't a snapshot, are from another version of the layout, or are cut short or corrupt
+     */
+    static Pair<List<Employee>, List<Shift>> readSnapshot(ByteBuffer buffer) throws SnapshotInvalidException{
+        try{
+            if (buffer.getInt() != ProblemSnapshotWriter.MAGIC){
+                throw new SnapshotInvalidException("not a problem snapshot");
+            }
+            int version = buffer.getInt();
+            if (version != ProblemSnapshotWriter.VERSION){
+                throw new SnapshotInvalidException("problem snapshot has version "+version+", but only version "+ProblemSnapshotWriter.VERSION+" can be read");
+            }
+
+            String[] strings = new String[getCount(buffer, STRING_BYTES)];
+            for (int i=0; i<strings.length; i++){
+                byte[] bytes = new byte[getCount(buffer, 1)];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int employeeCount = getCount(buffer, EMPLOYEE_BYTES);
+            List<Employee> employees = new ArrayList<>(employeeCount);
+            for (int i=0; i<employeeCount; i++){
+                String employeeId = getString(strings, buffer.getInt());
+                String name = getString(strings, buffer.getInt());
+                String mobile = getString(strings, buffer.getInt());
+                String email = getString(strings, buffer.getInt());
+                int importance = buffer.getInt();
+                boolean hasMaxWeeklyShifts = buffer.get() != 0;
+                int maxWeeklyShifts = buffer.getInt();
+                int minWeeklyShifts = buffer.getInt();
+                Employee employee = new Employee(employeeId, name, mobile, email, importance, hasMaxWeeklyShifts? maxWeeklyShifts: null, minWeeklyShifts);
+
+                int availabilityCount = getCount(buffer, AVAILABILITY_BYTES);
+                List<Availability> availabilities = new ArrayList<>(availabilityCount);
+                for (int j=0; j<availabilityCount; j++){
+                    DateTime start = readDateTime(buffer, strings);
+                    DateTime end = readDateTime(buffer, strings);
+                    int typeCount = getCount(buffer, TYPE_BYTES);
+                    HashSet<String> types = new HashSet<>();
+                    for (int k=0; k<typeCount; k++){
+                        types.add(getString(strings, buffer.getInt()));
+                    }
+                    availabilities.add(new Availability(types, start, end));
+                }
+                employee.setNormalisedAvailabilities(availabilities);
+                employees.add(employee);
+            }
+
+            int shiftCount = getCount(buffer, SHIFT_BYTES);
+            List<Shift> shifts = new ArrayList<>(shiftCount);
+            for (int i=0; i<shiftCount; i++){
+                String shiftId = getString(strings, buffer.getInt());
+                String type = getString(strings, buffer.getInt());
+                DateTime start = readDateTime(buffer, strings);
+                DateTime end = readDateTime(buffer, strings);
+                int employeeIndex = buffer.getInt();
+                boolean pinned = buffer.get() != 0;
+                if (employeeIndex < -1 || employeeIndex >= employees.size() || (pinned && employeeIndex == -1)){
+                    throw new SnapshotInvalidException("problem snapshot has shiftId="+shiftId+" with an invalid employee");
+                }
+                shifts.add((employeeIndex == -1)? new Shift(shiftId, type, start, end): new Shift(shiftId, type, start, end, employees.get(employeeIndex), pinned));
+            }
+            return new Pair<>(employees, shifts);
+        }
+        catch (BufferUnderflowException e){
+            throw new SnapshotInvalidException("problem snapshot is cut short");
+        }
+        catch (IllegalArgumentException e){
+            // an unknown time zone id
+            throw new SnapshotInvalidException("problem snapshot is corrupt");
+        }
+    }
+
+    /**
+     * read a count (or length), checking it against the bytes left so a corrupt count can't allocate more memory than the snapshot could fill
+     * @param buffer the contents of the snapshot
+     * @param bytesEach the fewest bytes each counted item takes
+     * @return the count
+     * @throws SnapshotInvalidException thrown if the count is negative, or more than the bytes left could hold
+     */
+    private static int getCount(ByteBuffer buffer, int bytesEach) throws SnapshotInvalidException{
+        int count = buffer.getInt();
+        if (count < 0 || (long)count*bytesEach > buffer.remaining()){
+            throw new SnapshotInvalidException("problem snapshot has a count of "+count+", but only "+buffer.remaining()+" bytes left");
+        }
+        return count;
+    }
+
+    /**
+     * read a time written as its milliseconds since the epoch and the index of its time zone id
+     * @param buffer the contents of the snapshot
+     * @param strings the strings of the snapshot
+     * @return the time
+     * @throws SnapshotInvalidException thrown if the time zone index isn't valid
+     */
+    private static DateTime readDateTime(ByteBuffer buffer, String[] strings) throws SnapshotInvalidException{
+        long millis = buffer.getLong();
+        String zoneId = getString(strings, buffer.getInt());
+        if (zoneId == null){
+            throw new SnapshotInvalidException("problem snapshot has a time without a time zone");
+        }
+        return new DateTime(millis, DateTimeZone.forID(zoneId));
+    }
+
+    /**
+     * get a string by its index in the snapshot's strings
+     * @param strings the strings of the snapshot
+     * @param index index of the string, or -1 for null
+     * @return the string
+     * @throws SnapshotInvalidException thrown if the index isn't valid
+     */
+    private static String getString(String[] strings, int index) throws SnapshotInvalidException{
+        if (index == -1){
+            return null;
+        }
+        if (index < 0 || index >= strings.length){
+            throw new SnapshotInvalidException("problem snapshot refers to string "+index+", but only has "+strings.length);
+        }
+        return strings[index];
+    }
+}
@@ -3,11 +3,13 @@ package com.roster123.employeescheduler.loaders;
 import java.util.Objects;
 
 import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.processor.PreAssignmentProcessor;
 import com.opencsv.bean.validators.MustMatchRegexExpression;
 import com.opencsv.bean.validators.PreAssignmentValidator;
 
 import org.joda.time.DateTime;
 
+import com.roster123.employeescheduler.domain.Employee;
 import com.roster123.employeescheduler.domain.Shift;
 
 /**
@@ -34,6 +36,23 @@ public class ShiftLoader extends TimePeriodLoader {
     @CsvBindByName(required=true)
     private String type;
 
+    /**
+     * the business id of the employee already allocated to the shift (optional column).
+     * 
+     * If "" or the column is missing, null (i.e. the solver allocates the shift)
+     */
+    @PreAssignmentProcessor(processor = EmptyStringBecomesNullProcessor.class)
+    @CsvBindByName
+    private String employeeId;
+
+    /**
+     * whether the allocation to the employee is locked, so the solver can't change it (optional column).
+     * 
+     * If "" or the column is missing, null (treated as not pinned). Requires an employeeId if true
+     */
+    @CsvBindByName
+    private Boolean pinned;
+
     /**
      * no-arg constructor (for use by opencsv)
      */
@@ -49,10 +68,25 @@ public class ShiftLoader extends TimePeriodLoader {
      * @param shiftId
      */
     public ShiftLoader(String shiftId, String type, DateTime start, DateTime end) {
+        this(shiftId, type, start, end, null, null);
+    }
+
+    /**
+     * full constructor setting all fields, including the optional allocation
+     * @param shiftId
+     * @param type
+     * @param start
+     * @param end
+     * @param employeeId business id of the employee already allocated to the shift, or null
+     * @param pinned whether the allocation is locked, or null for not pinned
+     */
+    public ShiftLoader(String shiftId, String type, DateTime start, DateTime end, String employeeId, Boolean pinned) {
         super(start, end);
         validityHelper(shiftId, type);
         this.type = type;
         this.shiftId = shiftId;
+        this.employeeId = employeeId;
+        this.pinned = pinned;
     }
 
     @Override
@@ -61,18 +95,45 @@ public class ShiftLoader extends TimePeriodLoader {
             return false;
         }
         ShiftLoader other = (ShiftLoader)obj;
-        return Objects.equals(shiftId, other.shiftId)&&Objects.equals(type, other.type);
+        return Objects.equals(shiftId, other.shiftId)&&Objects.equals(type, other.type)&&
+            Objects.equals(employeeId, other.employeeId)&&Objects.equals(pinned, other.pinned);
     }
 
     @Override
     public String toString(){
-        return super.toString()+", shiftId="+shiftId+", type="+type;
+        return super.toString()+", shiftId="+shiftId+", type="+type+", employeeId="+employeeId+", pinned="+pinned;
     }
 
     @Override
     public int hashCode() {
-        // don't compare using employee - as with equals, we consider 2 shift loaders which are equal apart from the employee to be equal
-        return Objects.hash(shiftId, type, super.hashCode());
+        return Objects.hash(shiftId, type, employeeId, pinned, super.hashCode());
+    }
+
+    /**
+     * get the unique business id of the shift
+     * @return shiftId
+     */
+    public String getShiftId(){
+        validityHelper(shiftId, type);
+        return shiftId;
+    }
+
+    /**
+     * get the business id of the employee already allocated to the shift
+     * @return employeeId, or null if the solver should allocate the shift
+     */
+    public String getEmployeeId(){
+        validityHelper(shiftId, type);
+        return employeeId;
+    }
+
+    /**
+     * get whether the allocation to the employee is locked, so the solver can't change it
+     * @return whether pinned (false if not given)
+     */
+    public boolean isPinned(){
+        validityHelper(shiftId, type);
+        return Boolean.TRUE.equals(pinned);
     }
 
     public Shift getShift(){
@@ -81,6 +142,18 @@ public class ShiftLoader extends TimePeriodLoader {
         return new Shift(shiftId, type, getStart(), getEnd());
     }
 
+    /**
+     * get the shift, allocated to the employee referenced by employeeId (pinned if the loaded pinned value was true)
+     * @param employee the employee with the loaded employeeId
+     * @return allocated shift
+     */
+    public Shift getShift(Employee employee){
+        validityHelper(shiftId, type);
+        assert (employeeId != null)&&employee.getEmployeeId().equals(employeeId);
+        // note this may raise an assert if time period start < end
+        return new Shift(shiftId, type, getStart(), getEnd(), employee, isPinned());
+    }
+
     /**
      * helper method to check validity of this loader's internal data.
      * 
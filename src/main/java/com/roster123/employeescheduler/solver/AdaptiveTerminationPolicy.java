@@ -0,0 +1,202 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.List;
+
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * decides how long to spend solving from the size of the roster, rather than the same time limit for every roster.
+ *
+ * Solving is split into phases with separate budgets, each scaled with the size of the roster:
+ * 1. construct an initial allocation
+ * 2. reach feasibility - local search until no hard constraints are broken, for at most a time scaled with the number of (shift, employee who can do it) pairs
+ * 3. improve the medium and soft scores - local search for at most a time scaled with the number of shifts and employees,
+ * stopping early once the number of steps without improving (scaled with the number of pairs) is reached,
+ * or once the score improves by less than a threshold (1 soft point per employee) over a window of time
+ *
+ * The whole solve is capped by the sum of the budgets, plus time for building the score calculation
+ */
+public class AdaptiveTerminationPolicy {
+    private static final long MIN_FEASIBILITY_SECONDS = 2;
+    private static final long MAX_FEASIBILITY_SECONDS = 120;
+    private static final int ELIGIBLE_PAIRS_PER_FEASIBILITY_SECOND = 250;
+
+    private static final long MIN_IMPROVEMENT_SECONDS = 3;
+    private static final long MAX_IMPROVEMENT_SECONDS = 300;
+    private static final int SHIFT_EMPLOYEE_PAIRS_PER_IMPROVEMENT_SECOND = 100;
+
+    private static final int UNIMPROVED_STEPS_PER_ELIGIBLE_PAIR = 2;
+    private static final int MIN_UNIMPROVED_STEP_COUNT = 200;
+    private static final int MAX_UNIMPROVED_STEP_COUNT = 100000;
+
+    /**
+     * the number of windows the improvement budget is split into, for checking the score is still improving quickly enough
+     */
+    private static final long IMPROVEMENT_RATE_WINDOWS = 3;
+
+    /**
+     * time allowed for starting the solver (e.g. building the score calculation) on top of the phase budgets
+     */
+    private static final long SOLVER_START_SECONDS = 5;
+
+    private final int shiftCount;
+    private final int employeeCount;
+    private final int eligiblePairCount;
+
+    /**
+     * full constructor setting all fields
+     * @param shiftCount number of shifts
+     * @param employeeCount number of employees
+     * @param eligiblePairCount number of pairs of a shift and an employee who can do it
+     */
+    public AdaptiveTerminationPolicy(int shiftCount, int employeeCount, int eligiblePairCount){
+        assert (shiftCount >= 0)&&(employeeCount >= 0)&&(eligiblePairCount >= 0);
+        this.shiftCount = shiftCount;
+        this.employeeCount = employeeCount;
+        this.eligiblePairCount = eligiblePairCount;
+    }
+
+    /**
+     * create policy sized for the shifts and the employees they can be allocated to
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     */
+    public AdaptiveTerminationPolicy(List<Shift> shifts, List<Employee> employees){
+        this(shifts, employees, FeasibilityAnalyser.getEligibleEmployees(shifts, employees));
+    }
+
+    /**
+     * create policy sized for the shifts and the employees they can be allocated to, with the employees who can do each shift already found
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     * @param eligibleEmployees result of FeasibilityAnalyser.getEligibleEmployees for the same shifts and employees
+     */
+    public AdaptiveTerminationPolicy(List<Shift> shifts, List<Employee> employees, int[][] eligibleEmployees){
+        this(shifts.size(), employees.size(), getEligiblePairCount(eligibleEmployees));
+    }
+
+    /**
+     * count the pairs of a shift and an employee who can do it
+     * @param eligibleEmployees for each shift, the indices of the employees who can do it
+     * @return number of pairs
+     */
+    private static int getEligiblePairCount(int[][] eligibleEmployees){
+        int eligiblePairCount = 0;
+        for (int[] eligible: eligibleEmployees){
+            eligiblePairCount += eligible.length;
+        }
+        return eligiblePairCount;
+    }
+
+    /**
+     * get the most time to spend reaching feasibility
+     * @return seconds
+     */
+    public long getFeasibilitySeconds(){
+        return clamp(ceilDivide(eligiblePairCount, ELIGIBLE_PAIRS_PER_FEASIBILITY_SECOND), MIN_FEASIBILITY_SECONDS, MAX_FEASIBILITY_SECONDS);
+    }
+
+    /**
+     * get the most time to spend improving the medium and soft scores
+     * @return seconds
+     */
+    public long getImprovementSeconds(){
+        return clamp(ceilDivide((long)shiftCount*employeeCount, SHIFT_EMPLOYEE_PAIRS_PER_IMPROVEMENT_SECOND), MIN_IMPROVEMENT_SECONDS, MAX_IMPROVEMENT_SECONDS);
+    }
+
+    /**
+     * get the number of steps without improving the score after which improving stops
+     * @return number of steps
+     */
+    public int getUnimprovedStepCountLimit(){
+        return (int)clamp((long)eligiblePairCount*UNIMPROVED_STEPS_PER_ELIGIBLE_PAIR, MIN_UNIMPROVED_STEP_COUNT, MAX_UNIMPROVED_STEP_COUNT);
+    }
+
+    /**
+     * get the window of time over which the score must improve by at least the threshold for improving to continue
+     * @return seconds
+     */
+    public long getImprovementRateWindowSeconds(){
+        return Math.max(1, getImprovementSeconds()/IMPROVEMENT_RATE_WINDOWS);
+    }
+
+    /**
+     * get the least the score must improve by in each window for improving to continue (1 soft point per employee, so any hard or medium improvement is enough)
+     * @return score difference, in the format of HardMediumSoftScore
+     */
+    public String getImprovementRateThreshold(){
+        return "0hard/0medium/"+Math.max(1, employeeCount)+"soft";
+    }
+
+    /**
+     * get the termination for the whole solve - the sum of the phase budgets (each phase also stops at its own budget)
+     * @return termination config
+     */
+    public TerminationConfig getTerminationConfig(){
+        return new TerminationConfig().withSecondsSpentLimit(SOLVER_START_SECONDS+getFeasibilitySeconds()+getImprovementSeconds());
+    }
+
+    /**
+     * get the phases to solve with, each with its own termination, searching with optaplanner's default moves
+     * @return construction heuristic, reaching feasibility and improving phases
+     */
+    public List<PhaseConfig> getPhaseConfigList(){
+        return getPhaseConfigList(new LocalSearchPhaseConfig());
+    }
+
+    /**
+     * get the phases to solve with, each with its own termination, searching as configured (e.g. with the moves in the solver config)
+     * @param localSearchPhaseConfig the local search to reach feasibility and improve with (not changed)
+     * @return construction heuristic, reaching feasibility and improving phases
+     */
+    public List<PhaseConfig> getPhaseConfigList(LocalSearchPhaseConfig localSearchPhaseConfig){
+        LocalSearchPhaseConfig feasibilityPhaseConfig = localSearchPhaseConfig.copyConfig();
+        // stops as soon as feasible, or at the budget
+        feasibilityPhaseConfig.setTerminationConfig(new TerminationConfig()
+            .withBestScoreFeasible(true)
+            .withSecondsSpentLimit(getFeasibilitySeconds()));
+
+        LocalSearchPhaseConfig improvementPhaseConfig = localSearchPhaseConfig.copyConfig();
+        // stops at the budget, after too many steps without improving, or when improving too slowly (whichever is first)
+        improvementPhaseConfig.setTerminationConfig(new TerminationConfig()
+            .withSecondsSpentLimit(getImprovementSeconds())
+            .withUnimprovedStepCountLimit(getUnimprovedStepCountLimit())
+            .withTerminationConfigList(List.of(new TerminationConfig()
+                .withUnimprovedSecondsSpentLimit(getImprovementRateWindowSeconds())
+                .withUnimprovedScoreDifferenceThreshold(getImprovementRateThreshold()))));
+
+        return List.of(new ConstructionHeuristicPhaseConfig(), feasibilityPhaseConfig, improvementPhaseConfig);
+    }
+
+    @Override
+    public String toString(){
+        return "up to "+getFeasibilitySeconds()+"s reaching feasibility, then up to "+getImprovementSeconds()+"s improving (stopping after "+getUnimprovedStepCountLimit()+
+            " steps without improving, or improving by less than "+getImprovementRateThreshold()+" in "+getImprovementRateWindowSeconds()+"s)";
+    }
+
+    /**
+     * divide, rounding up
+     * @param dividend
+     * @param divisor
+     * @return dividend/divisor rounded up
+     */
+    private static long ceilDivide(long dividend, long divisor){
+        return (dividend+divisor-1)/divisor;
+    }
+
+    /**
+     * restrict the value to the range
+     * @param value
+     * @param min
+     * @param max
+     * @return value, or the nearest of min and max if outside the range
+     */
+    private static long clamp(long value, long min, long max){
+        return Math.max(min, Math.min(max, value));
+    }
+}
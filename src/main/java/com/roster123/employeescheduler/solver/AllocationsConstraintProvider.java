@@ -45,6 +45,7 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
         // get constraints applied in order attached
         return new Constraint[]{
             // hard constraints
+            unallocatedShift(constraintFactory),
             employeeAvailabilityConflict(constraintFactory),
             employeeShiftsAtSameTimeConflict(constraintFactory),
             typeConflict(constraintFactory),
@@ -56,6 +57,22 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
         };
     }
 
+    /**
+     * get constraint to ensure every shift is allocated to an employee.
+     * 
+     * Shifts can be left unallocated when there aren't enough employees, so that the solver can find the best partial allocation,
+     * rather than breaking more hard constraints by forcing shifts onto employees who can't do them
+     * @param constraintFactory
+     * @return constraint
+     */
+    public Constraint unallocatedShift(ConstraintFactory constraintFactory){
+        // select all shifts (including those without an employee, which are filtered out of the other constraints)...
+        return constraintFactory.fromUnfiltered(Shift.class)
+            // which have no employee
+            .filter(s -> s.getEmployee() == null)
+            .penalize("Unallocated shift", HardMediumSoftScore.ONE_HARD);
+    }
+
     /**
      * get constraint to ensure employees cannot do shifts outside their availability, taking into account type of shift
      * @param constraintFactory
@@ -77,8 +94,9 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
     public Constraint employeeShiftsAtSameTimeConflict(ConstraintFactory constraintFactory){
         // select each pair of 2 different shifts...
         return constraintFactory.fromUniquePair(Shift.class,
-            //  with the same employee...
+            //  with the same employee (unallocated shifts don't have the same employee)...
             Joiners.equal(Shift::getEmployee),
+            Joiners.filtering((s1, s2) -> s1.getEmployee() != null),
             // with overlapping times... (use filtering over overlapping because already have intervals providing overlapping functionality)
             Joiners.filtering((s1, s2) -> s1.overlapsWithTimePeriod(s2)))
             .penalize("Employee shifts occurring at the same time", HardMediumSoftScore.ONE_HARD);
@@ -113,6 +131,7 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
 
         // select the shift class (not the only relevant employee is the one which comes with this shift)
         return constraintFactory.from(Shift.class)
+            .filter(Shift::isAllocated)
             // group by the same employee. Need to pair this with weekly for that employee using the collector, and pair with the Pair of week number and week year
             // sum function builds a list of pairs of week num, week year and the number of shifts for that week information
             // https://github.com/kiegroup/optaplanner/blob/master/optaplanner-core/src/main/java/org/optaplanner/core/api/score/stream/bi/BiConstraintStream.java
@@ -149,6 +168,7 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
     public Constraint employeeMinimumWeeklyShifts(ConstraintFactory constraintFactory){
         // select the allocations class
         return constraintFactory.from(Shift.class)
+            .filter(Shift::isAllocated)
             .groupBy(Shift::getEmployee,
                 // getStartEndWeekInfoPack maps shift to the corresponding information about start and end week week numbers/week years
                 ConstraintCollectors.sum(Shift::getStartEndWeekInfoPack,
@@ -158,11 +178,12 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
                     (t1, t2) -> Shift.addCountTables(t1, t2),
                     // subtractor subtracts the tables, decreasing count where overlap, and going to negative possibly
                     (t1, t2) -> Shift.subtractCountTables(t1, t2)))
-            .filter((e, t) -> !e.numberOfShiftsAboveMinimum(Collections.min(t.values())))
+            // only weeks the employee has shifts in count - the subtractor leaves weeks the employee no longer has shifts in as 0 in the table
+            .filter((e, t) -> t.values().stream().anyMatch(n -> n > 0 && !e.numberOfShiftsAboveMinimum(n)))
             .penalize("Employee below minimum shifts", HardMediumSoftScore.ONE_MEDIUM,
             // lose a point every time employee allocation breaks rule*importance
             (e, t) -> t.values().stream()
-                .filter(n -> !e.numberOfShiftsAboveMinimum(n))
+                .filter(n -> n > 0 && !e.numberOfShiftsAboveMinimum(n))
                 .map(n -> e.minWeeklyShifts()-n)
                 .collect(Collectors.summingInt(Integer::intValue))*e.getImportance());
     }
@@ -179,6 +200,7 @@ public class AllocationsConstraintProvider implements ConstraintProvider {
     public Constraint smallerGapsBetweenShifts(ConstraintFactory constraintFactory){
         // employees prefer to do sequential shifts when on the same day, to avoid waiting around
         return constraintFactory.from(Shift.class)
+            .filter(Shift::isAllocated)
             // group by the employees (can't group yet by day because start and end could be different)
             // pair the employees with their list of datetimes
             // use pair of datetime rather than interval since intervals are equal based on duration for jodatime
@@ -0,0 +1,307 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.score.calculator.IncrementalScoreCalculator;
+
+import com.google.common.collect.Table;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * hand-written incremental score calculator, implementing the same constraints as AllocationsConstraintProvider (an alternative score engine selectable in the solver config).
+ *
+ * Keeps state for each employee (their shifts sorted by time, their number of shifts each week, and the total of gaps between their shifts on the same day),
+ * so when a shift moves between employees only the 2 employees involved are updated, rather than regrouping all shifts
+ */
+public class AllocationsIncrementalScoreCalculator implements IncrementalScoreCalculator<Allocations, HardMediumSoftScore> {
+    private static final int MILLIS_IN_HOUR = 3600000;
+
+    /**
+     * orders shifts by start then end, the same order the gaps are calculated in by AllocationsConstraintProvider (shift id only breaks ties, so the set can hold shifts at the same time)
+     */
+    private static final Comparator<Shift> shiftTimeComparator = Comparator.comparing(Shift::getStart)
+        .thenComparing(Shift::getEnd)
+        .thenComparing(Shift::getShiftId);
+
+    /**
+     * state of each employee with at least one shift (identity based, since employee hash codes are expensive and employees are never cloned by optaplanner)
+     */
+    private Map<Employee, EmployeeState> employeeStates;
+
+    /**
+     * the weeks each shift is in (as year*100+week), cached since shift times don't change whilst solving and calculating them is slow
+     */
+    private Map<Shift, int[]> shiftWeeks;
+
+    private int hardScore;
+    private int mediumScore;
+    private int softScore;
+
+    /**
+     * the state kept for a single employee
+     */
+    private static class EmployeeState {
+        private final Employee employee;
+
+        /**
+         * the shifts allocated to the employee, sorted by time
+         */
+        private final TreeSet<Shift> shifts = new TreeSet<>(shiftTimeComparator);
+
+        /**
+         * the number of shifts allocated to the employee for each week they have shifts (as year*100+week)
+         */
+        private final Map<Integer, Integer> weeklyShiftCounts = new HashMap<>();
+
+        /**
+         * the total of the gaps between consecutive shifts on the same day, in milliseconds
+         */
+        private long gapMillis;
+
+        private EmployeeState(Employee employee){
+            this.employee = employee;
+        }
+    }
+
+    @Override
+    public void resetWorkingSolution(Allocations workingSolution){
+        employeeStates = new IdentityHashMap<>();
+        shiftWeeks = new IdentityHashMap<>();
+        hardScore = 0;
+        mediumScore = 0;
+        softScore = 0;
+        for (Shift shift: workingSolution.getShifts()){
+            insert(shift);
+        }
+    }
+
+    @Override
+    public void beforeEntityAdded(Object entity){
+        // do nothing
+    }
+
+    @Override
+    public void afterEntityAdded(Object entity){
+        insert((Shift) entity);
+    }
+
+    @Override
+    public void beforeVariableChanged(Object entity, String variableName){
+        retract((Shift) entity);
+    }
+
+    @Override
+    public void afterVariableChanged(Object entity, String variableName){
+        insert((Shift) entity);
+    }
+
+    @Override
+    public void beforeEntityRemoved(Object entity){
+        retract((Shift) entity);
+    }
+
+    @Override
+    public void afterEntityRemoved(Object entity){
+        // do nothing
+    }
+
+    @Override
+    public HardMediumSoftScore calculateScore(){
+        return HardMediumSoftScore.of(hardScore, mediumScore, softScore);
+    }
+
+    /**
+     * add the score impact of the shift with its current employee
+     * @param shift shift which has been allocated
+     */
+    private void insert(Shift shift){
+        Employee employee = shift.getEmployee();
+        // unallocatedShift
+        if (employee == null){
+            hardScore--;
+            return;
+        }
+        EmployeeState state = employeeStates.computeIfAbsent(employee, EmployeeState::new);
+
+        // employeeAvailabilityConflict and typeConflict
+        if (!employee.canPerformShiftByTime(shift)){
+            hardScore--;
+        }
+        if (!employee.canPerformShiftByType(shift)){
+            hardScore--;
+        }
+
+        // employeeShiftsAtSameTimeConflict
+        hardScore -= countOverlappingShifts(state, shift);
+
+        // aboveMaxWeeklyShiftsConflict and employeeMinimumWeeklyShifts
+        for (int week: getWeeks(shift)){
+            int count = state.weeklyShiftCounts.getOrDefault(week, 0);
+            updateWeeklyShiftCount(state, week, count, count+1);
+        }
+
+        // smallerGapsBetweenShifts - the shift goes between the shifts either side of it
+        Shift previous = state.shifts.lower(shift);
+        Shift next = state.shifts.higher(shift);
+        long gapMillis = state.gapMillis-getGapMillis(previous, next)+getGapMillis(previous, shift)+getGapMillis(shift, next);
+        updateGapMillis(state, gapMillis);
+        state.shifts.add(shift);
+    }
+
+    /**
+     * remove the score impact of the shift with its current employee
+     * @param shift shift which is about to be unallocated (or reallocated)
+     */
+    private void retract(Shift shift){
+        Employee employee = shift.getEmployee();
+        if (employee == null){
+            hardScore++;
+            return;
+        }
+        EmployeeState state = employeeStates.get(employee);
+        state.shifts.remove(shift);
+
+        if (!employee.canPerformShiftByTime(shift)){
+            hardScore++;
+        }
+        if (!employee.canPerformShiftByType(shift)){
+            hardScore++;
+        }
+
+        hardScore += countOverlappingShifts(state, shift);
+
+        for (int week: getWeeks(shift)){
+            int count = state.weeklyShiftCounts.get(week);
+            updateWeeklyShiftCount(state, week, count, count-1);
+        }
+
+        // the shifts either side of the shift become consecutive
+        Shift previous = state.shifts.lower(shift);
+        Shift next = state.shifts.higher(shift);
+        long gapMillis = state.gapMillis-getGapMillis(previous, shift)-getGapMillis(shift, next)+getGapMillis(previous, next);
+        updateGapMillis(state, gapMillis);
+
+        if (state.shifts.isEmpty()){
+            employeeStates.remove(employee);
+        }
+    }
+
+    /**
+     * count the employee's shifts overlapping the shift (not including the shift itself)
+     * @param state state of the employee
+     * @param shift shift to check against
+     * @return number of overlapping shifts
+     */
+    private static int countOverlappingShifts(EmployeeState state, Shift shift){
+        int count = 0;
+        for (Shift other: state.shifts){
+            // sorted by start, so no shift from here on can overlap
+            if (!other.getStart().isBefore(shift.getEnd())){
+                break;
+            }
+            if (other != shift && other.overlapsWithTimePeriod(shift)){
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * change the number of shifts the employee has in a week, updating the score for the maximum and minimum weekly shifts
+     * @param state state of the employee
+     * @param week the week (as year*100+week)
+     * @param oldCount previous number of shifts in the week
+     * @param newCount new number of shifts in the week
+     */
+    private void updateWeeklyShiftCount(EmployeeState state, int week, int oldCount, int newCount){
+        hardScore += getAboveMaximumPenalty(state.employee, oldCount)-getAboveMaximumPenalty(state.employee, newCount);
+        mediumScore += getBelowMinimumPenalty(state.employee, oldCount)-getBelowMinimumPenalty(state.employee, newCount);
+        if (newCount == 0){
+            state.weeklyShiftCounts.remove(week);
+        }
+        else{
+            state.weeklyShiftCounts.put(week, newCount);
+        }
+    }
+
+    /**
+     * get the penalty for the employee having the number of shifts in a week, for going above their maximum
+     * @param employee the employee
+     * @param count number of shifts in the week
+     * @return penalty (positive)
+     */
+    private static int getAboveMaximumPenalty(Employee employee, int count){
+        if (employee.numberOfShiftsUnderMaximum(count)){
+            return 0;
+        }
+        return count-employee.maxWeeklyShifts();
+    }
+
+    /**
+     * get the penalty for the employee having the number of shifts in a week, for going below their preferred minimum.
+     *
+     * Only weeks the employee has shifts in are penalized, as in AllocationsConstraintProvider
+     * @param employee the employee
+     * @param count number of shifts in the week
+     * @return penalty (positive)
+     */
+    private static int getBelowMinimumPenalty(Employee employee, int count){
+        if (count <= 0 || employee.numberOfShiftsAboveMinimum(count)){
+            return 0;
+        }
+        return (employee.minWeeklyShifts()-count)*employee.getImportance();
+    }
+
+    /**
+     * change the total gaps between the employee's shifts, updating the score (which uses the total rounded down to hours)
+     * @param state state of the employee
+     * @param gapMillis new total of gaps in milliseconds
+     */
+    private void updateGapMillis(EmployeeState state, long gapMillis){
+        int importance = state.employee.getImportance();
+        softScore += (int)(state.gapMillis/MILLIS_IN_HOUR)*importance-(int)(gapMillis/MILLIS_IN_HOUR)*importance;
+        state.gapMillis = gapMillis;
+    }
+
+    /**
+     * get the gap between 2 consecutive shifts, if on the same day (the same rule as AllocationsConstraintProvider)
+     * @param first the earlier shift, or null if none
+     * @param second the later shift, or null if none
+     * @return gap in milliseconds, 0 if either is null, they aren't on the same day, or they overlap
+     */
+    private static long getGapMillis(Shift first, Shift second){
+        if (first == null || second == null){
+            return 0;
+        }
+        if (Objects.equals(first.getEnd().toLocalDate(), second.getStart().toLocalDate())&&first.getEnd().isBefore(second.getStart())){
+            return second.getStart().getMillis()-first.getEnd().getMillis();
+        }
+        return 0;
+    }
+
+    /**
+     * get the weeks the shift is in, as year*100+week (repeated if counted more than once)
+     * @param shift the shift
+     * @return weeks of the shift
+     */
+    private int[] getWeeks(Shift shift){
+        return shiftWeeks.computeIfAbsent(shift, s -> {
+            List<Integer> weeks = new ArrayList<>();
+            for (Table.Cell<Integer, Integer, Integer> cell: s.getStartEndWeekInfoPack().cellSet()){
+                for (int i=0; i<cell.getValue(); i++){
+                    weeks.add(cell.getColumnKey()*100+cell.getRowKey());
+                }
+            }
+            return weeks.stream().mapToInt(Integer::intValue).toArray();
+        });
+    }
+}
@@ -0,0 +1,221 @@
+package com.roster123.employeescheduler.solver;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.ParseCache;
+import com.roster123.employeescheduler.writers.ProblemSnapshotWriter;
+
+/**
+ * cache of solved allocations on disk, so a roster which was already solved with the same solver settings (e.g. re-submitted unchanged) isn't solved again.
+ *
+ * Entries are keyed by a hash of the problem snapshot of the employees and shifts (see ProblemSnapshotWriter) and the solver settings.
+ * The snapshot only has the parsed values, so the key is the same however the CSV files were formatted.
+ * Each entry is a file with the index of the employee of each shift, and its last modified time is when it was last used.
+ *
+ * Entries not used within the maximum age are evicted, as are the least recently used entries once there are more than the maximum number
+ */
+public class AllocationsResultCache {
+    private static final String ENTRY_EXTENSION = ".allocations";
+
+    /**
+     * the version of the layout of entries, to be increased whenever it changes
+     */
+    private static final int VERSION = 1;
+
+    private final Path cacheDirectory;
+    private final int maximumEntryCount;
+    private final Duration maximumAge;
+
+    /**
+     * create cache with entries in the directory
+     * @param cacheDirectory the directory (created when the first entry is added, if it doesn't exist)
+     * @param maximumEntryCount the most entries to keep, at least 1
+     * @param maximumAge how long to keep entries since they were last used
+     */
+    public AllocationsResultCache(Path cacheDirectory, int maximumEntryCount, Duration maximumAge){
+        assert (cacheDirectory != null)&&(maximumEntryCount >= 1)&&(maximumAge != null);
+        this.cacheDirectory = cacheDirectory;
+        this.maximumEntryCount = maximumEntryCount;
+        this.maximumAge = maximumAge;
+    }
+
+    /**
+     * get the key of the entry for a roster, before it is solved
+     * @param employees the employees
+     * @param shifts the shifts (including any starting allocations and pinned shifts)
+     * @param solverSettings everything else which changes the allocations solving gives (e.g. the solver config and termination)
+     * @return SHA-256 hash, in hexadecimal
+     */
+    public static String getKey(List<Employee> employees, List<Shift> shifts, String solverSettings){
+        assert solverSettings != null;
+        MessageDigest digest = ParseCache.getSha256Digest();
+        try (OutputStream digestOutput = new DigestOutputStream(OutputStream.nullOutputStream(), digest)){
+            ProblemSnapshotWriter.writeSnapshot(employees, shifts, digestOutput);
+        }
+        catch (IOException e){
+            // can't happen, since nothing is written
+            throw new UncheckedIOException(e);
+        }
+        digest.update(solverSettings.getBytes(StandardCharsets.UTF_8));
+        return ParseCache.getHexDigest(digest);
+    }
+
+    /**
+     * get the employee an entry allocated to each shift, marking the entry as used
+     * @param key the key of the entry (see getKey)
+     * @param employees the employees of the roster the key is for
+     * @param shiftCount the number of shifts of the roster the key is for
+     * @return the employee of each shift (null if unallocated), in the order of the shifts, or null if there's no entry for the key (or it can't be read, or has expired)
+     */
+    public List<Employee> get(String key, List<Employee> employees, int shiftCount){
+        Path entryPath = getEntryPath(key);
+        try{
+            if (!Files.isRegularFile(entryPath)){
+                return null;
+            }
+            if (isExpired(entryPath, Instant.now())){
+                Files.deleteIfExists(entryPath);
+                return null;
+            }
+            List<Employee> shiftEmployees = new ArrayList<>(shiftCount);
+            try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(entryPath)))){
+                if (input.readInt() != VERSION || input.readInt() != shiftCount){
+                    return null;
+                }
+                for (int i=0; i<shiftCount; i++){
+                    int employeeIndex = input.readInt();
+                    if (employeeIndex < -1 || employeeIndex >= employees.size()){
+                        return null;
+                    }
+                    shiftEmployees.add((employeeIndex == -1)? null: employees.get(employeeIndex));
+                }
+            }
+            Files.setLastModifiedTime(entryPath, FileTime.from(Instant.now()));
+            return shiftEmployees;
+        }
+        catch (IOException e){
+            // entries are only an optimisation, so one which can't be read (e.g. cut short, or evicted whilst reading) is treated as missing
+            return null;
+        }
+    }
+
+    /**
+     * add an entry, replacing any existing entry for the key, then evict entries which have expired or are beyond the maximum number
+     * @param key the key of the entry (see getKey), from before solving
+     * @param employees the employees of the roster
+     * @param solvedShifts the solved shifts, in the same order as when the key was got
+     * @throws IOException exception can be thrown if don't have the permission to write to the cache directory, or some error happens in writing to it otherwise
+     */
+    public void put(String key, List<Employee> employees, List<Shift> solvedShifts) throws IOException{
+        // by identity, since the equality of employees compares all their availabilities
+        Map<Employee, Integer> employeeIndices = new IdentityHashMap<>();
+        for (int i=0; i<employees.size(); i++){
+            employeeIndices.put(employees.get(i), i);
+        }
+
+        Files.createDirectories(cacheDirectory);
+        // write to a temporary file first, so runs at the same time never read a partly written entry
+        Path temporaryPath = Files.createTempFile(cacheDirectory, key, ".tmp");
+        try{
+            try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporaryPath)))){
+                output.writeInt(VERSION);
+                output.writeInt(solvedShifts.size());
+                for (Shift shift: solvedShifts){
+                    Integer employeeIndex = shift.isAllocated()? employeeIndices.get(shift.getEmployee()): null;
+                    assert !shift.isAllocated() || employeeIndex != null;
+                    output.writeInt((employeeIndex == null)? -1: employeeIndex);
+                }
+            }
+            Files.move(temporaryPath, getEntryPath(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        finally{
+            Files.deleteIfExists(temporaryPath);
+        }
+        evict();
+    }
+
+    /**
+     * delete entries which have expired, then the least recently used entries beyond the maximum number
+     * @throws IOException exception can be thrown if the cache directory can't be listed
+     */
+    private void evict() throws IOException{
+        Instant now = Instant.now();
+        List<Path> entryPaths;
+        try (Stream<Path> paths = Files.list(cacheDirectory)){
+            entryPaths = paths.filter(path -> path.getFileName().toString().endsWith(ENTRY_EXTENSION)).collect(Collectors.toList());
+        }
+        List<Path> unexpiredEntryPaths = new ArrayList<>();
+        for (Path entryPath: entryPaths){
+            if (isExpired(entryPath, now)){
+                Files.deleteIfExists(entryPath);
+            }
+            else{
+                unexpiredEntryPaths.add(entryPath);
+            }
+        }
+        if (unexpiredEntryPaths.size() > maximumEntryCount){
+            // most recently used first (an entry used since being listed counts as least recently used, at worst being solved again)
+            unexpiredEntryPaths.sort(Comparator.comparing(AllocationsResultCache::getLastUsedTime).reversed());
+            for (Path entryPath: unexpiredEntryPaths.subList(maximumEntryCount, unexpiredEntryPaths.size())){
+                Files.deleteIfExists(entryPath);
+            }
+        }
+    }
+
+    /**
+     * check whether an entry hasn't been used within the maximum age
+     * @param entryPath the file of the entry
+     * @param now the current time
+     * @return whether the entry has expired
+     */
+    private boolean isExpired(Path entryPath, Instant now){
+        return getLastUsedTime(entryPath).plus(maximumAge).isBefore(now);
+    }
+
+    /**
+     * get when an entry was last used
+     * @param entryPath the file of the entry
+     * @return the time it was last used, or the earliest time if it no longer exists (e.g. deleted by another run)
+     */
+    private static Instant getLastUsedTime(Path entryPath){
+        try{
+            return Files.getLastModifiedTime(entryPath).toInstant();
+        }
+        catch (IOException e){
+            return Instant.MIN;
+        }
+    }
+
+    /**
+     * get the file of an entry
+     * @param key the key of the entry
+     * @return path of the entry file
+     */
+    Path getEntryPath(String key){
+        assert key != null;
+        return cacheDirectory.resolve(key+ENTRY_EXTENSION);
+    }
+}
@@ -0,0 +1,29 @@
+package com.roster123.employeescheduler.solver;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.ChangeMove;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * filter for change moves, only allowing a shift to be moved to an employee who can do it (by time and by type), or to be unallocated.
+ *
+ * Moving a shift to an employee who can't do it always breaks a hard constraint, so evaluating such moves is wasted effort
+ */
+public class AvailableEmployeeChangeMoveFilter implements SelectionFilter<Allocations, ChangeMove<Allocations>> {
+    @Override
+    public boolean accept(ScoreDirector<Allocations> scoreDirector, ChangeMove<Allocations> move){
+        return canDoShift((Employee)move.getToPlanningValue(), (Shift)move.getEntity());
+    }
+
+    /**
+     * check whether the employee can do the shift by the time and by the type
+     * @param employee an employee, or null for no employee
+     * @param shift a shift
+     * @return whether the employee can do the shift (true if no employee, since unallocated shifts are penalized separately)
+     */
+    static boolean canDoShift(Employee employee, Shift shift){
+        return (employee == null) || (employee.canPerformShiftByTime(shift) && employee.canPerformShiftByType(shift));
+    }
+}
@@ -0,0 +1,125 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * the weeks of each shift and the index of each employee in the working allocations, for the employee-week moves.
+ *
+ * A shift's start and end never change whilst solving, so its weeks (by the week indices of Shift.getStartEndWeekInfoPack) are found once for the working allocations
+ * rather than for every move. Shifts and employees are looked up by identity, since their equality compares all their fields (including a shift's employee)
+ */
+class EmployeeWeekIndex {
+    private final Allocations allocations;
+
+    /**
+     * the weeks of each shift, as year*100+week
+     */
+    private final Map<Shift, int[]> shiftWeeks;
+
+    /**
+     * the index of each employee in the allocations' employees
+     */
+    private final Map<Employee, Integer> employeeIndices;
+
+    /**
+     * create index of the allocations' shifts and employees
+     * @param allocations the working allocations
+     */
+    EmployeeWeekIndex(Allocations allocations){
+        assert allocations != null;
+        this.allocations = allocations;
+        shiftWeeks = new IdentityHashMap<>();
+        for (Shift shift: allocations.getShifts()){
+            shiftWeeks.put(shift, FeasibilityAnalyser.getWeeks(shift));
+        }
+        employeeIndices = new IdentityHashMap<>();
+        for (int j=0; j<allocations.getEmployees().size(); j++){
+            employeeIndices.put(allocations.getEmployees().get(j), j);
+        }
+    }
+
+    /**
+     * get an index of the working allocations, reusing the previous index if it is of the same allocations
+     * @param previousIndex the index last used, or null if none
+     * @param allocations the working allocations
+     * @return index of the allocations
+     */
+    static EmployeeWeekIndex getIndexOf(EmployeeWeekIndex previousIndex, Allocations allocations){
+        if (previousIndex != null && previousIndex.allocations == allocations){
+            return previousIndex;
+        }
+        return new EmployeeWeekIndex(allocations);
+    }
+
+    /**
+     * get the weeks a shift is in
+     * @param shift a shift of the allocations
+     * @return weeks of the shift, as year*100+week
+     */
+    int[] getWeeks(Shift shift){
+        int[] weeks = shiftWeeks.get(shift);
+        assert weeks != null;
+        return weeks;
+    }
+
+    /**
+     * check whether a shift is in a week
+     * @param shift a shift of the allocations
+     * @param week the week, as year*100+week
+     * @return whether in the week
+     */
+    boolean isInWeek(Shift shift, int week){
+        for (int shiftWeek: getWeeks(shift)){
+            if (shiftWeek == week){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * get the index of an employee
+     * @param employee an employee of the allocations
+     * @return index in the allocations' employees
+     */
+    int getEmployeeIndex(Employee employee){
+        Integer employeeIndex = employeeIndices.get(employee);
+        assert employeeIndex != null;
+        return employeeIndex;
+    }
+
+    /**
+     * get the key of an employee's week, for getShiftsByEmployeeWeek
+     * @param employeeIndex index of the employee
+     * @param week the week, as year*100+week
+     * @return key
+     */
+    static long getEmployeeWeekKey(int employeeIndex, int week){
+        return ((long)employeeIndex << 32)|week;
+    }
+
+    /**
+     * group the allocated shifts by their employee and week, as allocated now (a shift in several weeks is in the group of each)
+     * @param movableOnly whether to leave out pinned shifts
+     * @return the shifts of each group (in the order of the allocations' shifts) by key (see getEmployeeWeekKey), in the order the groups are first found
+     */
+    Map<Long, List<Shift>> getShiftsByEmployeeWeek(boolean movableOnly){
+        Map<Long, List<Shift>> shiftsByEmployeeWeek = new LinkedHashMap<>();
+        for (Shift shift: allocations.getShifts()){
+            if (!shift.isAllocated() || (movableOnly && shift.isPinned())){
+                continue;
+            }
+            int employeeIndex = getEmployeeIndex(shift.getEmployee());
+            for (int week: getWeeks(shift)){
+                shiftsByEmployeeWeek.computeIfAbsent(getEmployeeWeekKey(employeeIndex, week), k -> new ArrayList<>()).add(shift);
+            }
+        }
+        return shiftsByEmployeeWeek;
+    }
+}
@@ -0,0 +1,100 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * move reassigning all the shifts an employee has in a week to another employee (a pillar move).
+ *
+ * Moving the whole week at once keeps the weekly shift counts of both employees within their limits where moving shifts one at a time
+ * would have to pass through allocations breaking them
+ */
+public class EmployeeWeekReassignMove extends AbstractMove<Allocations> {
+    private final List<Shift> shifts;
+    private final Employee fromEmployee;
+    private final Employee toEmployee;
+
+    /**
+     * full constructor setting all fields
+     * @param shifts the shifts to reassign, all allocated to fromEmployee
+     * @param fromEmployee the employee the shifts are allocated to
+     * @param toEmployee the employee to reassign the shifts to
+     */
+    public EmployeeWeekReassignMove(List<Shift> shifts, Employee fromEmployee, Employee toEmployee){
+        assert (shifts != null)&&(fromEmployee != null)&&(toEmployee != null);
+        this.shifts = shifts;
+        this.fromEmployee = fromEmployee;
+        this.toEmployee = toEmployee;
+    }
+
+    /**
+     * get the shifts to reassign
+     * @return shifts
+     */
+    public List<Shift> getShifts(){
+        return Collections.unmodifiableList(shifts);
+    }
+
+    /**
+     * get the employee the shifts are reassigned from
+     * @return employee
+     */
+    public Employee getFromEmployee(){
+        return fromEmployee;
+    }
+
+    /**
+     * get the employee the shifts are reassigned to
+     * @return employee
+     */
+    public Employee getToEmployee(){
+        return toEmployee;
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<Allocations> scoreDirector){
+        return !shifts.isEmpty() && !Objects.equals(fromEmployee, toEmployee);
+    }
+
+    @Override
+    protected EmployeeWeekReassignMove createUndoMove(ScoreDirector<Allocations> scoreDirector){
+        return new EmployeeWeekReassignMove(shifts, toEmployee, fromEmployee);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<Allocations> scoreDirector){
+        for (Shift shift: shifts){
+            scoreDirector.beforeVariableChanged(shift, "employee");
+            shift.setEmployee(toEmployee);
+            scoreDirector.afterVariableChanged(shift, "employee");
+        }
+    }
+
+    @Override
+    public EmployeeWeekReassignMove rebase(ScoreDirector<Allocations> destinationScoreDirector){
+        return new EmployeeWeekReassignMove(rebaseList(shifts, destinationScoreDirector),
+            destinationScoreDirector.lookUpWorkingObject(fromEmployee), destinationScoreDirector.lookUpWorkingObject(toEmployee));
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningEntities(){
+        return shifts;
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningValues(){
+        return List.of(fromEmployee, toEmployee);
+    }
+
+    @Override
+    public String toString(){
+        return shifts.size()+" shifts {"+fromEmployee.getEmployeeId()+" -> "+toEmployee.getEmployeeId()+"}";
+    }
+}
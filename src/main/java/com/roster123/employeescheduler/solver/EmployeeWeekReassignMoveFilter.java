@@ -0,0 +1,21 @@
+package com.roster123.employeescheduler.solver;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * filter for employee-week reassign moves, only allowing the shifts to be moved to an employee who can do all of them (by time and by type)
+ */
+public class EmployeeWeekReassignMoveFilter implements SelectionFilter<Allocations, EmployeeWeekReassignMove> {
+    @Override
+    public boolean accept(ScoreDirector<Allocations> scoreDirector, EmployeeWeekReassignMove move){
+        for (Shift shift: move.getShifts()){
+            if (!AvailableEmployeeChangeMoveFilter.canDoShift(move.getToEmployee(), shift)){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * creates employee-week reassign moves - moves every shift an employee has in one week (by the week indices of Shift.getStartEndWeekInfoPack) to another employee.
+ *
+ * Random selection picks an allocated shift, then one of its weeks and another employee, so employee-weeks with more shifts are picked more often.
+ * Original selection goes through each employee-week to each other employee in turn.
+ *
+ * The shifts are grouped by employee-week once when each iterator is created (the working allocations don't change whilst a step's moves are selected),
+ * so each move is found without going through all the shifts. Pinned shifts are never moved
+ */
+public class EmployeeWeekReassignMoveIteratorFactory implements MoveIteratorFactory<Allocations, EmployeeWeekReassignMove> {
+    /**
+     * index of the working allocations, kept for the phase
+     */
+    private EmployeeWeekIndex employeeWeekIndex;
+
+    @Override
+    public void phaseEnded(ScoreDirector<Allocations> scoreDirector){
+        employeeWeekIndex = null;
+    }
+
+    @Override
+    public long getSize(ScoreDirector<Allocations> scoreDirector){
+        Allocations allocations = scoreDirector.getWorkingSolution();
+        return (long)getEmployeeWeekIndex(scoreDirector).getShiftsByEmployeeWeek(true).size()*Math.max(0, allocations.getEmployees().size()-1);
+    }
+
+    @Override
+    public Iterator<EmployeeWeekReassignMove> createOriginalMoveIterator(ScoreDirector<Allocations> scoreDirector){
+        EmployeeWeekIndex index = getEmployeeWeekIndex(scoreDirector);
+        List<Employee> employees = scoreDirector.getWorkingSolution().getEmployees();
+        List<List<Shift>> employeeWeekShifts = new ArrayList<>(index.getShiftsByEmployeeWeek(true).values());
+        return new Iterator<EmployeeWeekReassignMove>(){
+            private int employeeWeek = 0;
+            private int toEmployeeIndex = 0;
+
+            /**
+             * move on to the next employee-week and employee which give a move, unless already at one
+             */
+            private void skipToMove(){
+                while (employeeWeek < employeeWeekShifts.size()){
+                    if (toEmployeeIndex >= employees.size()){
+                        employeeWeek++;
+                        toEmployeeIndex = 0;
+                    }
+                    else if (toEmployeeIndex == index.getEmployeeIndex(employeeWeekShifts.get(employeeWeek).get(0).getEmployee())){
+                        toEmployeeIndex++;
+                    }
+                    else{
+                        return;
+                    }
+                }
+            }
+
+            @Override
+            public boolean hasNext(){
+                skipToMove();
+                return employeeWeek < employeeWeekShifts.size();
+            }
+
+            @Override
+            public EmployeeWeekReassignMove next(){
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                List<Shift> weekShifts = employeeWeekShifts.get(employeeWeek);
+                return new EmployeeWeekReassignMove(weekShifts, weekShifts.get(0).getEmployee(), employees.get(toEmployeeIndex++));
+            }
+        };
+    }
+
+    @Override
+    public Iterator<EmployeeWeekReassignMove> createRandomMoveIterator(ScoreDirector<Allocations> scoreDirector, Random workingRandom){
+        EmployeeWeekIndex index = getEmployeeWeekIndex(scoreDirector);
+        List<Employee> employees = scoreDirector.getWorkingSolution().getEmployees();
+        Map<Long, List<Shift>> shiftsByEmployeeWeek = index.getShiftsByEmployeeWeek(true);
+        List<Shift> movableAllocatedShifts = new ArrayList<>();
+        for (Shift shift: scoreDirector.getWorkingSolution().getShifts()){
+            if (shift.isAllocated() && !shift.isPinned()){
+                movableAllocatedShifts.add(shift);
+            }
+        }
+        return new Iterator<EmployeeWeekReassignMove>(){
+            @Override
+            public boolean hasNext(){
+                return employees.size() >= 2 && !movableAllocatedShifts.isEmpty();
+            }
+
+            @Override
+            public EmployeeWeekReassignMove next(){
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                Shift pickedShift = movableAllocatedShifts.get(workingRandom.nextInt(movableAllocatedShifts.size()));
+                Employee fromEmployee = pickedShift.getEmployee();
+                int fromEmployeeIndex = index.getEmployeeIndex(fromEmployee);
+                int[] pickedShiftWeeks = index.getWeeks(pickedShift);
+                int week = pickedShiftWeeks[workingRandom.nextInt(pickedShiftWeeks.length)];
+                List<Shift> weekShifts = shiftsByEmployeeWeek.get(EmployeeWeekIndex.getEmployeeWeekKey(fromEmployeeIndex, week));
+
+                // any employee other than the current one
+                int toEmployeeIndex = workingRandom.nextInt(employees.size()-1);
+                if (toEmployeeIndex >= fromEmployeeIndex){
+                    toEmployeeIndex++;
+                }
+                return new EmployeeWeekReassignMove(weekShifts, fromEmployee, employees.get(toEmployeeIndex));
+            }
+        };
+    }
+
+    /**
+     * get the index of the working allocations, only indexing them again when they are different allocations (e.g. in a new phase)
+     * @param scoreDirector the score director
+     * @return index of the working allocations
+     */
+    private EmployeeWeekIndex getEmployeeWeekIndex(ScoreDirector<Allocations> scoreDirector){
+        employeeWeekIndex = EmployeeWeekIndex.getIndexOf(employeeWeekIndex, scoreDirector.getWorkingSolution());
+        return employeeWeekIndex;
+    }
+}
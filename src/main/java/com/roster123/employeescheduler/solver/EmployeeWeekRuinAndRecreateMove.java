@@ -0,0 +1,98 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.move.AbstractMove;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * large move reallocating many shifts at once - the shifts a group of employees have in a week, after they were unallocated (ruined)
+ * and allocated again (recreated) by EmployeeWeekRuinAndRecreateMoveIteratorFactory.
+ *
+ * Reallocating all of them in one step lets the solver escape allocations where every single change or swap breaks
+ * the minimum or maximum weekly shifts of some employee
+ */
+public class EmployeeWeekRuinAndRecreateMove extends AbstractMove<Allocations> {
+    private final List<Shift> shifts;
+    private final List<Employee> fromEmployees;
+    private final List<Employee> toEmployees;
+
+    /**
+     * full constructor setting all fields
+     * @param shifts the shifts to reallocate
+     * @param fromEmployees the employee currently allocated to each shift (null if unallocated)
+     * @param toEmployees the employee to allocate to each shift (null to unallocate)
+     */
+    public EmployeeWeekRuinAndRecreateMove(List<Shift> shifts, List<Employee> fromEmployees, List<Employee> toEmployees){
+        assert (shifts != null)&&(fromEmployees != null)&&(toEmployees != null);
+        assert (shifts.size() == fromEmployees.size())&&(shifts.size() == toEmployees.size());
+        this.shifts = shifts;
+        this.fromEmployees = fromEmployees;
+        this.toEmployees = toEmployees;
+    }
+
+    /**
+     * get the shifts to reallocate
+     * @return shifts
+     */
+    public List<Shift> getShifts(){
+        return Collections.unmodifiableList(shifts);
+    }
+
+    /**
+     * get the employee each shift is allocated to after the move
+     * @return employees (null for unallocated), in the same order as the shifts
+     */
+    public List<Employee> getToEmployees(){
+        return Collections.unmodifiableList(toEmployees);
+    }
+
+    @Override
+    public boolean isMoveDoable(ScoreDirector<Allocations> scoreDirector){
+        return !Objects.equals(fromEmployees, toEmployees);
+    }
+
+    @Override
+    protected EmployeeWeekRuinAndRecreateMove createUndoMove(ScoreDirector<Allocations> scoreDirector){
+        return new EmployeeWeekRuinAndRecreateMove(shifts, toEmployees, fromEmployees);
+    }
+
+    @Override
+    protected void doMoveOnGenuineVariables(ScoreDirector<Allocations> scoreDirector){
+        for (int i=0; i<shifts.size(); i++){
+            Shift shift = shifts.get(i);
+            scoreDirector.beforeVariableChanged(shift, "employee");
+            shift.setEmployee(toEmployees.get(i));
+            scoreDirector.afterVariableChanged(shift, "employee");
+        }
+    }
+
+    @Override
+    public EmployeeWeekRuinAndRecreateMove rebase(ScoreDirector<Allocations> destinationScoreDirector){
+        return new EmployeeWeekRuinAndRecreateMove(rebaseList(shifts, destinationScoreDirector),
+            rebaseList(fromEmployees, destinationScoreDirector), rebaseList(toEmployees, destinationScoreDirector));
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningEntities(){
+        return shifts;
+    }
+
+    @Override
+    public Collection<? extends Object> getPlanningValues(){
+        List<Employee> planningValues = new ArrayList<>(fromEmployees);
+        planningValues.addAll(toEmployees);
+        return planningValues;
+    }
+
+    @Override
+    public String toString(){
+        return "ruin and recreate "+shifts.size()+" shifts";
+    }
+}
@@ -0,0 +1,309 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.move.factory.MoveIteratorFactory;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * creates ruin and recreate moves by employee-week - unallocates (ruins) all the shifts some employees have in a week (by the week indices of Shift.getStartEndWeekInfoPack)
+ * along with the week's unallocated shifts, then allocates them again greedily (recreates).
+ *
+ * Random selection picks an allocated shift, then one of its weeks and a random group of other employees with shifts in the week to ruin along with the shift's employee.
+ * Original selection ruins each employee-week on its own in turn.
+ *
+ * The greedy recreation goes through the shifts in time order, giving each to an employee who can do it, doesn't have an overlapping shift and is under their maximum weekly shifts,
+ * preferring the employee furthest below their minimum weekly shifts, then the employee with fewest shifts in the week (leaving the shift unallocated if there are none).
+ *
+ * The shifts are grouped by employee-week once when each iterator is created (the working allocations don't change whilst a step's moves are selected),
+ * so each move only looks at the shifts in its week. Pinned shifts are never moved
+ */
+public class EmployeeWeekRuinAndRecreateMoveIteratorFactory implements MoveIteratorFactory<Allocations, EmployeeWeekRuinAndRecreateMove> {
+    /**
+     * the most employees whose shifts are ruined in one move
+     */
+    private static final int MAX_RUINED_EMPLOYEE_COUNT = 3;
+
+    /**
+     * index of the working allocations, kept for the phase
+     */
+    private EmployeeWeekIndex employeeWeekIndex;
+
+    @Override
+    public void phaseEnded(ScoreDirector<Allocations> scoreDirector){
+        employeeWeekIndex = null;
+    }
+
+    @Override
+    public long getSize(ScoreDirector<Allocations> scoreDirector){
+        // each employee-week with shifts which can be moved starts a move
+        return getEmployeeWeekIndex(scoreDirector).getShiftsByEmployeeWeek(true).size();
+    }
+
+    @Override
+    public Iterator<EmployeeWeekRuinAndRecreateMove> createOriginalMoveIterator(ScoreDirector<Allocations> scoreDirector){
+        WeekShifts weekShifts = new WeekShifts(getEmployeeWeekIndex(scoreDirector), scoreDirector.getWorkingSolution());
+        Iterator<Long> employeeWeekKeys = weekShifts.movableShiftsByEmployeeWeek.keySet().iterator();
+        return new Iterator<EmployeeWeekRuinAndRecreateMove>(){
+            @Override
+            public boolean hasNext(){
+                return employeeWeekKeys.hasNext();
+            }
+
+            @Override
+            public EmployeeWeekRuinAndRecreateMove next(){
+                long employeeWeekKey = employeeWeekKeys.next();
+                return weekShifts.getMove(List.of((int)(employeeWeekKey >> 32)), (int)employeeWeekKey);
+            }
+        };
+    }
+
+    @Override
+    public Iterator<EmployeeWeekRuinAndRecreateMove> createRandomMoveIterator(ScoreDirector<Allocations> scoreDirector, Random workingRandom){
+        EmployeeWeekIndex index = getEmployeeWeekIndex(scoreDirector);
+        WeekShifts weekShifts = new WeekShifts(index, scoreDirector.getWorkingSolution());
+        return new Iterator<EmployeeWeekRuinAndRecreateMove>(){
+            @Override
+            public boolean hasNext(){
+                return !weekShifts.movableAllocatedShifts.isEmpty();
+            }
+
+            @Override
+            public EmployeeWeekRuinAndRecreateMove next(){
+                if (!hasNext()){
+                    throw new NoSuchElementException();
+                }
+                Shift pickedShift = weekShifts.movableAllocatedShifts.get(workingRandom.nextInt(weekShifts.movableAllocatedShifts.size()));
+                int pickedEmployeeIndex = index.getEmployeeIndex(pickedShift.getEmployee());
+                int[] pickedShiftWeeks = index.getWeeks(pickedShift);
+                int week = pickedShiftWeeks[workingRandom.nextInt(pickedShiftWeeks.length)];
+
+                // the picked shift's employee, and some of the other employees with shifts in the week
+                List<Integer> weekEmployeeIndices = new ArrayList<>(weekShifts.employeeIndicesByWeek.get(week));
+                weekEmployeeIndices.remove(Integer.valueOf(pickedEmployeeIndex));
+                Collections.shuffle(weekEmployeeIndices, workingRandom);
+                List<Integer> ruinedEmployeeIndices = new ArrayList<>(weekEmployeeIndices.subList(0, Math.min(weekEmployeeIndices.size(), workingRandom.nextInt(MAX_RUINED_EMPLOYEE_COUNT))));
+                ruinedEmployeeIndices.add(pickedEmployeeIndex);
+                return weekShifts.getMove(ruinedEmployeeIndices, week);
+            }
+        };
+    }
+
+    /**
+     * the working allocations' shifts grouped by week, as allocated when a move iterator is created
+     */
+    private static class WeekShifts {
+        private final EmployeeWeekIndex index;
+        private final List<Employee> employees;
+
+        /**
+         * all allocated shifts (including pinned shifts) by employee-week key (see EmployeeWeekIndex.getEmployeeWeekKey)
+         */
+        private final Map<Long, List<Shift>> shiftsByEmployeeWeek;
+
+        /**
+         * the allocated shifts which aren't pinned by employee-week key
+         */
+        private final Map<Long, List<Shift>> movableShiftsByEmployeeWeek;
+
+        /**
+         * the unallocated shifts which aren't pinned by week
+         */
+        private final Map<Integer, List<Shift>> unallocatedShiftsByWeek;
+
+        /**
+         * the indices of the employees with allocated shifts which aren't pinned, by week
+         */
+        private final Map<Integer, List<Integer>> employeeIndicesByWeek;
+
+        private final List<Shift> movableAllocatedShifts;
+
+        /**
+         * group the shifts of the working allocations
+         * @param index index of the working allocations
+         * @param allocations the working allocations
+         */
+        WeekShifts(EmployeeWeekIndex index, Allocations allocations){
+            this.index = index;
+            employees = allocations.getEmployees();
+            shiftsByEmployeeWeek = index.getShiftsByEmployeeWeek(false);
+            movableShiftsByEmployeeWeek = index.getShiftsByEmployeeWeek(true);
+            employeeIndicesByWeek = new HashMap<>();
+            for (long employeeWeekKey: movableShiftsByEmployeeWeek.keySet()){
+                employeeIndicesByWeek.computeIfAbsent((int)employeeWeekKey, k -> new ArrayList<>()).add((int)(employeeWeekKey >> 32));
+            }
+            unallocatedShiftsByWeek = new HashMap<>();
+            movableAllocatedShifts = new ArrayList<>();
+            for (Shift shift: allocations.getShifts()){
+                if (shift.isPinned()){
+                    continue;
+                }
+                if (shift.isAllocated()){
+                    movableAllocatedShifts.add(shift);
+                }
+                else{
+                    for (int week: index.getWeeks(shift)){
+                        unallocatedShiftsByWeek.computeIfAbsent(week, k -> new ArrayList<>()).add(shift);
+                    }
+                }
+            }
+        }
+
+        /**
+         * get the move ruining the employees' shifts in the week, along with the week's unallocated shifts
+         * @param ruinedEmployeeIndices indices of the employees, each with shifts in the week
+         * @param week the week, as year*100+week
+         * @return move
+         */
+        EmployeeWeekRuinAndRecreateMove getMove(List<Integer> ruinedEmployeeIndices, int week){
+            List<Shift> ruinedShifts = new ArrayList<>();
+            List<Employee> fromEmployees = new ArrayList<>();
+            for (int employeeIndex: ruinedEmployeeIndices){
+                for (Shift shift: movableShiftsByEmployeeWeek.get(EmployeeWeekIndex.getEmployeeWeekKey(employeeIndex, week))){
+                    ruinedShifts.add(shift);
+                    fromEmployees.add(shift.getEmployee());
+                }
+            }
+            for (Shift shift: unallocatedShiftsByWeek.getOrDefault(week, Collections.emptyList())){
+                ruinedShifts.add(shift);
+                fromEmployees.add(null);
+            }
+            return new EmployeeWeekRuinAndRecreateMove(ruinedShifts, fromEmployees, recreate(ruinedShifts, index, shiftsByEmployeeWeek, employees, week));
+        }
+    }
+
+    /**
+     * choose employees for the ruined shifts greedily, given the allocations of the other shifts
+     * @param ruinedShifts the shifts to allocate
+     * @param shifts all shifts (the ones which aren't ruined keep their employees)
+     * @param employees all employees
+     * @param week the week the ruined shifts are in, as year*100+week
+     * @return the employee for each ruined shift (null if no employee can do it)
+     */
+    static List<Employee> recreate(List<Shift> ruinedShifts, List<Shift> shifts, List<Employee> employees, int week){
+        EmployeeWeekIndex index = new EmployeeWeekIndex(new Allocations(shifts, employees));
+        return recreate(ruinedShifts, index, index.getShiftsByEmployeeWeek(false), employees, week);
+    }
+
+    /**
+     * choose employees for the ruined shifts greedily, given the allocations of the other shifts
+     * @param ruinedShifts the shifts to allocate
+     * @param index index of the allocations
+     * @param shiftsByEmployeeWeek all allocated shifts by employee-week key (see EmployeeWeekIndex.getEmployeeWeekKey), as allocated before ruining
+     * @param employees all employees
+     * @param week the week the ruined shifts are in, as year*100+week
+     * @return the employee for each ruined shift (null if no employee can do it)
+     */
+    private static List<Employee> recreate(List<Shift> ruinedShifts, EmployeeWeekIndex index, Map<Long, List<Shift>> shiftsByEmployeeWeek, List<Employee> employees, int week){
+        // by identity, since a shift's equality includes its employee
+        Set<Shift> ruinedShiftSet = Collections.newSetFromMap(new IdentityHashMap<>());
+        ruinedShiftSet.addAll(ruinedShifts);
+        // the shifts each employee keeps in the week, and the ruined shifts given to them so far
+        int[] weekShiftCounts = new int[employees.size()];
+        List<List<Shift>> recreatedShifts = new ArrayList<>();
+        for (int j=0; j<employees.size(); j++){
+            for (Shift shift: shiftsByEmployeeWeek.getOrDefault(EmployeeWeekIndex.getEmployeeWeekKey(j, week), Collections.emptyList())){
+                if (!ruinedShiftSet.contains(shift)){
+                    weekShiftCounts[j]++;
+                }
+            }
+            recreatedShifts.add(new ArrayList<>());
+        }
+
+        Integer[] order = new Integer[ruinedShifts.size()];
+        for (int i=0; i<order.length; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparing((Integer i) -> ruinedShifts.get(i).getStart()));
+
+        Employee[] toEmployees = new Employee[ruinedShifts.size()];
+        for (int i: order){
+            Shift shift = ruinedShifts.get(i);
+            int bestEmployeeIndex = -1;
+            for (int j=0; j<employees.size(); j++){
+                Employee employee = employees.get(j);
+                if (!AvailableEmployeeChangeMoveFilter.canDoShift(employee, shift) || !employee.numberOfShiftsUnderMaximum(weekShiftCounts[j]+1) ||
+                        hasOverlappingShift(shift, j, index, shiftsByEmployeeWeek, ruinedShiftSet, recreatedShifts.get(j))){
+                    continue;
+                }
+                if (bestEmployeeIndex == -1 || isBetterChoice(employee, weekShiftCounts[j], employees.get(bestEmployeeIndex), weekShiftCounts[bestEmployeeIndex])){
+                    bestEmployeeIndex = j;
+                }
+            }
+            if (bestEmployeeIndex != -1){
+                toEmployees[i] = employees.get(bestEmployeeIndex);
+                recreatedShifts.get(bestEmployeeIndex).add(shift);
+                weekShiftCounts[bestEmployeeIndex]++;
+            }
+        }
+        return Arrays.asList(toEmployees);
+    }
+
+    /**
+     * check whether an employee has a shift overlapping a ruined shift - one they keep, or one of the ruined shifts given to them so far.
+     *
+     * A kept shift overlapping the shift shares one of its weeks, so only the employee's shifts in the shift's weeks are checked
+     * @param shift the ruined shift
+     * @param employeeIndex index of the employee
+     * @param index index of the allocations
+     * @param shiftsByEmployeeWeek all allocated shifts by employee-week key, as allocated before ruining
+     * @param ruinedShiftSet the ruined shifts, which aren't kept
+     * @param recreatedShifts the ruined shifts given to the employee so far
+     * @return whether there is an overlapping shift
+     */
+    private static boolean hasOverlappingShift(Shift shift, int employeeIndex, EmployeeWeekIndex index, Map<Long, List<Shift>> shiftsByEmployeeWeek, Set<Shift> ruinedShiftSet, List<Shift> recreatedShifts){
+        for (int week: index.getWeeks(shift)){
+            for (Shift keptShift: shiftsByEmployeeWeek.getOrDefault(EmployeeWeekIndex.getEmployeeWeekKey(employeeIndex, week), Collections.emptyList())){
+                if (!ruinedShiftSet.contains(keptShift) && keptShift.overlapsWithTimePeriod(shift)){
+                    return true;
+                }
+            }
+        }
+        for (Shift recreatedShift: recreatedShifts){
+            if (recreatedShift.overlapsWithTimePeriod(shift)){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * check whether an employee is a better choice for a shift than the best so far - further below their minimum weekly shifts, then fewer shifts in the week
+     * @param employee the employee
+     * @param weekShiftCount the employee's shifts in the week
+     * @param bestEmployee the best employee so far
+     * @param bestWeekShiftCount the best employee's shifts in the week
+     * @return whether better (ties keep the best so far, i.e. the earlier employee)
+     */
+    private static boolean isBetterChoice(Employee employee, int weekShiftCount, Employee bestEmployee, int bestWeekShiftCount){
+        int shortfall = Math.max(0, employee.minWeeklyShifts()-weekShiftCount);
+        int bestShortfall = Math.max(0, bestEmployee.minWeeklyShifts()-bestWeekShiftCount);
+        if (shortfall != bestShortfall){
+            return shortfall > bestShortfall;
+        }
+        return weekShiftCount < bestWeekShiftCount;
+    }
+
+    /**
+     * get the index of the working allocations, only indexing them again when they are different allocations (e.g. in a new phase)
+     * @param scoreDirector the score director
+     * @return index of the working allocations
+     */
+    private EmployeeWeekIndex getEmployeeWeekIndex(ScoreDirector<Allocations> scoreDirector){
+        employeeWeekIndex = EmployeeWeekIndex.getIndexOf(employeeWeekIndex, scoreDirector.getWorkingSolution());
+        return employeeWeekIndex;
+    }
+}
@@ -0,0 +1,297 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+import com.google.common.collect.Table;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * checks before solving whether the hard constraints can possibly be satisfied, so impossible inputs don't spend the full solving time.
+ *
+ * Builds the graph from each shift to the employees who can do it (by availability time and type, or only the pinned employee for pinned shifts), then checks as maximum bipartite matchings:
+ * 1. every shift has at least one employee who can do it
+ * 2. for each week, the shifts in the week can all be covered without employees going above their maximum weekly shifts
+ * 3. for each set of shifts at the same time, the shifts can all be covered by different employees
+ *
+ * Each check is a necessary condition, so a failed check proves infeasibility, whilst passing all checks doesn't guarantee a feasible allocation exists
+ */
+public class FeasibilityAnalyser {
+    /**
+     * the maximum number of shift ids given as examples in a shortfall description
+     */
+    private static final int MAX_EXAMPLE_SHIFT_IDS = 5;
+
+    private final List<Shift> shifts;
+    private final List<Employee> employees;
+
+    /**
+     * for each shift (by index in shifts), the indices of the employees who can do it
+     */
+    private final int[][] eligibleEmployees;
+
+    /**
+     * create analyser for the shifts and the employees they can be allocated to
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     */
+    public FeasibilityAnalyser(List<Shift> shifts, List<Employee> employees){
+        this(shifts, employees, getEligibleEmployees(shifts, employees));
+    }
+
+    /**
+     * create analyser for the shifts and the employees they can be allocated to, with the employees who can do each shift already found
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     * @param eligibleEmployees result of getEligibleEmployees for the same shifts and employees
+     */
+    public FeasibilityAnalyser(List<Shift> shifts, List<Employee> employees, int[][] eligibleEmployees){
+        assert (shifts != null)&&(employees != null)&&(eligibleEmployees != null)&&(eligibleEmployees.length == shifts.size());
+        this.shifts = shifts;
+        this.employees = employees;
+        this.eligibleEmployees = eligibleEmployees;
+    }
+
+    /**
+     * run all checks
+     * @return report of the reasons the hard constraints can't be satisfied (if any found)
+     */
+    public FeasibilityReport analyse(){
+        List<Shift> uncoverableShifts = new ArrayList<>();
+        List<Integer> coverableShiftIndices = new ArrayList<>();
+        for (int i=0; i<shifts.size(); i++){
+            if (eligibleEmployees[i].length == 0){
+                uncoverableShifts.add(shifts.get(i));
+            }
+            else{
+                coverableShiftIndices.add(i);
+            }
+        }
+
+        // uncoverable shifts are left out of the other checks, so each problem is only reported once
+        List<String> shortfalls = new ArrayList<>();
+        // different checks can be failed by the same broken constraints, so only the largest shortfall is certain to add to the uncoverable shifts
+        int largestShortfallSize = Math.max(checkWeeklyMaximums(coverableShiftIndices, shortfalls), checkShiftsAtSameTime(coverableShiftIndices, shortfalls));
+        return new FeasibilityReport(uncoverableShifts, shortfalls, largestShortfallSize);
+    }
+
+    /**
+     * find the employees who can do each shift (by availability time and type, or only the pinned employee for pinned shifts)
+     * @param shifts the shifts
+     * @param employees the employees
+     * @return for each shift (by index in shifts), the indices of the employees (in employees) who can do it
+     */
+    public static int[][] getEligibleEmployees(List<Shift> shifts, List<Employee> employees){
+        int[][] eligibleEmployees = new int[shifts.size()][];
+        for (int i=0; i<shifts.size(); i++){
+            Shift shift = shifts.get(i);
+            List<Integer> eligible = new ArrayList<>();
+            for (int j=0; j<employees.size(); j++){
+                Employee employee = employees.get(j);
+                // a pinned shift can only ever have its pinned employee
+                if (shift.isPinned() && shift.getEmployee() != employee){
+                    continue;
+                }
+                if (employee.canPerformShiftByTime(shift) && employee.canPerformShiftByType(shift)){
+                    eligible.add(j);
+                }
+            }
+            eligibleEmployees[i] = eligible.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return eligibleEmployees;
+    }
+
+    /**
+     * get the weeks the shift is in, as year*100+week
+     * @param shift the shift
+     * @return weeks of the shift
+     */
+    static int[] getWeeks(Shift shift){
+        return shift.getStartEndWeekInfoPack().cellSet().stream().mapToInt((Table.Cell<Integer, Integer, Integer> cell) -> cell.getColumnKey()*100+cell.getRowKey()).toArray();
+    }
+
+    /**
+     * check for each week that the shifts in the week can be covered without employees going above their maximum weekly shifts.
+     *
+     * A shift across multiple weeks counts towards each of them, as in the constraints
+     * @param shiftIndices indices of the shifts to check
+     * @param shortfalls list to add a description of each week's shortfall to
+     * @return the most shifts which can't be covered in any one week
+     */
+    private int checkWeeklyMaximums(List<Integer> shiftIndices, List<String> shortfalls){
+        // sorted by year then week, so shortfalls are reported in time order
+        Map<Integer, List<Integer>> shiftIndicesByWeek = new TreeMap<>();
+        for (int i: shiftIndices){
+            for (int week: getWeeks(shifts.get(i))){
+                shiftIndicesByWeek.computeIfAbsent(week, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int largestShortfallSize = 0;
+        int[] capacities = new int[employees.size()];
+        for (Map.Entry<Integer, List<Integer>> entry: shiftIndicesByWeek.entrySet()){
+            List<Integer> weekShiftIndices = entry.getValue();
+            for (int j=0; j<employees.size(); j++){
+                Integer maxWeeklyShifts = employees.get(j).maxWeeklyShifts();
+                // no maximum means the employee could do every shift in the week
+                capacities[j] = (maxWeeklyShifts == null)? weekShiftIndices.size(): maxWeeklyShifts;
+            }
+            List<Integer> unmatched = getUnmatchedShiftIndices(weekShiftIndices, capacities);
+            if (!unmatched.isEmpty()){
+                shortfalls.add("week "+(entry.getKey()%100)+" of "+(entry.getKey()/100)+": only "+(weekShiftIndices.size()-unmatched.size())+" of "+weekShiftIndices.size()+
+                    " shifts can be covered without employees going above their maximum weekly shifts (e.g. "+getExampleShiftIds(unmatched)+" can't be covered)");
+                largestShortfallSize = Math.max(largestShortfallSize, unmatched.size());
+            }
+        }
+        return largestShortfallSize;
+    }
+
+    /**
+     * check for each set of shifts happening at the same time, that they can be covered by different employees (since an employee can only do 1 at a time).
+     *
+     * Every set of shifts which all overlap each other includes the start of one of them, so it is enough to check the shifts happening at the start of each shift.
+     * These are found with a sweep over the starts and ends in time order, keeping the shifts which have started and not yet ended
+     * @param shiftIndices indices of the shifts to check
+     * @param shortfalls list to add a description of each shortfall to
+     * @return the most shifts which can't be covered in any one set of shifts at the same time
+     */
+    private int checkShiftsAtSameTime(List<Integer> shiftIndices, List<String> shortfalls){
+        List<Integer> startSortedShiftIndices = new ArrayList<>(shiftIndices);
+        startSortedShiftIndices.sort(Comparator.comparing((Integer i) -> shifts.get(i).getStart()));
+        // positions in startSortedShiftIndices, sorted by end
+        List<Integer> endSortedPositions = new ArrayList<>();
+        for (int position=0; position<startSortedShiftIndices.size(); position++){
+            endSortedPositions.add(position);
+        }
+        endSortedPositions.sort(Comparator.comparing((Integer position) -> shifts.get(startSortedShiftIndices.get(position)).getEnd()));
+
+        int largestShortfallSize = 0;
+        int[] capacities = new int[employees.size()];
+        Arrays.fill(capacities, 1);
+        // positions of the shifts which have started and not yet ended, so iterated in start order
+        TreeSet<Integer> activePositions = new TreeSet<>();
+        int nextEnd = 0;
+        int nextStart = 0;
+        while (nextStart < startSortedShiftIndices.size()){
+            Shift shift = shifts.get(startSortedShiftIndices.get(nextStart));
+            // end is exclusive, as with overlapping shifts, so shifts ending at this start are no longer happening
+            while (!shifts.get(startSortedShiftIndices.get(endSortedPositions.get(nextEnd))).getEnd().isAfter(shift.getStart())){
+                activePositions.remove(endSortedPositions.get(nextEnd++));
+            }
+            // every shift starting at the same time is in the same set
+            while (nextStart < startSortedShiftIndices.size() && shifts.get(startSortedShiftIndices.get(nextStart)).getStart().isEqual(shift.getStart())){
+                activePositions.add(nextStart++);
+            }
+            if (activePositions.size() < 2){
+                continue;
+            }
+
+            List<Integer> sameTimeShiftIndices = activePositions.stream().map(startSortedShiftIndices::get).collect(Collectors.toList());
+            List<Integer> unmatched = getUnmatchedShiftIndices(sameTimeShiftIndices, capacities);
+            if (!unmatched.isEmpty()){
+                shortfalls.add(shift.getStart()+": only "+(sameTimeShiftIndices.size()-unmatched.size())+" of "+sameTimeShiftIndices.size()+
+                    " shifts at the same time can be covered by different employees (e.g. "+getExampleShiftIds(unmatched)+" can't be covered)");
+                largestShortfallSize = Math.max(largestShortfallSize, unmatched.size());
+            }
+        }
+        return largestShortfallSize;
+    }
+
+    /**
+     * find a maximum matching of the shifts to the employees who can do them, with each employee doing at most their capacity of the shifts.
+     *
+     * Uses augmenting paths (Kuhn's algorithm, extended to employees doing more than 1 shift)
+     * @param shiftIndices indices of the shifts to match
+     * @param capacities the number of shifts each employee (by index) can do
+     * @return indices of the shifts left unmatched (empty if all can be covered)
+     */
+    private List<Integer> getUnmatchedShiftIndices(List<Integer> shiftIndices, int[] capacities){
+        List<List<Integer>> matchedShiftIndices = new ArrayList<>();
+        for (int j=0; j<employees.size(); j++){
+            matchedShiftIndices.add(new ArrayList<>());
+        }
+        List<Integer> unmatched = new ArrayList<>();
+        for (int i: shiftIndices){
+            if (!augment(i, matchedShiftIndices, capacities, new boolean[employees.size()])){
+                unmatched.add(i);
+            }
+        }
+        return unmatched;
+    }
+
+    /**
+     * try to match the shift, by finding an employee with spare capacity, possibly by moving shifts already matched to other employees who can do them.
+     *
+     * Searches depth first with an explicit stack rather than recursing, since an augmenting path can be as long as the number of employees
+     * @param shiftIndex index of the shift to match
+     * @param matchedShiftIndices the shifts currently matched to each employee (by index), updated if successful
+     * @param capacities the number of shifts each employee (by index) can do
+     * @param visited employees already tried whilst matching this shift
+     * @return whether the shift was matched
+     */
+    private boolean augment(int shiftIndex, List<List<Integer>> matchedShiftIndices, int[] capacities, boolean[] visited){
+        // each frame is a shift on the path: its index, the position of the next of its eligible employees to try,
+        // the employee whose matched shifts are being moved (or -1 if none), and the position of the matched shift being moved
+        Deque<int[]> path = new ArrayDeque<>();
+        path.push(new int[]{shiftIndex, 0, -1, 0});
+        while (!path.isEmpty()){
+            int[] frame = path.peek();
+            if (frame[2] >= 0){
+                List<Integer> matched = matchedShiftIndices.get(frame[2]);
+                if (frame[3] < matched.size()){
+                    // try moving the employee's next matched shift
+                    path.push(new int[]{matched.get(frame[3]), 0, -1, 0});
+                    continue;
+                }
+                frame[2] = -1;
+            }
+            int[] shiftEligibleEmployees = eligibleEmployees[frame[0]];
+            while (frame[1] < shiftEligibleEmployees.length && visited[shiftEligibleEmployees[frame[1]]]){
+                frame[1]++;
+            }
+            if (frame[1] == shiftEligibleEmployees.length){
+                // the shift can't be moved, so the shift before it on the path tries moving its employee's next matched shift
+                path.pop();
+                if (!path.isEmpty()){
+                    path.peek()[3]++;
+                }
+                continue;
+            }
+            int j = shiftEligibleEmployees[frame[1]++];
+            visited[j] = true;
+            List<Integer> matched = matchedShiftIndices.get(j);
+            if (matched.size() < capacities[j]){
+                matched.add(frame[0]);
+                path.pop();
+                // each shift on the path takes the place of the shift moved from its employee
+                while (!path.isEmpty()){
+                    int[] previousFrame = path.pop();
+                    matchedShiftIndices.get(previousFrame[2]).set(previousFrame[3], previousFrame[0]);
+                }
+                return true;
+            }
+            frame[2] = j;
+            frame[3] = 0;
+        }
+        return false;
+    }
+
+    /**
+     * get the ids of the first few shifts, for describing a shortfall
+     * @param shiftIndices indices of the shifts
+     * @return comma separated shift ids
+     */
+    private String getExampleShiftIds(List<Integer> shiftIndices){
+        String ids = shiftIndices.stream().limit(MAX_EXAMPLE_SHIFT_IDS).map(i -> shifts.get(i).getShiftId()).collect(Collectors.joining(", "));
+        return (shiftIndices.size() > MAX_EXAMPLE_SHIFT_IDS)? ids+" and "+(shiftIndices.size()-MAX_EXAMPLE_SHIFT_IDS)+" more": ids;
+    }
+}
@@ -0,0 +1,93 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * result of FeasibilityAnalyser - the reasons (if any) that no allocation can satisfy the hard constraints
+ */
+public class FeasibilityReport {
+    /**
+     * shifts which no employee can do (by availability time and type), so can never be covered
+     */
+    private final List<Shift> uncoverableShifts;
+
+    /**
+     * descriptions of groups of shifts which can't all be covered together (e.g. too many shifts in a week for the employees' maximum weekly shifts)
+     */
+    private final List<String> shortfalls;
+
+    /**
+     * the most shifts which can't be covered in any one of the shortfalls
+     */
+    private final int largestShortfallSize;
+
+    /**
+     * full constructor setting all fields
+     * @param uncoverableShifts shifts which no employee can do
+     * @param shortfalls descriptions of groups of shifts which can't all be covered together
+     * @param largestShortfallSize the most shifts which can't be covered in any one of the shortfalls
+     */
+    public FeasibilityReport(List<Shift> uncoverableShifts, List<String> shortfalls, int largestShortfallSize){
+        assert (uncoverableShifts != null)&&(shortfalls != null)&&(largestShortfallSize >= 0);
+        this.uncoverableShifts = Collections.unmodifiableList(uncoverableShifts);
+        this.shortfalls = Collections.unmodifiableList(shortfalls);
+        this.largestShortfallSize = largestShortfallSize;
+    }
+
+    /**
+     * confirm whether it has been proven that no allocation can satisfy the hard constraints.
+     *
+     * Not being proven infeasible doesn't mean a feasible allocation exists - the analysis only checks necessary conditions
+     * @return whether provably infeasible
+     */
+    public boolean isProvablyInfeasible(){
+        return !uncoverableShifts.isEmpty() || !shortfalls.isEmpty();
+    }
+
+    /**
+     * get the shifts which no employee can do
+     * @return unmodifiable list of uncoverable shifts
+     */
+    public List<Shift> getUncoverableShifts(){
+        return uncoverableShifts;
+    }
+
+    /**
+     * get the descriptions of groups of shifts which can't all be covered together
+     * @return unmodifiable list of shortfall descriptions
+     */
+    public List<String> getShortfalls(){
+        return shortfalls;
+    }
+
+    /**
+     * get the fewest hard constraints every allocation breaks.
+     *
+     * Each uncoverable shift breaks at least 1 hard constraint (unallocated, or allocated to an employee who can't do it),
+     * and so does each shift which can't be covered in a shortfall. Shortfalls can overlap, so only the largest is counted
+     * @return the fewest broken hard constraints (0 if not provably infeasible)
+     */
+    public int getMinimumBrokenHardConstraints(){
+        return uncoverableShifts.size()+largestShortfallSize;
+    }
+
+    @Override
+    public String toString(){
+        if (!isProvablyInfeasible()){
+            return "no infeasibility found before solving";
+        }
+        StringBuilder builder = new StringBuilder("the shifts can't be allocated without breaking hard constraints:");
+        if (!uncoverableShifts.isEmpty()){
+            builder.append("\n* no employee is available for shifts ")
+                .append(uncoverableShifts.stream().map(Shift::getShiftId).collect(Collectors.joining(", ")));
+        }
+        for (String shortfall: shortfalls){
+            builder.append("\n* ").append(shortfall);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,352 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * allocates the unallocated shifts before solving, so the solver starts from a near-feasible allocation rather than relying on the generic construction heuristic.
+ *
+ * Matches shifts to employees who can do them (by availability time and type) along augmenting paths, as in a maximum bipartite matching,
+ * whilst never giving an employee overlapping shifts or more than their maximum weekly shifts.
+ * Because of those 2 extra rules the matching is greedy (only the shifts directly in the way of a shift are moved to make room for it, in chains of limited length),
+ * so shifts it can't allocate are left unallocated for the construction heuristic.
+ *
+ * Shifts which are already allocated (pinned, or from a previous allocation) are kept, and count towards their employees' shifts
+ */
+public class MatchingInitialiser {
+    /**
+     * the most shifts moved in a chain to make room for a shift (limits the time spent on each shift)
+     */
+    private static final int MAX_AUGMENTING_PATH_LENGTH = 3;
+
+    private final List<Shift> shifts;
+    private final List<Employee> employees;
+
+    /**
+     * for each shift (by index in shifts), the indices of the employees who can do it
+     */
+    private final int[][] eligibleEmployees;
+
+    /**
+     * for each shift (by index in shifts), the weeks it is in (as year*100+week)
+     */
+    private int[][] shiftWeeks;
+
+    /**
+     * for each shift (by index in shifts), the index of the employee it is matched to, or -1 if none
+     */
+    private int[] matchedEmployees;
+
+    /**
+     * for each employee (by index in employees), the indices of the shifts they have
+     */
+    private List<List<Integer>> employeeShifts;
+
+    /**
+     * for each employee (by index in employees), their number of shifts in each week they have shifts (as year*100+week)
+     */
+    private List<Map<Integer, Integer>> employeeWeeklyShiftCounts;
+
+    /**
+     * the changes made to the matching whilst augmenting, so they can be undone when an augmenting path fails
+     */
+    private List<int[]> journal;
+
+    /**
+     * create initialiser for the shifts and the employees they can be allocated to
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     */
+    public MatchingInitialiser(List<Shift> shifts, List<Employee> employees){
+        this(shifts, employees, FeasibilityAnalyser.getEligibleEmployees(shifts, employees));
+    }
+
+    /**
+     * create initialiser for the shifts and the employees they can be allocated to, with the employees who can do each shift already found
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     * @param eligibleEmployees result of FeasibilityAnalyser.getEligibleEmployees for the same shifts and employees
+     */
+    public MatchingInitialiser(List<Shift> shifts, List<Employee> employees, int[][] eligibleEmployees){
+        assert (shifts != null)&&(employees != null)&&(eligibleEmployees != null)&&(eligibleEmployees.length == shifts.size());
+        this.shifts = shifts;
+        this.employees = employees;
+        this.eligibleEmployees = eligibleEmployees;
+    }
+
+    /**
+     * allocate as many of the unallocated shifts as possible, setting the employee of each allocated shift
+     * @return the number of shifts which were allocated
+     */
+    public int initialise(){
+        shiftWeeks = new int[shifts.size()][];
+        matchedEmployees = new int[shifts.size()];
+        employeeShifts = new ArrayList<>();
+        employeeWeeklyShiftCounts = new ArrayList<>();
+        journal = new ArrayList<>();
+        for (int j=0; j<employees.size(); j++){
+            employeeShifts.add(new ArrayList<>());
+            employeeWeeklyShiftCounts.add(new HashMap<>());
+        }
+
+        // by identity, since an employee's equality compares all their fields (including availabilities)
+        Map<Employee, Integer> employeeIndices = new IdentityHashMap<>();
+        for (int j=0; j<employees.size(); j++){
+            employeeIndices.put(employees.get(j), j);
+        }
+
+        List<Integer> unallocatedShiftIndices = new ArrayList<>();
+        for (int i=0; i<shifts.size(); i++){
+            shiftWeeks[i] = FeasibilityAnalyser.getWeeks(shifts.get(i));
+            matchedEmployees[i] = -1;
+            int employeeIndex = employeeIndices.getOrDefault(shifts.get(i).getEmployee(), -1);
+            if (employeeIndex >= 0){
+                // already allocated shifts are fixed in place
+                match(i, employeeIndex);
+            }
+            else if (shifts.get(i).getEmployee() == null){
+                unallocatedShiftIndices.add(i);
+            }
+        }
+
+        // the most constrained shifts first, since they have the fewest options
+        unallocatedShiftIndices.sort(Comparator.comparing((Integer i) -> eligibleEmployees[i].length).thenComparing(i -> shifts.get(i).getStart()));
+        // matching a shift can open up augmenting paths for shifts which failed before, so repeat until no more shifts are matched
+        boolean progress = true;
+        while (progress){
+            progress = false;
+            for (int i: unallocatedShiftIndices){
+                if (matchedEmployees[i] < 0 && augment(i, new boolean[employees.size()], 0)){
+                    progress = true;
+                }
+                // only needed to undo failed augmenting paths for this shift
+                journal.clear();
+            }
+        }
+
+        int allocatedCount = 0;
+        for (int i: unallocatedShiftIndices){
+            if (matchedEmployees[i] >= 0){
+                shifts.get(i).setEmployee(employees.get(matchedEmployees[i]));
+                allocatedCount++;
+            }
+        }
+        return allocatedCount;
+    }
+
+    /**
+     * try to match the shift to an employee who can do it, possibly by moving the shifts in the way to other employees
+     * @param shiftIndex index of the shift to match
+     * @param visited employees on the current augmenting path (who can't be given the shift)
+     * @param depth number of shifts moved so far on the current augmenting path
+     * @return whether the shift was matched (otherwise all changes whilst trying are undone)
+     */
+    private boolean augment(int shiftIndex, boolean[] visited, int depth){
+        // an employee with room is best, so check them all before moving shifts
+        for (int j: eligibleEmployees[shiftIndex]){
+            if (!visited[j] && canAdd(shiftIndex, j)){
+                add(shiftIndex, j);
+                return true;
+            }
+        }
+        if (depth >= MAX_AUGMENTING_PATH_LENGTH){
+            return false;
+        }
+        for (int j: eligibleEmployees[shiftIndex]){
+            if (visited[j]){
+                continue;
+            }
+            // employees are only excluded whilst on the current path, so a failure on one path doesn't rule them out of others
+            visited[j] = true;
+            if (moveShiftsForEmployee(shiftIndex, j, visited, depth)){
+                visited[j] = false;
+                return true;
+            }
+            visited[j] = false;
+        }
+        return false;
+    }
+
+    /**
+     * try to give the employee the shift by moving the shifts in the way (those at the same time, plus at most 1 more in the same week) to other employees
+     * @param shiftIndex index of the shift to match
+     * @param employeeIndex index of the employee
+     * @param visited employees on the current augmenting path
+     * @param depth number of shifts moved so far on the current augmenting path
+     * @return whether successful (otherwise all changes whilst trying are undone)
+     */
+    private boolean moveShiftsForEmployee(int shiftIndex, int employeeIndex, boolean[] visited, int depth){
+        List<Integer> overlapping = new ArrayList<>();
+        for (int other: employeeShifts.get(employeeIndex)){
+            if (shifts.get(other).overlapsWithTimePeriod(shifts.get(shiftIndex))){
+                if (isFixed(other)){
+                    return false;
+                }
+                overlapping.add(other);
+            }
+        }
+        if (moveShiftsInTheWay(shiftIndex, employeeIndex, overlapping, visited, depth)){
+            return true;
+        }
+        // still above the maximum weekly shifts, so also try moving each other shift in the same week
+        for (int other: new ArrayList<>(employeeShifts.get(employeeIndex))){
+            if (!overlapping.contains(other) && !isFixed(other) && sharesWeek(shiftIndex, other)){
+                List<Integer> inTheWay = new ArrayList<>(overlapping);
+                inTheWay.add(other);
+                if (moveShiftsInTheWay(shiftIndex, employeeIndex, inTheWay, visited, depth)){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * try to give the employee the shift, by moving the shifts in the way to other employees
+     * @param shiftIndex index of the shift to match
+     * @param employeeIndex index of the employee
+     * @param inTheWay indices of the employee's shifts to move
+     * @param visited employees on the current augmenting path
+     * @param depth number of shifts moved so far on the current augmenting path
+     * @return whether successful (otherwise all changes whilst trying are undone)
+     */
+    private boolean moveShiftsInTheWay(int shiftIndex, int employeeIndex, List<Integer> inTheWay, boolean[] visited, int depth){
+        int journalMark = journal.size();
+        for (int other: inTheWay){
+            remove(other, employeeIndex);
+        }
+        if (canAdd(shiftIndex, employeeIndex)){
+            add(shiftIndex, employeeIndex);
+            boolean allMoved = true;
+            for (int other: inTheWay){
+                if (!augment(other, visited, depth+1)){
+                    allMoved = false;
+                    break;
+                }
+            }
+            if (allMoved){
+                return true;
+            }
+        }
+        rollback(journalMark);
+        return false;
+    }
+
+    /**
+     * confirm whether the employee can be given the shift, without overlapping their other shifts or going above their maximum weekly shifts
+     * @param shiftIndex index of the shift
+     * @param employeeIndex index of the employee
+     * @return whether the shift can be added
+     */
+    private boolean canAdd(int shiftIndex, int employeeIndex){
+        Shift shift = shifts.get(shiftIndex);
+        for (int other: employeeShifts.get(employeeIndex)){
+            if (shifts.get(other).overlapsWithTimePeriod(shift)){
+                return false;
+            }
+        }
+        Employee employee = employees.get(employeeIndex);
+        Map<Integer, Integer> weeklyShiftCounts = employeeWeeklyShiftCounts.get(employeeIndex);
+        for (int week: shiftWeeks[shiftIndex]){
+            if (!employee.numberOfShiftsUnderMaximum(weeklyShiftCounts.getOrDefault(week, 0)+1)){
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * confirm whether the shift was allocated before initialising (so can't be moved)
+     * @param shiftIndex index of the shift
+     * @return whether fixed
+     */
+    private boolean isFixed(int shiftIndex){
+        return shifts.get(shiftIndex).getEmployee() != null;
+    }
+
+    /**
+     * confirm whether the 2 shifts are in any of the same weeks
+     * @param shiftIndex1 index of the first shift
+     * @param shiftIndex2 index of the second shift
+     * @return whether they share a week
+     */
+    private boolean sharesWeek(int shiftIndex1, int shiftIndex2){
+        for (int week1: shiftWeeks[shiftIndex1]){
+            for (int week2: shiftWeeks[shiftIndex2]){
+                if (week1 == week2){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * undo the matches made since the journal was the given size
+     * @param journalMark size of the journal to go back to
+     */
+    private void rollback(int journalMark){
+        while (journal.size() > journalMark){
+            int[] change = journal.remove(journal.size()-1);
+            // change is {shift index, employee index, +1 for added or -1 for removed}
+            if (change[2] > 0){
+                unmatch(change[0], change[1]);
+            }
+            else{
+                match(change[0], change[1]);
+            }
+        }
+    }
+
+    /**
+     * match the shift to the employee, recording it in the journal
+     * @param shiftIndex index of the shift
+     * @param employeeIndex index of the employee
+     */
+    private void add(int shiftIndex, int employeeIndex){
+        match(shiftIndex, employeeIndex);
+        journal.add(new int[]{shiftIndex, employeeIndex, 1});
+    }
+
+    /**
+     * unmatch the shift from the employee, recording it in the journal
+     * @param shiftIndex index of the shift
+     * @param employeeIndex index of the employee
+     */
+    private void remove(int shiftIndex, int employeeIndex){
+        unmatch(shiftIndex, employeeIndex);
+        journal.add(new int[]{shiftIndex, employeeIndex, -1});
+    }
+
+    /**
+     * match the shift to the employee
+     * @param shiftIndex index of the shift
+     * @param employeeIndex index of the employee
+     */
+    private void match(int shiftIndex, int employeeIndex){
+        matchedEmployees[shiftIndex] = employeeIndex;
+        employeeShifts.get(employeeIndex).add(shiftIndex);
+        for (int week: shiftWeeks[shiftIndex]){
+            employeeWeeklyShiftCounts.get(employeeIndex).merge(week, 1, Integer::sum);
+        }
+    }
+
+    /**
+     * unmatch the shift from the employee
+     * @param shiftIndex index of the shift
+     * @param employeeIndex index of the employee
+     */
+    private void unmatch(int shiftIndex, int employeeIndex){
+        matchedEmployees[shiftIndex] = -1;
+        employeeShifts.get(employeeIndex).remove(Integer.valueOf(shiftIndex));
+        for (int week: shiftWeeks[shiftIndex]){
+            employeeWeeklyShiftCounts.get(employeeIndex).merge(week, -1, Integer::sum);
+        }
+    }
+}
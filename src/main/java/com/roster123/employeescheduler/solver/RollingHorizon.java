@@ -0,0 +1,107 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * splits a long roster into windows of a number of weeks to solve one after the other, each window starting a number of weeks (the overlap) before the end of the last.
+ *
+ * Only the shifts in a window are solved. Shifts from before the window which run into its weeks are included pinned to the employee they were given,
+ * so the weekly shift counts, overlaps and gaps between shifts see them, whilst shifts from before the window which don't run into it are left out
+ * (the constraints only involve shifts in the same week). So memory and the time for each step grow with the window rather than the whole roster.
+ *
+ * Shifts are in the window of the first week they are in (by the week indices of Shift.getStartEndWeekInfoPack). Only weeks with shifts are counted
+ */
+public class RollingHorizon {
+    private final List<Shift> shifts;
+    private final List<Integer> weeks;
+    private final int windowWeeks;
+    private final int overlapWeeks;
+
+    /**
+     * the shifts by shift id, to copy the employees of solved windows to
+     */
+    private final Map<String, Shift> shiftsById;
+
+    /**
+     * create rolling horizon over the shifts
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param windowWeeks the number of weeks in each window, at least 1
+     * @param overlapWeeks the number of weeks each window shares with the last (solved again), from 0 to windowWeeks-1
+     */
+    public RollingHorizon(List<Shift> shifts, int windowWeeks, int overlapWeeks){
+        assert (shifts != null)&&(windowWeeks >= 1)&&(overlapWeeks >= 0)&&(overlapWeeks < windowWeeks);
+        this.shifts = shifts;
+        this.windowWeeks = windowWeeks;
+        this.overlapWeeks = overlapWeeks;
+        weeks = new ArrayList<>(WeekPartitioner.getShiftsByWeek(shifts).keySet());
+        shiftsById = new HashMap<>();
+        for (Shift shift: shifts){
+            shiftsById.put(shift.getShiftId(), shift);
+        }
+    }
+
+    /**
+     * get the number of windows
+     * @return number of windows (1 if all the shifts fit in a single window)
+     */
+    public int getWindowCount(){
+        if (weeks.size() <= windowWeeks){
+            return 1;
+        }
+        // each window after the first moves on by windowWeeks-overlapWeeks weeks, until the last week is in a window
+        int step = windowWeeks-overlapWeeks;
+        return 1+(weeks.size()-windowWeeks+step-1)/step;
+    }
+
+    /**
+     * get the weeks in a window
+     * @param window index of the window
+     * @return weeks (as year*100+week) of the window, in time order
+     */
+    public List<Integer> getWindowWeeks(int window){
+        int windowStart = window*(windowWeeks-overlapWeeks);
+        return weeks.subList(windowStart, Math.min(windowStart+windowWeeks, weeks.size()));
+    }
+
+    /**
+     * get the shifts to solve for a window - the shifts in its weeks, and pinned copies of the allocated shifts from earlier weeks which run into them
+     * @param window index of the window
+     * @return shifts of the window
+     */
+    public List<Shift> getWindowShifts(int window){
+        List<Integer> windowWeekList = getWindowWeeks(window);
+        int firstWindowWeek = windowWeekList.get(0);
+        int lastWindowWeek = windowWeekList.get(windowWeekList.size()-1);
+        List<Shift> windowShifts = new ArrayList<>();
+        for (Shift shift: shifts){
+            int[] shiftWeeks = FeasibilityAnalyser.getWeeks(shift);
+            int firstShiftWeek = Arrays.stream(shiftWeeks).min().getAsInt();
+            if (firstShiftWeek >= firstWindowWeek && firstShiftWeek <= lastWindowWeek){
+                windowShifts.add(shift);
+            }
+            else if (firstShiftWeek < firstWindowWeek && shift.isAllocated() && Arrays.stream(shiftWeeks).anyMatch(week -> week >= firstWindowWeek)){
+                windowShifts.add(new Shift(shift.getShiftId(), shift.getType(), shift.getStart(), shift.getEnd(), shift.getEmployee(), true));
+            }
+        }
+        return windowShifts;
+    }
+
+    /**
+     * copy the employees of a solved window to the shifts (pinned shifts keep their employees)
+     * @param solvedShifts the solved shifts of the window
+     */
+    public void applyWindowAllocations(List<Shift> solvedShifts){
+        for (Shift solvedShift: solvedShifts){
+            Shift shift = shiftsById.get(solvedShift.getShiftId());
+            if (shift != null && !shift.isPinned() && !solvedShift.isPinned()){
+                shift.setEmployee(solvedShift.getEmployee());
+            }
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.Objects;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.impl.heuristic.selector.common.decorator.SelectionFilter;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.SwapMove;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * filter for swap moves, only allowing the employees of 2 shifts to be swapped if the shifts have the same type and start on the same day,
+ * and each employee can do the other's shift.
+ *
+ * Swapping shifts of the same type on the same day keeps each employee's weekly and daily shift counts the same,
+ * so these swaps are the ones likely to improve the score without breaking other constraints
+ */
+public class SameTypeAndDaySwapMoveFilter implements SelectionFilter<Allocations, SwapMove<Allocations>> {
+    @Override
+    public boolean accept(ScoreDirector<Allocations> scoreDirector, SwapMove<Allocations> move){
+        Shift leftShift = (Shift)move.getLeftEntity();
+        Shift rightShift = (Shift)move.getRightEntity();
+        return Objects.equals(leftShift.getType(), rightShift.getType()) &&
+            leftShift.getStart().toLocalDate().equals(rightShift.getStart().toLocalDate()) &&
+            AvailableEmployeeChangeMoveFilter.canDoShift(leftShift.getEmployee(), rightShift) &&
+            AvailableEmployeeChangeMoveFilter.canDoShift(rightShift.getEmployee(), leftShift);
+    }
+}
@@ -0,0 +1,195 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * calculates the best score any allocation of the shifts could get, so solving can stop as soon as an allocation with that score is found.
+ *
+ * The bound is optimistic - no allocation scores better, but there may be no allocation which reaches it:
+ * 1. hard: the hard constraints FeasibilityAnalyser proves must be broken
+ * 2. medium: if the shifts might be allocated without breaking hard constraints, the minimum weekly shifts which can't be reached in weeks employees must work
+ * (employees must do their pinned shifts, and shifts only they can do)
+ * 3. soft: likewise, the gaps between shifts employees must do on the same day which no other shift they can do could fill
+ *
+ * The medium and soft bounds only hold for allocations not breaking hard constraints, which is enough since only a best score with no broken hard constraints can reach them.
+ * When hard constraints must be broken, the medium and soft bounds are 0
+ */
+public class ScoreBoundCalculator {
+    private static final int MILLIS_IN_HOUR = 3600000;
+
+    private final List<Shift> shifts;
+    private final List<Employee> employees;
+
+    /**
+     * for each shift (by index in shifts), the indices of the employees who can do it
+     */
+    private final int[][] eligibleEmployees;
+
+    /**
+     * create calculator for the shifts and the employees they can be allocated to
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     */
+    public ScoreBoundCalculator(List<Shift> shifts, List<Employee> employees){
+        this(shifts, employees, FeasibilityAnalyser.getEligibleEmployees(shifts, employees));
+    }
+
+    /**
+     * create calculator for the shifts and the employees they can be allocated to, with the employees who can do each shift already found
+     * @param shifts all shifts (allocated, unallocated and pinned)
+     * @param employees all employees
+     * @param eligibleEmployees result of FeasibilityAnalyser.getEligibleEmployees for the same shifts and employees
+     */
+    public ScoreBoundCalculator(List<Shift> shifts, List<Employee> employees, int[][] eligibleEmployees){
+        assert (shifts != null)&&(employees != null)&&(eligibleEmployees != null)&&(eligibleEmployees.length == shifts.size());
+        this.shifts = shifts;
+        this.employees = employees;
+        this.eligibleEmployees = eligibleEmployees;
+    }
+
+    /**
+     * calculate the best score any allocation of the shifts could get
+     * @param feasibilityReport result of FeasibilityAnalyser for the same shifts and employees
+     * @return the bound on the score
+     */
+    public HardMediumSoftScore calculateBound(FeasibilityReport feasibilityReport){
+        if (feasibilityReport.isProvablyInfeasible()){
+            return HardMediumSoftScore.ofHard(-feasibilityReport.getMinimumBrokenHardConstraints());
+        }
+
+        // in one pass over the shifts, the shifts each employee can do, and those only they can do (so must do)
+        List<List<Shift>> eligibleShifts = new ArrayList<>();
+        List<List<Shift>> forcedShifts = new ArrayList<>();
+        for (int j=0; j<employees.size(); j++){
+            eligibleShifts.add(new ArrayList<>());
+            forcedShifts.add(new ArrayList<>());
+        }
+        for (int i=0; i<shifts.size(); i++){
+            for (int j: eligibleEmployees[i]){
+                eligibleShifts.get(j).add(shifts.get(i));
+            }
+            if (eligibleEmployees[i].length == 1){
+                forcedShifts.get(eligibleEmployees[i][0]).add(shifts.get(i));
+            }
+        }
+
+        int mediumPenalty = 0;
+        int softPenalty = 0;
+        for (int j=0; j<employees.size(); j++){
+            if (!forcedShifts.get(j).isEmpty()){
+                mediumPenalty += getMinimumWeeklyShiftsPenalty(employees.get(j), eligibleShifts.get(j), forcedShifts.get(j));
+                softPenalty += getGapsPenalty(employees.get(j), eligibleShifts.get(j), forcedShifts.get(j));
+            }
+        }
+        return HardMediumSoftScore.of(0, -mediumPenalty, -softPenalty);
+    }
+
+    /**
+     * get the least the employee can lose for being below their minimum weekly shifts, from the weeks they must work in.
+     *
+     * In each of those weeks the employee can do at most the shifts in the week they can do (up to their maximum weekly shifts)
+     * @param employee the employee
+     * @param eligibleShifts the shifts the employee can do
+     * @param forcedShifts the shifts the employee must do (pinned to them, or only they can do)
+     * @return the medium penalty
+     */
+    private int getMinimumWeeklyShiftsPenalty(Employee employee, List<Shift> eligibleShifts, List<Shift> forcedShifts){
+        Map<Integer, Integer> possibleWeeklyShiftCounts = new HashMap<>();
+        for (Shift shift: forcedShifts){
+            for (int week: FeasibilityAnalyser.getWeeks(shift)){
+                possibleWeeklyShiftCounts.put(week, 0);
+            }
+        }
+        for (Shift shift: eligibleShifts){
+            for (int week: FeasibilityAnalyser.getWeeks(shift)){
+                possibleWeeklyShiftCounts.computeIfPresent(week, (k, n) -> n+1);
+            }
+        }
+
+        int penalty = 0;
+        for (int possibleWeeklyShiftCount: possibleWeeklyShiftCounts.values()){
+            if (employee.maxWeeklyShifts() != null){
+                possibleWeeklyShiftCount = Math.min(possibleWeeklyShiftCount, employee.maxWeeklyShifts());
+            }
+            if (!employee.numberOfShiftsAboveMinimum(possibleWeeklyShiftCount)){
+                penalty += (employee.minWeeklyShifts()-possibleWeeklyShiftCount)*employee.getImportance();
+            }
+        }
+        return penalty;
+    }
+
+    /**
+     * get the least the employee can lose for gaps between shifts, from the gaps between the shifts they must do.
+     *
+     * Between 2 shifts the employee must do on the same day, only shifts the employee can do which fit in between (without overlapping either) can fill the gap
+     * @param employee the employee
+     * @param eligibleShifts the shifts the employee can do
+     * @param forcedShifts the shifts the employee must do (pinned to them, or only they can do)
+     * @return the soft penalty
+     */
+    private int getGapsPenalty(Employee employee, List<Shift> eligibleShifts, List<Shift> forcedShifts){
+        forcedShifts.sort(Comparator.comparing(Shift::getStart).thenComparing(Shift::getEnd));
+        // sorted once, so each gap only looks at the shifts starting in it
+        long[] eligibleStartMillis = null;
+
+        long gapMillis = 0;
+        for (int k=0; k<forcedShifts.size()-1; k++){
+            Shift before = forcedShifts.get(k);
+            Shift after = forcedShifts.get(k+1);
+            // as in the constraint, only gaps on the same date count
+            if (Objects.equals(before.getEnd().toLocalDate(), after.getStart().toLocalDate())&&before.getEnd().isBefore(after.getStart())){
+                if (eligibleStartMillis == null){
+                    eligibleShifts.sort(Comparator.comparing(Shift::getStart));
+                    eligibleStartMillis = eligibleShifts.stream().mapToLong((Shift shift) -> shift.getStart().getMillis()).toArray();
+                }
+                gapMillis += after.getStart().getMillis()-before.getEnd().getMillis()-getFillableMillis(eligibleShifts, eligibleStartMillis, before.getEnd().getMillis(), after.getStart().getMillis());
+            }
+        }
+        // hours rounded down, as in the constraint
+        return (int)(gapMillis/MILLIS_IN_HOUR)*employee.getImportance();
+    }
+
+    /**
+     * get the time between the start and end which could be filled by shifts the employee can do
+     * @param eligibleShifts the shifts the employee can do, sorted by start
+     * @param eligibleStartMillis the start of each of eligibleShifts
+     * @param startMillis start of the gap
+     * @param endMillis end of the gap
+     * @return milliseconds covered by the union of the shifts fitting in the gap
+     */
+    private static long getFillableMillis(List<Shift> eligibleShifts, long[] eligibleStartMillis, long startMillis, long endMillis){
+        // first shift starting at or after the start of the gap
+        int first = Arrays.binarySearch(eligibleStartMillis, startMillis);
+        if (first < 0){
+            first = -first-1;
+        }
+        while (first > 0 && eligibleStartMillis[first-1] == startMillis){
+            first--;
+        }
+
+        long fillableMillis = 0;
+        long coveredUntilMillis = startMillis;
+        for (int i=first; i<eligibleShifts.size() && eligibleStartMillis[i] <= endMillis; i++){
+            Shift shift = eligibleShifts.get(i);
+            if (shift.getEnd().getMillis() > endMillis){
+                continue;
+            }
+            long shiftStartMillis = Math.max(eligibleStartMillis[i], coveredUntilMillis);
+            if (shift.getEnd().getMillis() > shiftStartMillis){
+                fillableMillis += shift.getEnd().getMillis()-shiftStartMillis;
+                coveredUntilMillis = shift.getEnd().getMillis();
+            }
+        }
+        return fillableMillis;
+    }
+}
@@ -0,0 +1,238 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchType;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListener;
+import org.optaplanner.core.impl.phase.event.PhaseLifecycleListenerAdapter;
+import org.optaplanner.core.impl.phase.scope.AbstractStepScope;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * solves with several differently configured solvers at the same time (each on its own thread and copy of the shifts), returning the best allocation found by any of them.
+ *
+ * Different rosters suit different local search algorithms, so racing them reduces the chance of a poor result on a hard roster, using otherwise idle cores.
+ * Member i uses the i-th local search type (cycling through them) and random seed (the base seed plus i), so member 0 solves exactly as a single solver would.
+ *
+ * All members share the best score found so far, and stop as soon as any reaches the score bound (so no member can do better), otherwise each stops at the termination in the solver config
+ */
+public class SolverPortfolio {
+    /**
+     * the local search types the members use in turn (late acceptance first, since it's the optaplanner default).
+     * 
+     * Not tabu search, since it needs the hashCode of shifts to stay the same whilst solving, which includes their employee
+     */
+    private static final LocalSearchType[] LOCAL_SEARCH_TYPES = {LocalSearchType.LATE_ACCEPTANCE, LocalSearchType.GREAT_DELUGE, LocalSearchType.HILL_CLIMBING};
+
+    private final List<Solver<Allocations>> solvers;
+    private final List<String> memberDescriptions;
+
+    /**
+     * the best score any allocation could get, so all members stop once one reaches it
+     */
+    private final HardMediumSoftScore scoreBound;
+
+    /**
+     * listeners told about each new best allocation across all members
+     */
+    private final List<SolverEventListener<Allocations>> eventListeners;
+
+    /**
+     * the best score found so far by any member (null before any are found)
+     */
+    private HardMediumSoftScore bestScore;
+
+    /**
+     * the index of the member which found the best score so far (-1 before any are found)
+     */
+    private int bestMemberIndex;
+
+    /**
+     * whether a member has reached the score bound, so the others should stop
+     */
+    private volatile boolean scoreBoundReached;
+
+    /**
+     * create portfolio of solvers, building each solver from a variation of the solver config
+     * @param baseSolverConfig the solver config to vary (including the termination each member uses)
+     * @param size the number of solvers, at least 1
+     * @param scoreBound the best score any allocation could get
+     */
+    public SolverPortfolio(SolverConfig baseSolverConfig, int size, HardMediumSoftScore scoreBound){
+        assert (baseSolverConfig != null)&&(size >= 1)&&(scoreBound != null);
+        this.scoreBound = scoreBound;
+        solvers = new ArrayList<>();
+        memberDescriptions = new ArrayList<>();
+        eventListeners = new ArrayList<>();
+        bestMemberIndex = -1;
+        for (int i=0; i<size; i++){
+            LocalSearchType localSearchType = LOCAL_SEARCH_TYPES[i%LOCAL_SEARCH_TYPES.length];
+            long randomSeed = ((baseSolverConfig.getRandomSeed() == null)? 0L: baseSolverConfig.getRandomSeed())+i;
+            SolverConfig memberSolverConfig = baseSolverConfig.copyConfig();
+            memberSolverConfig.setPhaseConfigList(getMemberPhaseConfigList(baseSolverConfig.getPhaseConfigList(), localSearchType));
+            // member 0 keeps the seed of the solver config (null is optaplanner's default seed)
+            if (i > 0){
+                memberSolverConfig.setRandomSeed(randomSeed);
+            }
+            Solver<Allocations> solver = SolverFactory.<Allocations>create(memberSolverConfig).buildSolver();
+            int memberIndex = i;
+            solver.addEventListener(event -> bestSolutionChanged(memberIndex, event));
+            // a member which hadn't started solving when the bound was reached would miss being terminated, so also check after every step
+            if (solver instanceof DefaultSolver){
+                ((DefaultSolver<Allocations>) solver).addPhaseLifecycleListener(new PhaseLifecycleListenerAdapter<Allocations>(){
+                    @Override
+                    public void stepEnded(AbstractStepScope<Allocations> stepScope){
+                        if (scoreBoundReached){
+                            solver.terminateEarly();
+                        }
+                    }
+                });
+            }
+            solvers.add(solver);
+            memberDescriptions.add(localSearchType+" (seed "+randomSeed+")");
+        }
+    }
+
+    /**
+     * get the phases for a member - the phases of the solver config (or optaplanner's default construction heuristic and local search if none), with the member's local search type
+     * @param basePhaseConfigList phases of the solver config, or null for the default phases
+     * @param localSearchType the member's local search type
+     * @return phases of the member
+     */
+    private static List<PhaseConfig> getMemberPhaseConfigList(List<PhaseConfig> basePhaseConfigList, LocalSearchType localSearchType){
+        if (basePhaseConfigList == null){
+            return List.of(new ConstructionHeuristicPhaseConfig(), new LocalSearchPhaseConfig().withLocalSearchType(localSearchType));
+        }
+        List<PhaseConfig> phaseConfigList = new ArrayList<>();
+        for (PhaseConfig phaseConfig: basePhaseConfigList){
+            if (phaseConfig instanceof LocalSearchPhaseConfig){
+                phaseConfigList.add(((LocalSearchPhaseConfig) phaseConfig).copyConfig().withLocalSearchType(localSearchType));
+            }
+            else{
+                phaseConfigList.add(phaseConfig);
+            }
+        }
+        return phaseConfigList;
+    }
+
+    /**
+     * add a listener told about each new best allocation found by any member (never about allocations worse than the best so far).
+     *
+     * Called on the thread of the member which found it, one at a time
+     * @param eventListener the listener
+     */
+    public void addEventListener(SolverEventListener<Allocations> eventListener){
+        eventListeners.add(eventListener);
+    }
+
+    /**
+     * add a listener to the phases of each member (for solvers with the default implementation).
+     *
+     * Each member gets its own listener, since members run at the same time and listeners can keep state about their solver's phases
+     * @param phaseLifecycleListenerSupplier creates the listener for each member
+     */
+    public void addPhaseLifecycleListener(Supplier<? extends PhaseLifecycleListener<Allocations>> phaseLifecycleListenerSupplier){
+        for (Solver<Allocations> solver: solvers){
+            if (solver instanceof DefaultSolver){
+                ((DefaultSolver<Allocations>) solver).addPhaseLifecycleListener(phaseLifecycleListenerSupplier.get());
+            }
+        }
+    }
+
+    /**
+     * record a member's new best allocation, stopping all members if it reaches the score bound
+     * @param memberIndex index of the member
+     * @param event the member's new best allocation
+     */
+    private synchronized void bestSolutionChanged(int memberIndex, BestSolutionChangedEvent<Allocations> event){
+        HardMediumSoftScore score = event.getNewBestSolution().getScore();
+        if (bestScore != null && score.compareTo(bestScore) <= 0){
+            return;
+        }
+        bestScore = score;
+        bestMemberIndex = memberIndex;
+        for (SolverEventListener<Allocations> eventListener: eventListeners){
+            eventListener.bestSolutionChanged(event);
+        }
+        if (score.compareTo(scoreBound) >= 0){
+            scoreBoundReached = true;
+            for (Solver<Allocations> solver: solvers){
+                solver.terminateEarly();
+            }
+        }
+    }
+
+    /**
+     * solve with every member at the same time, each starting from its own copy of the allocations
+     * @param allocations the allocations to start from (not changed)
+     * @return the best allocations found by any member
+     */
+    public Allocations solve(Allocations allocations){
+        ExecutorService executorService = Executors.newFixedThreadPool(solvers.size());
+        try{
+            List<Future<Allocations>> futures = new ArrayList<>();
+            for (Solver<Allocations> solver: solvers){
+                List<Shift> shiftsCopy = allocations.getShifts().stream().map(Shift::new).collect(Collectors.toList());
+                Allocations allocationsCopy = new Allocations(shiftsCopy, allocations.getEmployees());
+                futures.add(executorService.submit(() -> solver.solve(allocationsCopy)));
+            }
+
+            Allocations bestAllocations = null;
+            for (Future<Allocations> future: futures){
+                Allocations solvedAllocations = future.get();
+                // ties go to the earlier member
+                if (bestAllocations == null || solvedAllocations.getScore().compareTo(bestAllocations.getScore()) > 0){
+                    bestAllocations = solvedAllocations;
+                }
+            }
+            return bestAllocations;
+        }
+        catch (InterruptedException e){
+            for (Solver<Allocations> solver: solvers){
+                solver.terminateEarly();
+            }
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted whilst solving", e);
+        }
+        catch (ExecutionException e){
+            throw new IllegalStateException("a solver in the portfolio failed", e.getCause());
+        }
+        finally{
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * get a description of each member's configuration
+     * @return descriptions, by member index
+     */
+    public List<String> getMemberDescriptions(){
+        return memberDescriptions;
+    }
+
+    /**
+     * get the index of the member which found the best allocation
+     * @return member index, or -1 if none found yet
+     */
+    public synchronized int getBestMemberIndex(){
+        return bestMemberIndex;
+    }
+}
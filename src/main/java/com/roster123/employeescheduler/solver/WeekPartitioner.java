@@ -0,0 +1,86 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.optaplanner.core.api.score.director.ScoreDirector;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.partitionedsearch.partitioner.SolutionPartitioner;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * splits the allocations into one part per ISO week (by the week indices of Shift.getStartEndWeekInfoPack), for optaplanner's partitioned search.
+ *
+ * The weekly shift limits, overlaps and gaps between shifts on the same day only involve shifts in the same week, so the weeks can be solved separately
+ * (each on its own thread, with steps only as slow as for a week of shifts) then merged. A shift across several weeks goes in the part for its first week,
+ * so a final local search over all the shifts fixes anything the parts couldn't see.
+ *
+ * Each part has copies of its week's shifts and all the employees
+ */
+public class WeekPartitioner implements SolutionPartitioner<Allocations> {
+    /**
+     * the seconds each part keeps searching without improving before it stops (the solver's termination also stops the parts)
+     */
+    private static final long PART_UNIMPROVED_SECONDS_SPENT_LIMIT = 5;
+
+    @Override
+    public List<Allocations> splitWorkingSolution(ScoreDirector<Allocations> scoreDirector, Integer runnablePartThreadLimit){
+        Allocations allocations = scoreDirector.getWorkingSolution();
+        List<Allocations> parts = new ArrayList<>();
+        for (List<Shift> weekShifts: getShiftsByWeek(allocations.getShifts()).values()){
+            List<Shift> weekShiftsCopy = new ArrayList<>();
+            for (Shift shift: weekShifts){
+                weekShiftsCopy.add(new Shift(shift));
+            }
+            parts.add(new Allocations(weekShiftsCopy, allocations.getEmployees()));
+        }
+        return parts;
+    }
+
+    /**
+     * group the shifts by the first week they are in
+     * @param shifts the shifts
+     * @return shifts by week (as year*100+week), in time order
+     */
+    public static Map<Integer, List<Shift>> getShiftsByWeek(List<Shift> shifts){
+        Map<Integer, List<Shift>> shiftsByWeek = new TreeMap<>();
+        for (Shift shift: shifts){
+            int firstWeek = Arrays.stream(FeasibilityAnalyser.getWeeks(shift)).min().getAsInt();
+            shiftsByWeek.computeIfAbsent(firstWeek, k -> new ArrayList<>()).add(shift);
+        }
+        return shiftsByWeek;
+    }
+
+    /**
+     * get the number of weeks the shifts would be split into
+     * @param shifts the shifts
+     * @return number of parts
+     */
+    public static int getPartCount(List<Shift> shifts){
+        return getShiftsByWeek(shifts).size();
+    }
+
+    /**
+     * get the phases to solve with - a construction heuristic, then searching each week separately, then searching all the shifts
+     * @param localSearchPhaseConfig the local search to use for the weeks and for all the shifts (not changed)
+     * @return construction heuristic, partitioned search and local search phases
+     */
+    public static List<PhaseConfig> getPhaseConfigList(LocalSearchPhaseConfig localSearchPhaseConfig){
+        LocalSearchPhaseConfig partLocalSearchPhaseConfig = localSearchPhaseConfig.copyConfig();
+        partLocalSearchPhaseConfig.setTerminationConfig(new TerminationConfig().withUnimprovedSecondsSpentLimit(PART_UNIMPROVED_SECONDS_SPENT_LIMIT));
+
+        PartitionedSearchPhaseConfig partitionedSearchPhaseConfig = new PartitionedSearchPhaseConfig();
+        partitionedSearchPhaseConfig.setSolutionPartitionerClass(WeekPartitioner.class);
+        partitionedSearchPhaseConfig.setPhaseConfigList(List.of(new ConstructionHeuristicPhaseConfig(), partLocalSearchPhaseConfig));
+
+        return List.of(new ConstructionHeuristicPhaseConfig(), partitionedSearchPhaseConfig, localSearchPhaseConfig.copyConfig());
+    }
+}
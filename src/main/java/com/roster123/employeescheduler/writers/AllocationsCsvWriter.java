@@ -0,0 +1,105 @@
+package com.roster123.employeescheduler.writers;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+import com.opencsv.CSVWriter;
+
+import com.roster123.employeescheduler.domain.Shift;
+import com.roster123.employeescheduler.events.AllocationsCsvWriteEvent;
+
+/**
+ * writes allocated shifts to CSV files, in the format described for ALLOCATIONS_OUTPUT.csv
+ */
+public class AllocationsCsvWriter {
+    /**
+     * the headers of an allocations CSV file
+     */
+    private static final String[] headers = new String[]{"shiftId","employeeId","start","end","type"};
+
+    /**
+     * put allocated shifts into a CSV file.
+     *
+     * Note no unchecked exceptions should be raised by opencsv if program is correct
+     * @param shifts the allocated shifts (all must have an employee)
+     * @param path the file to store the allocations information in
+     * @throws IOException exception can be thrown if don't have the permission to write to the file, or some error happens in writing to file otherwise
+     */
+    public static void writeAllocationsToCsv(List<Shift> shifts, Path path) throws IOException{
+        assert shifts != null;
+        assert path != null;
+        AllocationsCsvWriteEvent writeEvent = new AllocationsCsvWriteEvent(path.toString());
+        writeEvent.begin();
+        // remove the quotes with CSVWriter.NO_QUOTE_CHARACTER
+        CSVWriter writer = new CSVWriter(new FileWriter(path.toString()), CSVWriter.DEFAULT_SEPARATOR, CSVWriter.NO_QUOTE_CHARACTER, CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END);
+        // add headers
+        writer.writeNext(headers);
+        for (Shift shift: shifts){
+            writer.writeNext(shift.getShiftCsvString());
+        }
+        writer.close();
+        writeEvent.setRowCount(shifts.size());
+        writeEvent.commit();
+    }
+
+    /**
+     * put allocated shifts into a CSV file, such that readers of the file only ever see either the previous complete file or the new complete file.
+     *
+     * Done by writing to a temporary file in the same folder, and then renaming it over the file
+     * @param shifts the allocated shifts (all must have an employee)
+     * @param path the file to store the allocations information in
+     * @throws IOException exception can be thrown if don't have the permission to write to the folder, or some error happens in writing to file otherwise
+     */
+    public static void writeAllocationsToCsvAtomically(List<Shift> shifts, Path path) throws IOException{
+        assert shifts != null;
+        assert path != null;
+        Path temporaryPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try{
+            writeAllocationsToCsv(shifts, temporaryPath);
+            moveAtomically(temporaryPath, path);
+        }
+        finally{
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * write a string to a file such that readers of the file only ever see either the previous complete file or the new complete file
+     * @param contents the string to write to the file
+     * @param path the file to write to
+     * @throws IOException exception can be thrown if don't have the permission to write to the folder, or some error happens in writing to file otherwise
+     */
+    public static void writeStringAtomically(String contents, Path path) throws IOException{
+        assert contents != null;
+        assert path != null;
+        Path temporaryPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try{
+            Files.writeString(temporaryPath, contents);
+            moveAtomically(temporaryPath, path);
+        }
+        finally{
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    /**
+     * rename a file over another file, atomically if the file system supports it
+     * @param source the file to rename
+     * @param target the file being replaced
+     * @throws IOException exception can be thrown if the rename fails
+     */
+    private static void moveAtomically(Path source, Path target) throws IOException{
+        try{
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e){
+            // some file systems (e.g. some network drives) can't do this - still better to replace than to fail
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
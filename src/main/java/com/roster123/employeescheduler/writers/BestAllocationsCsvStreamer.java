@@ -0,0 +1,86 @@
+package com.roster123.employeescheduler.writers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.joda.time.DateTime;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.event.BestSolutionChangedEvent;
+import org.optaplanner.core.api.solver.event.SolverEventListener;
+
+import com.roster123.employeescheduler.domain.Allocations;
+
+/**
+ * solver listener which writes every new feasible best solution to an allocations CSV file whilst the solver is still running,
+ * so a usable allocation is available as soon as one is found rather than when the solver terminates.
+ *
+ * Each write replaces the CSV file atomically, and then replaces a sidecar file (the CSV file name with ".score" appended) containing the score and time of the solution
+ */
+public class BestAllocationsCsvStreamer implements SolverEventListener<Allocations> {
+    /**
+     * the allocations CSV file to write to
+     */
+    private final Path path;
+
+    /**
+     * the sidecar file containing the score and time of the solution in the CSV file
+     */
+    private final Path sidecarPath;
+
+    /**
+     * the number of feasible solutions written so far
+     */
+    private int writtenSolutionCount;
+
+    /**
+     * create streamer writing to the file at the path
+     * @param path the allocations CSV file to write to
+     */
+    public BestAllocationsCsvStreamer(Path path){
+        assert path != null;
+        this.path = path;
+        this.sidecarPath = path.resolveSibling(path.getFileName().toString()+".score");
+    }
+
+    /**
+     * called by optaplanner on the solver thread - the new best solution is a clone, so it is safe to read its shifts here
+     */
+    @Override
+    public void bestSolutionChanged(BestSolutionChangedEvent<Allocations> event){
+        writeAllocations(event.getNewBestSolution(), event.getTimeMillisSpent());
+    }
+
+    /**
+     * write the allocations to the file if they are feasible, e.g. for allocations put together outside of a solver (such as the whole roster after each window of a rolling horizon)
+     * @param allocations the allocations, with their score calculated
+     * @param timeMillisSpent time spent solving so far
+     */
+    public void writeAllocations(Allocations allocations, long timeMillisSpent){
+        HardMediumSoftScore score = allocations.getScore();
+        // infeasible allocations aren't usable by downstream tools, so keep the previous (feasible) file
+        if (score == null || !score.isFeasible()){
+            return;
+        }
+        try{
+            AllocationsCsvWriter.writeAllocationsToCsvAtomically(allocations.getShifts(), path);
+            writtenSolutionCount++;
+            AllocationsCsvWriter.writeStringAtomically(
+                "score="+score.toString()+"\n"+
+                "timestamp="+DateTime.now().toString()+"\n"+
+                "timeMillisSpent="+timeMillisSpent+"\n"+
+                "solutionNumber="+writtenSolutionCount+"\n", sidecarPath);
+        }
+        catch (IOException e){
+            // don't stop the solver, the final allocations are still written when it terminates
+            System.out.println("we couldn't write the latest best allocations to the file "+path.getFileName());
+        }
+    }
+
+    /**
+     * get the number of feasible solutions written so far
+     * @return number of feasible solutions written
+     */
+    public int getWrittenSolutionCount(){
+        return writtenSolutionCount;
+    }
+}
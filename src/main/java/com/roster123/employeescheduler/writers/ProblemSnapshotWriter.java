@@ -0,0 +1,174 @@
+package com.roster123.employeescheduler.writers;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.DateTime;
+
+import com.roster123.employeescheduler.domain.Availability;
+import com.roster123.employeescheduler.domain.Employee;
+import com.roster123.employeescheduler.domain.Shift;
+
+/**
+ * writes parsed employees (with their normalised availabilities) and shifts to a compact binary snapshot file, so they can be loaded again
+ * without parsing, validating and normalising the CSV files (see ProblemSnapshotReader).
+ *
+ * The layout is versioned and only uses primitives (big-endian), so it can be read from a memory-mapped file:
+ * <pre>
+ * int magic, int version
+ * int stringCount, then each string as int byteLength (UTF-8) and the bytes
+ * int employeeCount, then each employee as
+ *     int employeeId, int name, int mobile, int email (string indices, -1 for null),
+ *     int importance, byte hasMaxWeeklyShifts, int maxWeeklyShifts, int minWeeklyShifts,
+ *     int availabilityCount, then each availability as long startMillis, int startZone, long endMillis, int endZone, int typeCount, int type...
+ * int shiftCount, then each shift as
+ *     int shiftId, int type, long startMillis, int startZone, long endMillis, int endZone, int employee (index in the employees, -1 for unallocated), byte pinned
+ * </pre>
+ * Time zones are stored as string indices of their ids, so times read back are equal to those written
+ */
+public class ProblemSnapshotWriter {
+    /**
+     * the first 4 bytes of every snapshot file ("RSNP")
+     */
+    public static final int MAGIC = 0x52534E50;
+
+    /**
+     * the version of the layout, to be increased whenever it changes
+     */
+    public static final int VERSION = 1;
+
+    /**
+     * write the employees and shifts to a snapshot file
+     * @param employees the employees (with normalised availabilities)
+     * @param shifts the shifts (each allocated employee must be one of the employees)
+     * @param path the file to write the snapshot to
+     * @throws IOException exception can be thrown if don't have the permission to write to the file, or some error happens in writing to file otherwise
+     */
+    public static void writeSnapshot(List<Employee> employees, List<Shift> shifts, Path path) throws IOException{
+        assert path != null;
+        try (OutputStream output = Files.newOutputStream(path)){
+            writeSnapshot(employees, shifts, output);
+        }
+    }
+
+    /**
+     * write the employees and shifts as a snapshot to a stream (e.g. to hash them).
+     * 
+     * Equal employees and shifts in the same order always give the same bytes
+     * @param employees the employees (with normalised availabilities)
+     * @param shifts the shifts (each allocated employee must be one of the employees)
+     * @param outputStream the stream to write the snapshot to (flushed, but not closed)
+     * @throws IOException exception can be thrown if writing to the stream fails
+     */
+    public static void writeSnapshot(List<Employee> employees, List<Shift> shifts, OutputStream outputStream) throws IOException{
+        assert employees != null;
+        assert shifts != null;
+        assert outputStream != null;
+        Map<String, Integer> stringIndices = new LinkedHashMap<>();
+        // by identity, since the equality of employees compares all their availabilities
+        Map<Employee, Integer> employeeIndices = new IdentityHashMap<>();
+        for (int i=0; i<employees.size(); i++){
+            employeeIndices.put(employees.get(i), i);
+        }
+
+        // strings are written before the employees and shifts which refer to them, so collect them first
+        List<int[]> employeeStrings = new ArrayList<>();
+        for (Employee employee: employees){
+            employeeStrings.add(new int[]{getStringIndex(stringIndices, employee.getEmployeeId()), getStringIndex(stringIndices, employee.getName()),
+                getStringIndex(stringIndices, employee.getMobile()), getStringIndex(stringIndices, employee.getEmail())});
+            for (Availability availability: employee.getAvailabilities()){
+                getStringIndex(stringIndices, availability.getStart().getZone().getID());
+                getStringIndex(stringIndices, availability.getEnd().getZone().getID());
+                for (String type: availability.getTypes()){
+                    getStringIndex(stringIndices, type);
+                }
+            }
+        }
+        for (Shift shift: shifts){
+            getStringIndex(stringIndices, shift.getShiftId());
+            getStringIndex(stringIndices, shift.getType());
+            getStringIndex(stringIndices, shift.getStart().getZone().getID());
+            getStringIndex(stringIndices, shift.getEnd().getZone().getID());
+        }
+
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+
+        output.writeInt(stringIndices.size());
+        for (String string: stringIndices.keySet()){
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+
+        output.writeInt(employees.size());
+        for (int i=0; i<employees.size(); i++){
+            Employee employee = employees.get(i);
+            for (int stringIndex: employeeStrings.get(i)){
+                output.writeInt(stringIndex);
+            }
+            output.writeInt(employee.getImportance());
+            output.writeBoolean(employee.maxWeeklyShifts() != null);
+            output.writeInt((employee.maxWeeklyShifts() == null)? 0: employee.maxWeeklyShifts());
+            output.writeInt(employee.minWeeklyShifts());
+            output.writeInt(employee.getAvailabilities().size());
+            for (Availability availability: employee.getAvailabilities()){
+                writeDateTime(output, stringIndices, availability.getStart());
+                writeDateTime(output, stringIndices, availability.getEnd());
+                output.writeInt(availability.getTypes().size());
+                for (String type: availability.getTypes()){
+                    output.writeInt(getStringIndex(stringIndices, type));
+                }
+            }
+        }
+
+        output.writeInt(shifts.size());
+        for (Shift shift: shifts){
+            output.writeInt(getStringIndex(stringIndices, shift.getShiftId()));
+            output.writeInt(getStringIndex(stringIndices, shift.getType()));
+            writeDateTime(output, stringIndices, shift.getStart());
+            writeDateTime(output, stringIndices, shift.getEnd());
+            Integer employeeIndex = shift.isAllocated()? employeeIndices.get(shift.getEmployee()): null;
+            assert !shift.isAllocated() || employeeIndex != null;
+            output.writeInt((employeeIndex == null)? -1: employeeIndex);
+            output.writeBoolean(shift.isPinned());
+        }
+        output.flush();
+    }
+
+    /**
+     * write a time as its milliseconds since the epoch and the index of its time zone id
+     * @param output the output to write to
+     * @param stringIndices the indices of the strings (containing the time zone id)
+     * @param dateTime the time
+     * @throws IOException exception can be thrown if writing fails
+     */
+    private static void writeDateTime(DataOutputStream output, Map<String, Integer> stringIndices, DateTime dateTime) throws IOException{
+        output.writeLong(dateTime.getMillis());
+        output.writeInt(getStringIndex(stringIndices, dateTime.getZone().getID()));
+    }
+
+    /**
+     * get the index of a string in the snapshot's strings, adding it if not there yet
+     * @param stringIndices the indices of the strings so far
+     * @param string the string
+     * @return index of the string, or -1 for null
+     */
+    private static int getStringIndex(Map<String, Integer> stringIndices, String string){
+        if (string == null){
+            return -1;
+        }
+        return stringIndices.computeIfAbsent(string, k -> stringIndices.size());
+    }
+}
@@ -4,21 +4,39 @@ import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 
 import java.util.List;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.junit.runner.RunWith;
 import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.config.solver.termination.TerminationCompositionStyle;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
 import org.javatuples.Triplet;
 import org.joda.time.DateTime;
 
@@ -240,6 +258,621 @@ public class EmployeeSchedulingSystemTest {
         assertArrayEquals(new Shift[]{newShift}, shifts.toArray());
     }
 
+    @Test
+    public void testPinnedShiftNotChangedBySolver() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com\n",
+            
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n"+
+            "cat124,,30/01/2021 03:00,06/02/2021 21:00\n");
+        // cat124 isn't available for shift123, but it is pinned so the solver must keep it (breaking a hard constraint)
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end,employeeId,pinned\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00,cat124,true\n"+
+            "shift124,online,03/07/2021 13:00,03/07/2021 15:00,,\n");
+        List<Shift> shifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "unallocatedShifts");
+        assertTrue(shifts.get(0).isPinned());
+        assertFalse(shifts.get(1).isPinned());
+
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(10L);
+        assertFalse(score.isFeasible());
+        List<Shift> allocatedShifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "allocatedShifts");
+        assertEquals("cat124", allocatedShifts.get(0).getEmployee().getEmployeeId());
+        assertEquals("cat123", allocatedShifts.get(1).getEmployee().getEmployeeId());
+    }
+
+    @Test
+    public void testShiftEmployeeIdWithoutPinIsStartingAllocation() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com\n",
+            
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n"+
+            "cat124,,30/01/2021 03:00,06/02/2021 21:00\n");
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end,employeeId,pinned\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00,cat124,0\n");
+        List<Shift> shifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "unallocatedShifts");
+        assertEquals("cat124", shifts.get(0).getEmployee().getEmployeeId());
+        assertFalse(shifts.get(0).isPinned());
+
+        // not pinned, so the solver moves it to the available employee
+        assertTrue(employeeSchedulingSystem.allocateShifts(10L).isFeasible());
+        List<Shift> allocatedShifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "allocatedShifts");
+        assertEquals("cat123", allocatedShifts.get(0).getEmployee().getEmployeeId());
+    }
+
+    @Test
+    public void testUnderstaffedShiftsLeftUnallocated() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n",
+            
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n");
+        // only 1 employee for 3 shifts at the same time
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00\n"+
+            "shift124,online,03/07/2021 09:00,03/07/2021 12:00\n"+
+            "shift125,online,03/07/2021 09:00,03/07/2021 12:00\n");
+
+        // best is the employee doing 1 shift and 2 unallocated, or 2 shifts at the same time and 1 unallocated (rather than 3 at the same time)
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(10L);
+        assertEquals(-2, score.getHardScore());
+        List<Shift> allocatedShifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "allocatedShifts");
+        assertTrue(allocatedShifts.stream().anyMatch(shift -> !shift.isAllocated()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"example3_trivial_working_example", "example5_simpler_working_example", "example6_even_simpler_working_example"})
+    public void testTinyExamplesSearchedExhaustively(String inputFolderName) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve(inputFolderName);
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+
+        // returns once every allocation has been checked, well before the termination in the solver config file (15 seconds without improving)
+        long startMillis = System.currentTimeMillis();
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(null);
+        assertTrue(System.currentTimeMillis()-startMillis < 10000);
+        assertTrue(score.isFeasible());
+    }
+
+    @Test
+    public void testExhaustiveSearchFindsBestAllocation() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email,importance\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com,1\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com,1\n",
+            
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n"+
+            "cat124,,03/07/2021 09:00,03/07/2021 21:00\n");
+        // best is one employee doing shift123, shift125 and shift126 (a 1 hour gap), rather than splitting the later shifts (a 2 hour gap)
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 10:00\n"+
+            "shift124,online,03/07/2021 09:00,03/07/2021 10:00\n"+
+            "shift125,online,03/07/2021 10:00,03/07/2021 11:00\n"+
+            "shift126,online,03/07/2021 12:00,03/07/2021 13:00\n");
+        assertEquals(HardMediumSoftScore.ofSoft(-1), employeeSchedulingSystem.allocateShifts(null));
+    }
+
+    @Test
+    public void testSolvingStopsWhenScoreBoundReached() throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email,importance\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com,1\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com,1\n",
+
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n"+
+            "cat124,,03/07/2021 09:00,03/07/2021 21:00\n");
+        // cat123 must wait at least 2 hours between their pinned shifts, which the best allocation does
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end,employeeId,pinned\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 10:00,cat123,true\n"+
+            "shift124,online,03/07/2021 13:00,03/07/2021 14:00,cat123,true\n"+
+            "shift125,online,03/07/2021 10:00,03/07/2021 11:00,,\n"+
+            "shift126,online,03/07/2021 16:00,03/07/2021 17:00,,\n");
+        // search with the phases in the solver config file, rather than exhaustively
+        employeeSchedulingSystem.setExhaustiveSearchMaximumSearchSpace(0L);
+
+        // returns once the bound is reached, well before the termination in the solver config file (15 seconds without improving)
+        long startMillis = System.currentTimeMillis();
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(null);
+        assertTrue(System.currentTimeMillis()-startMillis < 10000);
+        assertEquals(HardMediumSoftScore.ofSoft(-2), employeeSchedulingSystem.getScoreBound());
+        assertEquals(employeeSchedulingSystem.getScoreBound(), score);
+    }
+
+    @Test
+    public void testAdaptiveTerminationScaledToRoster() throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        employeeSchedulingSystem.setUseAdaptiveTermination(true);
+
+        // the roster is small, so finishes well before the termination in the solver config file (15 seconds without improving, so at least 15 seconds)
+        long startMillis = System.currentTimeMillis();
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(null);
+        assertTrue(System.currentTimeMillis()-startMillis < 15000);
+        assertTrue(score.isFeasible());
+    }
+
+    @Test
+    public void testCompositeTermination() throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        // used instead of the adaptive termination
+        employeeSchedulingSystem.setUseAdaptiveTermination(true);
+
+        // stop once feasible and at least 10 seconds have been spent
+        TerminationConfig terminationConfig = new TerminationConfig()
+            .withTerminationCompositionStyle(TerminationCompositionStyle.AND)
+            .withTerminationConfigList(List.of(new TerminationConfig().withBestScoreFeasible(true), new TerminationConfig().withSecondsSpentLimit(10L)));
+        long startMillis = System.currentTimeMillis();
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShiftsWithTermination(terminationConfig);
+        assertTrue(System.currentTimeMillis()-startMillis >= 10000);
+        assertTrue(score.isFeasible());
+    }
+
+    @Test
+    public void testPortfolioSolving() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        employeeSchedulingSystem.setPortfolioSize(2);
+
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(10L);
+        assertTrue(score.isFeasible());
+        // the allocated shifts are those of the best solver
+        List<Shift> allocatedShifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "allocatedShifts");
+        assertTrue(allocatedShifts.stream().allMatch(Shift::isAllocated));
+    }
+
+    @Test
+    public void testRollingHorizonSolving() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        // 3 weeks, with a shift running from the first week into the second
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email,importance,maxWeeklyShifts,minWeeklyShifts\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com,1,2,1\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com,1,2,1\n",
+
+            "employeeId,type,start,end\n"+
+            "cat123,online,12/07/2021 00:00,02/08/2021 00:00\n"+
+            "cat124,online,12/07/2021 00:00,02/08/2021 00:00\n");
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift1,online,12/07/2021 09:00,12/07/2021 12:00\n"+
+            "shift2,online,18/07/2021 23:00,19/07/2021 01:00\n"+
+            "shift3,online,19/07/2021 09:00,19/07/2021 12:00\n"+
+            "shift4,online,26/07/2021 09:00,26/07/2021 12:00\n"+
+            "shift5,online,27/07/2021 09:00,27/07/2021 12:00\n");
+        employeeSchedulingSystem.setRollingHorizon(2, 1);
+
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(10L);
+        assertTrue(score.isFeasible());
+        List<Shift> allocatedShifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "allocatedShifts");
+        assertEquals(5, allocatedShifts.size());
+        assertTrue(allocatedShifts.stream().allMatch(shift -> shift.isAllocated() && !shift.isPinned()));
+    }
+
+    @Test
+    public void testRollingHorizonStreamsWholeRoster(@TempDir Path temporaryFolder) throws Exception{
+        // the same 3 weeks as testRollingHorizonSolving, in 2 windows
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email,importance,maxWeeklyShifts,minWeeklyShifts\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com,1,2,1\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com,1,2,1\n",
+
+            "employeeId,type,start,end\n"+
+            "cat123,online,12/07/2021 00:00,02/08/2021 00:00\n"+
+            "cat124,online,12/07/2021 00:00,02/08/2021 00:00\n");
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift1,online,12/07/2021 09:00,12/07/2021 12:00\n"+
+            "shift2,online,18/07/2021 23:00,19/07/2021 01:00\n"+
+            "shift3,online,19/07/2021 09:00,19/07/2021 12:00\n"+
+            "shift4,online,26/07/2021 09:00,26/07/2021 12:00\n"+
+            "shift5,online,27/07/2021 09:00,27/07/2021 12:00\n");
+        // warm started with a feasible roster, so the whole roster is feasible after the first window as well as the last
+        employeeSchedulingSystem.processPreviousAllocationsCsv(
+            "shiftId,employeeId\n"+
+            "shift1,cat123\n"+
+            "shift2,cat124\n"+
+            "shift3,cat124\n"+
+            "shift4,cat123\n"+
+            "shift5,cat124\n");
+        employeeSchedulingSystem.setRollingHorizon(2, 1);
+        Path path = temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv");
+        employeeSchedulingSystem.setBestSolutionStreamingPath(path);
+
+        assertTrue(employeeSchedulingSystem.allocateShifts(10L).isFeasible());
+        // a write after each window, each with all the weeks (header and 5 shifts)
+        List<String> lines = Files.readAllLines(path);
+        assertEquals(6, lines.size());
+        for (String shiftId: Arrays.asList("shift1", "shift2", "shift3", "shift4", "shift5")){
+            assertTrue(lines.stream().anyMatch(line -> line.startsWith(shiftId+",")));
+        }
+        assertTrue(Files.readAllLines(temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv.score")).contains("solutionNumber=2"));
+    }
+
+    @Test
+    public void testProblemSnapshotRoundTrip(@TempDir Path temporaryFolder) throws Exception{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        Path snapshotPath = temporaryFolder.resolve("problem.snapshot");
+        employeeSchedulingSystem.writeProblemSnapshot(snapshotPath);
+
+        EmployeeSchedulingSystem snapshotEmployeeSchedulingSystem = new EmployeeSchedulingSystem();
+        snapshotEmployeeSchedulingSystem.processProblemSnapshot(snapshotPath);
+        for (String fieldName: Arrays.asList("employees", "unallocatedShifts", "allocatedShifts")){
+            assertEquals(ClassMemberExposer.<List<?>>getFieldValueByName(employeeSchedulingSystem, fieldName),
+                ClassMemberExposer.<List<?>>getFieldValueByName(snapshotEmployeeSchedulingSystem, fieldName));
+        }
+    }
+
+    @Test
+    public void testParseCache(@TempDir Path temporaryFolder) throws Exception{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.setParseCacheDirectory(temporaryFolder);
+        assertFalse(employeeSchedulingSystem.loadFromParseCache(csvData.getValue1(), csvData.getValue0(), csvData.getValue2()));
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        employeeSchedulingSystem.saveToParseCache(csvData.getValue1(), csvData.getValue0(), csvData.getValue2());
+
+        EmployeeSchedulingSystem cachedEmployeeSchedulingSystem = new EmployeeSchedulingSystem();
+        // no parse cache
+        assertFalse(cachedEmployeeSchedulingSystem.loadFromParseCache(csvData.getValue1(), csvData.getValue0(), csvData.getValue2()));
+        cachedEmployeeSchedulingSystem.setParseCacheDirectory(temporaryFolder);
+        // different CSV strings
+        assertFalse(cachedEmployeeSchedulingSystem.loadFromParseCache(csvData.getValue1(), csvData.getValue0(), csvData.getValue2()+"\n"));
+        assertTrue(cachedEmployeeSchedulingSystem.loadFromParseCache(csvData.getValue1(), csvData.getValue0(), csvData.getValue2()));
+        for (String fieldName: Arrays.asList("employees", "unallocatedShifts", "allocatedShifts")){
+            assertEquals(ClassMemberExposer.<List<?>>getFieldValueByName(employeeSchedulingSystem, fieldName),
+                ClassMemberExposer.<List<?>>getFieldValueByName(cachedEmployeeSchedulingSystem, fieldName));
+        }
+    }
+
+    /**
+     * helper to get a system with the employees and shifts of the example loaded
+     * @param exampleFolderName the folder of the example in CSVs_command_line
+     * @return the system
+     */
+    private static EmployeeSchedulingSystem getLoadedEmployeeSchedulingSystem(String exampleFolderName) throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve(exampleFolderName);
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        EmployeeSchedulingSystem employeeSchedulingSystem = new EmployeeSchedulingSystem();
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        return employeeSchedulingSystem;
+    }
+
+    @Test
+    public void testResultCache(@TempDir Path temporaryFolder) throws Exception{
+        EmployeeSchedulingSystem employeeSchedulingSystem = getLoadedEmployeeSchedulingSystem("example7_complex_example");
+        employeeSchedulingSystem.setResultCache(temporaryFolder, 10, Duration.ofDays(1));
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(5L);
+
+        // the same roster and termination gets the cached allocations straight away
+        EmployeeSchedulingSystem cachedEmployeeSchedulingSystem = getLoadedEmployeeSchedulingSystem("example7_complex_example");
+        cachedEmployeeSchedulingSystem.setResultCache(temporaryFolder, 10, Duration.ofDays(1));
+        long startMillis = System.currentTimeMillis();
+        assertEquals(score, cachedEmployeeSchedulingSystem.allocateShifts(5L));
+        assertTrue(System.currentTimeMillis()-startMillis < 5000);
+        assertEquals(ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "allocatedShifts"),
+            ClassMemberExposer.<List<Shift>>getFieldValueByName(cachedEmployeeSchedulingSystem, "allocatedShifts"));
+        assertEquals(employeeSchedulingSystem.getScoreBound(), cachedEmployeeSchedulingSystem.getScoreBound());
+
+        // a different termination is solved again (then cached too)
+        EmployeeSchedulingSystem otherEmployeeSchedulingSystem = getLoadedEmployeeSchedulingSystem("example7_complex_example");
+        otherEmployeeSchedulingSystem.setResultCache(temporaryFolder, 10, Duration.ofDays(1));
+        startMillis = System.currentTimeMillis();
+        otherEmployeeSchedulingSystem.allocateShifts(6L);
+        assertTrue(System.currentTimeMillis()-startMillis >= 5000);
+        assertEquals(2, Files.list(temporaryFolder).count());
+    }
+
+    @Test
+    public void testResultCacheSkipsInfeasibleAllocationsBelowBound(@TempDir Path temporaryFolder) throws Exception{
+        // 2 shifts at the same time so one can't be allocated, and the employee doing the other has to wait an hour for the last shift
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email,importance,maxWeeklyShifts,minWeeklyShifts\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com,1,3,0\n",
+
+            "employeeId,type,start,end\n"+
+            "cat123,online,12/07/2021 00:00,13/07/2021 00:00\n");
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift1,online,12/07/2021 09:00,12/07/2021 10:00\n"+
+            "shift2,online,12/07/2021 09:00,12/07/2021 10:00\n"+
+            "shift3,online,12/07/2021 11:00,12/07/2021 12:00\n");
+        employeeSchedulingSystem.setResultCache(temporaryFolder, 10, Duration.ofDays(1));
+
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(5L);
+        assertEquals(HardMediumSoftScore.of(-1, 0, -1), score);
+        assertTrue(score.compareTo(employeeSchedulingSystem.getScoreBound()) < 0);
+        // solving again could find a better allocation, as far as is known
+        assertEquals(0, Files.list(temporaryFolder).count());
+    }
+
+    /**
+     * helper to run the command line on a folder of csv files
+     * @param folder the folder, with csv files of one employee available from 12/07/2021 to 19/07/2021 unless written already
+     * @return what was printed
+     * @throws IOException
+     */
+    private static String runMain(Path folder) throws IOException{
+        if (!Files.exists(folder.resolve("employee_information.csv"))){
+            Files.writeString(folder.resolve("employee_information.csv"),
+                "employeeId,name,mobile,email,importance,maxWeeklyShifts,minWeeklyShifts\n"+
+                "cat123,Bob Smith,+61400578921,someemail@email.com,1,2,1\n");
+        }
+        if (!Files.exists(folder.resolve("employee_availability.csv"))){
+            Files.writeString(folder.resolve("employee_availability.csv"),
+                "employeeId,type,start,end\n"+
+                "cat123,online,12/07/2021 00:00,19/07/2021 00:00\n");
+        }
+        PrintStream systemOut = System.out;
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        System.setOut(new PrintStream(output, true, StandardCharsets.UTF_8));
+        try{
+            EmployeeSchedulingSystem.main(new String[]{folder.toString()});
+        }
+        finally{
+            System.setOut(systemOut);
+        }
+        return output.toString(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testMainNamesFileWithProblem(@TempDir Path temporaryFolder) throws Exception{
+        // the shift ids are duplicated, rather than the employee ids
+        Files.writeString(temporaryFolder.resolve("shift_information.csv"),
+            "shiftId,type,start,end\n"+
+            "shift1,online,12/07/2021 09:00,12/07/2021 12:00\n"+
+            "shift1,online,13/07/2021 09:00,13/07/2021 12:00\n");
+        assertTrue(runMain(temporaryFolder).contains("Your CSV file shift_information.csv has a duplicate shift id"));
+        assertFalse(Files.exists(temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv")));
+    }
+
+    @Test
+    public void testMainParsesAvailabilityFile(@TempDir Path temporaryFolder) throws Exception{
+        Files.writeString(temporaryFolder.resolve("shift_information.csv"),
+            "shiftId,type,start,end\n"+
+            "shift1,online,12/07/2021 09:00,12/07/2021 12:00\n");
+        Files.writeString(temporaryFolder.resolve("employee_availability.csv"),
+            "employeeId,type,start,end\n"+
+            "cat123,online,12/07/2021 00:00,19/07/2021 00:00\n"+
+            "cat999,online,12/07/2021 00:00,19/07/2021 00:00\n");
+        assertTrue(runMain(temporaryFolder).contains("Your CSV employee_availability.csv has employee ids which don't match any employee in employee_information.csv"));
+
+        Files.writeString(temporaryFolder.resolve("employee_availability.csv"),
+            "\uFEFFemployeeId,type,start,end\n"+
+            "cat123,online,12/07/2021 00:00,19/07/2021 00:00\n");
+        // the employee is available for the shift (the mark excel adds at the start of the file is ignored)
+        assertTrue(runMain(temporaryFolder).contains("ALLOCATION SUCCESS"));
+        assertTrue(Files.readString(temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv")).contains("shift1,cat123"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"example1_significant_working_example", "example2_impossible_example", "example7_complex_example"})
+    public void testProcessCsvsMatchesProcessingInTurn(String inputFolderName) throws Exception{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve(inputFolderName);
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        EmployeeSchedulingSystem parallelEmployeeSchedulingSystem = new EmployeeSchedulingSystem();
+        parallelEmployeeSchedulingSystem.processCsvs(csvData.getValue1(), csvData.getValue0(), csvData.getValue2());
+        EmployeeSchedulingSystem employeeSchedulingSystem = getLoadedEmployeeSchedulingSystem(inputFolderName);
+        for (String fieldName: Arrays.asList("employees", "unallocatedShifts", "allocatedShifts")){
+            assertEquals(ClassMemberExposer.<List<?>>getFieldValueByName(employeeSchedulingSystem, fieldName),
+                ClassMemberExposer.<List<?>>getFieldValueByName(parallelEmployeeSchedulingSystem, fieldName));
+        }
+    }
+
+    @Test
+    public void testProcessCsvsExceptionOrder(){
+        String informationCsv = "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n";
+        String availabilityCsv = "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n";
+        String shiftCsv = "shiftId,type,start,end,employeeId,pinned\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00,cat999,true\n";
+        assertThrows(ShiftEmployeeIdNotMatchingAnyEmployeeException.class, ()->new EmployeeSchedulingSystem().processCsvs(informationCsv, availabilityCsv, shiftCsv));
+        // the availabilities are added before the shifts, even if parsed after
+        assertThrows(AvailabilityEmployeeIdNotMatchingAnyEmployeeException.class, ()->new EmployeeSchedulingSystem().processCsvs(informationCsv, availabilityCsv.replace("cat123", "cat999"), shiftCsv));
+        // invalid employees come before everything else
+        assertThrows(CsvInputInvalidException.class, ()->new EmployeeSchedulingSystem().processCsvs("employeeId,name\ncat123,Bob Smith,extra\n", availabilityCsv.replace("cat123", "cat999"), shiftCsv));
+        assertThrows(DuplicatePlanningIdException.class, ()->new EmployeeSchedulingSystem().processCsvs(informationCsv+"cat123,Bob Smith,+61400578921,someemail@email.com\n", "employeeId,type,start,end\n", "shiftId\n"));
+    }
+
+    @Test
+    public void testProcessEmployeeAvailabilityCsvFile() throws Exception{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        employeeSchedulingSystem.processEmployeeInformationCsv(csvData.getValue1());
+        employeeSchedulingSystem.processEmployeeAvailabilityCsvFile(commandLineCsvFolder.resolve("employee_availability.csv"));
+        assertEquals(ClassMemberExposer.<List<Employee>>getFieldValueByName(getLoadedEmployeeSchedulingSystem("example7_complex_example"), "employees"),
+            ClassMemberExposer.<List<Employee>>getFieldValueByName(employeeSchedulingSystem, "employees"));
+    }
+
+    @Test
+    public void testProcessEmployeeAvailabilityCsvFileEmployeeIdNotMatching(@TempDir Path temporaryFolder) throws Exception{
+        employeeSchedulingSystem.processEmployeeInformationCsv("employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n");
+        Path availabilityCsvPath = temporaryFolder.resolve("employee_availability.csv");
+        Files.writeString(availabilityCsvPath, "employeeId,type,start,end\n"+
+            "cat999,,03/07/2021 09:00,03/07/2021 21:00\n");
+        assertThrows(AvailabilityEmployeeIdNotMatchingAnyEmployeeException.class, ()->employeeSchedulingSystem.processEmployeeAvailabilityCsvFile(availabilityCsvPath));
+        Files.writeString(availabilityCsvPath, "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 21:00,03/07/2021 09:00\n");
+        assertThrows(StartAfterEndException.class, ()->employeeSchedulingSystem.processEmployeeAvailabilityCsvFile(availabilityCsvPath));
+    }
+
+    @Test
+    public void testAvailabilityNormalisationErrorNotWrapped(@TempDir Path temporaryFolder) throws Exception{
+        employeeSchedulingSystem.processEmployeeInformationCsv(
+            "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n");
+        // an employee whose availabilities fail an assertion whilst being normalised on the availability fork-join pool
+        List<Employee> employees = ClassMemberExposer.<List<Employee>>getFieldValueByName(employeeSchedulingSystem, "employees");
+        employees.set(0, new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 0, null, 0){
+            @Override
+            public void addAvailabilities(List<AvailabilityLoader> loadedAvailabilities){
+                throw new AssertionError("normalisation failed");
+            }
+        });
+        Path path = temporaryFolder.resolve("employee_availability.csv");
+        Files.writeString(path, "employeeId,type,start,end\n"+"cat123,online,03/07/2021 09:00,03/07/2021 12:00\n");
+
+        AssertionError error = assertThrows(AssertionError.class, ()->employeeSchedulingSystem.processEmployeeAvailabilityCsvFile(path));
+        assertEquals("normalisation failed", error.getMessage());
+    }
+
+    @Test
+    public void testAvailabilityForkJoinPool() throws Exception{
+        // enough employees for several batches, each normalised on a different thread
+        StringBuilder informationCsv = new StringBuilder("employeeId,name,mobile,email\n");
+        StringBuilder availabilityCsv = new StringBuilder("employeeId,type,start,end\n");
+        Map<String, List<AvailabilityLoader>> loadersByEmployeeId = new HashMap<>();
+        String[] typeChoices = {"online", "in-person", null};
+        Random random = new Random(0);
+        for (int e=0; e<500; e++){
+            String employeeId = "employee"+e;
+            informationCsv.append(employeeId+",Bob Smith,+61400578921,someemail@email.com\n");
+            List<AvailabilityLoader> loaders = new ArrayList<>();
+            for (int i=random.nextInt(6); i>0; i--){
+                int start = random.nextInt(23);
+                int end = start+1+random.nextInt(23-start);
+                String type = typeChoices[random.nextInt(typeChoices.length)];
+                availabilityCsv.append(employeeId+","+((type == null)? "": type)+",03/07/2021 "+start+":00,03/07/2021 "+end+":00\n");
+                loaders.add(new AvailabilityLoader(employeeId, type, new DateTime(2021, 7, 3, start, 0), new DateTime(2021, 7, 3, end, 0)));
+            }
+            loadersByEmployeeId.put(employeeId, loaders);
+        }
+
+        ForkJoinPool forkJoinPool = new ForkJoinPool(4);
+        try{
+            employeeSchedulingSystem.setAvailabilityForkJoinPool(forkJoinPool);
+            employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(informationCsv.toString(), availabilityCsv.toString());
+        }
+        finally{
+            forkJoinPool.shutdown();
+        }
+
+        List<Employee> employees = ClassMemberExposer.<List<Employee>>getFieldValueByName(employeeSchedulingSystem, "employees");
+        assertEquals(500, employees.size());
+        for (int e=0; e<employees.size(); e++){
+            // still in csv order, each with the same availabilities as normalising on its own
+            assertEquals("employee"+e, employees.get(e).getEmployeeId());
+            Employee expectedEmployee = new Employee("employee"+e, "Bob Smith", "+61400578921", "someemail@email.com", 0, null, 0);
+            expectedEmployee.addAvailabilities(loadersByEmployeeId.get("employee"+e));
+            assertEquals(expectedEmployee.getAvailabilities(), employees.get(e).getAvailabilities());
+        }
+    }
+
+    @Test
+    public void testProcessCsvFiles(@TempDir Path temporaryFolder) throws Exception{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+        // the availability file is gzip compressed, and the others aren't
+        Path availabilityCsvPath = temporaryFolder.resolve("employee_availability.csv.gz");
+        try (OutputStream outputStream = new GZIPOutputStream(Files.newOutputStream(availabilityCsvPath))){
+            Files.copy(commandLineCsvFolder.resolve("employee_availability.csv"), outputStream);
+        }
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(commandLineCsvFolder.resolve("employee_information.csv"), availabilityCsvPath);
+        try (InputStream shiftCsvInputStream = Files.newInputStream(commandLineCsvFolder.resolve("shift_information.csv"))){
+            employeeSchedulingSystem.processShiftsCsv(shiftCsvInputStream);
+        }
+
+        EmployeeSchedulingSystem stringEmployeeSchedulingSystem = getLoadedEmployeeSchedulingSystem("example7_complex_example");
+        for (String fieldName: Arrays.asList("employees", "unallocatedShifts", "allocatedShifts")){
+            assertEquals(ClassMemberExposer.<List<?>>getFieldValueByName(stringEmployeeSchedulingSystem, fieldName),
+                ClassMemberExposer.<List<?>>getFieldValueByName(employeeSchedulingSystem, fieldName));
+        }
+    }
+
+    @Test
+    public void testPinnedShiftWithoutEmployeeId(){
+        assertThrows(CsvInputInvalidException.class, ()->employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end,employeeId,pinned\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00,,true\n"));
+    }
+
+    @Test
+    public void testShiftEmployeeIdNotMatchingAnyEmployee() throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n",
+            
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n");
+        assertThrows(ShiftEmployeeIdNotMatchingAnyEmployeeException.class, ()->employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end,employeeId,pinned\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00,cat999,true\n"));
+    }
+
+    @Test
+    public void testWarmStartSeedsMatchingShifts() throws DuplicatePlanningIdException, StartAfterEndException, IllegalArgumentException, IllegalAccessException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(
+            "employeeId,name,mobile,email\n"+
+            "cat123,Bob Smith,+61400578921,someemail@email.com\n"+
+            "cat124,John Smith,+61400578922,someemail2@email.com\n",
+            
+            "employeeId,type,start,end\n"+
+            "cat123,,03/07/2021 09:00,03/07/2021 21:00\n"+
+            "cat124,,03/07/2021 09:00,03/07/2021 21:00\n");
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00\n"+
+            "shift124,online,03/07/2021 13:00,03/07/2021 15:00\n"+
+            "shift125,online,03/07/2021 16:00,03/07/2021 18:00\n");
+        // shift124's employee and shift999 no longer exist, so are ignored
+        int seededShiftCount = employeeSchedulingSystem.processPreviousAllocationsCsv(
+            "shiftId,employeeId,start,end,type\n"+
+            "shift123,cat124,3/07/2021 9:00,3/07/2021 12:00,online\n"+
+            "shift124,cat999,3/07/2021 13:00,3/07/2021 15:00,online\n"+
+            "shift999,cat123,3/07/2021 19:00,3/07/2021 20:00,online\n");
+        assertEquals(1, seededShiftCount);
+
+        List<Shift> shifts = ClassMemberExposer.<List<Shift>>getFieldValueByName(employeeSchedulingSystem, "unallocatedShifts");
+        assertEquals("cat124", shifts.get(0).getEmployee().getEmployeeId());
+        assertNull(shifts.get(1).getEmployee());
+        assertNull(shifts.get(2).getEmployee());
+
+        assertTrue(employeeSchedulingSystem.allocateShifts(10L).isFeasible());
+    }
+
+    @Test
+    public void testWarmStartDuplicateShiftId() throws DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException{
+        employeeSchedulingSystem.processShiftsCsv(
+            "shiftId,type,start,end\n"+
+            "shift123,online,03/07/2021 09:00,03/07/2021 12:00\n");
+        assertThrows(DuplicatePlanningIdException.class, ()->employeeSchedulingSystem.processPreviousAllocationsCsv(
+            "shiftId,employeeId\n"+
+            "shift123,cat123\n"+
+            "shift123,cat124\n"));
+    }
+
+    @Test
+    public void testWarmStartMissingEmployeeIdColumn(){
+        assertThrows(CsvInputInvalidException.class, ()->employeeSchedulingSystem.processPreviousAllocationsCsv(
+            "shiftId,start\n"+
+            "shift123,3/07/2021 9:00\n"));
+    }
+
     @ParameterizedTest
     @ValueSource(strings={"example1_significant_working_example", "example3_trivial_working_example", "example4_simple_working_example",
                           "example5_simpler_working_example", "example6_even_simpler_working_example", "example7_complex_example"})
@@ -255,6 +888,34 @@ public class EmployeeSchedulingSystemTest {
         employeeSchedulingSystem.processShiftsCsv(shiftInformationCsvString);
         HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(null);
         assertTrue(score.isFeasible());
+        assertFalse(employeeSchedulingSystem.getFeasibilityReport().isProvablyInfeasible());
+    }
+
+    @Test
+    public void testProvablyInfeasibleRosterStillSearched() throws Exception{
+        // 10 employees each doing at most 5 shifts can't do the 63 shifts in the week, so 13 are left unallocated whatever the allocation
+        StringBuilder employeeInformationCsv = new StringBuilder("employeeId,name,mobile,email,importance,maxWeeklyShifts,minWeeklyShifts\n");
+        StringBuilder employeeAvailabilityCsv = new StringBuilder("employeeId,type,start,end\n");
+        for (int j=0; j<10; j++){
+            employeeInformationCsv.append("cat"+j+",Bob Smith,+61400578921,someemail@email.com,1,5,0\n");
+            employeeAvailabilityCsv.append("cat"+j+",online,12/07/2021 00:00,19/07/2021 00:00\n");
+        }
+        StringBuilder shiftInformationCsv = new StringBuilder("shiftId,type,start,end\n");
+        // 3 shifts at a time, 3 times a day, with an hour between the times
+        for (int day=12; day<19; day++){
+            for (int hour=9; hour<18; hour+=3){
+                for (int i=0; i<3; i++){
+                    shiftInformationCsv.append(String.format("shift%d_%d_%d,online,%d/07/2021 %02d:00,%d/07/2021 %02d:00\n", day, hour, i, day, hour, day, hour+2));
+                }
+            }
+        }
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(employeeInformationCsv.toString(), employeeAvailabilityCsv.toString());
+        employeeSchedulingSystem.processShiftsCsv(shiftInformationCsv.toString());
+
+        HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(30L);
+        assertTrue(employeeSchedulingSystem.getFeasibilityReport().isProvablyInfeasible());
+        // the shifts left unallocated can't be avoided, but searching still removes the gaps between each employee's shifts on a day
+        assertEquals(employeeSchedulingSystem.getScoreBound(), score);
     }
 
     @ParameterizedTest
@@ -271,6 +932,7 @@ public class EmployeeSchedulingSystemTest {
         employeeSchedulingSystem.processShiftsCsv(shiftInformationCsvString);
         HardMediumSoftScore score = employeeSchedulingSystem.allocateShifts(null);
         assertFalse(score.isFeasible());
+        assertTrue(employeeSchedulingSystem.getFeasibilityReport().isProvablyInfeasible());
     }
     
 
@@ -0,0 +1,144 @@
+package com.roster123.employeescheduler.domain;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class AvailabilityNormaliserTest {
+    private static final DateTime DAY_START = new DateTime(2021, 6, 7, 0, 0);
+
+    /**
+     * helper to get a time on the test day
+     * @param hour hour of the day
+     * @return the time
+     */
+    private static DateTime hour(int hour){
+        return DAY_START.plusHours(hour);
+    }
+
+    /**
+     * helper to get a hashset of types
+     * @param types the types (can include null)
+     * @return hashset of the types
+     */
+    private static HashSet<String> types(String... types){
+        return new HashSet<>(Arrays.asList(types));
+    }
+
+    @Test
+    public void testNoAvailabilities(){
+        assertTrue(AvailabilityNormaliser.normalise(new ArrayList<>(), new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testOverlappingDifferentTypesSplit(){
+        List<AvailabilityLoader> loadedAvailabilities = Arrays.asList(
+            new AvailabilityLoader("employee1", "online", hour(9), hour(17)),
+            new AvailabilityLoader("employee1", "in-person", hour(12), hour(20)));
+        List<Availability> expected = Arrays.asList(
+            new Availability(types("online"), hour(9), hour(12)),
+            new Availability(types("online", "in-person"), hour(12), hour(17)),
+            new Availability(types("in-person"), hour(17), hour(20)));
+        assertEquals(expected, AvailabilityNormaliser.normalise(new ArrayList<>(), loadedAvailabilities));
+    }
+
+    @Test
+    public void testOverlappingSameTypeCountedUntilLastEnds(){
+        // the type stays active until all of the availabilities with it have ended
+        List<AvailabilityLoader> loadedAvailabilities = Arrays.asList(
+            new AvailabilityLoader("employee1", "online", hour(9), hour(17)),
+            new AvailabilityLoader("employee1", "online", hour(10), hour(12)),
+            new AvailabilityLoader("employee1", "in-person", hour(11), hour(13)));
+        List<Availability> expected = Arrays.asList(
+            new Availability(types("online"), hour(9), hour(11)),
+            new Availability(types("online", "in-person"), hour(11), hour(13)),
+            new Availability(types("online"), hour(13), hour(17)));
+        assertEquals(expected, AvailabilityNormaliser.normalise(new ArrayList<>(), loadedAvailabilities));
+    }
+
+    @Test
+    public void testAbuttingSameTypesMerged(){
+        List<AvailabilityLoader> loadedAvailabilities = Arrays.asList(
+            new AvailabilityLoader("employee1", null, hour(12), hour(15)),
+            new AvailabilityLoader("employee1", null, hour(9), hour(12)),
+            new AvailabilityLoader("employee1", "online", hour(15), hour(16)));
+        List<Availability> expected = Arrays.asList(
+            new Availability(types((String) null), hour(9), hour(15)),
+            new Availability(types("online"), hour(15), hour(16)));
+        assertEquals(expected, AvailabilityNormaliser.normalise(new ArrayList<>(), loadedAvailabilities));
+    }
+
+    @Test
+    public void testGapsNotAvailable(){
+        List<AvailabilityLoader> loadedAvailabilities = Arrays.asList(
+            new AvailabilityLoader("employee1", "online", hour(9), hour(10)),
+            new AvailabilityLoader("employee1", "online", hour(12), hour(13)));
+        List<Availability> expected = Arrays.asList(
+            new Availability(types("online"), hour(9), hour(10)),
+            new Availability(types("online"), hour(12), hour(13)));
+        assertEquals(expected, AvailabilityNormaliser.normalise(new ArrayList<>(), loadedAvailabilities));
+    }
+
+    @Test
+    public void testExistingAvailabilitiesKept(){
+        List<Availability> availabilities = Arrays.asList(
+            new Availability(types("online", null), hour(9), hour(12)));
+        List<AvailabilityLoader> loadedAvailabilities = Arrays.asList(
+            new AvailabilityLoader("employee1", "online", hour(12), hour(14)));
+        List<Availability> expected = Arrays.asList(
+            new Availability(types("online", null), hour(9), hour(12)),
+            new Availability(types("online"), hour(12), hour(14)));
+        assertEquals(expected, AvailabilityNormaliser.normalise(availabilities, loadedAvailabilities));
+    }
+
+    @Test
+    public void testRandomAvailabilitiesMatchTypesEachHour(){
+        // compare against the types worked out separately for each hour, merging hours with the same types
+        String[] typeChoices = {"online", "in-person", null};
+        Random random = new Random(0);
+        for (int trial=0; trial<200; trial++){
+            List<AvailabilityLoader> loadedAvailabilities = new ArrayList<>();
+            for (int i=random.nextInt(12); i>0; i--){
+                int start = random.nextInt(23);
+                int end = start+1+random.nextInt(23-start);
+                loadedAvailabilities.add(new AvailabilityLoader("employee1", typeChoices[random.nextInt(typeChoices.length)], hour(start), hour(end)));
+            }
+
+            List<Availability> expected = new ArrayList<>();
+            HashSet<String> previousTypes = new HashSet<>();
+            for (int h=0; h<24; h++){
+                HashSet<String> hourTypes = new HashSet<>();
+                for (AvailabilityLoader loadedAvailability: loadedAvailabilities){
+                    if (!loadedAvailability.getStart().isAfter(hour(h))&&loadedAvailability.getEnd().isAfter(hour(h))){
+                        hourTypes.add(loadedAvailability.getType());
+                    }
+                }
+                if (!hourTypes.isEmpty()){
+                    if (hourTypes.equals(previousTypes)){
+                        Availability previous = expected.remove(expected.size()-1);
+                        expected.add(new Availability(hourTypes, previous.getStart(), hour(h+1)));
+                    }
+                    else{
+                        expected.add(new Availability(hourTypes, hour(h), hour(h+1)));
+                    }
+                }
+                previousTypes = hourTypes;
+            }
+
+            List<Availability> normalisedAvailabilities = AvailabilityNormaliser.normalise(new ArrayList<>(), loadedAvailabilities);
+            assertEquals(expected, normalisedAvailabilities);
+            // normalising again changes nothing
+            assertEquals(expected, AvailabilityNormaliser.normalise(normalisedAvailabilities, new ArrayList<>()));
+        }
+    }
+}
@@ -11,6 +11,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import com.jparams.verifier.tostring.NameStyle;
 import com.jparams.verifier.tostring.ToStringVerifier;
@@ -172,6 +173,27 @@ public class EmployeeTest {
         assertArrayEquals(expectedAvailabilities.toArray(), availabilitiesInEmployee.toArray());
     }
 
+    @Test
+    public void testAddAvailabilityOneAtATimeMatchesAddAvailabilities(){
+        String[] typeChoices = {"online", "in-person", null};
+        Random random = new Random(0);
+        for (int trial=0; trial<200; trial++){
+            List<AvailabilityLoader> loadedAvailabilities = new ArrayList<>();
+            for (int i=random.nextInt(12); i>0; i--){
+                int start = random.nextInt(23);
+                int end = start+1+random.nextInt(23-start);
+                loadedAvailabilities.add(new AvailabilityLoader("employee1", typeChoices[random.nextInt(typeChoices.length)], new DateTime(2021, 7, 11, start, 0), new DateTime(2021, 7, 11, 0, 0).plusHours(end)));
+            }
+            Employee employeeAddedTogether = new Employee("employee1", "Bob", "+61400578921", "someemail@email.com", 0, null, 0);
+            employeeAddedTogether.addAvailabilities(loadedAvailabilities);
+            Employee employeeAddedOneAtATime = new Employee("employee1", "Bob", "+61400578921", "someemail@email.com", 0, null, 0);
+            for (AvailabilityLoader loadedAvailability: loadedAvailabilities){
+                employeeAddedOneAtATime.addAvailability(loadedAvailability);
+            }
+            assertEquals(employeeAddedTogether.getAvailabilities(), employeeAddedOneAtATime.getAvailabilities());
+        }
+    }
+
     @Test
     public void testEquals(){
         EqualsVerifier.forClass(Employee.class)
@@ -2,7 +2,9 @@ package com.roster123.employeescheduler.domain;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.Table;
@@ -43,6 +45,35 @@ public class ShiftTest {
         assertThrows(AssertionError.class, ()->new Shift("shift123", null, new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 10, 0)));
     }
 
+    @Test
+    public void testPinnedShiftNullEmployee(){
+        assertThrows(AssertionError.class, ()->new Shift("shift123", "online", new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 10, 0), null, true));
+    }
+
+    @Test
+    public void testCannotSetEmployeeOfPinnedShift(){
+        Employee employee = new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 0, null, 0);
+        Shift shift = new Shift("shift123", "online", new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 10, 0), employee, true);
+        assertTrue(shift.isPinned());
+        assertThrows(AssertionError.class, ()->shift.setEmployee(null));
+    }
+
+    @Test
+    public void testCopy(){
+        Employee employee = new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 0, null, 0);
+        Shift shift = new Shift("shift123", "online", new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 10, 0), employee, true);
+        Shift copy = new Shift(shift);
+        assertEquals(shift, copy);
+        assertTrue(copy.isPinned());
+
+        // changing the copy's employee doesn't change the original's
+        Shift unpinnedShift = new Shift("shift124", "online", new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 10, 0), employee, false);
+        Shift unpinnedCopy = new Shift(unpinnedShift);
+        unpinnedCopy.setEmployee(null);
+        assertFalse(unpinnedCopy.isAllocated());
+        assertEquals(employee, unpinnedShift.getEmployee());
+    }
+
     @Test
     public void testEquals(){
         EqualsVerifier.forClass(Shift.class)
@@ -145,6 +176,21 @@ public class ShiftTest {
         assertThrows(AssertionError.class, ()->shift.getShiftCsvString());
     }
 
+    @Test
+    public void testUnallocatedShiftEmployeeCanDo() throws IllegalArgumentException, IllegalAccessException{
+        // unallocated shifts are penalized separately, so aren't availability conflicts
+        Shift shift = new Shift("shift123", "online", new DateTime(2019, 12, 9, 9, 0), new DateTime(2019, 12, 9, 10, 0));
+        assertFalse(shift.isAllocated());
+        assertTrue(shift.shiftEmployeeCanDoTime());
+        assertTrue(shift.shiftEmployeeCanDoType());
+
+        // an employee with no availability can't do the shift
+        ClassMemberExposer.setFieldValueByName(shift, "employee", new Employee("employee1", "Bob", "+61400578921", "someemail@email.com", 0, null, 0));
+        assertTrue(shift.isAllocated());
+        assertFalse(shift.shiftEmployeeCanDoTime());
+        assertFalse(shift.shiftEmployeeCanDoType());
+    }
+
     @Test
     public void testToString(){
         ToStringVerifier.forClass(Shift.class)
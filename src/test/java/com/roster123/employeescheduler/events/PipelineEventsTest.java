@@ -0,0 +1,87 @@
+package com.roster123.employeescheduler.events;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.javatuples.Triplet;
+import org.junit.jupiter.api.Test;
+
+import com.roster123.employeescheduler.EmployeeSchedulingSystem;
+import com.roster123.employeescheduler.exceptions.*;
+
+public class PipelineEventsTest {
+    /**
+     * run the pipeline on an example whilst recording, and return the recorded events from this module
+     * @return events recorded with names in this module's namespace
+     */
+    private List<RecordedEvent> recordExamplePipeline() throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path recordingPath = Files.createTempFile("pipeline", ".jfr");
+        try (Recording recording = new Recording()){
+            for (String eventName: new String[]{"CsvFileRead", "CsvParse", "AvailabilityNormalisation", "SolverBuild", "SolverPhase", "ScoreExplanation"}){
+                recording.enable("com.roster123.employeescheduler."+eventName).withoutThreshold();
+            }
+            recording.start();
+
+            // simpler examples start from the best possible score (so solving stops before any phase), so use an example which needs searching
+            Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example");
+            Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+            EmployeeSchedulingSystem employeeSchedulingSystem = new EmployeeSchedulingSystem();
+            employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+            employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+            employeeSchedulingSystem.allocateShifts(10L);
+
+            recording.stop();
+            recording.dump(recordingPath);
+        }
+        try{
+            return RecordingFile.readAllEvents(recordingPath).stream()
+                .filter(e->e.getEventType().getName().startsWith("com.roster123.employeescheduler."))
+                .collect(Collectors.toList());
+        }
+        finally{
+            Files.deleteIfExists(recordingPath);
+        }
+    }
+
+    /**
+     * get the events with the name (excluding namespace)
+     */
+    private List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String name){
+        return events.stream().filter(e->e.getEventType().getName().equals("com.roster123.employeescheduler."+name)).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testPipelineEmitsEvents() throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        List<RecordedEvent> events = recordExamplePipeline();
+
+        // one read per CSV file, and one parse per CSV file
+        assertEquals(3, eventsNamed(events, "CsvFileRead").size());
+        List<RecordedEvent> parseEvents = eventsNamed(events, "CsvParse");
+        assertEquals(3, parseEvents.size());
+        assertTrue(parseEvents.stream().allMatch(e->e.getInt("rowCount") > 0));
+
+        assertTrue(eventsNamed(events, "AvailabilityNormalisation").size() > 0);
+
+        List<RecordedEvent> buildEvents = eventsNamed(events, "SolverBuild");
+        assertEquals(1, buildEvents.size());
+        assertTrue(buildEvents.get(0).getInt("shiftCount") > 0);
+
+        // default configuration has a construction heuristic then a local search
+        List<RecordedEvent> phaseEvents = eventsNamed(events, "SolverPhase");
+        assertEquals(2, phaseEvents.size());
+        assertEquals("ConstructionHeuristic", phaseEvents.get(0).getString("phaseType"));
+        assertEquals("LocalSearch", phaseEvents.get(1).getString("phaseType"));
+
+        assertEquals(1, eventsNamed(events, "ScoreExplanation").size());
+    }
+}
@@ -0,0 +1,56 @@
+package com.roster123.employeescheduler.loaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.jparams.verifier.tostring.NameStyle;
+import com.jparams.verifier.tostring.ToStringVerifier;
+
+import org.junit.jupiter.api.Test;
+
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+
+public class AllocationLoaderTest {
+    @Test
+    public void testValidAllocationLoader(){
+        AllocationLoader loader = new AllocationLoader("shift123", "cat123");
+        assertEquals("shift123", loader.getShiftId());
+        assertEquals("cat123", loader.getEmployeeId());
+    }
+
+    @Test
+    public void testInvalidAllocationLoaderVariablesNotInitialized(){
+        AllocationLoader loader = new AllocationLoader();
+        assertThrows(AssertionError.class, ()->loader.getShiftId());
+        assertThrows(AssertionError.class, ()->loader.getEmployeeId());
+    }
+
+    @Test
+    public void testInvalidInputShiftIdAllocationLoader(){
+        assertThrows(AssertionError.class, ()->new AllocationLoader(null, "cat123"));
+        assertThrows(AssertionError.class, ()->new AllocationLoader("", "cat123"));
+    }
+
+    @Test
+    public void testInvalidInputEmployeeIdAllocationLoader(){
+        assertThrows(AssertionError.class, ()->new AllocationLoader("shift123", null));
+        assertThrows(AssertionError.class, ()->new AllocationLoader("shift123", ""));
+    }
+
+    @Test
+    public void testEquals(){
+        EqualsVerifier.forClass(AllocationLoader.class)
+            .usingGetClass()
+            // can't have final fields since opencsv requires ability to insert fields, whilst also running empty constructor
+            .suppress(Warning.NONFINAL_FIELDS)
+            .verify();
+    }
+
+    @Test
+    public void testToString(){
+        ToStringVerifier.forClass(AllocationLoader.class)
+                    .withClassName(NameStyle.SIMPLE_NAME)
+                    .verify();
+    }
+}
@@ -0,0 +1,118 @@
+package com.roster123.employeescheduler.loaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import com.google.common.base.CharMatcher;
+import com.opencsv.bean.CsvToBeanBuilder;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.roster123.employeescheduler.EmployeeSchedulingSystem;
+import com.roster123.employeescheduler.exceptions.*;
+
+public class ChunkedAvailabilityCsvParserTest {
+    @TempDir
+    Path temporaryFolder;
+
+    private ForkJoinPool forkJoinPool;
+
+    @BeforeEach
+    public void setUp(){
+        forkJoinPool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    public void tearDown(){
+        forkJoinPool.shutdown();
+    }
+
+    /**
+     * helper to parse a csv string all at once with opencsv, grouping the rows by employee
+     * @param csvData the csv string
+     * @return loaders by employee id
+     */
+    private static Map<String, List<AvailabilityLoader>> parseAllAtOnce(String csvData){
+        String[] firstLineAndEverythingElse = csvData.split("\n", 2);
+        firstLineAndEverythingElse[0] = CharMatcher.ascii().retainFrom(firstLineAndEverythingElse[0]);
+        List<AvailabilityLoader> loaders = new CsvToBeanBuilder<AvailabilityLoader>(new StringReader(String.join("\n", firstLineAndEverythingElse)))
+            .withType(AvailabilityLoader.class)
+            .build()
+            .parse();
+        return loaders.stream().collect(Collectors.groupingBy(AvailabilityLoader::getEmployeeId, LinkedHashMap::new, Collectors.toList()));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints={1, 64, 1000, ChunkedAvailabilityCsvParser.MINIMUM_CHUNK_BYTES})
+    public void testMatchesParsingAllAtOnce(int minimumChunkBytes) throws IOException, CsvInputInvalidException{
+        // starts with a byte order mark, and has \r\n line breaks
+        Path path = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example7_complex_example").resolve("employee_availability.csv");
+        Map<String, List<AvailabilityLoader>> loadersByEmployeeId = ChunkedAvailabilityCsvParser.parse(path, forkJoinPool, minimumChunkBytes);
+        Map<String, List<AvailabilityLoader>> expectedLoadersByEmployeeId = parseAllAtOnce(Files.readString(path));
+        assertEquals(expectedLoadersByEmployeeId, loadersByEmployeeId);
+        // employees in the order they first appear
+        assertEquals(new ArrayList<>(expectedLoadersByEmployeeId.keySet()), new ArrayList<>(loadersByEmployeeId.keySet()));
+    }
+
+    @Test
+    public void testQuotedLineBreaksNotSplit() throws IOException, CsvInputInvalidException{
+        String csvData = "employeeId,type,start,end\n"+
+            "cat123,\"in\nperson, \"\"outside\"\"\",03/07/2021 09:00,03/07/2021 12:00\n"+
+            "cat124,online,03/07/2021 09:00,03/07/2021 12:00\n"+
+            "cat123,\"\n\",04/07/2021 09:00,04/07/2021 12:00";
+        Path path = temporaryFolder.resolve("employee_availability.csv");
+        Files.writeString(path, csvData);
+        Map<String, List<AvailabilityLoader>> loadersByEmployeeId = ChunkedAvailabilityCsvParser.parse(path, forkJoinPool, 1);
+        assertEquals(parseAllAtOnce(csvData), loadersByEmployeeId);
+        assertEquals("in\nperson, \"outside\"", loadersByEmployeeId.get("cat123").get(0).getType());
+        assertEquals(2, loadersByEmployeeId.get("cat123").size());
+    }
+
+    @Test
+    public void testHeaderOnly() throws IOException, CsvInputInvalidException{
+        Path path = temporaryFolder.resolve("employee_availability.csv");
+        Files.writeString(path, "employeeId,type,start,end\n");
+        assertTrue(ChunkedAvailabilityCsvParser.parse(path, forkJoinPool, 1).isEmpty());
+        Files.writeString(path, "employeeId,type,start,end");
+        assertTrue(ChunkedAvailabilityCsvParser.parse(path, forkJoinPool, 1).isEmpty());
+    }
+
+    @Test
+    public void testInvalidRow() throws IOException{
+        Path path = temporaryFolder.resolve("employee_availability.csv");
+        Files.write(path, ("employeeId,type,start,end\n"+
+            "cat123,online,03/07/2021 09:00,03/07/2021 12:00\n"+
+            "cat123,online,not a time,03/07/2021 12:00\n").getBytes(StandardCharsets.UTF_8));
+        assertThrows(CsvInputInvalidException.class, ()->ChunkedAvailabilityCsvParser.parse(path, forkJoinPool, 1));
+        Files.write(path, new byte[0]);
+        assertThrows(CsvInputInvalidException.class, ()->ChunkedAvailabilityCsvParser.parse(path, forkJoinPool, 1));
+    }
+
+    @Test
+    public void testChunkBytes(){
+        // a few chunks per thread
+        assertEquals(10L << 20, ChunkedAvailabilityCsvParser.getChunkBytes(160L << 20, 4, ChunkedAvailabilityCsvParser.MINIMUM_CHUNK_BYTES));
+        // small files aren't split into tiny chunks
+        assertEquals(ChunkedAvailabilityCsvParser.MINIMUM_CHUNK_BYTES, ChunkedAvailabilityCsvParser.getChunkBytes(1000, 4, ChunkedAvailabilityCsvParser.MINIMUM_CHUNK_BYTES));
+        // huge files on few threads are still split into chunks which can be mapped
+        assertEquals(ChunkedAvailabilityCsvParser.MAXIMUM_CHUNK_BYTES, ChunkedAvailabilityCsvParser.getChunkBytes(16L << 30, 1, ChunkedAvailabilityCsvParser.MINIMUM_CHUNK_BYTES));
+    }
+}
@@ -0,0 +1,90 @@
+package com.roster123.employeescheduler.loaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.roster123.employeescheduler.exceptions.*;
+
+public class CsvInputReadersTest {
+    private static final String CSV = "employeeId,name,mobile,email\n"+
+        "cat123,José Smith,+61400578921,someemail@email.com\n";
+
+    @TempDir
+    Path temporaryFolder;
+
+    private static String readAll(Reader reader) throws IOException{
+        StringWriter writer = new StringWriter();
+        reader.transferTo(writer);
+        return writer.toString();
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException{
+        ByteArrayOutputStream compressedBytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipOutputStream = new GZIPOutputStream(compressedBytes)){
+            gzipOutputStream.write(bytes);
+        }
+        return compressedBytes.toByteArray();
+    }
+
+    @Test
+    public void testUncompressed() throws IOException, CsvInputInvalidException{
+        assertEquals(CSV, readAll(CsvInputReaders.getReader(new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)))));
+        // shorter than any magic number
+        assertEquals("a", readAll(CsvInputReaders.getReader(new ByteArrayInputStream("a".getBytes(StandardCharsets.UTF_8)))));
+        assertEquals("", readAll(CsvInputReaders.getReader(new ByteArrayInputStream(new byte[0]))));
+    }
+
+    @Test
+    public void testByteOrderMarkSkipped() throws IOException, CsvInputInvalidException{
+        assertEquals(CSV, readAll(CsvInputReaders.getReader(new ByteArrayInputStream(("\uFEFF"+CSV).getBytes(StandardCharsets.UTF_8)))));
+        assertEquals(CSV, readAll(CsvInputReaders.getReader(new ByteArrayInputStream(gzip(("\uFEFF"+CSV).getBytes(StandardCharsets.UTF_8))))));
+    }
+
+    @Test
+    public void testGzipDecompressed() throws IOException, CsvInputInvalidException{
+        byte[] compressedCsv = gzip(CSV.getBytes(StandardCharsets.UTF_8));
+        assertEquals(CSV, readAll(CsvInputReaders.getReader(new ByteArrayInputStream(compressedCsv))));
+        assertEquals(CSV, readAll(CsvInputReaders.getReader(Channels.newChannel(new ByteArrayInputStream(compressedCsv)))));
+        // recognised without a .gz file name
+        Path path = temporaryFolder.resolve("employee_information.csv");
+        Files.write(path, compressedCsv);
+        try (Reader reader = CsvInputReaders.getReader(path)){
+            assertEquals(CSV, readAll(reader));
+        }
+    }
+
+    @Test
+    public void testZstdNotDecompressed() throws IOException{
+        byte[] zstdFrame = {(byte) 0x28, (byte) 0xb5, (byte) 0x2f, (byte) 0xfd, 0, 0, 0};
+        boolean[] closed = {false};
+        InputStream inputStream = new ByteArrayInputStream(zstdFrame){
+            @Override
+            public void close(){
+                closed[0] = true;
+            }
+        };
+        assertThrows(CsvInputInvalidException.class, ()->CsvInputReaders.getReader(inputStream));
+        // the caller's stream is left for the caller to close
+        assertFalse(closed[0]);
+
+        Path path = temporaryFolder.resolve("availability.csv.zst");
+        Files.write(path, zstdFrame);
+        assertThrows(CsvInputInvalidException.class, ()->CsvInputReaders.getReader(path));
+    }
+}
@@ -0,0 +1,77 @@
+package com.roster123.employeescheduler.loaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.roster123.employeescheduler.domain.*;
+
+public class ParseCacheTest {
+    @TempDir
+    Path temporaryFolder;
+
+    @Test
+    public void testKey(){
+        String key = ParseCache.getKey("a,b\n1,2", "c\n3", "d\n4");
+        assertEquals(64, key.length());
+        assertEquals(key, ParseCache.getKey("a,b\n1,2", "c\n3", "d\n4"));
+        assertNotEquals(key, ParseCache.getKey("a,b\n1,2", "c\n3", "d\n5"));
+        // the same text split between the files differently
+        assertNotEquals(key, ParseCache.getKey("a,b\n1,2c", "\n3", "d\n4"));
+    }
+
+    @Test
+    public void testKeyIncludesDefaultTimeZone(){
+        DateTimeZone defaultTimeZone = DateTimeZone.getDefault();
+        try{
+            DateTimeZone.setDefault(DateTimeZone.forID("Australia/Sydney"));
+            String key = ParseCache.getKey("a", "b", "c");
+            DateTimeZone.setDefault(DateTimeZone.forID("Australia/Perth"));
+            assertNotEquals(key, ParseCache.getKey("a", "b", "c"));
+        }
+        finally{
+            DateTimeZone.setDefault(defaultTimeZone);
+        }
+    }
+
+    @Test
+    public void testPutThenGet() throws IOException{
+        Employee employee = new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 3, 5, 1);
+        employee.addAvailability(new AvailabilityLoader("cat123", "online", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 17, 0)));
+        List<Employee> employees = new ArrayList<>(Arrays.asList(employee));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(new Shift("shift1", "online", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 11, 0))));
+        // the cache directory is created when needed
+        ParseCache parseCache = new ParseCache(temporaryFolder.resolve("cache"));
+        String key = ParseCache.getKey("a", "b", "c");
+        assertNull(parseCache.get(key));
+
+        parseCache.put(key, employees, shifts);
+        Pair<List<Employee>, List<Shift>> cachedProblem = parseCache.get(key);
+        assertEquals(employees, cachedProblem.getValue0());
+        assertEquals(shifts, cachedProblem.getValue1());
+        assertNull(parseCache.get(ParseCache.getKey("a", "b", "d")));
+        // only the entry is left in the directory
+        assertEquals(1, Files.list(temporaryFolder.resolve("cache")).count());
+    }
+
+    @Test
+    public void testUnreadableEntryMissing() throws IOException{
+        ParseCache parseCache = new ParseCache(temporaryFolder);
+        String key = ParseCache.getKey("a", "b", "c");
+        Files.writeString(parseCache.getSnapshotPath(key), "not a snapshot");
+        assertNull(parseCache.get(key));
+    }
+}
@@ -0,0 +1,122 @@
+package com.roster123.employeescheduler.loaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.javatuples.Pair;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.exceptions.*;
+import com.roster123.employeescheduler.writers.ProblemSnapshotWriter;
+
+public class ProblemSnapshotReaderTest {
+    @TempDir
+    Path temporaryFolder;
+
+    /**
+     * helper to create employees with availabilities (including one of any type), and shifts which are unallocated, allocated and pinned
+     * @return employees and shifts
+     */
+    private static Pair<List<Employee>, List<Shift>> getProblem(){
+        Employee employee1 = new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 3, 5, 1);
+        employee1.addAvailabilities(new ArrayList<>(Arrays.asList(
+            new AvailabilityLoader("cat123", "online", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 17, 0)),
+            new AvailabilityLoader("cat123", "in-person", new DateTime(2021, 7, 3, 12, 0), new DateTime(2021, 7, 3, 20, 0)),
+            new AvailabilityLoader("cat123", null, new DateTime(2021, 7, 4, 9, 0), new DateTime(2021, 7, 4, 17, 0)))));
+        // no mobile or maximum weekly shifts, and a time zone other than the default
+        Employee employee2 = new Employee("cat124", "José Smith", null, "someemail2@email.com", 0, null, 0);
+        employee2.addAvailability(new AvailabilityLoader("cat124", "online", new DateTime(2021, 7, 3, 9, 0, DateTimeZone.forID("Australia/Sydney")),
+            new DateTime(2021, 7, 3, 17, 0, DateTimeZone.forID("Australia/Sydney"))));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 11, 0)),
+            new Shift("shift2", "in-person", new DateTime(2021, 7, 3, 13, 0), new DateTime(2021, 7, 3, 15, 0), employee1, false),
+            new Shift("shift3", "online", new DateTime(2021, 7, 3, 9, 0, DateTimeZone.forID("Australia/Sydney")), new DateTime(2021, 7, 3, 12, 0, DateTimeZone.forID("Australia/Sydney")), employee2, true)));
+        return new Pair<>(new ArrayList<>(Arrays.asList(employee1, employee2)), shifts);
+    }
+
+    @Test
+    public void testRoundTrip() throws IOException, SnapshotInvalidException{
+        Pair<List<Employee>, List<Shift>> problem = getProblem();
+        Path path = temporaryFolder.resolve("problem.snapshot");
+        ProblemSnapshotWriter.writeSnapshot(problem.getValue0(), problem.getValue1(), path);
+
+        Pair<List<Employee>, List<Shift>> readProblem = ProblemSnapshotReader.readSnapshot(path);
+        assertEquals(problem.getValue0(), readProblem.getValue0());
+        assertEquals(problem.getValue1(), readProblem.getValue1());
+        assertEquals(problem.getValue0().get(0).getAvailabilities(), readProblem.getValue0().get(0).getAvailabilities());
+        assertTrue(readProblem.getValue0().get(0).getAvailabilities().get(3).getTypes().contains(null));
+        assertNull(readProblem.getValue0().get(1).maxWeeklyShifts());
+        // shifts refer to the employees read, rather than copies of them
+        assertSame(readProblem.getValue0().get(0), readProblem.getValue1().get(1).getEmployee());
+        assertTrue(readProblem.getValue1().get(2).isPinned());
+        assertEquals(DateTimeZone.forID("Australia/Sydney"), readProblem.getValue1().get(2).getStart().getZone());
+    }
+
+    @Test
+    public void testEmptyProblem() throws IOException, SnapshotInvalidException{
+        Path path = temporaryFolder.resolve("problem.snapshot");
+        ProblemSnapshotWriter.writeSnapshot(new ArrayList<>(), new ArrayList<>(), path);
+        Pair<List<Employee>, List<Shift>> readProblem = ProblemSnapshotReader.readSnapshot(path);
+        assertTrue(readProblem.getValue0().isEmpty());
+        assertTrue(readProblem.getValue1().isEmpty());
+    }
+
+    @Test
+    public void testNotSnapshot() throws IOException{
+        Path path = temporaryFolder.resolve("shift_information.csv");
+        Files.writeString(path, "shiftId,type,start,end\n");
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(path));
+    }
+
+    @Test
+    public void testOtherVersion(){
+        ByteBuffer buffer = ByteBuffer.allocate(8).putInt(ProblemSnapshotWriter.MAGIC).putInt(ProblemSnapshotWriter.VERSION+1);
+        buffer.flip();
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(buffer));
+    }
+
+    @Test
+    public void testCutShort() throws IOException{
+        Pair<List<Employee>, List<Shift>> problem = getProblem();
+        Path path = temporaryFolder.resolve("problem.snapshot");
+        ProblemSnapshotWriter.writeSnapshot(problem.getValue0(), problem.getValue1(), path);
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length-5));
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(path));
+    }
+
+    @Test
+    public void testCorruptCounts(){
+        // counts far larger than the bytes left (or negative) are rejected before allocating for them
+        ByteBuffer stringCountBuffer = ByteBuffer.allocate(12).putInt(ProblemSnapshotWriter.MAGIC).putInt(ProblemSnapshotWriter.VERSION).putInt(Integer.MAX_VALUE);
+        stringCountBuffer.flip();
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(stringCountBuffer));
+
+        ByteBuffer stringLengthBuffer = ByteBuffer.allocate(16).putInt(ProblemSnapshotWriter.MAGIC).putInt(ProblemSnapshotWriter.VERSION).putInt(1).putInt(Integer.MAX_VALUE);
+        stringLengthBuffer.flip();
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(stringLengthBuffer));
+
+        ByteBuffer employeeCountBuffer = ByteBuffer.allocate(16).putInt(ProblemSnapshotWriter.MAGIC).putInt(ProblemSnapshotWriter.VERSION).putInt(0).putInt(1);
+        employeeCountBuffer.flip();
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(employeeCountBuffer));
+
+        ByteBuffer negativeCountBuffer = ByteBuffer.allocate(12).putInt(ProblemSnapshotWriter.MAGIC).putInt(ProblemSnapshotWriter.VERSION).putInt(-1);
+        negativeCountBuffer.flip();
+        assertThrows(SnapshotInvalidException.class, ()->ProblemSnapshotReader.readSnapshot(negativeCountBuffer));
+    }
+}
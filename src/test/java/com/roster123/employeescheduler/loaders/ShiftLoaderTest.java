@@ -1,6 +1,7 @@
 package com.roster123.employeescheduler.loaders;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import com.jparams.verifier.tostring.NameStyle;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.Test;
 import nl.jqno.equalsverifier.EqualsVerifier;
 import nl.jqno.equalsverifier.Warning;
 
+import com.roster123.employeescheduler.domain.Employee;
 import com.roster123.employeescheduler.domain.Shift;
 
 public class ShiftLoaderTest {
@@ -22,6 +24,27 @@ public class ShiftLoaderTest {
         assertEquals((new Shift("shift123", "online", new DateTime(2019, 12, 9, 9, 0), new DateTime(2022, 1, 11, 10, 0))), shift);
     }
 
+    @Test
+    public void testValidPinnedShiftLoader(){
+        Employee employee = new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 0, null, 0);
+        ShiftLoader loader = new ShiftLoader("shift123", "online", new DateTime(2019, 12, 9, 9, 0), new DateTime(2022, 1, 11, 10, 0), "cat123", true);
+        Shift shift = loader.getShift(employee);
+        assertEquals((new Shift("shift123", "online", new DateTime(2019, 12, 9, 9, 0), new DateTime(2022, 1, 11, 10, 0), employee, true)), shift);
+    }
+
+    @Test
+    public void testPinnedNullIsNotPinned(){
+        ShiftLoader loader = new ShiftLoader("shift123", "online", new DateTime(2019, 12, 9, 9, 0), new DateTime(2022, 1, 11, 10, 0), "cat123", null);
+        assertFalse(loader.isPinned());
+    }
+
+    @Test
+    public void testShiftLoaderEmployeeNotMatchingEmployeeId(){
+        Employee employee = new Employee("cat124", "John Smith", "+61400578922", "someemail2@email.com", 0, null, 0);
+        ShiftLoader loader = new ShiftLoader("shift123", "online", new DateTime(2019, 12, 9, 9, 0), new DateTime(2022, 1, 11, 10, 0), "cat123", true);
+        assertThrows(AssertionError.class, ()->loader.getShift(employee));
+    }
+
     @Test
     public void testInvalidShiftLoaderVariablesNotInitialized(){
         ShiftLoader loader = new ShiftLoader();
@@ -0,0 +1,110 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.heuristic.selector.move.generic.ChangeMoveSelectorConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+
+import com.roster123.employeescheduler.ClassMemberExposer;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class AdaptiveTerminationPolicyTest {
+    @Test
+    public void testSmallRosterMinimumBudgets(){
+        AdaptiveTerminationPolicy policy = new AdaptiveTerminationPolicy(3, 2, 6);
+        assertEquals(2, policy.getFeasibilitySeconds());
+        assertEquals(3, policy.getImprovementSeconds());
+        assertEquals(200, policy.getUnimprovedStepCountLimit());
+        assertEquals(1, policy.getImprovementRateWindowSeconds());
+        assertEquals("0hard/0medium/2soft", policy.getImprovementRateThreshold());
+        // budgets plus time to start the solver
+        assertEquals(10L, policy.getTerminationConfig().getSecondsSpentLimit());
+    }
+
+    @Test
+    public void testLargeRosterScaledBudgets(){
+        AdaptiveTerminationPolicy policy = new AdaptiveTerminationPolicy(1000, 50, 10000);
+        assertEquals(40, policy.getFeasibilitySeconds());
+        assertEquals(300, policy.getImprovementSeconds());
+        assertEquals(20000, policy.getUnimprovedStepCountLimit());
+        assertEquals(100, policy.getImprovementRateWindowSeconds());
+        assertEquals("0hard/0medium/50soft", policy.getImprovementRateThreshold());
+    }
+
+    @Test
+    public void testHugeRosterMaximumBudgets(){
+        AdaptiveTerminationPolicy policy = new AdaptiveTerminationPolicy(100000, 1000, 10000000);
+        assertEquals(120, policy.getFeasibilitySeconds());
+        assertEquals(300, policy.getImprovementSeconds());
+        assertEquals(100000, policy.getUnimprovedStepCountLimit());
+    }
+
+    @Test
+    public void testBudgetsGrowWithRoster(){
+        AdaptiveTerminationPolicy smaller = new AdaptiveTerminationPolicy(100, 10, 500);
+        AdaptiveTerminationPolicy larger = new AdaptiveTerminationPolicy(400, 20, 4000);
+        assertTrue(smaller.getFeasibilitySeconds() < larger.getFeasibilitySeconds());
+        assertTrue(smaller.getImprovementSeconds() < larger.getImprovementSeconds());
+        assertTrue(smaller.getUnimprovedStepCountLimit() < larger.getUnimprovedStepCountLimit());
+    }
+
+    @Test
+    public void testEligiblePairsCounted() throws IllegalArgumentException, IllegalAccessException{
+        Employee employee1 = new Employee("employee1", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 0, null, 0);
+        employee1.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee1", "online", new DateTime(2021, 7, 12, 0, 0), new DateTime(2021, 7, 19, 0, 0)))));
+        Employee employee2 = new Employee("employee2", "John Smith", "+61400789346", "John@noneistantemail21345654326.com", 0, null, 0);
+        employee2.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee2", "online", new DateTime(2021, 7, 12, 0, 0), new DateTime(2021, 7, 12, 12, 0)))));
+        // both can do shift1, only employee1 can do shift2
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 13, 0), new DateTime(2021, 7, 12, 14, 0))));
+        AdaptiveTerminationPolicy policy = new AdaptiveTerminationPolicy(shifts, new ArrayList<>(Arrays.asList(employee1, employee2)));
+        assertEquals(2, (int)ClassMemberExposer.<Integer>getFieldValueByName(policy, "shiftCount"));
+        assertEquals(2, (int)ClassMemberExposer.<Integer>getFieldValueByName(policy, "employeeCount"));
+        assertEquals(3, (int)ClassMemberExposer.<Integer>getFieldValueByName(policy, "eligiblePairCount"));
+    }
+
+    @Test
+    public void testPhasesHaveSeparateBudgets(){
+        AdaptiveTerminationPolicy policy = new AdaptiveTerminationPolicy(1000, 50, 10000);
+        List<PhaseConfig> phaseConfigs = policy.getPhaseConfigList();
+        assertEquals(3, phaseConfigs.size());
+        assertTrue(phaseConfigs.get(0) instanceof ConstructionHeuristicPhaseConfig);
+
+        LocalSearchPhaseConfig feasibilityPhaseConfig = (LocalSearchPhaseConfig)phaseConfigs.get(1);
+        assertEquals(true, feasibilityPhaseConfig.getTerminationConfig().getBestScoreFeasible());
+        assertEquals(40L, feasibilityPhaseConfig.getTerminationConfig().getSecondsSpentLimit());
+
+        LocalSearchPhaseConfig improvementPhaseConfig = (LocalSearchPhaseConfig)phaseConfigs.get(2);
+        assertEquals(300L, improvementPhaseConfig.getTerminationConfig().getSecondsSpentLimit());
+        assertEquals(20000, improvementPhaseConfig.getTerminationConfig().getUnimprovedStepCountLimit());
+        assertEquals(100L, improvementPhaseConfig.getTerminationConfig().getTerminationConfigList().get(0).getUnimprovedSecondsSpentLimit());
+        assertEquals("0hard/0medium/50soft", improvementPhaseConfig.getTerminationConfig().getTerminationConfigList().get(0).getUnimprovedScoreDifferenceThreshold());
+    }
+
+    @Test
+    public void testPhasesKeepConfiguredMoves(){
+        AdaptiveTerminationPolicy policy = new AdaptiveTerminationPolicy(1000, 50, 10000);
+        LocalSearchPhaseConfig localSearchPhaseConfig = new LocalSearchPhaseConfig()
+            .withMoveSelectorConfig(new ChangeMoveSelectorConfig().withFilterClass(AvailableEmployeeChangeMoveFilter.class));
+        List<PhaseConfig> phaseConfigs = policy.getPhaseConfigList(localSearchPhaseConfig);
+        for (int i=1; i<=2; i++){
+            LocalSearchPhaseConfig phaseConfig = (LocalSearchPhaseConfig)phaseConfigs.get(i);
+            assertEquals(AvailableEmployeeChangeMoveFilter.class, phaseConfig.getMoveSelectorConfig().getFilterClass());
+            assertTrue(phaseConfig.getTerminationConfig() != null);
+        }
+        // the configured phase isn't changed
+        assertEquals(null, localSearchPhaseConfig.getTerminationConfig());
+    }
+}
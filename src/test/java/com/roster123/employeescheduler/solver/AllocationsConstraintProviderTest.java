@@ -6,6 +6,7 @@ import java.util.Arrays;
 import org.joda.time.DateTime;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
 import org.optaplanner.core.config.solver.SolverConfig;
 import org.optaplanner.core.config.solver.termination.TerminationConfig;
 import org.optaplanner.test.api.score.stream.ConstraintVerifier;
@@ -291,4 +292,28 @@ public class AllocationsConstraintProviderTest {
             .given(shift1, shift2, shift3, shift4, shift5, shift6, shift7, shift8, employee1, employee2)
             .penalizesBy(7);
     }
+
+    @Test
+    public void testUnallocatedShift() throws IllegalArgumentException, IllegalAccessException{
+        Employee employee = new Employee("employee1", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 0, null, 0);
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 9, 10, 0), new DateTime(2021, 7, 9, 11, 0));
+        Shift shift2 = new Shift("shift2", "online", new DateTime(2021, 7, 9, 10, 0), new DateTime(2021, 7, 9, 11, 0));
+        Shift shift3 = new Shift("shift3", "online", new DateTime(2021, 7, 9, 12, 0), new DateTime(2021, 7, 9, 13, 0));
+        ClassMemberExposer.setFieldValueByName(shift3, "employee", employee);
+        constraintVerifier.verifyThat(AllocationsConstraintProvider::unallocatedShift)
+            .given(shift1, shift2, shift3, employee)
+            .penalizesBy(2);
+    }
+
+    @Test
+    public void testUnallocatedShiftsOnlyPenalizedOnce() throws IllegalArgumentException, IllegalAccessException{
+        // unallocated shifts at the same time, without an employee who can do them, don't break the other constraints
+        Employee employee = new Employee("employee1", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, 0, 1);
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 9, 10, 0), new DateTime(2021, 7, 9, 11, 0));
+        Shift shift2 = new Shift("shift2", "online", new DateTime(2021, 7, 9, 10, 0), new DateTime(2021, 7, 9, 11, 0));
+        Shift shift3 = new Shift("shift3", "online", new DateTime(2021, 7, 9, 12, 0), new DateTime(2021, 7, 9, 13, 0));
+        constraintVerifier.verifyThat()
+            .given(shift1, shift2, shift3, employee)
+            .scores(HardMediumSoftScore.ofHard(-3));
+    }
 }
@@ -0,0 +1,128 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.collections4.ListUtils;
+import org.javatuples.Triplet;
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.optaplanner.core.api.score.ScoreManager;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.score.director.ScoreDirectorFactoryConfig;
+import org.optaplanner.core.config.solver.EnvironmentMode;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import com.roster123.employeescheduler.ClassMemberExposer;
+import com.roster123.employeescheduler.EmployeeSchedulingSystem;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class AllocationsIncrementalScoreCalculatorTest {
+    private static final int RANDOM_ALLOCATIONS_PER_EXAMPLE = 50;
+
+    /**
+     * get the solver config from the config file, using the chosen score calculation
+     * @param incremental whether to use AllocationsIncrementalScoreCalculator rather than AllocationsConstraintProvider
+     * @return solver config
+     */
+    static SolverConfig getSolverConfig(boolean incremental){
+        SolverConfig solverConfig = SolverConfig.createFromXmlResource("employeesSchedulingSolverConfig.xml");
+        if (incremental){
+            solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withIncrementalScoreCalculatorClass(AllocationsIncrementalScoreCalculator.class));
+        }
+        else{
+            solverConfig.setScoreDirectorFactoryConfig(new ScoreDirectorFactoryConfig().withConstraintProviderClass(AllocationsConstraintProvider.class));
+        }
+        return solverConfig;
+    }
+
+    /**
+     * load the unallocated shifts and employees of one of the command line examples
+     * @param inputFolderName name of the example folder in CSVs_command_line
+     * @return unsolved allocations
+     * @throws Exception
+     */
+    static Allocations loadExample(String inputFolderName) throws Exception{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve(inputFolderName);
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+
+        EmployeeSchedulingSystem employeeSchedulingSystem = new EmployeeSchedulingSystem();
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+        List<Shift> unallocatedShifts = ClassMemberExposer.getFieldValueByName(employeeSchedulingSystem, "unallocatedShifts");
+        List<Shift> allocatedShifts = ClassMemberExposer.getFieldValueByName(employeeSchedulingSystem, "allocatedShifts");
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(employeeSchedulingSystem, "employees");
+        return new Allocations(new ArrayList<>(ListUtils.union(unallocatedShifts, allocatedShifts)), employees);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"example1_significant_working_example", "example2_impossible_example", "example3_trivial_working_example", "example4_simple_working_example",
+                          "example5_simpler_working_example", "example6_even_simpler_working_example", "example7_complex_example"})
+    public void testScoreParityOnRandomAllocations(String inputFolderName) throws Exception{
+        Allocations allocations = loadExample(inputFolderName);
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(allocations, "employees");
+        ScoreManager<Allocations, HardMediumSoftScore> constraintProviderScoreManager = ScoreManager.create(SolverFactory.create(getSolverConfig(false)));
+        ScoreManager<Allocations, HardMediumSoftScore> incrementalScoreManager = ScoreManager.create(SolverFactory.create(getSolverConfig(true)));
+
+        Random random = new Random(inputFolderName.hashCode());
+        for (int i=0; i<RANDOM_ALLOCATIONS_PER_EXAMPLE; i++){
+            for (Shift shift: allocations.getShifts()){
+                // sometimes unallocated (when the random index is past the end of the employees)
+                int employeeIndex = random.nextInt(employees.size()+1);
+                shift.setEmployee((employeeIndex < employees.size())? employees.get(employeeIndex): null);
+            }
+            assertEquals(constraintProviderScoreManager.updateScore(allocations), incrementalScoreManager.updateScore(allocations));
+        }
+    }
+
+    @Test
+    public void testScoreParityAllConstraintsBroken() throws Exception{
+        // employee can only do "online" shifts from 9 to 12, can do at most 1 shift a week and wants at least 2
+        Employee employee = new Employee("employee1", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 3, 1, 2);
+        employee.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee1", "online", new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 12, 0)))));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            // overlapping, wrong type
+            new Shift("shift1", "in-person", new DateTime(2021, 7, 9, 9, 0), new DateTime(2021, 7, 9, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 9, 9, 30), new DateTime(2021, 7, 9, 11, 0)),
+            // outside availability, 3 hour gap on the same day
+            new Shift("shift3", "online", new DateTime(2021, 7, 9, 14, 0), new DateTime(2021, 7, 9, 15, 0)),
+            // next week, below minimum
+            new Shift("shift4", "online", new DateTime(2021, 7, 16, 9, 0), new DateTime(2021, 7, 16, 10, 0))));
+        for (Shift shift: shifts){
+            shift.setEmployee(employee);
+        }
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee)));
+
+        HardMediumSoftScore constraintProviderScore = ScoreManager.<Allocations, HardMediumSoftScore>create(SolverFactory.create(getSolverConfig(false))).updateScore(allocations);
+        HardMediumSoftScore incrementalScore = ScoreManager.<Allocations, HardMediumSoftScore>create(SolverFactory.create(getSolverConfig(true))).updateScore(allocations);
+        assertTrue(constraintProviderScore.getHardScore() < 0);
+        assertTrue(constraintProviderScore.getMediumScore() < 0);
+        assertTrue(constraintProviderScore.getSoftScore() < 0);
+        assertEquals(constraintProviderScore, incrementalScore);
+    }
+
+    @Test
+    public void testIncrementalScoresMatchWhilstSolving() throws Exception{
+        // FULL_ASSERT recalculates the score from scratch with the constraint provider after every move, failing on any difference
+        SolverConfig solverConfig = getSolverConfig(true)
+            .withEnvironmentMode(EnvironmentMode.FULL_ASSERT)
+            .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(10L));
+        solverConfig.getScoreDirectorFactoryConfig()
+            .withAssertionScoreDirectorFactory(new ScoreDirectorFactoryConfig().withConstraintProviderClass(AllocationsConstraintProvider.class));
+
+        Allocations solvedAllocations = SolverFactory.<Allocations>create(solverConfig).buildSolver().solve(loadExample("example4_simple_working_example"));
+        assertTrue(solvedAllocations.getScore().isFeasible());
+    }
+}
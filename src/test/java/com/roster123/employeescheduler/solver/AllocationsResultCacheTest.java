@@ -0,0 +1,105 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.roster123.employeescheduler.domain.*;
+
+public class AllocationsResultCacheTest {
+    @TempDir
+    Path temporaryFolder;
+
+    private static List<Employee> getEmployees(){
+        return new ArrayList<>(Arrays.asList(new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 3, 5, 1),
+            new Employee("cat124", "Jane Smith", "+61400578922", "someemail2@email.com", 3, 5, 1)));
+    }
+
+    private static List<Shift> getShifts(){
+        return new ArrayList<>(Arrays.asList(new Shift("shift1", "online", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 11, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 3, 12, 0), new DateTime(2021, 7, 3, 14, 0)),
+            new Shift("shift3", "online", new DateTime(2021, 7, 3, 15, 0), new DateTime(2021, 7, 3, 17, 0))));
+    }
+
+    @Test
+    public void testKey(){
+        List<Employee> employees = getEmployees();
+        List<Shift> shifts = getShifts();
+        String key = AllocationsResultCache.getKey(employees, shifts, "settings");
+        assertEquals(64, key.length());
+        // equal rosters have the same key
+        assertEquals(key, AllocationsResultCache.getKey(getEmployees(), getShifts(), "settings"));
+        assertNotEquals(key, AllocationsResultCache.getKey(employees, shifts, "other settings"));
+        assertNotEquals(key, AllocationsResultCache.getKey(employees, shifts.subList(0, 2), "settings"));
+        // starting allocations change the key
+        shifts.get(0).setEmployee(employees.get(1));
+        assertNotEquals(key, AllocationsResultCache.getKey(employees, shifts, "settings"));
+    }
+
+    @Test
+    public void testPutThenGet() throws IOException{
+        List<Employee> employees = getEmployees();
+        List<Shift> shifts = getShifts();
+        AllocationsResultCache resultCache = new AllocationsResultCache(temporaryFolder.resolve("cache"), 10, Duration.ofDays(1));
+        String key = AllocationsResultCache.getKey(employees, shifts, "settings");
+        assertNull(resultCache.get(key, employees, shifts.size()));
+
+        shifts.get(0).setEmployee(employees.get(1));
+        shifts.get(2).setEmployee(employees.get(0));
+        resultCache.put(key, employees, shifts);
+        // the same roster loaded again gets the employees at the same indices
+        List<Employee> otherEmployees = getEmployees();
+        assertEquals(Arrays.asList(otherEmployees.get(1), null, otherEmployees.get(0)), resultCache.get(key, otherEmployees, shifts.size()));
+        // a different number of shifts can't be the same roster
+        assertNull(resultCache.get(key, otherEmployees, 2));
+    }
+
+    @Test
+    public void testExpiredEntryEvicted() throws IOException{
+        List<Employee> employees = getEmployees();
+        List<Shift> shifts = getShifts();
+        AllocationsResultCache resultCache = new AllocationsResultCache(temporaryFolder, 10, Duration.ofHours(1));
+        String key = AllocationsResultCache.getKey(employees, shifts, "settings");
+        resultCache.put(key, employees, shifts);
+        Files.setLastModifiedTime(resultCache.getEntryPath(key), FileTime.from(Instant.now().minus(Duration.ofHours(2))));
+        assertNull(resultCache.get(key, employees, shifts.size()));
+        assertFalse(Files.exists(resultCache.getEntryPath(key)));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() throws IOException{
+        List<Employee> employees = getEmployees();
+        List<Shift> shifts = getShifts();
+        AllocationsResultCache resultCache = new AllocationsResultCache(temporaryFolder, 2, Duration.ofDays(1));
+        String key1 = AllocationsResultCache.getKey(employees, shifts, "settings1");
+        String key2 = AllocationsResultCache.getKey(employees, shifts, "settings2");
+        String key3 = AllocationsResultCache.getKey(employees, shifts, "settings3");
+        resultCache.put(key1, employees, shifts);
+        resultCache.put(key2, employees, shifts);
+        Files.setLastModifiedTime(resultCache.getEntryPath(key1), FileTime.from(Instant.now().minus(Duration.ofMinutes(2))));
+        Files.setLastModifiedTime(resultCache.getEntryPath(key2), FileTime.from(Instant.now().minus(Duration.ofMinutes(1))));
+        // using the first entry makes the second least recently used
+        assertEquals(Arrays.asList(null, null, null), resultCache.get(key1, employees, shifts.size()));
+
+        resultCache.put(key3, employees, shifts);
+        assertTrue(Files.exists(resultCache.getEntryPath(key1)));
+        assertFalse(Files.exists(resultCache.getEntryPath(key2)));
+        assertTrue(Files.exists(resultCache.getEntryPath(key3)));
+    }
+}
@@ -0,0 +1,56 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.ChangeMove;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class AvailableEmployeeChangeMoveFilterTest {
+    /**
+     * helper to create an employee available for shifts of the type from 9 to 17 on 12/07/2021
+     * @param employeeId
+     * @param type
+     * @return employee
+     */
+    private static Employee getEmployee(String employeeId, String type){
+        Employee employee = new Employee(employeeId, "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, null, 0);
+        employee.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader(employeeId, type, new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 17, 0)))));
+        return employee;
+    }
+
+    private static boolean accept(Shift shift, Employee toEmployee){
+        return new AvailableEmployeeChangeMoveFilter().accept(null, new ChangeMove<Allocations>(shift, null, toEmployee));
+    }
+
+    @Test
+    public void testAvailableEmployeeAccepted(){
+        Shift shift = new Shift("shift1", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0));
+        assertTrue(accept(shift, getEmployee("employee1", "online")));
+    }
+
+    @Test
+    public void testUnallocatingAccepted(){
+        Shift shift = new Shift("shift1", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0));
+        assertTrue(accept(shift, null));
+    }
+
+    @Test
+    public void testEmployeeUnavailableByTimeRejected(){
+        Shift shift = new Shift("shift1", "online", new DateTime(2021, 7, 12, 16, 0), new DateTime(2021, 7, 12, 18, 0));
+        assertFalse(accept(shift, getEmployee("employee1", "online")));
+    }
+
+    @Test
+    public void testEmployeeUnavailableByTypeRejected(){
+        Shift shift = new Shift("shift1", "in-person", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0));
+        assertFalse(accept(shift, getEmployee("employee1", "online")));
+    }
+}
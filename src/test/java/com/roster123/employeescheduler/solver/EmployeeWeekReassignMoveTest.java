@@ -0,0 +1,144 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.impl.heuristic.move.Move;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class EmployeeWeekReassignMoveTest {
+    /**
+     * helper to create an employee available for online shifts from 9 to 17 on the days
+     * @param employeeId
+     * @param days days of July 2021
+     * @return employee
+     */
+    private static Employee getEmployee(String employeeId, int... days){
+        Employee employee = new Employee(employeeId, "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, null, 0);
+        List<AvailabilityLoader> availabilities = new ArrayList<>();
+        for (int day: days){
+            availabilities.add(new AvailabilityLoader(employeeId, "online", new DateTime(2021, 7, day, 9, 0), new DateTime(2021, 7, day, 17, 0)));
+        }
+        employee.addAvailabilities(availabilities);
+        return employee;
+    }
+
+    @Test
+    public void testMoveAndUndo(){
+        // 12/07/2021 and 13/07/2021 are in the same week, 19/07/2021 is in the next week
+        Employee employee1 = getEmployee("employee1", 12, 13, 19);
+        // can't do the shift on 13/07/2021, so the score changes
+        Employee employee2 = getEmployee("employee2", 12, 19);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee1, false), SolverTestFixtures.getShift("shift3", 19, employee1, false)));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1, employee2)));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = SolverTestFixtures.getScoreDirector(allocations);
+        HardMediumSoftScore startingScore = scoreDirector.calculateScore();
+        List<Shift> workingShifts = scoreDirector.getWorkingSolution().getShifts();
+
+        EmployeeWeekReassignMove move = new EmployeeWeekReassignMove(workingShifts.subList(0, 2), employee1, employee2);
+        assertTrue(move.isMoveDoable(scoreDirector));
+        Move<Allocations> undoMove = move.doMove(scoreDirector);
+        assertEquals(employee2, workingShifts.get(0).getEmployee());
+        assertEquals(employee2, workingShifts.get(1).getEmployee());
+        assertEquals(employee1, workingShifts.get(2).getEmployee());
+        assertNotEquals(startingScore, scoreDirector.calculateScore());
+
+        undoMove.doMove(scoreDirector);
+        assertEquals(employee1, workingShifts.get(0).getEmployee());
+        assertEquals(employee1, workingShifts.get(1).getEmployee());
+        assertEquals(startingScore, scoreDirector.calculateScore());
+    }
+
+    @Test
+    public void testMoveToSameEmployeeNotDoable(){
+        Employee employee1 = getEmployee("employee1", 12);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false)));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1)));
+        assertFalse(new EmployeeWeekReassignMove(shifts, employee1, employee1).isMoveDoable(SolverTestFixtures.getScoreDirector(allocations)));
+    }
+
+    @Test
+    public void testRandomMovesReassignWholeEmployeeWeek(){
+        Employee employee1 = getEmployee("employee1", 12, 13, 19);
+        Employee employee2 = getEmployee("employee2", 12, 13, 19);
+        Employee employee3 = getEmployee("employee3", 12, 13, 19);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee1, false),
+            SolverTestFixtures.getShift("shift3", 19, employee1, false), SolverTestFixtures.getShift("shift4", 13, employee2, false), SolverTestFixtures.getShift("shift5", 12, employee1, true),
+            SolverTestFixtures.getShift("shift6", 13, null, false)));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1, employee2, employee3)));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = SolverTestFixtures.getScoreDirector(allocations);
+        List<Shift> workingShifts = scoreDirector.getWorkingSolution().getShifts();
+
+        EmployeeWeekReassignMoveIteratorFactory moveIteratorFactory = new EmployeeWeekReassignMoveIteratorFactory();
+        // 3 employee-weeks with shifts which aren't pinned, each to 2 other employees
+        assertEquals(6, moveIteratorFactory.getSize(scoreDirector));
+        Iterator<EmployeeWeekReassignMove> moveIterator = moveIteratorFactory.createRandomMoveIterator(scoreDirector, new Random(0));
+        for (int i=0; i<50; i++){
+            assertTrue(moveIterator.hasNext());
+            EmployeeWeekReassignMove move = moveIterator.next();
+            assertNotEquals(move.getFromEmployee(), move.getToEmployee());
+            // never pinned or unallocated shifts
+            assertFalse(move.getShifts().contains(workingShifts.get(4)));
+            assertFalse(move.getShifts().contains(workingShifts.get(5)));
+            if (move.getFromEmployee().equals(employee2)){
+                assertEquals(Arrays.asList(workingShifts.get(3)), move.getShifts());
+            }
+            else if (move.getShifts().contains(workingShifts.get(2))){
+                assertEquals(Arrays.asList(workingShifts.get(2)), move.getShifts());
+            }
+            else{
+                // all of employee1's shifts in the week of 12/07/2021
+                assertEquals(Arrays.asList(workingShifts.get(0), workingShifts.get(1)), move.getShifts());
+            }
+        }
+    }
+
+    @Test
+    public void testOriginalMovesEnumerateEveryEmployeeWeekToEveryOtherEmployee(){
+        Employee employee1 = getEmployee("employee1", 12, 13, 19);
+        Employee employee2 = getEmployee("employee2", 12, 13, 19);
+        Employee employee3 = getEmployee("employee3", 12, 13, 19);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee1, false),
+            SolverTestFixtures.getShift("shift3", 19, employee1, false), SolverTestFixtures.getShift("shift4", 13, employee2, false), SolverTestFixtures.getShift("shift5", 12, employee1, true),
+            SolverTestFixtures.getShift("shift6", 13, null, false)));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1, employee2, employee3)));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = SolverTestFixtures.getScoreDirector(allocations);
+
+        // pinned and unallocated shifts are never moved
+        List<String> moves = new ArrayList<>();
+        Iterator<EmployeeWeekReassignMove> moveIterator = new EmployeeWeekReassignMoveIteratorFactory().createOriginalMoveIterator(scoreDirector);
+        while (moveIterator.hasNext()){
+            EmployeeWeekReassignMove move = moveIterator.next();
+            assertNotEquals(move.getFromEmployee(), move.getToEmployee());
+            moves.add(move.getShifts().stream().map(Shift::getShiftId).reduce((a, b) -> a+","+b).get()+" -> "+move.getToEmployee().getEmployeeId());
+        }
+        assertEquals(Arrays.asList("shift1,shift2 -> employee2", "shift1,shift2 -> employee3", "shift3 -> employee2", "shift3 -> employee3",
+            "shift4 -> employee1", "shift4 -> employee3"), moves);
+    }
+
+    @Test
+    public void testFilterRejectsEmployeeUnavailableForAnyShift(){
+        Employee employee1 = getEmployee("employee1", 12, 13);
+        Employee employee2 = getEmployee("employee2", 12, 13);
+        // can't do the shift on 13/07/2021
+        Employee employee3 = getEmployee("employee3", 12);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee1, false)));
+        EmployeeWeekReassignMoveFilter filter = new EmployeeWeekReassignMoveFilter();
+        assertTrue(filter.accept(null, new EmployeeWeekReassignMove(shifts, employee1, employee2)));
+        assertFalse(filter.accept(null, new EmployeeWeekReassignMove(shifts, employee1, employee3)));
+    }
+}
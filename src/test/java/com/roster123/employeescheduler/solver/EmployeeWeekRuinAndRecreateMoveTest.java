@@ -0,0 +1,146 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.impl.heuristic.move.Move;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class EmployeeWeekRuinAndRecreateMoveTest {
+    /**
+     * the week of 12/07/2021, as year*100+week
+     */
+    private static final int WEEK = 202128;
+
+    /**
+     * helper to create an employee available for online shifts all of the weeks of 12/07/2021 and 19/07/2021
+     * @param employeeId
+     * @param maxWeeklyShifts
+     * @param minWeeklyShifts
+     * @return employee
+     */
+    private static Employee getEmployee(String employeeId, Integer maxWeeklyShifts, int minWeeklyShifts){
+        Employee employee = new Employee(employeeId, "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, maxWeeklyShifts, minWeeklyShifts);
+        employee.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader(employeeId, "online", new DateTime(2021, 7, 12, 0, 0), new DateTime(2021, 7, 26, 0, 0)))));
+        return employee;
+    }
+
+    @Test
+    public void testRecreatePrefersEmployeesBelowMinimum(){
+        Employee employee1 = getEmployee("employee1", null, 0);
+        Employee employee2 = getEmployee("employee2", null, 2);
+        List<Shift> ruinedShifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, null, false), SolverTestFixtures.getShift("shift2", 13, null, false), SolverTestFixtures.getShift("shift3", 14, null, false)));
+        // employee2 gets shifts until their minimum is reached, then the employee with fewest shifts gets the rest
+        assertEquals(Arrays.asList(employee2, employee2, employee1),
+            EmployeeWeekRuinAndRecreateMoveIteratorFactory.recreate(ruinedShifts, ruinedShifts, new ArrayList<>(Arrays.asList(employee1, employee2)), WEEK));
+    }
+
+    @Test
+    public void testRecreateKeepsWeeklyMaximumAndAvoidsOverlaps(){
+        Employee employee1 = getEmployee("employee1", 1, 0);
+        Employee employee2 = getEmployee("employee2", null, 0);
+        // employee1 keeps a shift this week (at their maximum), employee2 keeps a shift at the same time as shift2
+        Shift keptShift1 = SolverTestFixtures.getShift("kept1", 15, employee1, false);
+        Shift keptShift2 = SolverTestFixtures.getShift("kept2", 13, employee2, false);
+        List<Shift> ruinedShifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee1, false)));
+        List<Shift> shifts = new ArrayList<>(ruinedShifts);
+        shifts.add(keptShift1);
+        shifts.add(keptShift2);
+        List<Employee> toEmployees = EmployeeWeekRuinAndRecreateMoveIteratorFactory.recreate(ruinedShifts, shifts, new ArrayList<>(Arrays.asList(employee1, employee2)), WEEK);
+        assertEquals(employee2, toEmployees.get(0));
+        // nobody can do it without breaking a hard constraint
+        assertNull(toEmployees.get(1));
+    }
+
+    @Test
+    public void testMoveAndUndo(){
+        Employee employee1 = getEmployee("employee1", null, 0);
+        Employee employee2 = getEmployee("employee2", null, 2);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, null, false)));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1, employee2)));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = SolverTestFixtures.getScoreDirector(allocations);
+        HardMediumSoftScore startingScore = scoreDirector.calculateScore();
+        List<Shift> workingShifts = scoreDirector.getWorkingSolution().getShifts();
+
+        EmployeeWeekRuinAndRecreateMove move = new EmployeeWeekRuinAndRecreateMove(workingShifts, Arrays.asList(employee1, null), Arrays.asList(employee2, employee2));
+        assertTrue(move.isMoveDoable(scoreDirector));
+        Move<Allocations> undoMove = move.doMove(scoreDirector);
+        assertEquals(employee2, workingShifts.get(0).getEmployee());
+        assertEquals(employee2, workingShifts.get(1).getEmployee());
+        assertEquals(HardMediumSoftScore.ZERO, scoreDirector.calculateScore());
+
+        undoMove.doMove(scoreDirector);
+        assertEquals(employee1, workingShifts.get(0).getEmployee());
+        assertNull(workingShifts.get(1).getEmployee());
+        assertEquals(startingScore, scoreDirector.calculateScore());
+
+        assertFalse(new EmployeeWeekRuinAndRecreateMove(workingShifts, Arrays.asList(employee1, null), Arrays.asList(employee1, null)).isMoveDoable(scoreDirector));
+    }
+
+    @Test
+    public void testRandomMovesRuinEmployeeWeeks(){
+        Employee employee1 = getEmployee("employee1", null, 0);
+        Employee employee2 = getEmployee("employee2", null, 0);
+        Shift pinnedShift = new Shift("pinned", "online", new DateTime(2021, 7, 14, 10, 0), new DateTime(2021, 7, 14, 12, 0), employee1, true);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee2, false),
+            SolverTestFixtures.getShift("shift3", 15, null, false), SolverTestFixtures.getShift("shift4", 19, employee1, false), pinnedShift));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1, employee2)));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = SolverTestFixtures.getScoreDirector(allocations);
+        List<Shift> workingShifts = scoreDirector.getWorkingSolution().getShifts();
+
+        Iterator<EmployeeWeekRuinAndRecreateMove> moveIterator = new EmployeeWeekRuinAndRecreateMoveIteratorFactory().createRandomMoveIterator(scoreDirector, new Random(0));
+        for (int i=0; i<50; i++){
+            assertTrue(moveIterator.hasNext());
+            EmployeeWeekRuinAndRecreateMove move = moveIterator.next();
+            assertFalse(move.getShifts().contains(pinnedShift));
+            if (move.getShifts().contains(workingShifts.get(3))){
+                // the only shift in the week of 19/07/2021
+                assertEquals(Arrays.asList(workingShifts.get(3)), move.getShifts());
+            }
+            else{
+                // always the week's unallocated shift, along with the shifts of the ruined employees
+                assertTrue(move.getShifts().contains(workingShifts.get(2)));
+                assertTrue(move.getShifts().contains(workingShifts.get(0)) || move.getShifts().contains(workingShifts.get(1)));
+                // every shift can be recreated, since the employees are available all week
+                assertFalse(move.getToEmployees().contains(null));
+            }
+        }
+    }
+
+    @Test
+    public void testOriginalMovesRuinEveryEmployeeWeek(){
+        Employee employee1 = getEmployee("employee1", null, 0);
+        Employee employee2 = getEmployee("employee2", null, 0);
+        Shift pinnedShift = new Shift("pinned", "online", new DateTime(2021, 7, 14, 10, 0), new DateTime(2021, 7, 14, 12, 0), employee1, true);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 12, employee1, false), SolverTestFixtures.getShift("shift2", 13, employee2, false),
+            SolverTestFixtures.getShift("shift3", 15, null, false), SolverTestFixtures.getShift("shift4", 19, employee1, false), pinnedShift));
+        Allocations allocations = new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1, employee2)));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = SolverTestFixtures.getScoreDirector(allocations);
+
+        EmployeeWeekRuinAndRecreateMoveIteratorFactory factory = new EmployeeWeekRuinAndRecreateMoveIteratorFactory();
+        // 3 employee-weeks with shifts which aren't pinned
+        assertEquals(3, factory.getSize(scoreDirector));
+        List<List<String>> moveShiftIds = new ArrayList<>();
+        Iterator<EmployeeWeekRuinAndRecreateMove> moveIterator = factory.createOriginalMoveIterator(scoreDirector);
+        while (moveIterator.hasNext()){
+            moveShiftIds.add(moveIterator.next().getShifts().stream().map(Shift::getShiftId).collect(Collectors.toList()));
+        }
+        // each employee-week along with the week's unallocated shift
+        assertEquals(Arrays.asList(Arrays.asList("shift1", "shift3"), Arrays.asList("shift2", "shift3"), Arrays.asList("shift4")), moveShiftIds);
+    }
+}
@@ -0,0 +1,150 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.roster123.employeescheduler.ClassMemberExposer;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class FeasibilityAnalyserTest {
+    private static List<String> getShiftIds(List<Shift> shifts){
+        return shifts.stream().map(Shift::getShiftId).collect(Collectors.toList());
+    }
+
+    @Test
+    public void testImpossibleExampleUncoverableShifts() throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample("example2_impossible_example");
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(allocations, "employees");
+        FeasibilityReport report = new FeasibilityAnalyser(allocations.getShifts(), employees).analyse();
+        assertTrue(report.isProvablyInfeasible());
+        // nobody is available for in-person shifts
+        assertEquals(Arrays.asList("shift123", "shift245", "shift248"), getShiftIds(report.getUncoverableShifts()));
+        assertTrue(report.toString().contains("shift123, shift245, shift248"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"example1_significant_working_example", "example3_trivial_working_example", "example4_simple_working_example",
+                          "example5_simpler_working_example", "example6_even_simpler_working_example", "example7_complex_example"})
+    public void testWorkingExamplesNotProvablyInfeasible(String inputFolderName) throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample(inputFolderName);
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(allocations, "employees");
+        FeasibilityReport report = new FeasibilityAnalyser(allocations.getShifts(), employees).analyse();
+        assertFalse(report.isProvablyInfeasible());
+        assertEquals("no infeasibility found before solving", report.toString());
+    }
+
+    @Test
+    public void testAboveWeeklyMaximum(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", 1);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 13, 9, 0), new DateTime(2021, 7, 13, 10, 0))));
+        FeasibilityReport report = new FeasibilityAnalyser(shifts, new ArrayList<>(Arrays.asList(employee))).analyse();
+        assertTrue(report.isProvablyInfeasible());
+        assertTrue(report.getUncoverableShifts().isEmpty());
+        assertEquals(1, report.getShortfalls().size());
+        assertTrue(report.getShortfalls().get(0).startsWith("week 28 of 2021: only 1 of 2 shifts"));
+    }
+
+    @Test
+    public void testNoWeeklyMaximum(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 13, 9, 0), new DateTime(2021, 7, 13, 10, 0)),
+            new Shift("shift3", "online", new DateTime(2021, 7, 14, 9, 0), new DateTime(2021, 7, 14, 10, 0))));
+        assertFalse(new FeasibilityAnalyser(shifts, new ArrayList<>(Arrays.asList(employee))).analyse().isProvablyInfeasible());
+    }
+
+    @Test
+    public void testShiftsAtSameTime(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0))));
+        FeasibilityReport report = new FeasibilityAnalyser(shifts, new ArrayList<>(Arrays.asList(employee))).analyse();
+        assertTrue(report.isProvablyInfeasible());
+        assertEquals(1, report.getShortfalls().size());
+        assertTrue(report.getShortfalls().get(0).contains("only 1 of 2 shifts at the same time"));
+    }
+
+    @Test
+    public void testShiftsAtSameTimeOnlyWhilstNotEnded(){
+        // shift2 and shift3 both overlap shift1 but not each other, so 2 employees are enough, whilst shift4 makes 3 at the same time at 11:30
+        List<Employee> employees = new ArrayList<>(Arrays.asList(SolverTestFixtures.getOnlineEmployee("employee1", null), SolverTestFixtures.getOnlineEmployee("employee2", null)));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 13, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 11, 0)),
+            new Shift("shift3", "online", new DateTime(2021, 7, 12, 11, 0), new DateTime(2021, 7, 12, 12, 0))));
+        assertFalse(new FeasibilityAnalyser(shifts, employees).analyse().isProvablyInfeasible());
+
+        shifts.add(new Shift("shift4", "online", new DateTime(2021, 7, 12, 11, 30), new DateTime(2021, 7, 12, 12, 30)));
+        FeasibilityReport report = new FeasibilityAnalyser(shifts, employees).analyse();
+        assertEquals(1, report.getShortfalls().size());
+        assertTrue(report.getShortfalls().get(0).contains("only 2 of 3 shifts at the same time"));
+    }
+
+    @Test
+    public void testBackToBackShiftsNotAtSameTime(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 11, 0))));
+        assertFalse(new FeasibilityAnalyser(shifts, new ArrayList<>(Arrays.asList(employee))).analyse().isProvablyInfeasible());
+    }
+
+    @Test
+    public void testMatchingReallocatesShifts(){
+        // employee1 can do either shift, but employee2 can only do shift1 - only covered if shift1 is moved to employee2
+        Employee employee1 = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        Employee employee2 = new Employee("employee2", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 0, null, 0);
+        employee2.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee2", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)))));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 9, 30), new DateTime(2021, 7, 12, 10, 30))));
+        assertFalse(new FeasibilityAnalyser(shifts, new ArrayList<>(Arrays.asList(employee1, employee2))).analyse().isProvablyInfeasible());
+    }
+
+    @Test
+    public void testPinnedToUnavailableEmployee(){
+        Employee employee1 = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        Employee employee2 = new Employee("employee2", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 0, null, 0);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0), employee2, true)));
+        FeasibilityReport report = new FeasibilityAnalyser(shifts, new ArrayList<>(Arrays.asList(employee1, employee2))).analyse();
+        assertEquals(Arrays.asList("shift1"), getShiftIds(report.getUncoverableShifts()));
+    }
+
+    @Test
+    public void testLongAugmentingPath(){
+        // shift i can be done by employee i or i+1 (each doing at most 1 shift), and the last shift only by employee 0,
+        // so covering the last shift moves every other shift along to the next employee (far deeper than could be recursed)
+        int chainLength = 20000;
+        List<Employee> employees = new ArrayList<>();
+        for (int j=0; j<=chainLength; j++){
+            employees.add(SolverTestFixtures.getOnlineEmployee("employee"+j, 1));
+        }
+        List<Shift> shifts = new ArrayList<>();
+        int[][] eligibleEmployees = new int[chainLength+1][];
+        DateTime start = new DateTime(2021, 7, 12, 9, 0);
+        for (int i=0; i<=chainLength; i++){
+            // back to back, so no 2 shifts are at the same time
+            shifts.add(new Shift("shift"+i, "online", start.plusSeconds(10*i), start.plusSeconds(10*(i+1))));
+            eligibleEmployees[i] = (i < chainLength)? new int[]{i, i+1}: new int[]{0};
+        }
+        assertFalse(new FeasibilityAnalyser(shifts, employees, eligibleEmployees).analyse().isProvablyInfeasible());
+    }
+}
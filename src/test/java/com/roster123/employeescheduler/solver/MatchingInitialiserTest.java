@@ -0,0 +1,92 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.optaplanner.core.api.score.ScoreManager;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+
+import com.roster123.employeescheduler.ClassMemberExposer;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class MatchingInitialiserTest {
+    @ParameterizedTest
+    @ValueSource(strings={"example1_significant_working_example", "example3_trivial_working_example", "example4_simple_working_example",
+                          "example5_simpler_working_example", "example6_even_simpler_working_example", "example7_complex_example"})
+    public void testWorkingExamplesStartFeasible(String inputFolderName) throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample(inputFolderName);
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(allocations, "employees");
+        assertEquals(allocations.getShifts().size(), new MatchingInitialiser(allocations.getShifts(), employees).initialise());
+
+        HardMediumSoftScore score = ScoreManager.<Allocations, HardMediumSoftScore>create(SolverFactory.create(AllocationsIncrementalScoreCalculatorTest.getSolverConfig(true))).updateScore(allocations);
+        assertEquals(0, score.getHardScore());
+    }
+
+    @Test
+    public void testShiftsAtSameTimeGoToDifferentEmployees(){
+        List<Employee> employees = new ArrayList<>(Arrays.asList(SolverTestFixtures.getOnlineEmployee("employee1", null), SolverTestFixtures.getOnlineEmployee("employee2", null)));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0))));
+        assertEquals(2, new MatchingInitialiser(shifts, employees).initialise());
+        assertNotEquals(shifts.get(0).getEmployee(), shifts.get(1).getEmployee());
+    }
+
+    @Test
+    public void testWeeklyMaximumRespected(){
+        List<Employee> employees = new ArrayList<>(Arrays.asList(SolverTestFixtures.getOnlineEmployee("employee1", 1)));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 13, 9, 0), new DateTime(2021, 7, 13, 10, 0))));
+        // the shift which would take the employee above their maximum is left for the construction heuristic
+        assertEquals(1, new MatchingInitialiser(shifts, employees).initialise());
+        assertSame(employees.get(0), shifts.get(0).getEmployee());
+        assertNull(shifts.get(1).getEmployee());
+    }
+
+    @Test
+    public void testShiftMovedToMakeRoom(){
+        // employee2 is only available for shift1, so shift2 can only be allocated by moving shift1 from employee1 to employee2
+        Employee employee1 = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        Employee employee2 = new Employee("employee2", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 0, null, 0);
+        employee2.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee2", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)))));
+        Employee employee3 = SolverTestFixtures.getOnlineEmployee("employee3", null);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 9, 30), new DateTime(2021, 7, 12, 10, 30))));
+        // employee3 already has a shift at the same time
+        Shift existingShift = new Shift("shift3", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0));
+        existingShift.setEmployee(employee3);
+        shifts.add(existingShift);
+
+        // shift1 has the fewest options (employee1 or employee2) along with shift2 (employee1 or employee3, who is busy), so is matched first to employee1
+        assertEquals(2, new MatchingInitialiser(shifts, new ArrayList<>(Arrays.asList(employee1, employee2, employee3))).initialise());
+        assertSame(employee2, shifts.get(0).getEmployee());
+        assertSame(employee1, shifts.get(1).getEmployee());
+        assertSame(employee3, existingShift.getEmployee());
+    }
+
+    @Test
+    public void testPinnedShiftKept(){
+        Employee employee1 = SolverTestFixtures.getOnlineEmployee("employee1", null);
+        Employee employee2 = SolverTestFixtures.getOnlineEmployee("employee2", null);
+        Shift pinnedShift = new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0), employee1, true);
+        Shift shift = new Shift("shift2", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0));
+        assertEquals(1, new MatchingInitialiser(new ArrayList<>(Arrays.asList(pinnedShift, shift)), new ArrayList<>(Arrays.asList(employee1, employee2))).initialise());
+        assertSame(employee1, pinnedShift.getEmployee());
+        assertSame(employee2, shift.getEmployee());
+    }
+}
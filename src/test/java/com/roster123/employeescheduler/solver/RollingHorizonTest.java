@@ -0,0 +1,82 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+
+import com.roster123.employeescheduler.domain.*;
+
+public class RollingHorizonTest {
+    private static final Employee EMPLOYEE = new Employee("employee1", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, null, 0);
+
+    /**
+     * helper to create a shift on the Monday of each of 5 weeks, from 5/07/2021 to 2/08/2021
+     * @return shifts
+     */
+    private static List<Shift> getWeeklyShifts(){
+        List<Shift> shifts = new ArrayList<>();
+        for (int week=0; week<4; week++){
+            shifts.add(SolverTestFixtures.getShift("shift"+week, 5+7*week));
+        }
+        shifts.add(new Shift("shift4", "online", new DateTime(2021, 8, 2, 10, 0), new DateTime(2021, 8, 2, 12, 0)));
+        return shifts;
+    }
+
+    @Test
+    public void testWindows(){
+        RollingHorizon rollingHorizon = new RollingHorizon(getWeeklyShifts(), 2, 1);
+        assertEquals(4, rollingHorizon.getWindowCount());
+        assertEquals(Arrays.asList(202127, 202128), rollingHorizon.getWindowWeeks(0));
+        assertEquals(Arrays.asList(202128, 202129), rollingHorizon.getWindowWeeks(1));
+        assertEquals(Arrays.asList(202130, 202131), rollingHorizon.getWindowWeeks(3));
+
+        assertEquals(3, new RollingHorizon(getWeeklyShifts(), 2, 0).getWindowCount());
+        // 4-week windows overlapping by 3 weeks, so the 5 weeks are in 2 windows
+        assertEquals(2, new RollingHorizon(getWeeklyShifts(), 4, 3).getWindowCount());
+        assertEquals(1, new RollingHorizon(getWeeklyShifts(), 5, 0).getWindowCount());
+    }
+
+    @Test
+    public void testWindowShiftsPinEarlierShiftsRunningIntoWindow(){
+        List<Shift> shifts = getWeeklyShifts();
+        // Sunday night to Monday morning, running into the week of 12/07/2021
+        Shift overnightShift = new Shift("overnight", "online", new DateTime(2021, 7, 11, 23, 0), new DateTime(2021, 7, 12, 1, 0));
+        overnightShift.setEmployee(EMPLOYEE);
+        shifts.add(overnightShift);
+        shifts.get(0).setEmployee(EMPLOYEE);
+        RollingHorizon rollingHorizon = new RollingHorizon(shifts, 1, 0);
+
+        List<Shift> windowShifts = rollingHorizon.getWindowShifts(1);
+        assertEquals(2, windowShifts.size());
+        assertSame(shifts.get(1), windowShifts.get(0));
+        // earlier shift is a pinned copy, whilst shift0 (not running into the window) is left out
+        Shift frozenShift = windowShifts.get(1);
+        assertNotSame(overnightShift, frozenShift);
+        assertEquals("overnight", frozenShift.getShiftId());
+        assertTrue(frozenShift.isPinned());
+        assertEquals(EMPLOYEE, frozenShift.getEmployee());
+    }
+
+    @Test
+    public void testApplyWindowAllocations(){
+        List<Shift> shifts = getWeeklyShifts();
+        RollingHorizon rollingHorizon = new RollingHorizon(shifts, 1, 0);
+        List<Shift> solvedShifts = new ArrayList<>();
+        for (Shift shift: rollingHorizon.getWindowShifts(2)){
+            solvedShifts.add(new Shift(shift.getShiftId(), shift.getType(), shift.getStart(), shift.getEnd(), EMPLOYEE, false));
+        }
+        rollingHorizon.applyWindowAllocations(solvedShifts);
+        assertEquals(EMPLOYEE, shifts.get(2).getEmployee());
+        assertNull(shifts.get(1).getEmployee());
+        assertNull(shifts.get(3).getEmployee());
+    }
+}
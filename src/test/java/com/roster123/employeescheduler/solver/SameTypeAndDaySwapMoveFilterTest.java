@@ -0,0 +1,74 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.impl.heuristic.selector.move.generic.SwapMove;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class SameTypeAndDaySwapMoveFilterTest {
+    /**
+     * helper to create an employee available for shifts of all types from 9 to 17 on 12/07/2021 and 13/07/2021
+     * @param employeeId
+     * @return employee
+     */
+    private static Employee getEmployee(String employeeId){
+        Employee employee = new Employee(employeeId, "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, null, 0);
+        employee.addAvailabilities(new ArrayList<>(Arrays.asList(
+            new AvailabilityLoader(employeeId, "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 17, 0)),
+            new AvailabilityLoader(employeeId, "in-person", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 17, 0)),
+            new AvailabilityLoader(employeeId, "online", new DateTime(2021, 7, 13, 9, 0), new DateTime(2021, 7, 13, 17, 0)))));
+        return employee;
+    }
+
+    private static boolean accept(Shift leftShift, Shift rightShift){
+        return new SameTypeAndDaySwapMoveFilter().accept(null, new SwapMove<Allocations>(Collections.emptyList(), leftShift, rightShift));
+    }
+
+    @Test
+    public void testSameTypeAndDayAccepted(){
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0), getEmployee("employee1"), false);
+        Shift shift2 = new Shift("shift2", "online", new DateTime(2021, 7, 12, 14, 0), new DateTime(2021, 7, 12, 16, 0), getEmployee("employee2"), false);
+        assertTrue(accept(shift1, shift2));
+    }
+
+    @Test
+    public void testSwapWithUnallocatedShiftAccepted(){
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0), getEmployee("employee1"), false);
+        Shift shift2 = new Shift("shift2", "online", new DateTime(2021, 7, 12, 14, 0), new DateTime(2021, 7, 12, 16, 0));
+        assertTrue(accept(shift1, shift2));
+    }
+
+    @Test
+    public void testDifferentTypeRejected(){
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0), getEmployee("employee1"), false);
+        Shift shift2 = new Shift("shift2", "in-person", new DateTime(2021, 7, 12, 14, 0), new DateTime(2021, 7, 12, 16, 0), getEmployee("employee2"), false);
+        assertFalse(accept(shift1, shift2));
+    }
+
+    @Test
+    public void testDifferentDayRejected(){
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0), getEmployee("employee1"), false);
+        Shift shift2 = new Shift("shift2", "online", new DateTime(2021, 7, 13, 14, 0), new DateTime(2021, 7, 13, 16, 0), getEmployee("employee2"), false);
+        assertFalse(accept(shift1, shift2));
+    }
+
+    @Test
+    public void testEmployeeUnavailableForOtherShiftRejected(){
+        // employee2 can't do the evening shift
+        Employee employee2 = new Employee("employee2", "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, null, 0);
+        employee2.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee2", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 12, 0)))));
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 12, 14, 0), new DateTime(2021, 7, 12, 16, 0), getEmployee("employee1"), false);
+        Shift shift2 = new Shift("shift2", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 11, 0), employee2, false);
+        assertFalse(accept(shift1, shift2));
+        assertFalse(accept(shift2, shift1));
+    }
+}
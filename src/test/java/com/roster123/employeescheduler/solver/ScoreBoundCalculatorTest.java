@@ -0,0 +1,172 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.optaplanner.core.api.score.ScoreManager;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+
+import com.roster123.employeescheduler.ClassMemberExposer;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class ScoreBoundCalculatorTest {
+    private static HardMediumSoftScore calculateBound(List<Shift> shifts, List<Employee> employees){
+        int[][] eligibleEmployees = FeasibilityAnalyser.getEligibleEmployees(shifts, employees);
+        FeasibilityReport report = new FeasibilityAnalyser(shifts, employees, eligibleEmployees).analyse();
+        return new ScoreBoundCalculator(shifts, employees, eligibleEmployees).calculateBound(report);
+    }
+
+    /**
+     * helper to score every allocation of the shifts which aren't pinned (including leaving them unallocated)
+     * @param shifts
+     * @param employees
+     * @return the scores
+     */
+    private static List<HardMediumSoftScore> getAllScores(List<Shift> shifts, List<Employee> employees){
+        ScoreManager<Allocations, HardMediumSoftScore> scoreManager = ScoreManager.<Allocations, HardMediumSoftScore>create(SolverFactory.create(AllocationsIncrementalScoreCalculatorTest.getSolverConfig(false)));
+        List<Shift> unpinnedShifts = new ArrayList<>();
+        for (Shift shift: shifts){
+            if (!shift.isPinned()){
+                unpinnedShifts.add(shift);
+            }
+        }
+        List<HardMediumSoftScore> scores = new ArrayList<>();
+        int allocationCount = (int)Math.pow(employees.size()+1, unpinnedShifts.size());
+        for (int allocation=0; allocation<allocationCount; allocation++){
+            int remaining = allocation;
+            for (Shift shift: unpinnedShifts){
+                int employeeIndex = remaining%(employees.size()+1);
+                remaining /= employees.size()+1;
+                shift.setEmployee(employeeIndex == employees.size()? null: employees.get(employeeIndex));
+            }
+            scores.add(scoreManager.updateScore(new Allocations(shifts, employees)));
+        }
+        return scores;
+    }
+
+    @Test
+    public void testImpossibleExampleHardBound() throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample("example2_impossible_example");
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(allocations, "employees");
+        // 3 shifts nobody is available for
+        assertEquals(HardMediumSoftScore.ofHard(-3), calculateBound(allocations.getShifts(), employees));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings={"example1_significant_working_example", "example3_trivial_working_example", "example4_simple_working_example",
+                          "example5_simpler_working_example", "example6_even_simpler_working_example", "example7_complex_example"})
+    public void testWorkingExamplesBoundNotAboveZero(String inputFolderName) throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample(inputFolderName);
+        List<Employee> employees = ClassMemberExposer.getFieldValueByName(allocations, "employees");
+        HardMediumSoftScore bound = calculateBound(allocations.getShifts(), employees);
+        assertEquals(0, bound.getHardScore());
+        assertTrue(bound.compareTo(HardMediumSoftScore.ZERO) <= 0);
+    }
+
+    @Test
+    public void testShortfallsCountedOnce(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", 1, null, 0);
+        // 3 shifts at the same time, so at least 2 can't be covered (even though the 2 sets of shifts at the same time overlap)
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 12, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 12, 0)),
+            new Shift("shift3", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 12, 0))));
+        List<Employee> employees = new ArrayList<>(Arrays.asList(employee));
+        HardMediumSoftScore bound = calculateBound(shifts, employees);
+        assertEquals(HardMediumSoftScore.ofHard(-2), bound);
+        assertEquals(bound, getAllScores(shifts, employees).stream().max(HardMediumSoftScore::compareTo).get());
+    }
+
+    @Test
+    public void testNoForcedShiftsNoPenalty(){
+        // either employee can do either shift, so neither has to work
+        List<Employee> employees = new ArrayList<>(Arrays.asList(SolverTestFixtures.getOnlineEmployee("employee1", 1, null, 3), SolverTestFixtures.getOnlineEmployee("employee2", 1, null, 3)));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 14, 0), new DateTime(2021, 7, 12, 15, 0))));
+        assertEquals(HardMediumSoftScore.ZERO, calculateBound(shifts, employees));
+    }
+
+    @Test
+    public void testPinnedShiftsGap(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", 2, null, 0);
+        List<Employee> employees = new ArrayList<>(Arrays.asList(employee, SolverTestFixtures.getOnlineEmployee("employee2", 1, null, 0)));
+        // 3.5 hour gap between the pinned shifts, which shift3 can fill 1 hour of (shift4 overlaps shift2, so can't)
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0), employee, true),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 13, 30), new DateTime(2021, 7, 12, 15, 0), employee, true),
+            new Shift("shift3", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 11, 0)),
+            new Shift("shift4", "online", new DateTime(2021, 7, 12, 13, 0), new DateTime(2021, 7, 12, 14, 0))));
+        // 2.5 hours rounded down, times importance
+        HardMediumSoftScore bound = calculateBound(shifts, employees);
+        assertEquals(HardMediumSoftScore.ofSoft(-4), bound);
+        assertEquals(bound, getAllScores(shifts, employees).stream().max(HardMediumSoftScore::compareTo).get());
+    }
+
+    @Test
+    public void testGapsOnDifferentDatesNotCounted(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", 1, null, 0);
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0), employee, true),
+            new Shift("shift2", "online", new DateTime(2021, 7, 13, 9, 0), new DateTime(2021, 7, 13, 10, 0), employee, true)));
+        assertEquals(HardMediumSoftScore.ZERO, calculateBound(shifts, new ArrayList<>(Arrays.asList(employee))));
+    }
+
+    @Test
+    public void testOnlyEmployeeAvailableMustWork(){
+        Employee employee1 = SolverTestFixtures.getOnlineEmployee("employee1", 3, null, 0);
+        // employee2 is only available for the morning
+        Employee employee2 = new Employee("employee2", "John Smith", "+61400789346", "John@noneistantemail21345654326.com", 1, null, 0);
+        employee2.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader("employee2", "online", new DateTime(2021, 7, 12, 8, 0), new DateTime(2021, 7, 12, 11, 0)))));
+        List<Employee> employees = new ArrayList<>(Arrays.asList(employee1, employee2));
+        // only employee1 can do the afternoon shifts, so they have a 1 hour gap
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0)),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 13, 0), new DateTime(2021, 7, 12, 14, 0)),
+            new Shift("shift3", "online", new DateTime(2021, 7, 12, 15, 0), new DateTime(2021, 7, 12, 16, 0))));
+        HardMediumSoftScore bound = calculateBound(shifts, employees);
+        assertEquals(HardMediumSoftScore.ofSoft(-3), bound);
+        assertEquals(bound, getAllScores(shifts, employees).stream().max(HardMediumSoftScore::compareTo).get());
+    }
+
+    @Test
+    public void testUnreachableMinimumWeeklyShifts(){
+        Employee employee = SolverTestFixtures.getOnlineEmployee("employee1", 2, null, 4);
+        List<Employee> employees = new ArrayList<>(Arrays.asList(employee, SolverTestFixtures.getOnlineEmployee("employee2", 1, null, 0)));
+        // employee1 must work in the week, but there are only 2 shifts in it, so are at least 2 below their minimum
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0), employee, true),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 10, 0), new DateTime(2021, 7, 12, 11, 0))));
+        HardMediumSoftScore bound = calculateBound(shifts, employees);
+        assertEquals(HardMediumSoftScore.ofMedium(-4), bound);
+        assertEquals(bound, getAllScores(shifts, employees).stream().max(HardMediumSoftScore::compareTo).get());
+    }
+
+    @Test
+    public void testBoundNotBeatenByAnyAllocation(){
+        Employee employee1 = SolverTestFixtures.getOnlineEmployee("employee1", 2, null, 3);
+        Employee employee2 = SolverTestFixtures.getOnlineEmployee("employee2", 1, null, 2);
+        List<Employee> employees = new ArrayList<>(Arrays.asList(employee1, employee2));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(
+            new Shift("shift1", "online", new DateTime(2021, 7, 12, 9, 0), new DateTime(2021, 7, 12, 10, 0), employee1, true),
+            new Shift("shift2", "online", new DateTime(2021, 7, 12, 9, 30), new DateTime(2021, 7, 12, 11, 0)),
+            new Shift("shift3", "online", new DateTime(2021, 7, 12, 12, 0), new DateTime(2021, 7, 12, 13, 0), employee2, true),
+            new Shift("shift4", "online", new DateTime(2021, 7, 12, 16, 0), new DateTime(2021, 7, 12, 17, 0), employee2, true),
+            new Shift("shift5", "online", new DateTime(2021, 7, 13, 9, 0), new DateTime(2021, 7, 13, 12, 0))));
+        HardMediumSoftScore bound = calculateBound(shifts, employees);
+        for (HardMediumSoftScore score: getAllScores(shifts, employees)){
+            assertTrue(score.compareTo(bound) <= 0);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.roster123.employeescheduler.solver;
+
+import org.optaplanner.core.api.solver.Solver;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+import org.optaplanner.core.impl.solver.DefaultSolver;
+
+import com.roster123.employeescheduler.domain.*;
+
+/**
+ * compares the score calculation speed of AllocationsConstraintProvider and AllocationsIncrementalScoreCalculator, by solving the same example with each for the same time.
+ * 
+ * Run with gradle benchmarkScoreCalculation, optionally with the example folder name and the number of seconds to spend on each engine as arguments
+ */
+public class ScoreCalculationSpeedBenchmark {
+    private static final String DEFAULT_EXAMPLE = "example7_complex_example";
+    private static final long DEFAULT_SECONDS_PER_ENGINE = 30L;
+
+    public static void main(String []args) throws Exception{
+        String inputFolderName = args.length > 0? args[0]: DEFAULT_EXAMPLE;
+        long secondsPerEngine = args.length > 1? Long.parseLong(args[1]): DEFAULT_SECONDS_PER_ENGINE;
+
+        // warm up the JIT for both engines first, so neither is disadvantaged by running first
+        for (boolean incremental: new boolean[]{false, true}){
+            runEngine(inputFolderName, incremental, Math.max(1L, secondsPerEngine/5));
+        }
+        for (boolean incremental: new boolean[]{false, true}){
+            DefaultSolver<Allocations> solver = runEngine(inputFolderName, incremental, secondsPerEngine);
+            System.out.println((incremental? "AllocationsIncrementalScoreCalculator": "AllocationsConstraintProvider")+
+                ": "+solver.getSolverScope().getScoreCalculationCount()+" score calculations in "+solver.getTimeMillisSpent()+"ms ("+
+                solver.getSolverScope().getScoreCalculationSpeed()+"/s), best score "+solver.getSolverScope().getBestScore());
+        }
+    }
+
+    /**
+     * solve the example with one of the score engines
+     * @param inputFolderName name of the example folder in CSVs_command_line
+     * @param incremental whether to use AllocationsIncrementalScoreCalculator rather than AllocationsConstraintProvider
+     * @param seconds seconds to spend solving
+     * @return the solver after solving (holding the statistics of the run)
+     * @throws Exception
+     */
+    private static DefaultSolver<Allocations> runEngine(String inputFolderName, boolean incremental, long seconds) throws Exception{
+        SolverConfig solverConfig = AllocationsIncrementalScoreCalculatorTest.getSolverConfig(incremental)
+            .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(seconds));
+        Solver<Allocations> solver = SolverFactory.<Allocations>create(solverConfig).buildSolver();
+        solver.solve(AllocationsIncrementalScoreCalculatorTest.loadExample(inputFolderName));
+        return (DefaultSolver<Allocations>) solver;
+    }
+}
@@ -0,0 +1,80 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import com.roster123.employeescheduler.domain.*;
+
+public class SolverPortfolioTest {
+    /**
+     * helper to get the solver config from the config file, spending the given number of seconds
+     * @param seconds
+     * @return solver config
+     */
+    private static SolverConfig getSolverConfig(long seconds){
+        return AllocationsIncrementalScoreCalculatorTest.getSolverConfig(false)
+            .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(seconds));
+    }
+
+    private static HardMediumSoftScore getScoreBound(Allocations allocations){
+        FeasibilityReport report = new FeasibilityAnalyser(allocations.getShifts(), allocations.getEmployees()).analyse();
+        return new ScoreBoundCalculator(allocations.getShifts(), allocations.getEmployees()).calculateBound(report);
+    }
+
+    @Test
+    public void testMembersVaried(){
+        SolverPortfolio solverPortfolio = new SolverPortfolio(getSolverConfig(10L), 5, HardMediumSoftScore.ZERO);
+        assertEquals(Arrays.asList("LATE_ACCEPTANCE (seed 0)", "GREAT_DELUGE (seed 1)", "HILL_CLIMBING (seed 2)", "LATE_ACCEPTANCE (seed 3)", "GREAT_DELUGE (seed 4)"),
+            solverPortfolio.getMemberDescriptions());
+        assertEquals(-1, solverPortfolio.getBestMemberIndex());
+    }
+
+    @Test
+    public void testBestAllocationReturnedWithoutChangingInput() throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample("example7_complex_example");
+        // start from a matching, as allocateShifts does
+        new MatchingInitialiser(allocations.getShifts(), allocations.getEmployees()).initialise();
+        SolverPortfolio solverPortfolio = new SolverPortfolio(getSolverConfig(10L), 2, getScoreBound(allocations));
+        List<HardMediumSoftScore> bestScores = Collections.synchronizedList(new ArrayList<>());
+        solverPortfolio.addEventListener(event -> bestScores.add(event.getNewBestSolution().getScore()));
+        List<Employee> startingEmployees = allocations.getShifts().stream().map(Shift::getEmployee).collect(Collectors.toList());
+
+        Allocations solvedAllocations = solverPortfolio.solve(allocations);
+        assertTrue(solvedAllocations.getScore().isFeasible());
+        // each member solves its own copy of the shifts
+        assertEquals(startingEmployees, allocations.getShifts().stream().map(Shift::getEmployee).collect(Collectors.toList()));
+        assertEquals(allocations.getShifts().size(), solvedAllocations.getShifts().size());
+
+        // only improvements across all members are passed on
+        assertFalse(bestScores.isEmpty());
+        for (int i=1; i<bestScores.size(); i++){
+            assertTrue(bestScores.get(i).compareTo(bestScores.get(i-1)) > 0);
+        }
+        assertEquals(bestScores.get(bestScores.size()-1), solvedAllocations.getScore());
+        assertTrue(solverPortfolio.getBestMemberIndex() >= 0);
+    }
+
+    @Test
+    public void testAllMembersStopWhenScoreBoundReached() throws Exception{
+        Allocations allocations = AllocationsIncrementalScoreCalculatorTest.loadExample("example5_simpler_working_example");
+        HardMediumSoftScore scoreBound = getScoreBound(allocations);
+        // the members' own termination is a minute, but they stop once any member reaches the bound
+        SolverPortfolio solverPortfolio = new SolverPortfolio(getSolverConfig(60L), 3, scoreBound);
+        long startMillis = System.currentTimeMillis();
+        Allocations solvedAllocations = solverPortfolio.solve(allocations);
+        assertTrue(System.currentTimeMillis()-startMillis < 30000);
+        assertEquals(scoreBound, solvedAllocations.getScore());
+    }
+}
@@ -0,0 +1,80 @@
+package com.roster123.employeescheduler.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.joda.time.DateTime;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.impl.score.director.InnerScoreDirector;
+import org.optaplanner.core.impl.solver.DefaultSolverFactory;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+/**
+ * employees, shifts and score directors shared by the solver tests
+ */
+class SolverTestFixtures {
+    /**
+     * helper to create an employee available for online shifts all of the week of 12/07/2021
+     * @param employeeId
+     * @param importance
+     * @param maxWeeklyShifts
+     * @param minWeeklyShifts
+     * @return employee
+     */
+    static Employee getOnlineEmployee(String employeeId, int importance, Integer maxWeeklyShifts, int minWeeklyShifts){
+        Employee employee = new Employee(employeeId, "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", importance, maxWeeklyShifts, minWeeklyShifts);
+        employee.addAvailabilities(new ArrayList<>(Arrays.asList(new AvailabilityLoader(employeeId, "online", new DateTime(2021, 7, 12, 0, 0), new DateTime(2021, 7, 19, 0, 0)))));
+        return employee;
+    }
+
+    /**
+     * helper to create an employee available for online shifts all of the week of 12/07/2021, with no importance or minimum weekly shifts
+     * @param employeeId
+     * @param maxWeeklyShifts
+     * @return employee
+     */
+    static Employee getOnlineEmployee(String employeeId, Integer maxWeeklyShifts){
+        return getOnlineEmployee(employeeId, 0, maxWeeklyShifts, 0);
+    }
+
+    /**
+     * helper to create an unallocated online shift from 10 to 12 on the day
+     * @param shiftId
+     * @param day day of July 2021
+     * @return shift
+     */
+    static Shift getShift(String shiftId, int day){
+        return new Shift(shiftId, "online", new DateTime(2021, 7, day, 10, 0), new DateTime(2021, 7, day, 12, 0));
+    }
+
+    /**
+     * helper to create an online shift from 10 to 12 on the day
+     * @param shiftId
+     * @param day day of July 2021
+     * @param employee the allocated employee, or null for unallocated
+     * @param pinned
+     * @return shift
+     */
+    static Shift getShift(String shiftId, int day, Employee employee, boolean pinned){
+        if (employee == null){
+            return getShift(shiftId, day);
+        }
+        return new Shift(shiftId, "online", new DateTime(2021, 7, day, 10, 0), new DateTime(2021, 7, day, 12, 0), employee, pinned);
+    }
+
+    /**
+     * helper to get a score director (scoring with AllocationsConstraintProvider) working on the allocations
+     * @param allocations
+     * @return score director
+     */
+    @SuppressWarnings("unchecked")
+    static InnerScoreDirector<Allocations, HardMediumSoftScore> getScoreDirector(Allocations allocations){
+        DefaultSolverFactory<Allocations> solverFactory = (DefaultSolverFactory<Allocations>)SolverFactory.<Allocations>create(AllocationsIncrementalScoreCalculatorTest.getSolverConfig(false));
+        InnerScoreDirector<Allocations, HardMediumSoftScore> scoreDirector = (InnerScoreDirector<Allocations, HardMediumSoftScore>)solverFactory.getScoreDirectorFactory().buildScoreDirector();
+        scoreDirector.setWorkingSolution(allocations);
+        return scoreDirector;
+    }
+}
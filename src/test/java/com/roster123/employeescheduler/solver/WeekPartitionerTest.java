@@ -0,0 +1,104 @@
+package com.roster123.employeescheduler.solver;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.optaplanner.core.api.score.buildin.hardmediumsoft.HardMediumSoftScore;
+import org.optaplanner.core.api.solver.SolverFactory;
+import org.optaplanner.core.config.constructionheuristic.ConstructionHeuristicPhaseConfig;
+import org.optaplanner.core.config.localsearch.LocalSearchPhaseConfig;
+import org.optaplanner.core.config.partitionedsearch.PartitionedSearchPhaseConfig;
+import org.optaplanner.core.config.phase.PhaseConfig;
+import org.optaplanner.core.config.solver.SolverConfig;
+import org.optaplanner.core.config.solver.termination.TerminationConfig;
+
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.loaders.AvailabilityLoader;
+
+public class WeekPartitionerTest {
+    /**
+     * helper to create an employee available for online shifts from 9 to 17 every day in July 2021
+     * @param employeeId
+     * @param minWeeklyShifts
+     * @return employee
+     */
+    private static Employee getEmployee(String employeeId, int minWeeklyShifts){
+        Employee employee = new Employee(employeeId, "Bob Smith", "+61400789345", "Bob@noneistantemail21345654326.com", 1, 3, minWeeklyShifts);
+        List<AvailabilityLoader> availabilities = new ArrayList<>();
+        for (int day=1; day<=31; day++){
+            availabilities.add(new AvailabilityLoader(employeeId, "online", new DateTime(2021, 7, day, 9, 0), new DateTime(2021, 7, day, 17, 0)));
+        }
+        employee.addAvailabilities(availabilities);
+        return employee;
+    }
+
+    private static List<Allocations> split(Allocations allocations){
+        return new WeekPartitioner().splitWorkingSolution(SolverTestFixtures.getScoreDirector(allocations), null);
+    }
+
+    @Test
+    public void testSplitByWeek(){
+        Employee employee1 = getEmployee("employee1", 0);
+        Shift pinnedShift = new Shift("pinned", "online", new DateTime(2021, 7, 20, 10, 0), new DateTime(2021, 7, 20, 12, 0), employee1, true);
+        // Sunday night to Monday morning, in 2 weeks
+        Shift overnightShift = new Shift("overnight", "online", new DateTime(2021, 7, 18, 23, 0), new DateTime(2021, 7, 19, 1, 0));
+        List<Shift> shifts = new ArrayList<>(Arrays.asList(SolverTestFixtures.getShift("shift1", 19), SolverTestFixtures.getShift("shift2", 12), SolverTestFixtures.getShift("shift3", 13), pinnedShift, overnightShift));
+        List<Allocations> parts = split(new Allocations(shifts, new ArrayList<>(Arrays.asList(employee1))));
+
+        assertEquals(2, parts.size());
+        assertEquals(Arrays.asList("shift2", "shift3", "overnight"), Arrays.asList(parts.get(0).getShifts().stream().map(Shift::getShiftId).toArray()));
+        assertEquals(Arrays.asList("shift1", "pinned"), Arrays.asList(parts.get(1).getShifts().stream().map(Shift::getShiftId).toArray()));
+        // copies, with the same employees and pinning
+        Shift pinnedShiftCopy = parts.get(1).getShifts().get(1);
+        assertNotSame(pinnedShift, pinnedShiftCopy);
+        assertEquals(pinnedShift, pinnedShiftCopy);
+        assertEquals(Arrays.asList(employee1), parts.get(1).getEmployees());
+        assertEquals(2, WeekPartitioner.getPartCount(shifts));
+    }
+
+    @Test
+    public void testPhases(){
+        LocalSearchPhaseConfig localSearchPhaseConfig = new LocalSearchPhaseConfig();
+        List<PhaseConfig> phaseConfigs = WeekPartitioner.getPhaseConfigList(localSearchPhaseConfig);
+        assertEquals(3, phaseConfigs.size());
+        assertTrue(phaseConfigs.get(0) instanceof ConstructionHeuristicPhaseConfig);
+        PartitionedSearchPhaseConfig partitionedSearchPhaseConfig = (PartitionedSearchPhaseConfig)phaseConfigs.get(1);
+        assertEquals(WeekPartitioner.class, partitionedSearchPhaseConfig.getSolutionPartitionerClass());
+        // each week stops once it stops improving, leaving time for the final search of all the shifts
+        assertTrue(((LocalSearchPhaseConfig)partitionedSearchPhaseConfig.getPhaseConfigList().get(1)).getTerminationConfig().getUnimprovedSecondsSpentLimit() > 0);
+        assertTrue(phaseConfigs.get(2) instanceof LocalSearchPhaseConfig);
+        assertEquals(null, localSearchPhaseConfig.getTerminationConfig());
+    }
+
+    @Test
+    public void testSolveByWeek(){
+        // 3 weeks of 4 shifts a day, for 4 employees who each want at least 3 shifts a week (at most 3)
+        List<Employee> employees = new ArrayList<>();
+        for (int i=1; i<=4; i++){
+            employees.add(getEmployee("employee"+i, 3));
+        }
+        List<Shift> shifts = new ArrayList<>();
+        for (int week=0; week<3; week++){
+            for (int day=12; day<=14; day++){
+                for (int i=0; i<4; i++){
+                    shifts.add(SolverTestFixtures.getShift("shift"+week+"_"+day+"_"+i, day+7*week));
+                }
+            }
+        }
+        SolverConfig solverConfig = AllocationsIncrementalScoreCalculatorTest.getSolverConfig(false)
+            .withTerminationConfig(new TerminationConfig().withSecondsSpentLimit(20L).withBestScoreLimit("0hard/0medium/0soft"));
+        LocalSearchPhaseConfig localSearchPhaseConfig = (LocalSearchPhaseConfig)solverConfig.getPhaseConfigList().get(1);
+        solverConfig.setPhaseConfigList(WeekPartitioner.getPhaseConfigList(localSearchPhaseConfig));
+
+        Allocations solvedAllocations = SolverFactory.<Allocations>create(solverConfig).buildSolver().solve(new Allocations(shifts, employees));
+        assertEquals(HardMediumSoftScore.ZERO, solvedAllocations.getScore());
+        assertTrue(solvedAllocations.getShifts().stream().allMatch(Shift::isAllocated));
+    }
+}
@@ -0,0 +1,81 @@
+package com.roster123.employeescheduler.writers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.javatuples.Triplet;
+
+import com.roster123.employeescheduler.ClassMemberExposer;
+import com.roster123.employeescheduler.EmployeeSchedulingSystem;
+import com.roster123.employeescheduler.domain.*;
+import com.roster123.employeescheduler.exceptions.*;
+
+public class AllocationsCsvWriterTest {
+    @TempDir
+    Path temporaryFolder;
+
+    /**
+     * get shifts allocated to an employee
+     */
+    private List<Shift> getAllocatedShifts() throws IllegalArgumentException, IllegalAccessException{
+        Employee employee = new Employee("cat123", "Bob Smith", "+61400578921", "someemail@email.com", 0, null, 0);
+        Shift shift1 = new Shift("shift1", "online", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 11, 0));
+        Shift shift2 = new Shift("shift2", "in-person", new DateTime(2021, 7, 4, 9, 30), new DateTime(2021, 7, 4, 17, 0));
+        ClassMemberExposer.setFieldValueByName(shift1, "employee", employee);
+        ClassMemberExposer.setFieldValueByName(shift2, "employee", employee);
+        return Arrays.asList(shift1, shift2);
+    }
+
+    @Test
+    public void testWriteAllocationsToCsv() throws IOException, IllegalArgumentException, IllegalAccessException{
+        Path path = temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv");
+        AllocationsCsvWriter.writeAllocationsToCsv(getAllocatedShifts(), path);
+        assertEquals(Arrays.asList(
+            "shiftId,employeeId,start,end,type",
+            "shift1,cat123,3/07/2021 9:00,3/07/2021 11:00,online",
+            "shift2,cat123,4/07/2021 9:30,4/07/2021 17:00,in-person"), Files.readAllLines(path));
+    }
+
+    @Test
+    public void testWriteAllocationsToCsvAtomicallyReplacesFile() throws IOException, IllegalArgumentException, IllegalAccessException{
+        Path path = temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv");
+        Files.writeString(path, "old contents");
+        AllocationsCsvWriter.writeAllocationsToCsvAtomically(getAllocatedShifts(), path);
+        assertEquals(3, Files.readAllLines(path).size());
+
+        // no temporary files should be left over
+        try (Stream<Path> files = Files.list(temporaryFolder)){
+            assertEquals(Arrays.asList(path), files.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testStreamingWritesFeasibleAllocationAndSidecar() throws IOException, DuplicatePlanningIdException, StartAfterEndException, CsvInputInvalidException, AvailabilityEmployeeIdNotMatchingAnyEmployeeException{
+        Path commandLineCsvFolder = EmployeeSchedulingSystem.getPathOfCsvFolder("CSVs_command_line").resolve("example6_even_simpler_working_example");
+        Triplet<String, String, String> csvData = EmployeeSchedulingSystem.getDataFromFiles(commandLineCsvFolder);
+        EmployeeSchedulingSystem employeeSchedulingSystem = new EmployeeSchedulingSystem();
+        employeeSchedulingSystem.processEmployeesInformationAndAvailabilityCSVs(csvData.getValue1(), csvData.getValue0());
+        employeeSchedulingSystem.processShiftsCsv(csvData.getValue2());
+
+        Path path = temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv");
+        employeeSchedulingSystem.setBestSolutionStreamingPath(path);
+        assertTrue(employeeSchedulingSystem.allocateShifts(10L).isFeasible());
+
+        // header and 2 shifts
+        assertEquals(3, Files.readAllLines(path).size());
+        List<String> sidecarLines = Files.readAllLines(temporaryFolder.resolve("ALLOCATIONS_OUTPUT.csv.score"));
+        assertTrue(sidecarLines.get(0).startsWith("score=0hard/0medium/"));
+        assertTrue(sidecarLines.get(1).startsWith("timestamp="));
+    }
+}
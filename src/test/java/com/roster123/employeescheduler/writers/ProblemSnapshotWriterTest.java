@@ -0,0 +1,49 @@
+package com.roster123.employeescheduler.writers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.joda.time.DateTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.roster123.employeescheduler.domain.*;
+
+public class ProblemSnapshotWriterTest {
+    @TempDir
+    Path temporaryFolder;
+
+    @Test
+    public void testHeader() throws IOException{
+        Path path = temporaryFolder.resolve("problem.snapshot");
+        ProblemSnapshotWriter.writeSnapshot(new ArrayList<>(), new ArrayList<>(), path);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        assertEquals(ProblemSnapshotWriter.MAGIC, buffer.getInt());
+        assertEquals(ProblemSnapshotWriter.VERSION, buffer.getInt());
+        // no strings, employees or shifts
+        assertEquals(0, buffer.getInt());
+        assertEquals(0, buffer.getInt());
+        assertEquals(0, buffer.getInt());
+        assertEquals(0, buffer.remaining());
+    }
+
+    @Test
+    public void testRepeatedStringsWrittenOnce() throws IOException{
+        List<Shift> shifts = new ArrayList<>();
+        for (int i=0; i<100; i++){
+            shifts.add(new Shift("shift"+i, "a-long-shift-type-repeated-for-every-shift", new DateTime(2021, 7, 3, 9, 0), new DateTime(2021, 7, 3, 11, 0)));
+        }
+        Path path = temporaryFolder.resolve("problem.snapshot");
+        ProblemSnapshotWriter.writeSnapshot(new ArrayList<>(), shifts, path);
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        buffer.position(8);
+        // the 100 shift ids, the type and the time zone
+        assertEquals(102, buffer.getInt());
+    }
+}